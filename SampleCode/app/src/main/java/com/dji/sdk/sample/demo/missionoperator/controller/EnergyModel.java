@@ -0,0 +1,261 @@
+// ==========================================
+// EnergyModel.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.CoordinateUtils;
+
+/**
+ * Estimates flight time and battery energy for a {@link WaypointPlan}.
+ *
+ * Each leg takes the longer of its horizontal time at cruise speed and its
+ * vertical time at the climb or descent rate. Horizontal flight is charged at
+ * cruise power, the rest of the leg at hover power, and climbing adds a fixed
+ * extra power. Every waypoint costs a stop (the mission flies in NORMAL path
+ * mode) and photo waypoints add the gimbal, shutter and review dwell, both at
+ * hover power. The return is modelled like GO_HOME: climb to the return
+ * altitude if below it, fly home, descend and land.
+ *
+ * The class has no Android dependencies so its parameters can be fitted
+ * against recorded flight logs on a desktop JVM.
+ */
+public class EnergyModel {
+    private final double cruiseSpeed;           // m/s
+    private final double climbRate;             // m/s
+    private final double descentRate;           // m/s
+    private final double hoverPower;            // W
+    private final double cruisePower;           // W at cruise speed
+    private final double climbPower;            // W on top of hover while climbing
+    private final double waypointStopSeconds;   // Braking and accelerating at each waypoint
+    private final double photoDwellSeconds;     // Gimbal, shutter and review at photo waypoints
+    private final double takeoffLandingSeconds; // Motor spin-up, takeoff and landing overhead
+    private final double returnAltitude;        // meters above takeoff
+
+    private EnergyModel(Builder builder) {
+        this.cruiseSpeed = builder.cruiseSpeed;
+        this.climbRate = builder.climbRate;
+        this.descentRate = builder.descentRate;
+        this.hoverPower = builder.hoverPower;
+        this.cruisePower = builder.cruisePower;
+        this.climbPower = builder.climbPower;
+        this.waypointStopSeconds = builder.waypointStopSeconds;
+        this.photoDwellSeconds = builder.photoDwellSeconds;
+        this.takeoffLandingSeconds = builder.takeoffLandingSeconds;
+        this.returnAltitude = builder.returnAltitude;
+    }
+
+    /**
+     * Defaults describe a Phantom 4 class aircraft flying the mission speed.
+     */
+    public static class Builder {
+        private double cruiseSpeed = Constants.DEFAULT_SPEED;
+        private double climbRate = 3.0;
+        private double descentRate = 2.0;
+        private double hoverPower = 180;
+        private double cruisePower = 170;
+        private double climbPower = 60;
+        private double waypointStopSeconds = 2.0;
+        private double photoDwellSeconds = 2.0 + Constants.PHOTO_REVIEW_TIMEOUT / 1000.0;
+        private double takeoffLandingSeconds = 20;
+        private double returnAltitude = Constants.SAFETY_ALTITUDE;
+
+        public Builder setCruiseSpeed(double cruiseSpeed) {
+            this.cruiseSpeed = positive(cruiseSpeed, "Cruise speed");
+            return this;
+        }
+
+        public Builder setClimbRate(double climbRate) {
+            this.climbRate = positive(climbRate, "Climb rate");
+            return this;
+        }
+
+        public Builder setDescentRate(double descentRate) {
+            this.descentRate = positive(descentRate, "Descent rate");
+            return this;
+        }
+
+        public Builder setHoverPower(double hoverPower) {
+            this.hoverPower = positive(hoverPower, "Hover power");
+            return this;
+        }
+
+        public Builder setCruisePower(double cruisePower) {
+            this.cruisePower = positive(cruisePower, "Cruise power");
+            return this;
+        }
+
+        public Builder setClimbPower(double climbPower) {
+            this.climbPower = Math.max(0, climbPower);
+            return this;
+        }
+
+        public Builder setWaypointStopSeconds(double waypointStopSeconds) {
+            this.waypointStopSeconds = Math.max(0, waypointStopSeconds);
+            return this;
+        }
+
+        public Builder setPhotoDwellSeconds(double photoDwellSeconds) {
+            this.photoDwellSeconds = Math.max(0, photoDwellSeconds);
+            return this;
+        }
+
+        public Builder setTakeoffLandingSeconds(double takeoffLandingSeconds) {
+            this.takeoffLandingSeconds = Math.max(0, takeoffLandingSeconds);
+            return this;
+        }
+
+        public Builder setReturnAltitude(double returnAltitude) {
+            this.returnAltitude = Math.max(0, returnAltitude);
+            return this;
+        }
+
+        public EnergyModel build() {
+            return new EnergyModel(this);
+        }
+
+        private static double positive(double value, String name) {
+            if (!(value > 0)) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+            return value;
+        }
+    }
+
+    public static class Estimate {
+        private final double seconds;
+        private final double energyWh;
+
+        public Estimate(double seconds, double energyWh) {
+            this.seconds = seconds;
+            this.energyWh = energyWh;
+        }
+
+        public double getSeconds() { return seconds; }
+        public double getEnergyWh() { return energyWh; }
+
+        /** Share of a battery of the given capacity, in percent. */
+        public double getBatteryPercent(double capacityWh) {
+            return capacityWh > 0 ? 100 * energyWh / capacityWh : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f min, %.1f Wh", seconds / 60, energyWh);
+        }
+    }
+
+    // ==========================================
+    // LEGS AND WAYPOINTS
+    // ==========================================
+
+    /**
+     * @param climbMeters altitude change, negative when descending
+     */
+    public double legSeconds(double horizontalMeters, double climbMeters) {
+        double horizontal = horizontalMeters / cruiseSpeed;
+        double vertical = climbMeters >= 0 ? climbMeters / climbRate : -climbMeters / descentRate;
+        return Math.max(horizontal, vertical);
+    }
+
+    public double legEnergyWh(double horizontalMeters, double climbMeters) {
+        double horizontal = horizontalMeters / cruiseSpeed;
+        double total = legSeconds(horizontalMeters, climbMeters);
+        double climbing = climbMeters > 0 ? climbMeters / climbRate : 0;
+        return (cruisePower * horizontal + hoverPower * (total - horizontal) + climbPower * climbing) / 3600;
+    }
+
+    /** Time spent at a waypoint: the stop, plus the dwell for photo waypoints. */
+    public double waypointSeconds(WaypointPlan plan, int row) {
+        return plan.isPhoto(row) ? waypointStopSeconds + photoDwellSeconds : waypointStopSeconds;
+    }
+
+    public double waypointEnergyWh(WaypointPlan plan, int row) {
+        return hoverPower * waypointSeconds(plan, row) / 3600;
+    }
+
+    /** Leg from row {@code from} to row {@code to}, including the time spent at {@code to}. */
+    public double stepSeconds(WaypointPlan plan, int from, int to) {
+        return legSeconds(horizontalDistance(plan, from, to), plan.getAltitude(to) - plan.getAltitude(from))
+                + waypointSeconds(plan, to);
+    }
+
+    public double stepEnergyWh(WaypointPlan plan, int from, int to) {
+        return legEnergyWh(horizontalDistance(plan, from, to), plan.getAltitude(to) - plan.getAltitude(from))
+                + waypointEnergyWh(plan, to);
+    }
+
+    // ==========================================
+    // TAKEOFF AND RETURN
+    // ==========================================
+
+    /** Takeoff from home and flight to {@code row}, including the time spent there. */
+    public double outboundSeconds(WaypointPlan plan, int row, double homeLatitude, double homeLongitude) {
+        return takeoffLandingSeconds / 2
+                + legSeconds(distanceFromHome(plan, row, homeLatitude, homeLongitude), plan.getAltitude(row))
+                + waypointSeconds(plan, row);
+    }
+
+    public double outboundEnergyWh(WaypointPlan plan, int row, double homeLatitude, double homeLongitude) {
+        return hoverPower * takeoffLandingSeconds / 2 / 3600
+                + legEnergyWh(distanceFromHome(plan, row, homeLatitude, homeLongitude), plan.getAltitude(row))
+                + waypointEnergyWh(plan, row);
+    }
+
+    /** Return home from {@code row} and landing. */
+    public double returnSeconds(WaypointPlan plan, int row, double homeLatitude, double homeLongitude) {
+        double altitude = plan.getAltitude(row);
+        double cruiseAltitude = Math.max(altitude, returnAltitude);
+        return takeoffLandingSeconds / 2
+                + legSeconds(0, cruiseAltitude - altitude)
+                + legSeconds(distanceFromHome(plan, row, homeLatitude, homeLongitude), 0)
+                + legSeconds(0, -cruiseAltitude);
+    }
+
+    public double returnEnergyWh(WaypointPlan plan, int row, double homeLatitude, double homeLongitude) {
+        double altitude = plan.getAltitude(row);
+        double cruiseAltitude = Math.max(altitude, returnAltitude);
+        return hoverPower * takeoffLandingSeconds / 2 / 3600
+                + legEnergyWh(0, cruiseAltitude - altitude)
+                + legEnergyWh(distanceFromHome(plan, row, homeLatitude, homeLongitude), 0)
+                + legEnergyWh(0, -cruiseAltitude);
+    }
+
+    /**
+     * Whole flight: takeoff, every row of the plan in order, return and landing.
+     */
+    public Estimate estimate(WaypointPlan plan, double homeLatitude, double homeLongitude) {
+        int size = plan.size();
+        if (size == 0) {
+            return new Estimate(0, 0);
+        }
+
+        double seconds = outboundSeconds(plan, 0, homeLatitude, homeLongitude);
+        double energy = outboundEnergyWh(plan, 0, homeLatitude, homeLongitude);
+        for (int i = 1; i < size; i++) {
+            seconds += stepSeconds(plan, i - 1, i);
+            energy += stepEnergyWh(plan, i - 1, i);
+        }
+        seconds += returnSeconds(plan, size - 1, homeLatitude, homeLongitude);
+        energy += returnEnergyWh(plan, size - 1, homeLatitude, homeLongitude);
+        return new Estimate(seconds, energy);
+    }
+
+    private static double horizontalDistance(WaypointPlan plan, int from, int to) {
+        return CoordinateUtils.calculateDistance(plan.getLatitude(from), plan.getLongitude(from),
+                plan.getLatitude(to), plan.getLongitude(to));
+    }
+
+    private static double distanceFromHome(WaypointPlan plan, int row, double homeLatitude, double homeLongitude) {
+        return CoordinateUtils.calculateDistance(homeLatitude, homeLongitude,
+                plan.getLatitude(row), plan.getLongitude(row));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EnergyModel{speed=%.1f m/s, hover=%.0f W, cruise=%.0f W, climb=+%.0f W, " +
+                        "stop=%.1f s, photo=%.1f s}",
+                cruiseSpeed, hoverPower, cruisePower, climbPower, waypointStopSeconds, photoDwellSeconds);
+    }
+}
@@ -4,39 +4,142 @@ import android.content.Context;
 import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.net.Uri;
+import android.os.SystemClock;
 import android.provider.OpenableColumns;
 import android.util.Log;
 
-import com.dji.sdk.sample.demo.missionoperator.model.InspectionPoint;
-import com.dji.sdk.sample.demo.missionoperator.model.RelativePhotoPoint;
+import com.dji.sdk.sample.demo.missionoperator.model.MissionConfiguration;
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureDiff;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointTable;
+import com.dji.sdk.sample.demo.missionoperator.service.CsvFileImporter;
+import com.dji.sdk.sample.demo.missionoperator.service.CsvIngestEngine;
 import com.dji.sdk.sample.demo.missionoperator.service.FlightService;
 import com.dji.sdk.sample.demo.missionoperator.service.PhotoService;
+import com.dji.sdk.sample.demo.missionoperator.service.TelemetryRecorder;
+import com.dji.sdk.sample.demo.missionoperator.service.TerrainService;
+import com.dji.sdk.sample.demo.missionoperator.storage.MissionJournal;
+import com.dji.sdk.sample.demo.missionoperator.storage.MissionPackFile;
+import com.dji.sdk.sample.demo.missionoperator.utils.ConnectionManager;
 import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
 import com.dji.sdk.sample.demo.missionoperator.utils.ErrorHandler;
+import com.dji.sdk.sample.demo.missionoperator.utils.GeofenceIndex;
+import com.dji.sdk.sample.demo.missionoperator.utils.StructureSpatialIndex;
+import com.dji.sdk.sample.demo.missionoperator.utils.ValidationUtils;
 
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.Reader;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import dji.common.error.DJIError;
-import dji.common.mission.waypoint.WaypointMission;
 import dji.common.util.CommonCallbacks;
 
 public class MissionController {
     private static final String TAG = "MissionController";
+    private static final String MISSION_PACK_DIRECTORY = "mission_packs";
+    private static final String TERRAIN_DIRECTORY = "terrain";
+    private static final String GEOFENCE_DIRECTORY = "geofences";
+    private static final String JOURNAL_FILE = "mission.plmj";
+    private static final double STRUCTURE_PROXIMITY_RADIUS = 50.0; // meters
+    private static final int MAX_EVALUATION_WORKERS = 4;
+    private static final double PHOTO_CAPTURE_SECONDS = 2.0;    // Dwell at a photo waypoint without review
 
     // Services
     private final FlightService flightService;
     private final PhotoService photoService;
     private final Context context;
+    private final MissionConfiguration configuration;
+    private final PhotoSequencePlanner photoSequencePlanner = new PhotoSequencePlanner();
+    private final ExecutorService planningExecutor = Executors.newSingleThreadExecutor();
+    private final PlanEvaluationService planEvaluator = new PlanEvaluationService(
+            Math.min(Runtime.getRuntime().availableProcessors(), MAX_EVALUATION_WORKERS));
+    private final android.os.Handler mainHandler = new android.os.Handler(android.os.Looper.getMainLooper());
 
     // Mission data
-    private List<InspectionPoint> inspectionPoints;
-    private List<RelativePhotoPoint> photoPoints;
-    private WaypointMission currentMission;
+    private StructureTable structures;
+    private PhotoTemplateTable photoTemplate;
+    private int[] photoOrder;                  // Flying order of the template, reversed at every other structure
+    private WaypointPlan currentPlan;
+    private boolean missionPackPending = false;
+
+    // Per-row state kept from the last import so re-imports only touch changed rows
+    private long[] structureHashes = new long[0];
+    private int[] structureIds = new int[0];   // Photo folder ID per row, stable across re-imports
+    private int nextStructureId = 1;
+
+    // Spatial lookup of the structure under the aircraft, queried from the flight controller thread
+    private volatile StructureSpatialIndex spatialIndex;
+    private volatile int nearestStructureIndex = -1;
+    private volatile double nearestStructureDistance = Double.MAX_VALUE;
+
+    // Optimized visiting order, reused while the structures and home point are unchanged
+    private StructureTable routeStructures;
+    private double routeHomeLatitude;
+    private double routeHomeLongitude;
+    private int[] routeOrder;
+    private boolean routePlanning = false;
+
+    // Route split into battery-sized sorties; the next one is flown on each start
+    private SortiePlanner.Result sortiePlan;
+    private StructureTable sortieStructures;
+    private PhotoTemplateTable sortieTemplate;
+    private int[] sortieRouteOrder;
+    private double sortieHomeLatitude;
+    private double sortieHomeLongitude;
+    private int currentSortie = 0;
+    private boolean sortieFlyThrough;
+    private float plannedSpeed = Constants.DEFAULT_SPEED;
+
+    // Scored plan variants; a start with unchanged inputs flies the best one
+    private PlanEvaluationService.Evaluation evaluation;
+    private int evaluationGeneration = 0;
+
+    // SRTM tiles for ground and transit altitudes. Ground altitudes are always filled from the
+    // table as imported, so a new takeoff reference re-fills every row the file left at 0
+    private TerrainService terrainService;
+    private StructureTable importedStructures;
+    private StructureTable terrainStructures;  // Structures as filled for terrainReference
+    private double terrainReference = Double.NaN;
+
+    // Restricted areas from the CSV files in the geofence directory, loaded on first start
+    private GeofenceIndex geofences;
+
+    // Fly-through review: photos are reviewed while the mission flies on and rejected
+    // positions are re-shot by a patch at the end of the sortie, before returning home
+    private PhotoReviewQueue reviewQueue;
+    private volatile boolean flyThroughActive = false;  // The running plan hovers at its end
+    private boolean reviewShowing = false;
+    private boolean holdingForReview = false;
+    private boolean flyingReshootPatch = false;
+    private boolean reshootPatchPending = false;       // Re-shoots left after the last sortie
+    private int reshotCount = 0;
+    private int[] missionRouteOrder;
+    private String sortieMessage;
+    private volatile double aircraftLatitude;
+    private volatile double aircraftLongitude;
+
+    // Journal of the plan being flown; a flight cut off by the app going down is offered on the next start
+    private final MissionJournal journal;
+    private MissionJournal.Replay interruptedMission;
+
+    // Pose of the aircraft and gimbal when a photo was taken, read on the flight callback threads
+    private final TelemetryRecorder.Snapshot photoTelemetry = new TelemetryRecorder.Snapshot(1);
+
+    // Time from a photo waypoint being reached to its photo on screen
+    private int photoLatencyCount;
+    private long totalPhotoLatencyMillis;
+    private long maxPhotoLatencyMillis;
 
     // Mission state
     private boolean missionInProgress = false;
@@ -58,10 +161,18 @@ public class MissionController {
         this.context = context;
         this.flightService = flightService;
         this.photoService = photoService;
-        this.inspectionPoints = new ArrayList<>();
-        this.photoPoints = new ArrayList<>();
+        this.configuration = new MissionConfiguration(context);
+        this.structures = new StructureTable();
+        this.importedStructures = structures;
+        this.photoTemplate = new PhotoTemplateTable();
+        this.terrainService = new TerrainService(context.getExternalFilesDir(TERRAIN_DIRECTORY));
+        this.journal = new MissionJournal(new File(context.getFilesDir(), JOURNAL_FILE));
 
         setupFlightServiceCallback();
+        if (flightService != null) {
+            flightService.setJournal(journal);
+        }
+        replayJournal();
     }
 
     public void setUiCallback(MissionControllerCallback callback) {
@@ -78,7 +189,15 @@ public class MissionController {
 
                 @Override
                 public void onMissionCompleted(boolean success, String message) {
+                    if (flyThroughActive) {
+                        // Review state lives on the main thread
+                        mainHandler.post(() -> onFlyThroughCompleted(success, message));
+                        return;
+                    }
                     missionInProgress = false;
+                    if (success && sortiePlan != null) {
+                        message = onSortieCompleted(message);
+                    }
                     if (uiCallback != null) {
                         uiCallback.onMissionCompleted(success, message);
                     }
@@ -105,10 +224,44 @@ public class MissionController {
 
                     currentStructureIndex = structureIndex;
                     currentPhotoIndex = photoIndex;
+                    logPhotoPosition(structureIndex, photoIndex);
+
+                    if (flyThroughActive) {
+                        long reachedAt = SystemClock.elapsedRealtime();
+                        mainHandler.post(() -> queuePhotoForReview(structureIndex, photoIndex, reachedAt));
+                        return;
+                    }
+
+                    if (flightService.isCapturingOnBoard()) {
+                        // The aircraft already took the photo and flew on
+                        notifyStatusUpdate("Photo " + (photoIndex + 1) + " of structure " +
+                                (structureIndex + 1) + " taken");
+                        return;
+                    }
 
                     // Pause mission for photo review
                     pauseMissionForPhotoReview();
                 }
+
+                @Override
+                public void onAircraftPositionUpdated(double latitude, double longitude, float altitude) {
+                    aircraftLatitude = latitude;
+                    aircraftLongitude = longitude;
+                    updateNearestStructure(latitude, longitude);
+                }
+
+                @Override
+                public void onSegmentStarted(int segmentIndex, int segmentCount, long turnaroundMillis) {
+                    if (segmentIndex > 0) {
+                        notifyStatusUpdate("Segment " + (segmentIndex + 1) + "/" + segmentCount +
+                                " started (turnaround " + turnaroundMillis + " ms)");
+                    }
+                }
+
+                @Override
+                public void onGeofenceEntered(long zoneId) {
+                    notifyError("Aircraft entered restricted zone " + zoneId);
+                }
             });
         }
     }
@@ -120,22 +273,40 @@ public class MissionController {
     public void loadInspectionPoints(Uri fileUri) {
         Log.d(TAG, "Loading inspection points from: " + fileUri);
 
-        if (!isValidCsvFile(fileUri)) {
-            notifyError("Please select a valid CSV file");
+        if (!isSupportedFile(fileUri)) {
+            notifyError("Please select a valid CSV or mission pack file");
+            return;
+        }
+
+        if (MissionPackFile.isMissionPack(getFileNameFromUri(fileUri))) {
+            loadMissionPack(fileUri);
             return;
         }
 
         try {
-            List<InspectionPoint> newPoints = parseInspectionPointsCsv(fileUri);
+            StructureTable newStructures = parseInspectionPointsCsv(fileUri);
 
-            if (newPoints.isEmpty()) {
+            if (newStructures.isEmpty()) {
                 notifyError("No valid inspection points found in file");
                 return;
             }
 
-            this.inspectionPoints = newPoints;
+            boolean reimport = !structures.isEmpty();
+            StructureDiff diff = applyStructures(newStructures);
+            if (diff == null) {
+                return;
+            }
 
-            String message = "Loaded " + inspectionPoints.size() + " structures";
+            String message;
+            if (!reimport) {
+                message = "Loaded " + structures.size() + " structures";
+            } else if (diff.hasChanges()) {
+                message = "Updated " + structures.size() + " structures: " + diff.getAdded().length + " added, " +
+                        diff.getRemoved().length + " removed, " + diff.getModified().length + " modified" +
+                        (diff.isReordered() ? ", reordered" : "");
+            } else {
+                message = "Structures unchanged (" + structures.size() + " structures)";
+            }
             Log.d(TAG, message);
             notifyStatusUpdate(message);
 
@@ -147,25 +318,96 @@ public class MissionController {
         }
     }
 
+    /**
+     * Replaces the structure table with a newly imported one. Rows are diffed
+     * against the previous import by location and content hash, so validation
+     * and photo folder assignment only run for added and modified rows, and
+     * FlightService reuses the waypoints of untouched structures. A pure
+     * reorder still adopts the new table, with hashes and IDs following their
+     * rows, because row order is the flight order.
+     *
+     * @return the diff, or null if the changed rows failed validation
+     */
+    private StructureDiff applyStructures(StructureTable newStructures) {
+        long startTime = System.nanoTime();
+
+        ValidationUtils.ValidationResult validation = ValidationUtils.validateStructureCount(newStructures);
+        if (!validation.isSuccess()) {
+            notifyError(validation.getErrorMessage());
+            return null;
+        }
+
+        long[] newHashes = newStructures.computeRowHashes();
+        StructureDiff diff = structures.isEmpty()
+                ? StructureDiff.allAdded(newStructures.size())
+                : StructureDiff.compute(structures, structureHashes, newStructures, newHashes);
+
+        if (!diff.hasChanges()) {
+            Log.d(TAG, "Re-import has no changes, keeping current structures");
+            return diff;
+        }
+
+        validation = ValidationUtils.validateStructureRows(newStructures, diff.getChangedRows());
+        if (!validation.isSuccess()) {
+            notifyError(validation.getErrorMessage());
+            return null;
+        }
+
+        // Matched rows keep their photo folder, new rows get fresh IDs
+        int[] newIds = new int[newStructures.size()];
+        for (int i = 0; i < newIds.length; i++) {
+            int previousIndex = diff.getPreviousIndex(i);
+            newIds[i] = previousIndex >= 0 ? structureIds[previousIndex] : nextStructureId++;
+        }
+
+        this.structures = newStructures;
+        this.importedStructures = newStructures;
+        this.structureHashes = newHashes;
+        this.structureIds = newIds;
+        this.missionPackPending = true;
+        rebuildSpatialIndex();
+
+        Log.d(TAG, String.format(Locale.US, "Applied %s in %.2f ms", diff, (System.nanoTime() - startTime) / 1e6));
+        return diff;
+    }
+
     public void loadPhotoPositions(Uri fileUri) {
         Log.d(TAG, "Loading photo positions from: " + fileUri);
 
-        if (!isValidCsvFile(fileUri)) {
-            notifyError("Please select a valid CSV file");
+        if (!isSupportedFile(fileUri)) {
+            notifyError("Please select a valid CSV or mission pack file");
+            return;
+        }
+
+        if (MissionPackFile.isMissionPack(getFileNameFromUri(fileUri))) {
+            loadMissionPack(fileUri);
             return;
         }
 
         try {
-            List<RelativePhotoPoint> newPoints = parsePhotoPositionsCsv(fileUri);
+            PhotoTemplateTable newTemplate = parsePhotoPositionsCsv(fileUri);
 
-            if (newPoints.isEmpty()) {
+            if (newTemplate.isEmpty()) {
                 notifyError("No valid photo positions found in file");
                 return;
             }
 
-            this.photoPoints = newPoints;
+            ValidationUtils.ValidationResult validation = ValidationUtils.validatePhotoTemplate(newTemplate);
+            if (!validation.isSuccess()) {
+                notifyError(validation.getErrorMessage());
+                return;
+            }
+
+            if (newTemplate.contentHash() == photoTemplate.contentHash()) {
+                notifyStatusUpdate("Photo positions unchanged (" + photoTemplate.size() + " positions)");
+                return;
+            }
+
+            this.photoTemplate = newTemplate;
+            this.missionPackPending = true;
+            updatePhotoOrder();
 
-            String message = "Loaded " + photoPoints.size() + " photo positions";
+            String message = "Loaded " + photoTemplate.size() + " photo positions";
             Log.d(TAG, message);
             notifyStatusUpdate(message);
 
@@ -177,11 +419,94 @@ public class MissionController {
         }
     }
 
-    private boolean isValidCsvFile(Uri fileUri) {
+    public void loadMissionPack(Uri fileUri) {
+        Log.d(TAG, "Loading mission pack from: " + fileUri);
+
+        try {
+            MissionPackFile.Contents contents = MissionPackFile.read(context.getContentResolver(), fileUri);
+
+            if (contents.getStructures().isEmpty() || contents.getPhotoTemplate().isEmpty()) {
+                notifyError("Mission pack has no structures or photo positions");
+                return;
+            }
+
+            ValidationUtils.ValidationResult validation =
+                    ValidationUtils.validatePhotoTemplate(contents.getPhotoTemplate());
+            if (!validation.isSuccess()) {
+                notifyError(validation.getErrorMessage());
+                return;
+            }
+
+            if (applyStructures(contents.getStructures()) == null) {
+                return;
+            }
+            this.photoTemplate = contents.getPhotoTemplate();
+            this.missionPackPending = false;
+            updatePhotoOrder();
+
+            notifyStatusUpdate("Loaded mission pack: " + structures.size() + " structures, " +
+                    photoTemplate.size() + " photo positions");
+
+            checkIfReadyToStart();
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading mission pack", e);
+            notifyError("Error loading mission pack: " + e.getMessage());
+        }
+    }
+
+    private void updatePhotoOrder() {
+        long startTime = System.nanoTime();
+        PhotoSequencePlanner.Result result = photoSequencePlanner.plan(photoTemplate);
+        photoOrder = result.getOrder();
+        Log.d(TAG, result + " in " + (System.nanoTime() - startTime) / 1000 + " us");
+    }
+
+    private void rebuildSpatialIndex() {
+        long startTime = System.nanoTime();
+        spatialIndex = StructureSpatialIndex.build(structures);
+        nearestStructureIndex = -1;
+        nearestStructureDistance = Double.MAX_VALUE;
+        Log.d(TAG, String.format(Locale.US, "Built spatial index over %d structures in %.2f ms",
+                structures.size(), (System.nanoTime() - startTime) / 1e6));
+    }
+
+    private void updateNearestStructure(double latitude, double longitude) {
+        StructureSpatialIndex index = spatialIndex;
+        if (index == null || index.size() == 0) {
+            return;
+        }
+
+        int nearest = index.nearest(latitude, longitude);
+        nearestStructureDistance = index.getLastNearestDistance();
+        nearestStructureIndex = nearest;
+    }
+
+    private void saveMissionPack() {
+        File directory = context.getExternalFilesDir(MISSION_PACK_DIRECTORY);
+        if (directory == null) {
+            Log.w(TAG, "External files directory not available, mission pack not saved");
+            return;
+        }
+
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        File packFile = new File(directory, "mission_" + timestamp + MissionPackFile.EXTENSION);
+
+        try {
+            MissionPackFile.write(packFile, structures, photoTemplate);
+            missionPackPending = false;
+            notifyStatusUpdate("Mission pack saved: " + packFile.getName());
+        } catch (IOException e) {
+            Log.e(TAG, "Error saving mission pack", e);
+        }
+    }
+
+    private boolean isSupportedFile(Uri fileUri) {
         if (fileUri == null) return false;
 
         String fileName = getFileNameFromUri(fileUri);
-        return fileName != null && fileName.toLowerCase().endsWith(".csv");
+        return fileName != null &&
+                (fileName.toLowerCase().endsWith(".csv") || MissionPackFile.isMissionPack(fileName));
     }
 
     private String getFileNameFromUri(Uri uri) {
@@ -208,102 +533,59 @@ public class MissionController {
         return result;
     }
 
-    private List<InspectionPoint> parseInspectionPointsCsv(Uri fileUri) throws IOException {
-        List<InspectionPoint> points = new ArrayList<>();
-
-        try (InputStream inputStream = context.getContentResolver().openInputStream(fileUri);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-
-            String line;
-            boolean isHeader = true;
-            int lineNumber = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
+    private StructureTable parseInspectionPointsCsv(Uri fileUri) throws IOException {
+        List<StructureChunk> chunks = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = CsvFileImporter.importCsv(context.getContentResolver(), fileUri,
+                CsvIngestEngine.forStructures(), StructureChunk::new, chunks, null, null);
+        report.log(TAG, "inspection points");
 
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-
-                if (line.trim().isEmpty()) continue;
-
-                try {
-                    String[] values = line.split(",");
-                    if (values.length >= 4) {
-                        double lat = Double.parseDouble(values[0].trim());
-                        double lon = Double.parseDouble(values[1].trim());
-                        float elevationDiff = Float.parseFloat(values[2].trim());
-                        float height = Float.parseFloat(values[3].trim());
-
-                        InspectionPoint point = new InspectionPoint(lat, lon, elevationDiff, height);
-                        points.add(point);
-
-                        Log.d(TAG, "Parsed structure: lat=" + lat + ", lon=" + lon +
-                                ", elevation=" + elevationDiff + ", height=" + height);
-                    } else {
-                        Log.w(TAG, "Invalid line " + lineNumber + ": insufficient columns");
-                    }
-                } catch (NumberFormatException e) {
-                    Log.w(TAG, "Invalid number format on line " + lineNumber + ": " + line);
-                }
-            }
+        StructureTable table = new StructureTable(report.getRowsAccepted());
+        for (StructureChunk chunk : chunks) {
+            table.addAll(chunk.table);
         }
-
-        Log.d(TAG, "Parsed " + points.size() + " inspection points");
-        return points;
+        return table;
     }
 
-    private List<RelativePhotoPoint> parsePhotoPositionsCsv(Uri fileUri) throws IOException {
-        List<RelativePhotoPoint> points = new ArrayList<>();
-
-        try (InputStream inputStream = context.getContentResolver().openInputStream(fileUri);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+    private PhotoTemplateTable parsePhotoPositionsCsv(Uri fileUri) throws IOException {
+        List<PhotoTemplateChunk> chunks = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = CsvFileImporter.importCsv(context.getContentResolver(), fileUri,
+                CsvIngestEngine.forPhotoPositions(), PhotoTemplateChunk::new, chunks, null, null);
+        report.log(TAG, "photo positions");
 
-            String line;
-            boolean isHeader = true;
-            int lineNumber = 0;
+        PhotoTemplateTable table = new PhotoTemplateTable(report.getRowsAccepted());
+        for (PhotoTemplateChunk chunk : chunks) {
+            table.addAll(chunk.table);
+        }
+        return table;
+    }
 
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
+    // Per-chunk row sinks for CsvFileImporter, joined in file order afterwards
+    private static class StructureChunk implements CsvIngestEngine.RowHandler {
+        final StructureTable table = new StructureTable();
 
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
+        @Override
+        public void onRow(CsvIngestEngine.Row row) {
+            table.add(row.getDouble(0), row.getDouble(1), row.getFloat(2), row.getFloat(3));
+        }
+    }
 
-                if (line.trim().isEmpty()) continue;
+    private static class PhotoTemplateChunk implements CsvIngestEngine.RowHandler {
+        final PhotoTemplateTable table = new PhotoTemplateTable();
 
-                try {
-                    String[] values = line.split(",");
-                    if (values.length >= 4) {
-                        float x = Float.parseFloat(values[0].trim());
-                        float y = Float.parseFloat(values[1].trim());
-                        float z = Float.parseFloat(values[2].trim());
-                        float pitch = Float.parseFloat(values[3].trim());
-
-                        RelativePhotoPoint point = new RelativePhotoPoint(x, y, z, pitch);
-                        points.add(point);
-
-                        Log.d(TAG, "Parsed photo position: x=" + x + ", y=" + y +
-                                ", z=" + z + ", pitch=" + pitch);
-                    } else {
-                        Log.w(TAG, "Invalid line " + lineNumber + ": insufficient columns");
-                    }
-                } catch (NumberFormatException e) {
-                    Log.w(TAG, "Invalid number format on line " + lineNumber + ": " + line);
-                }
-            }
+        @Override
+        public void onRow(CsvIngestEngine.Row row) {
+            table.add(row.getFloat(0), row.getFloat(1), row.getFloat(2), row.getFloat(3));
         }
-
-        Log.d(TAG, "Parsed " + points.size() + " photo positions");
-        return points;
     }
 
     private void checkIfReadyToStart() {
-        if (!inspectionPoints.isEmpty() && !photoPoints.isEmpty()) {
-            String message = "Ready to start mission: " + inspectionPoints.size() +
-                    " structures, " + photoPoints.size() + " photo positions";
+        if (!structures.isEmpty() && !photoTemplate.isEmpty()) {
+            if (missionPackPending) {
+                saveMissionPack();
+            }
+
+            String message = "Ready to start mission: " + structures.size() +
+                    " structures, " + photoTemplate.size() + " photo positions";
             notifyStatusUpdate(message);
         }
     }
@@ -315,35 +597,150 @@ public class MissionController {
     public void startMission() {
         Log.d(TAG, "Starting mission");
 
-        if (inspectionPoints.isEmpty() || photoPoints.isEmpty()) {
+        if (interruptedMission != null && !missionInProgress && startInterruptedMission()) {
+            return;
+        }
+
+        if (structures.isEmpty() || photoTemplate.isEmpty()) {
             notifyError("No inspection points or photo positions loaded");
             return;
         }
 
-        if (missionInProgress) {
+        if (missionInProgress || routePlanning) {
             notifyError("Mission already in progress");
             return;
         }
 
+        applyTerrain(flightService.getHomeLatitude(), flightService.getHomeLongitude());
+        applyGeofences();
+
+        if (reshootPatchPending && reviewQueue.isFor(structures, photoTemplate)) {
+            reshootPatchPending = false;
+            sortieMessage = "Mission completed successfully";
+            if (startReshootPatch(flightService.getHomeLatitude(), flightService.getHomeLongitude())) {
+                return;
+            }
+        }
+
+        if (startEvaluatedPlan()) {
+            return;
+        }
+
+        if (!configuration.isOptimizeRoute()) {
+            startPlannedMission(null);
+            return;
+        }
+
+        final double homeLatitude = flightService.getHomeLatitude();
+        final double homeLongitude = flightService.getHomeLongitude();
+        if (routeOrder != null && routeStructures == structures &&
+                routeHomeLatitude == homeLatitude && routeHomeLongitude == homeLongitude) {
+            startPlannedMission(routeOrder);
+            return;
+        }
+
+        // Optimizing can take the whole time budget, keep it off the UI thread
+        routePlanning = true;
+        notifyStatusUpdate("Optimizing route for " + structures.size() + " structures...");
+        final StructureTable routeInput = structures;
+        final RouteOptimizer optimizer = new RouteOptimizer()
+                .setTimeBudgetMillis(configuration.getRouteTimeBudgetMs())
+                .setKeepLineOrder(configuration.isKeepLineOrder());
+
+        planningExecutor.execute(() -> {
+            try {
+                RouteOptimizer.Result route = optimizer.optimize(routeInput, homeLatitude, homeLongitude);
+                mainHandler.post(() -> onRouteOptimized(route, routeInput, homeLatitude, homeLongitude));
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error optimizing route", e);
+                mainHandler.post(() -> {
+                    routePlanning = false;
+                    notifyError("Route optimization failed, flying file order: " + e.getMessage());
+                    startPlannedMission(null);
+                });
+            }
+        });
+    }
+
+    private void onRouteOptimized(RouteOptimizer.Result route, StructureTable routeInput,
+                                  double homeLatitude, double homeLongitude) {
+        routePlanning = false;
+
+        if (routeInput != structures) {
+            notifyError("Structures changed while optimizing the route, please start again");
+            return;
+        }
+
+        routeStructures = routeInput;
+        routeHomeLatitude = homeLatitude;
+        routeHomeLongitude = homeLongitude;
+        routeOrder = route.getOrder();
+
+        notifyStatusUpdate(String.format(Locale.US, "Route optimized: %.1f km instead of %.1f km (%.0f%% shorter)",
+                route.getOptimizedDistance() / 1000, route.getOriginalDistance() / 1000, route.getSavedPercent()));
+
+        startPlannedMission(routeOrder);
+    }
+
+    private void startPlannedMission(int[] structureOrder) {
         try {
-            // Create mission using FlightService
-            currentMission = flightService.createInspectionMission(inspectionPoints, photoPoints);
+            final double homeLatitude = flightService.getHomeLatitude();
+            final double homeLongitude = flightService.getHomeLongitude();
+            final String startedMessage;
+
+            if (homeLatitude == 0 && homeLongitude == 0) {
+                // No home point, so no return legs to plan sorties with
+                sortiePlan = null;
+                plannedSpeed = configuration.getDefaultSpeed();
+                flightService.setSpeed(plannedSpeed);
+                currentPlan = flightService.createInspectionPlan(structures, photoTemplate, structureOrder, photoOrder);
+                startedMessage = "Mission started successfully (home point unknown, no battery estimate)";
+            } else {
+                SortiePlanner.Sortie sortie = prepareSortie(structureOrder, homeLatitude, homeLongitude);
+                if (!checkBatteryForSortie(sortie)) {
+                    return;
+                }
+                currentPlan = sortie.getPlan();
+                startedMessage = String.format(Locale.US, "Sortie %d/%d started: %d structures, expected %s",
+                        currentSortie + 1, sortiePlan.getSortieCount(), sortie.getStructureCount(),
+                        sortie.getEstimate());
+            }
 
-            if (currentMission == null) {
+            if (currentPlan == null || currentPlan.isEmpty()) {
                 notifyError("Failed to create mission");
                 return;
             }
 
-            // Execute mission
-            flightService.executeMission(currentMission, new CommonCallbacks.CompletionCallback() {
+            MissionSimulator.Result simulated = new MissionSimulator.Builder()
+                    .setMaxSpeed(plannedSpeed)
+                    .setUseCorners(configuration.isOnBoardCapture() && flightService.isOnBoardCaptureAvailable())
+                    .build()
+                    .simulate(currentPlan);
+            Log.d(TAG, "Simulated flight: " + simulated);
+
+            // Reviewing while flying, the plan hovers at its end for the re-shoot patch
+            final boolean flyThrough = configuration.isFlyThroughReview();
+            if (reviewQueue == null || !reviewQueue.isFor(structures, photoTemplate)) {
+                reviewQueue = new PhotoReviewQueue(structures, photoTemplate);
+                reviewShowing = false;
+                reshootPatchPending = false;
+            }
+            missionRouteOrder = structureOrder;
+
+            // Execute mission, split into segments that fit the waypoint limit
+            flightService.setSpeed(plannedSpeed);
+            flightService.setOnBoardCaptureEnabled(configuration.isOnBoardCapture());
+            flightService.setReturnHomeAtEnd(!flyThrough);
+            flightService.executePlan(currentPlan, new CommonCallbacks.CompletionCallback() {
                 @Override
                 public void onResult(DJIError djiError) {
                     if (djiError == null) {
+                        flyThroughActive = flyThrough;
                         missionInProgress = true;
                         currentStructureIndex = 0;
                         currentPhotoIndex = 0;
-                        notifyStatusUpdate("Mission started successfully");
-                        updateMissionProgress(0, currentMission.getWaypointCount());
+                        notifyStatusUpdate(startedMessage);
+                        updateMissionProgress(0, currentPlan.size());
                     } else {
                         notifyError("Failed to start mission: " + djiError.getDescription());
                     }
@@ -356,6 +753,421 @@ public class MissionController {
         }
     }
 
+    // ==========================================
+    // INTERRUPTED MISSIONS
+    // ==========================================
+
+    /**
+     * Reads the journal left by the last run in the background. A flight it
+     * shows was cut off with photos left is flown from there on the next start.
+     */
+    private void replayJournal() {
+        final File file = journal.getFile();
+        planningExecutor.execute(() -> {
+            try {
+                MissionJournal.Replay replay = MissionJournal.replay(file);
+                if (replay != null && replay.isResumable()) {
+                    mainHandler.post(() -> onJournalReplayed(replay));
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error reading mission journal", e);
+            }
+        });
+    }
+
+    private void onJournalReplayed(MissionJournal.Replay replay) {
+        if (missionInProgress) {
+            return;
+        }
+        interruptedMission = replay;
+        WaypointPlan plan = replay.getPlan();
+        notifyStatusUpdate(String.format(Locale.US,
+                "Interrupted mission found: %d of %d photos taken, last at %s. Start to resume it",
+                replay.getDonePhotoCount(), plan.getPhotoCount(),
+                new SimpleDateFormat("HH:mm:ss", Locale.US).format(new Date(replay.getLastEventAt()))));
+    }
+
+    /**
+     * Flies the interrupted plan from its first photo that was not taken,
+     * then returns home. Photos are reviewed at every stop, as the review
+     * queue of the interrupted flight is gone.
+     *
+     * @return false if it cannot be resumed, so the caller plans a new mission
+     */
+    private boolean startInterruptedMission() {
+        final MissionJournal.Replay replay = interruptedMission;
+        interruptedMission = null;
+
+        final WaypointPlan resume;
+        try {
+            applyGeofences();
+            resume = flightService.createResumePlan(replay.getPlan(), replay.getFirstIncompletePhoto());
+            flightService.setSpeed(configuration.getDefaultSpeed());
+            flightService.setOnBoardCaptureEnabled(configuration.isOnBoardCapture());
+            flightService.setReturnHomeAtEnd(true);
+            flightService.executePlan(resume, djiError -> {
+                if (djiError == null) {
+                    flyThroughActive = false;
+                    missionInProgress = true;
+                    currentPlan = resume;
+                    notifyStatusUpdate(String.format(Locale.US,
+                            "Resumed interrupted mission: %d of %d photos were taken, %d to go",
+                            replay.getDonePhotoCount(), replay.getPlan().getPhotoCount(), resume.getPhotoCount()));
+                } else {
+                    // Offered again on the next start
+                    mainHandler.post(() -> interruptedMission = replay);
+                    notifyError("Failed to resume interrupted mission: " + djiError.getDescription());
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Error resuming interrupted mission", e);
+            notifyError("Interrupted mission not resumed: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    // ==========================================
+    // TERRAIN
+    // ==========================================
+
+    /**
+     * With terrain tiles under the home point, fills ground altitudes the
+     * file left at 0 and lets plans raise transit legs over the terrain.
+     * Filling gives the structures a new table, so route and sorties are
+     * planned again. Fills start from the imported table, never from a
+     * previous fill, whose rows hold altitudes relative to the old takeoff
+     * point; without a reference the imported table is flown as is.
+     */
+    private void applyTerrain(double homeLatitude, double homeLongitude) {
+        double reference = homeLatitude == 0 && homeLongitude == 0 ? Double.NaN :
+                terrainService.getElevation(homeLatitude, homeLongitude);
+        if (Double.isNaN(reference)) {
+            structures = importedStructures;
+            terrainStructures = null;
+            terrainReference = Double.NaN;
+            flightService.setTerrain(null, 0);
+            return;
+        }
+
+        if (terrainStructures != structures || reference != terrainReference) {
+            StructureTable filled = terrainService.fillGroundAltitudes(importedStructures, reference);
+            if (filled != structures) {
+                structures = filled;
+                if (filled != importedStructures) {
+                    notifyStatusUpdate("Ground altitudes filled from terrain data");
+                }
+            }
+            terrainStructures = structures;
+            terrainReference = reference;
+        }
+        flightService.setTerrain(terrainService, reference);
+    }
+
+    // ==========================================
+    // GEOFENCES
+    // ==========================================
+
+    /**
+     * Loads the restricted areas once and hands them to the flight service,
+     * which rejects plans entering them and reports the aircraft entering one.
+     */
+    private void applyGeofences() {
+        if (geofences == null) {
+            geofences = loadGeofences(context.getExternalFilesDir(GEOFENCE_DIRECTORY));
+            if (!geofences.isEmpty()) {
+                notifyStatusUpdate("Loaded " + geofences.size() + " restricted zones");
+            }
+        }
+        flightService.setGeofences(geofences);
+    }
+
+    /**
+     * Reads every CSV in the directory, one polygon vertex per row with a
+     * numeric zone ID; consecutive rows of the same zone form its polygon.
+     */
+    private GeofenceIndex loadGeofences(File directory) {
+        GeofenceIndex.Builder builder = new GeofenceIndex.Builder();
+        File[] files = directory != null ? directory.listFiles() : null;
+        if (files == null) {
+            return builder.build();
+        }
+
+        for (File file : files) {
+            if (!file.getName().toLowerCase(Locale.US).endsWith(".csv")) {
+                continue;
+            }
+            try (Reader reader = new FileReader(file)) {
+                CsvIngestEngine.ImportReport report = CsvIngestEngine.forGeofences().parse(reader, row ->
+                        builder.addVertex((long) row.getDouble(0), row.getDouble(1), row.getDouble(2)));
+                report.log(TAG, "geofence vertices from " + file.getName());
+            } catch (IOException e) {
+                Log.e(TAG, "Error loading geofences from " + file.getName(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    // ==========================================
+    // PLAN VARIANTS
+    // ==========================================
+
+    /**
+     * Scores mission variants around the current configuration in the
+     * background and reports the ranking. A start that follows with the same
+     * structures, photo template and home point flies the best variant
+     * without planning again.
+     */
+    public void evaluatePlanVariants() {
+        if (structures.isEmpty() || photoTemplate.isEmpty()) {
+            notifyError("No inspection points or photo positions loaded");
+            return;
+        }
+        if (missionInProgress) {
+            notifyError("Mission already in progress");
+            return;
+        }
+        final double homeLatitude = flightService.getHomeLatitude();
+        final double homeLongitude = flightService.getHomeLongitude();
+        if (homeLatitude == 0 && homeLongitude == 0) {
+            notifyError("Home point unknown, cannot compare plans");
+            return;
+        }
+
+        cancelEvaluation();
+        applyTerrain(homeLatitude, homeLongitude);
+        planEvaluator
+                .setEnergy(configuration.getBatteryCapacityWh(), configuration.getBatteryReservePercent(),
+                        configuration.getHoverPowerW(), getPhotoDwellSeconds())
+                .setTerrain(Double.isNaN(terrainReference) ? null : context.getExternalFilesDir(TERRAIN_DIRECTORY),
+                        terrainReference);
+        final List<PlanEvaluationService.Variant> variants = PlanEvaluationService.grid(configuration, photoOrder,
+                configuration.isOnBoardCapture() && flightService.isOnBoardCaptureAvailable());
+
+        // The route is shared by all variants; optimize it first unless it is still valid
+        final StructureTable input = structures;
+        final PhotoTemplateTable template = photoTemplate;
+        boolean routeValid = routeOrder != null && routeStructures == structures &&
+                routeHomeLatitude == homeLatitude && routeHomeLongitude == homeLongitude;
+        final int[] knownOrder = configuration.isOptimizeRoute() && routeValid ? routeOrder : null;
+        final RouteOptimizer optimizer = configuration.isOptimizeRoute() && !routeValid ? new RouteOptimizer()
+                .setTimeBudgetMillis(configuration.getRouteTimeBudgetMs())
+                .setKeepLineOrder(configuration.isKeepLineOrder()) : null;
+        final int generation = evaluationGeneration;
+
+        notifyStatusUpdate("Comparing " + variants.size() + " plan variants...");
+        planningExecutor.execute(() -> {
+            int[] order = knownOrder;
+            if (optimizer != null) {
+                try {
+                    order = optimizer.optimize(input, homeLatitude, homeLongitude).getOrder();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Error optimizing route for plan variants", e);
+                }
+            }
+            PlanEvaluationService.Evaluation started = planEvaluator.evaluate(input, template, order,
+                    homeLatitude, homeLongitude, variants, done -> mainHandler.post(() -> onPlansEvaluated(done, generation)));
+            mainHandler.post(() -> {
+                if (generation == evaluationGeneration) {
+                    evaluation = started;
+                } else {
+                    started.cancel();
+                }
+            });
+        });
+    }
+
+    public void cancelEvaluation() {
+        evaluationGeneration++;
+        if (evaluation != null) {
+            evaluation.cancel();
+            evaluation = null;
+        }
+    }
+
+    private void onPlansEvaluated(PlanEvaluationService.Evaluation done, int generation) {
+        if (generation != evaluationGeneration || done.isCancelled()) {
+            return;
+        }
+        // May arrive before the handle was posted
+        evaluation = done;
+
+        List<PlanEvaluationService.Score> ranking = done.getRanking();
+        for (int i = 0; i < ranking.size(); i++) {
+            Log.d(TAG, "Plan variant " + (i + 1) + ": " + ranking.get(i));
+        }
+        PlanEvaluationService.Score best = done.getBest();
+        if (best == null) {
+            evaluation = null;
+            notifyError("No plan variant fits the battery: " + ranking.get(0).getError());
+            return;
+        }
+
+        if (configuration.isOptimizeRoute() && done.getStructureOrder() != null &&
+                done.isFor(structures, photoTemplate, flightService.getHomeLatitude(), flightService.getHomeLongitude())) {
+            routeStructures = structures;
+            routeHomeLatitude = flightService.getHomeLatitude();
+            routeHomeLongitude = flightService.getHomeLongitude();
+            routeOrder = done.getStructureOrder();
+        }
+
+        notifyStatusUpdate(String.format(Locale.US, "Best of %d plans in %d ms: %s, %d sorties. Start to fly it",
+                ranking.size(), done.getElapsedNanos() / 1000000, best, best.getSortieCount()));
+    }
+
+    /**
+     * Starts the best evaluated variant if it was planned for the current
+     * structures, template and home point. The evaluation is used once; the
+     * following sorties come from the sortie plan it leaves behind.
+     */
+    private boolean startEvaluatedPlan() {
+        PlanEvaluationService.Evaluation done = evaluation;
+        if (done == null) {
+            return false;
+        }
+        double homeLatitude = flightService.getHomeLatitude();
+        double homeLongitude = flightService.getHomeLongitude();
+        PlanEvaluationService.Score best = done.getBest();
+        if (best == null || !done.isFor(structures, photoTemplate, homeLatitude, homeLongitude)) {
+            cancelEvaluation();
+            return false;
+        }
+        evaluation = null;
+
+        sortiePlan = best.getSorties();
+        sortieStructures = structures;
+        sortieTemplate = photoTemplate;
+        sortieRouteOrder = done.getStructureOrder();
+        sortieHomeLatitude = homeLatitude;
+        sortieHomeLongitude = homeLongitude;
+        currentSortie = 0;
+        plannedSpeed = best.getVariant().getSpeed();
+
+        Log.d(TAG, "Flying evaluated plan: " + best);
+        startPlannedMission(done.getStructureOrder());
+        return true;
+    }
+
+    // ==========================================
+    // SORTIES
+    // ==========================================
+
+    /**
+     * Splits the route into sorties when the route, photo template or home
+     * point changed since the last plan, and returns the sortie to fly next.
+     *
+     * @throws IllegalArgumentException if a single structure does not fit one battery
+     */
+    private SortiePlanner.Sortie prepareSortie(int[] structureOrder, double homeLatitude, double homeLongitude) {
+        boolean flyThrough = configuration.isFlyThroughReview();
+        if (sortiePlan == null || sortieStructures != structures || sortieTemplate != photoTemplate ||
+                sortieRouteOrder != structureOrder || sortieFlyThrough != flyThrough ||
+                sortieHomeLatitude != homeLatitude || sortieHomeLongitude != homeLongitude) {
+            EnergyModel model = buildEnergyModel();
+            SortiePlanner planner = new SortiePlanner(model,
+                    configuration.getBatteryCapacityWh(), configuration.getBatteryReservePercent())
+                    .setPhotoOrder(photoOrder, true)
+                    .setTerrain(Double.isNaN(terrainReference) ? null : terrainService, terrainReference)
+                    .setPlanOptions(configuration.getDefaultSpeed(), configuration.getSafeDistance(), true);
+
+            sortiePlan = planner.plan(structures, photoTemplate, structureOrder, homeLatitude, homeLongitude);
+            sortieStructures = structures;
+            sortieTemplate = photoTemplate;
+            sortieRouteOrder = structureOrder;
+            sortieHomeLatitude = homeLatitude;
+            sortieHomeLongitude = homeLongitude;
+            sortieFlyThrough = flyThrough;
+            currentSortie = 0;
+            plannedSpeed = configuration.getDefaultSpeed();
+
+            Log.d(TAG, "Sortie plan with " + model + ": " + sortiePlan);
+            for (int i = 0; i < sortiePlan.getSortieCount(); i++) {
+                Log.d(TAG, "Sortie " + (i + 1) + ": " + sortiePlan.getSortie(i));
+            }
+            notifyStatusUpdate(String.format(Locale.US, "Route needs %d sorties: %.0f min, %.0f Wh in total",
+                    sortiePlan.getSortieCount(), sortiePlan.getTotalSeconds() / 60, sortiePlan.getTotalEnergyWh()));
+            if (flyThrough) {
+                notifyStatusUpdate(describeReviewThroughput(sortiePlan));
+            }
+        }
+        return sortiePlan.getSortie(currentSortie);
+    }
+
+    private EnergyModel buildEnergyModel() {
+        return new EnergyModel.Builder()
+                .setCruiseSpeed(configuration.getDefaultSpeed())
+                .setHoverPower(configuration.getHoverPowerW())
+                .setPhotoDwellSeconds(getPhotoDwellSeconds())
+                .build();
+    }
+
+    /**
+     * Hover time per photo waypoint: the capture, plus the review when the
+     * mission stops at every photo.
+     */
+    private double getPhotoDwellSeconds() {
+        return configuration.isFlyThroughReview() ? PHOTO_CAPTURE_SECONDS :
+                PHOTO_CAPTURE_SECONDS + configuration.getPhotoTimeoutMs() / 1000.0;
+    }
+
+    /**
+     * Photos per battery of a plan flown with fly-through review, against the
+     * same plan with a stop for review at every photo.
+     */
+    private String describeReviewThroughput(SortiePlanner.Result plan) {
+        int photos = 0;
+        for (int i = 0; i < plan.getSortieCount(); i++) {
+            photos += plan.getSortie(i).getPlan().getPhotoCount();
+        }
+        double reviewWh = photos * (configuration.getPhotoTimeoutMs() / 1000.0) *
+                configuration.getHoverPowerW() / 3600;
+        double flyThrough = photos * plan.getUsableWh() / plan.getTotalEnergyWh();
+        double stopping = photos * plan.getUsableWh() / (plan.getTotalEnergyWh() + reviewWh);
+        return String.format(Locale.US, "Reviewing while flying: %.0f photos per battery instead of %.0f (+%.0f%%)",
+                flyThrough, stopping, (flyThrough / stopping - 1) * 100);
+    }
+
+    /**
+     * Refuses to start a sortie the current battery cannot finish with the
+     * reserve left. An unknown battery level is not treated as an error.
+     */
+    private boolean checkBatteryForSortie(SortiePlanner.Sortie sortie) {
+        int battery = ConnectionManager.getBatteryPercentage();
+        if (battery < 0) {
+            Log.d(TAG, "Battery level unknown, skipping sortie energy check");
+            return true;
+        }
+
+        double needed = sortie.getEstimate().getBatteryPercent(configuration.getBatteryCapacityWh()) +
+                configuration.getBatteryReservePercent();
+        if (battery < needed) {
+            notifyError(String.format(Locale.US,
+                    "Battery at %d%%, sortie %d/%d needs %.0f%% including %.0f%% reserve. Replace the battery",
+                    battery, currentSortie + 1, sortiePlan.getSortieCount(), needed,
+                    configuration.getBatteryReservePercent()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves on to the next sortie after a successful flight.
+     *
+     * @return the completion message extended with what to do next
+     */
+    private String onSortieCompleted(String message) {
+        int sortieCount = sortiePlan.getSortieCount();
+        currentSortie++;
+        if (currentSortie < sortieCount) {
+            return message + String.format(Locale.US,
+                    ". Sortie %d/%d done, replace the battery and start sortie %d",
+                    currentSortie, sortieCount, currentSortie + 1);
+        }
+
+        sortiePlan = null;
+        return sortieCount > 1 ? message + ". All " + sortieCount + " sorties done" : message;
+    }
+
     public void pauseMission() {
         Log.d(TAG, "Pausing mission");
 
@@ -368,6 +1180,7 @@ public class MissionController {
             @Override
             public void onResult(DJIError djiError) {
                 if (djiError == null) {
+                    journal.recordPaused();
                     notifyStatusUpdate("Mission paused");
                 } else {
                     notifyError("Failed to pause mission: " + djiError.getDescription());
@@ -383,6 +1196,7 @@ public class MissionController {
             @Override
             public void onResult(DJIError djiError) {
                 if (djiError == null) {
+                    journal.recordResumed();
                     notifyStatusUpdate("Mission resumed");
                 } else {
                     notifyError("Failed to resume mission: " + djiError.getDescription());
@@ -394,6 +1208,13 @@ public class MissionController {
     public void stopMission() {
         Log.d(TAG, "Stopping mission");
 
+        if (holdingForReview) {
+            // The sortie was flown, only the review was still open
+            holdingForReview = false;
+            returnHomeAfterSortie(sortieMessage);
+            return;
+        }
+
         flightService.stopMissionAndReturnHome(new CommonCallbacks.CompletionCallback() {
             @Override
             public void onResult(DJIError djiError) {
@@ -433,6 +1254,18 @@ public class MissionController {
     }
 
     public void retakePhoto() {
+        if (reviewShowing) {
+            int structureIndex = reviewQueue.getReviewStructureIndex();
+            int photoIndex = reviewQueue.getReviewPhotoIndex();
+            reviewShowing = false;
+            journal.recordPhotoRejected(structureIndex, photoIndex);
+            reviewQueue.reject();
+            notifyStatusUpdate("Photo " + (photoIndex + 1) + " of structure S" + getStructureId(structureIndex) +
+                    " queued for re-shoot, " + reviewQueue.getReshootCount() + " in the patch");
+            showNextReview();
+            return;
+        }
+
         Log.d(TAG, "Retaking photo");
         notifyStatusUpdate("Retaking photo...");
 
@@ -459,28 +1292,228 @@ public class MissionController {
     }
 
     public void acceptPhoto() {
+        if (reviewShowing) {
+            reviewShowing = false;
+            journal.recordPhotoAccepted(reviewQueue.getReviewStructureIndex(), reviewQueue.getReviewPhotoIndex());
+            reviewQueue.accept();
+            showNextReview();
+            return;
+        }
+
         Log.d(TAG, "Photo accepted, resuming mission");
+        journal.recordPhotoAccepted(currentStructureIndex, currentPhotoIndex);
         notifyStatusUpdate("Photo accepted, continuing mission");
 
         // Resume mission automatically
         resumeMission();
     }
 
+    // ==========================================
+    // PHOTO REVIEW WHILE FLYING
+    // ==========================================
+
+    private void queuePhotoForReview(int structureIndex, int photoIndex, long reachedAt) {
+        final PhotoReviewQueue queue = reviewQueue;
+        final int entry = queue.add(structureIndex, photoIndex, reachedAt);
+        if (photoService == null) {
+            queue.setUnavailable(entry);
+            showNextReview();
+            return;
+        }
+
+        // Fetched once the camera reports the new file, the mission flies on meanwhile
+        photoService.expectPhoto(new PhotoService.PhotoCallback() {
+            @Override
+            public void onPhotoReceived(Bitmap photo) {
+                mainHandler.post(() -> {
+                    queue.setPhoto(entry, photo);
+                    showNextReview();
+                });
+            }
+
+            @Override
+            public void onPhotoError(String error) {
+                Log.w(TAG, "Photo " + (photoIndex + 1) + " of structure " + (structureIndex + 1) +
+                        " not available for review: " + error);
+                mainHandler.post(() -> {
+                    queue.setUnavailable(entry);
+                    showNextReview();
+                });
+            }
+        });
+    }
+
+    /**
+     * Shows the oldest photo waiting for review, one at a time. Once a flown
+     * sortie has nothing left to review it moves on to the re-shoots.
+     */
+    private void showNextReview() {
+        if (reviewShowing || reviewQueue == null || uiCallback == null) {
+            return;
+        }
+        Bitmap photo = reviewQueue.nextPhoto();
+        if (photo != null) {
+            reviewShowing = true;
+            recordPhotoLatency(reviewQueue.getReviewCapturedAt());
+            uiCallback.onPhotoReviewRequired(photo);
+        } else if (holdingForReview && reviewQueue.getPendingCount() == 0) {
+            holdingForReview = false;
+            finishFlyThroughSortie();
+        }
+    }
+
+    /**
+     * A plan flown with fly-through review ended hovering at its last
+     * waypoint, or a re-shoot patch ended on its way home.
+     */
+    private void onFlyThroughCompleted(boolean success, String message) {
+        flyThroughActive = false;
+
+        if (flyingReshootPatch) {
+            flyingReshootPatch = false;
+            completeSortie(success ? String.format(Locale.US, "%s. Re-shot %d photos", sortieMessage, reshotCount) :
+                    sortieMessage + ". Re-shoot patch failed: " + message);
+            return;
+        }
+
+        if (!success) {
+            missionInProgress = false;
+            if (uiCallback != null) {
+                uiCallback.onMissionCompleted(false, message);
+            }
+            return;
+        }
+
+        sortieMessage = message;
+        holdingForReview = true;
+        int pending = reviewQueue.getPendingCount();
+        if (pending > 0) {
+            notifyStatusUpdate("Sortie flown, hovering until " + pending + " photos are reviewed");
+        }
+        showNextReview();
+    }
+
+    private void finishFlyThroughSortie() {
+        if (reviewQueue.hasReshoots() && reviewQueue.isFor(structures, photoTemplate) &&
+                startReshootPatch(aircraftLatitude, aircraftLongitude)) {
+            return;
+        }
+        returnHomeAfterSortie(sortieMessage);
+    }
+
+    private void returnHomeAfterSortie(String message) {
+        flightService.returnHome(djiError -> {
+            if (djiError != null) {
+                notifyError("Failed to return home: " + djiError.getDescription());
+            }
+        });
+        completeSortie(message);
+    }
+
+    private void completeSortie(String message) {
+        missionInProgress = false;
+        if (sortiePlan != null) {
+            message = onSortieCompleted(message);
+        }
+        if (reviewQueue.hasReshoots()) {
+            // Left for the patch of the next sortie, or for a start of its own after the last one
+            reshootPatchPending = sortiePlan == null;
+            message += ". " + reviewQueue.getReshootCount() + " photos still to re-shoot" +
+                    (reshootPatchPending ? ", start again to fly them" : " after the next sortie");
+        }
+        Log.d(TAG, "Photo review: " + reviewQueue + ", on screen after " + getAveragePhotoLatencyMillis() +
+                " ms on average, " + maxPhotoLatencyMillis + " ms max");
+        if (uiCallback != null) {
+            uiCallback.onMissionCompleted(true, message);
+        }
+    }
+
+    /**
+     * Flies the rejected photo positions as a small mission that starts where
+     * the aircraft is and returns home.
+     *
+     * @return false if there is no patch the battery can fly, so the caller
+     *         returns home
+     */
+    private boolean startReshootPatch(double startLatitude, double startLongitude) {
+        double homeLatitude = flightService.getHomeLatitude();
+        double homeLongitude = flightService.getHomeLongitude();
+        if (startLatitude == 0 && startLongitude == 0) {
+            startLatitude = homeLatitude;
+            startLongitude = homeLongitude;
+        }
+
+        final BitSet photos = reviewQueue.getReshoots();
+        final WaypointPlan patch;
+        try {
+            patch = flightService.createReshootPlan(structures, photoTemplate,
+                    reviewQueue.getReshootOrder(missionRouteOrder), photoOrder, photos, startLatitude, startLongitude);
+            if (!checkBatteryForPatch(patch, homeLatitude, homeLongitude)) {
+                return false;
+            }
+            flightService.setReturnHomeAtEnd(true);
+            flightService.executePlan(patch, djiError -> {
+                if (djiError == null) {
+                    flyThroughActive = true;
+                }
+                mainHandler.post(() -> onReshootPatchStarted(patch, photos, djiError));
+            });
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Error planning re-shoot patch", e);
+            notifyError("Re-shoot patch not flown: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private void onReshootPatchStarted(WaypointPlan patch, BitSet photos, DJIError djiError) {
+        if (djiError != null) {
+            notifyError("Failed to start re-shoot patch: " + djiError.getDescription());
+            returnHomeAfterSortie(sortieMessage);
+            return;
+        }
+        reviewQueue.clearReshoots(photos);
+        flyingReshootPatch = true;
+        missionInProgress = true;
+        reshotCount = patch.getPhotoCount();
+        currentPlan = patch;
+        notifyStatusUpdate("Re-shooting " + reshotCount + " rejected photos");
+    }
+
+    /**
+     * Like {@link #checkBatteryForSortie}, for a patch. The estimate counts a
+     * flight out from home as well, so it errs on the safe side.
+     */
+    private boolean checkBatteryForPatch(WaypointPlan patch, double homeLatitude, double homeLongitude) {
+        int battery = ConnectionManager.getBatteryPercentage();
+        if (battery < 0 || (homeLatitude == 0 && homeLongitude == 0)) {
+            return true;
+        }
+
+        EnergyModel.Estimate estimate = buildEnergyModel().estimate(patch, homeLatitude, homeLongitude);
+        double needed = estimate.getBatteryPercent(configuration.getBatteryCapacityWh()) +
+                configuration.getBatteryReservePercent();
+        if (battery < needed) {
+            notifyStatusUpdate(String.format(Locale.US,
+                    "Battery at %d%%, re-shooting %d photos needs %.0f%%. Returning home",
+                    battery, patch.getPhotoCount(), needed));
+            return false;
+        }
+        return true;
+    }
+
     private void pauseMissionForPhotoReview() {
         Log.d(TAG, "Pausing mission for photo review");
 
+        // The photo may be stored before the pause is confirmed, so wait for it from now on
+        fetchPhotoForReview(SystemClock.elapsedRealtime());
+
         flightService.pauseMission(new CommonCallbacks.CompletionCallback() {
             @Override
             public void onResult(DJIError djiError) {
                 if (djiError == null) {
+                    journal.recordPaused();
                     notifyStatusUpdate("Mission paused for photo review");
-
-                    // Wait a moment for photo to be taken, then fetch it
-                    android.os.Handler handler = new android.os.Handler();
-                    handler.postDelayed(() -> {
-                        fetchPhotoForReview();
-                    }, 3000); // Wait 3 seconds for photo to be processed
-
                 } else {
                     notifyError("Failed to pause mission: " + djiError.getDescription());
                 }
@@ -488,22 +1521,25 @@ public class MissionController {
         });
     }
 
-    private void fetchPhotoForReview() {
+    private void fetchPhotoForReview(long reachedAt) {
         Log.d(TAG, "Fetching photo for review");
 
         if (photoService != null) {
-            photoService.getLatestPhoto(new PhotoService.PhotoCallback() {
+            photoService.expectPhoto(new PhotoService.PhotoCallback() {
                 @Override
                 public void onPhotoReceived(Bitmap photo) {
-                    if (uiCallback != null && photo != null) {
-                        Log.d(TAG, "Photo fetched successfully, showing review dialog");
-                        uiCallback.onPhotoReviewRequired(photo);
-                    } else {
-                        Log.e(TAG, "Photo is null or callback not available");
-                        // Auto-continue if photo fetch fails
-                        notifyStatusUpdate("Photo not available, continuing mission");
-                        resumeMission();
-                    }
+                    mainHandler.post(() -> {
+                        if (uiCallback != null && photo != null) {
+                            Log.d(TAG, "Photo fetched successfully, showing review dialog");
+                            recordPhotoLatency(reachedAt);
+                            uiCallback.onPhotoReviewRequired(photo);
+                        } else {
+                            Log.e(TAG, "Photo is null or callback not available");
+                            // Auto-continue if photo fetch fails
+                            notifyStatusUpdate("Photo not available, continuing mission");
+                            resumeMission();
+                        }
+                    });
                 }
 
                 @Override
@@ -522,24 +1558,61 @@ public class MissionController {
         }
     }
 
-    private void updateMissionProgress(int currentWaypoint, int totalWaypoints) {
-        // Calculate current structure and photo based on waypoint
-        if (!photoPoints.isEmpty()) {
-            int photosPerStructure = photoPoints.size();
-            currentStructureIndex = currentWaypoint / (photosPerStructure + 1); // +1 for approach waypoint
-            currentPhotoIndex = currentWaypoint % (photosPerStructure + 1);
+    /**
+     * Logs where the aircraft was and where the gimbal pointed when a photo
+     * was taken, from the newest telemetry sample.
+     */
+    private void logPhotoPosition(int structureIndex, int photoIndex) {
+        synchronized (photoTelemetry) {
+            if (flightService.getTelemetry().readLatest(photoTelemetry) == 0) {
+                return;
+            }
+            Log.d(TAG, String.format(Locale.US,
+                    "Photo %d of structure %d at %.7f, %.7f, %.1f m, heading %.0f, gimbal %.0f, %d satellites",
+                    photoIndex + 1, structureIndex + 1, photoTelemetry.getLatitude(0),
+                    photoTelemetry.getLongitude(0), photoTelemetry.getAltitude(0), photoTelemetry.getYaw(0),
+                    photoTelemetry.getGimbalPitch(0), photoTelemetry.getSatelliteCount(0)));
+        }
+    }
+
+    private void recordPhotoLatency(long reachedAt) {
+        long latency = SystemClock.elapsedRealtime() - reachedAt;
+        photoLatencyCount++;
+        totalPhotoLatencyMillis += latency;
+        maxPhotoLatencyMillis = Math.max(maxPhotoLatencyMillis, latency);
+        Log.d(TAG, "Photo on screen " + latency + " ms after its waypoint; average " +
+                (totalPhotoLatencyMillis / photoLatencyCount) + " ms, max " + maxPhotoLatencyMillis +
+                " ms over " + photoLatencyCount + " photos");
+    }
 
-            if (currentPhotoIndex > 0) {
-                currentPhotoIndex--; // Adjust for approach waypoint
+    private void updateMissionProgress(int currentWaypoint, int totalWaypoints) {
+        // Structure and photo come from the table of the plan being flown; merged
+        // waypoints, safety legs and route order make waypoint arithmetic wrong
+        WaypointTable table = flightService.getWaypointTable();
+        if (table != null && currentWaypoint < table.size()) {
+            int structure = table.getStructureIndex(currentWaypoint);
+            if (structure >= 0 && structure < structures.size()) {
+                currentStructureIndex = structure;
+            }
+            if (table.getKind(currentWaypoint) == WaypointPlan.KIND_PHOTO) {
+                currentPhotoIndex = table.getPhotoIndex(currentWaypoint);
+            } else if (table.getKind(currentWaypoint) == WaypointPlan.KIND_APPROACH) {
+                currentPhotoIndex = 0;
+            }
+        } else {
+            int nearest = nearestStructureIndex;
+            if (nearest >= 0 && nearest < structures.size() && nearestStructureDistance <= STRUCTURE_PROXIMITY_RADIUS) {
+                // No plan to look up, trust the aircraft's position
+                currentStructureIndex = nearest;
             }
         }
 
         if (uiCallback != null) {
             uiCallback.onMissionProgress(
-                    Math.min(currentStructureIndex + 1, inspectionPoints.size()),
-                    inspectionPoints.size(),
-                    Math.min(currentPhotoIndex + 1, photoPoints.size()),
-                    photoPoints.size()
+                    Math.min(currentStructureIndex + 1, structures.size()),
+                    structures.size(),
+                    Math.min(currentPhotoIndex + 1, photoTemplate.size()),
+                    photoTemplate.size()
             );
         }
     }
@@ -549,11 +1622,11 @@ public class MissionController {
     // ==========================================
 
     public int getTotalStructures() {
-        return inspectionPoints.size();
+        return structures.size();
     }
 
     public int getTotalPhotoPoints() {
-        return photoPoints.size();
+        return photoTemplate.size();
     }
 
     public boolean isMissionInProgress() {
@@ -564,10 +1637,55 @@ public class MissionController {
         return currentStructureIndex;
     }
 
+    /**
+     * Structure closest to the aircraft's last reported position, or -1 before
+     * the first position update.
+     */
+    public int getNearestStructureIndex() {
+        return nearestStructureIndex;
+    }
+
+    public double getNearestStructureDistance() {
+        return nearestStructureDistance;
+    }
+
+    /**
+     * Photo folder ID of a structure row. IDs survive re-imports, so photos
+     * already taken stay with their tower when other rows are edited.
+     */
+    public int getStructureId(int structureIndex) {
+        return structureIndex >= 0 && structureIndex < structureIds.length
+                ? structureIds[structureIndex] : structureIndex + 1;
+    }
+
     public int getCurrentPhotoIndex() {
         return currentPhotoIndex;
     }
 
+    /**
+     * Structure of the photo being reviewed: when reviewing while flying, the
+     * queued photo rather than where the aircraft is.
+     */
+    public int getReviewStructureIndex() {
+        return reviewShowing ? reviewQueue.getReviewStructureIndex() : currentStructureIndex;
+    }
+
+    public int getReviewPhotoIndex() {
+        return reviewShowing ? reviewQueue.getReviewPhotoIndex() : currentPhotoIndex;
+    }
+
+    /**
+     * Average time from a photo waypoint being reached to its photo shown
+     * for review, or -1 before the first photo.
+     */
+    public long getAveragePhotoLatencyMillis() {
+        return photoLatencyCount > 0 ? totalPhotoLatencyMillis / photoLatencyCount : -1;
+    }
+
+    public long getMaxPhotoLatencyMillis() {
+        return maxPhotoLatencyMillis;
+    }
+
     public boolean isObstacleAvoidanceEnabled() {
         return flightService != null && flightService.isObstacleAvoidanceEnabled();
     }
@@ -605,9 +1723,32 @@ public class MissionController {
             photoService.cleanup();
         }
 
-        inspectionPoints.clear();
-        photoPoints.clear();
-        currentMission = null;
+        structures.clear();
+        importedStructures = structures;
+        terrainStructures = null;
+        photoTemplate.clear();
+        structureHashes = new long[0];
+        structureIds = new int[0];
+        spatialIndex = null;
+        routeOrder = null;
+        routeStructures = null;
+        sortiePlan = null;
+        sortieStructures = null;
+        sortieTemplate = null;
+        planningExecutor.shutdownNow();
+        cancelEvaluation();
+        planEvaluator.shutdown();
+        journal.close();
+        interruptedMission = null;
+        currentPlan = null;
+        photoOrder = null;
+        reviewQueue = null;
+        reviewShowing = false;
+        holdingForReview = false;
+        flyThroughActive = false;
+        flyingReshootPatch = false;
+        reshootPatchPending = false;
+        mainHandler.removeCallbacksAndMessages(null);
         missionInProgress = false;
         uiCallback = null;
     }
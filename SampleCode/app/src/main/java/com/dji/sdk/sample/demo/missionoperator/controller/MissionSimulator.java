@@ -0,0 +1,352 @@
+// ==========================================
+// MissionSimulator.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Flies a {@link WaypointPlan} offline with a fixed-timestep aircraft model
+ * and reports duration, distance and a per-leg breakdown.
+ *
+ * Along each leg the speed follows the acceleration limit up to the leg's
+ * top speed (cruise speed, lowered on steep legs so the vertical component
+ * stays within the climb or descent rate) and brakes in time to arrive at
+ * the speed allowed at the next waypoint: zero for a stop, the lateral
+ * acceleration limit for a waypoint with a corner radius when corners are
+ * flown. The heading turns towards the next waypoint's heading at the yaw
+ * rate while flying, and the aircraft waits at the waypoint if the turn is
+ * not done. At photo waypoints the gimbal slews to the planned pitch and the
+ * photo dwell is added.
+ *
+ * Leg geometry is projected once per run into scratch arrays that are reused
+ * between runs, so one instance can score many candidate plans cheaply. Like
+ * {@link EnergyModel} it has no Android dependencies.
+ */
+public class MissionSimulator {
+    private static final double EPSILON = 1e-6;
+    private static final double ARRIVAL_TOLERANCE = 0.001;  // meters
+
+    private final double maxSpeed;              // m/s
+    private final double acceleration;          // m/s^2 along the path
+    private final double lateralAcceleration;   // m/s^2 in a turn
+    private final double climbRate;             // m/s
+    private final double descentRate;           // m/s
+    private final double yawRate;               // degrees per second
+    private final double gimbalRate;            // degrees per second
+    private final double photoDwellSeconds;     // Shutter and settle at photo waypoints
+    private final double timeStep;              // seconds
+    private final boolean useCorners;
+
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+
+    // Scratch per leg and per waypoint, grown as needed
+    private double[] legLength = new double[0];
+    private double[] legTopSpeed = new double[0];
+    private double[] nodeSpeed = new double[0];
+
+    private MissionSimulator(Builder builder) {
+        this.maxSpeed = builder.maxSpeed;
+        this.acceleration = builder.acceleration;
+        this.lateralAcceleration = builder.lateralAcceleration;
+        this.climbRate = builder.climbRate;
+        this.descentRate = builder.descentRate;
+        this.yawRate = builder.yawRate;
+        this.gimbalRate = builder.gimbalRate;
+        this.photoDwellSeconds = builder.photoDwellSeconds;
+        this.timeStep = builder.timeStep;
+        this.useCorners = builder.useCorners;
+    }
+
+    /**
+     * Defaults match the mission speed and the rates PhotoSequencePlanner
+     * plans with.
+     */
+    public static class Builder {
+        private double maxSpeed = Constants.DEFAULT_SPEED;
+        private double acceleration = 2.0;
+        private double lateralAcceleration = 2.0;
+        private double climbRate = 3.0;
+        private double descentRate = 2.0;
+        private double yawRate = 30;
+        private double gimbalRate = 20;
+        private double photoDwellSeconds = 1.0;
+        private double timeStep = 0.1;
+        private boolean useCorners = false;
+
+        public Builder setMaxSpeed(double maxSpeed) {
+            this.maxSpeed = positive(maxSpeed, "Max speed");
+            return this;
+        }
+
+        public Builder setAcceleration(double acceleration) {
+            this.acceleration = positive(acceleration, "Acceleration");
+            return this;
+        }
+
+        public Builder setLateralAcceleration(double lateralAcceleration) {
+            this.lateralAcceleration = positive(lateralAcceleration, "Lateral acceleration");
+            return this;
+        }
+
+        public Builder setClimbRate(double climbRate) {
+            this.climbRate = positive(climbRate, "Climb rate");
+            return this;
+        }
+
+        public Builder setDescentRate(double descentRate) {
+            this.descentRate = positive(descentRate, "Descent rate");
+            return this;
+        }
+
+        public Builder setYawRate(double yawRate) {
+            this.yawRate = positive(yawRate, "Yaw rate");
+            return this;
+        }
+
+        public Builder setGimbalRate(double gimbalRate) {
+            this.gimbalRate = positive(gimbalRate, "Gimbal rate");
+            return this;
+        }
+
+        public Builder setPhotoDwellSeconds(double photoDwellSeconds) {
+            this.photoDwellSeconds = Math.max(0, photoDwellSeconds);
+            return this;
+        }
+
+        public Builder setTimeStep(double timeStep) {
+            this.timeStep = positive(timeStep, "Time step");
+            return this;
+        }
+
+        /** Round waypoints that have a corner radius instead of stopping at them. */
+        public Builder setUseCorners(boolean useCorners) {
+            this.useCorners = useCorners;
+            return this;
+        }
+
+        public MissionSimulator build() {
+            return new MissionSimulator(this);
+        }
+
+        private static double positive(double value, String name) {
+            if (!(value > 0)) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+            return value;
+        }
+    }
+
+    public static class Result {
+        private final double seconds;
+        private final double distance;
+        private final double[] legSeconds;
+        private final double[] legDistance;
+        private final double photoSeconds;
+        private final int steps;
+
+        Result(double seconds, double distance, double[] legSeconds, double[] legDistance,
+               double photoSeconds, int steps) {
+            this.seconds = seconds;
+            this.distance = distance;
+            this.legSeconds = legSeconds;
+            this.legDistance = legDistance;
+            this.photoSeconds = photoSeconds;
+            this.steps = steps;
+        }
+
+        public double getSeconds() { return seconds; }
+        public double getDistance() { return distance; }
+        public double getPhotoSeconds() { return photoSeconds; }
+        public int getSteps() { return steps; }
+        public int getLegCount() { return legSeconds.length; }
+
+        /** Flight and turn time of leg {@code k}, excluding the photo time at its end. */
+        public double getLegSeconds(int k) { return legSeconds[k]; }
+        public double getLegDistance(int k) { return legDistance[k]; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%.1f min, %.2f km, %d legs, %.1f min taking photos",
+                    seconds / 60, distance / 1000, legSeconds.length, photoSeconds / 60);
+        }
+    }
+
+    public Result simulate(WaypointPlan plan) {
+        return simulate(plan, 0, plan.size());
+    }
+
+    /**
+     * @return duration, distance and per-leg breakdown of rows [start, end)
+     */
+    public Result simulate(WaypointPlan plan, int start, int end) {
+        int legs = Math.max(0, end - start - 1);
+        double[] legSeconds = new double[legs];
+        double[] legDistance = new double[legs];
+        double[] totals = new double[3];
+        int steps = run(plan, start, end, legSeconds, legDistance, totals);
+        return new Result(totals[0], totals[1], legSeconds, legDistance, totals[2], steps);
+    }
+
+    /**
+     * Duration of rows [start, end) without the breakdown, for use as a cost
+     * function.
+     */
+    public double simulateSeconds(WaypointPlan plan, int start, int end) {
+        double[] totals = new double[3];
+        run(plan, start, end, null, null, totals);
+        return totals[0];
+    }
+
+    /**
+     * @param totals receives seconds, distance and photo seconds
+     * @return number of integration steps
+     */
+    private int run(WaypointPlan plan, int start, int end, double[] legSeconds, double[] legDistance,
+                    double[] totals) {
+        int count = end - start;
+        if (count <= 0) {
+            return 0;
+        }
+        prepare(plan, start, count);
+
+        double seconds = 0;
+        double distance = 0;
+        double photoSeconds = 0;
+        int steps = 0;
+        double speed = 0;
+        double heading = plan.getHeading(start);
+        double gimbalPitch = 0;
+
+        if (plan.isPhoto(start)) {
+            double photo = photoTime(plan.getGimbalPitch(start) - gimbalPitch);
+            gimbalPitch = plan.getGimbalPitch(start);
+            photoSeconds += photo;
+            seconds += photo;
+        }
+
+        for (int k = 0; k < count - 1; k++) {
+            double length = legLength[k];
+            double top = legTopSpeed[k];
+            double exitSpeed = nodeSpeed[k + 1];
+            double targetHeading = plan.getHeading(start + k + 1);
+            double travelled = 0;
+            double legTime = 0;
+
+            // Translate and yaw together until the aircraft is at the waypoint facing its heading
+            while (length - travelled > ARRIVAL_TOLERANCE || Math.abs(headingError(targetHeading, heading)) > EPSILON) {
+                double remaining = Math.max(0, length - travelled);
+                // Fastest speed from which the rest of the leg, less this step, still brakes to the exit speed
+                double brake = acceleration * timeStep;
+                double wanted = Math.min(top, Math.sqrt(brake * brake + exitSpeed * exitSpeed + 2 * acceleration * remaining) - brake);
+                if (remaining <= ARRIVAL_TOLERANCE) {
+                    wanted = 0;
+                }
+                double change = Math.max(-acceleration * timeStep, Math.min(acceleration * timeStep, wanted - speed));
+                double next = Math.max(0, speed + change);
+                double advance = Math.min(remaining, (speed + next) / 2 * timeStep);
+                if (advance <= 0 && remaining > ARRIVAL_TOLERANCE) {
+                    // Creep on when braking would stall just short of the waypoint
+                    advance = Math.min(remaining, acceleration * timeStep * timeStep);
+                }
+                speed = next;
+                travelled += advance;
+
+                double error = headingError(targetHeading, heading);
+                double turn = yawRate * timeStep;
+                heading = Math.abs(error) <= turn ? targetHeading : heading + Math.signum(error) * turn;
+
+                legTime += timeStep;
+                steps++;
+            }
+            if (exitSpeed <= EPSILON || length <= ARRIVAL_TOLERANCE) {
+                speed = 0;
+            }
+
+            seconds += legTime;
+            distance += length;
+            if (legSeconds != null) {
+                legSeconds[k] = legTime;
+                legDistance[k] = length;
+            }
+
+            int row = start + k + 1;
+            if (plan.isPhoto(row)) {
+                double photo = photoTime(plan.getGimbalPitch(row) - gimbalPitch);
+                gimbalPitch = plan.getGimbalPitch(row);
+                photoSeconds += photo;
+                seconds += photo;
+                speed = 0;
+            }
+        }
+
+        totals[0] = seconds;
+        totals[1] = distance;
+        totals[2] = photoSeconds;
+        return steps;
+    }
+
+    /**
+     * Projects the legs and plans the speed at each waypoint: a stop, or the
+     * corner speed limited by what the neighbouring legs can brake to.
+     */
+    private void prepare(WaypointPlan plan, int start, int count) {
+        if (legLength.length < count) {
+            int capacity = Math.max(count, legLength.length + (legLength.length >> 1));
+            legLength = new double[capacity];
+            legTopSpeed = new double[capacity];
+            nodeSpeed = new double[capacity];
+        }
+        Arrays.fill(nodeSpeed, 0, count, 0);
+
+        for (int k = 0; k < count - 1; k++) {
+            int row = start + k;
+            plane.setOrigin(plan.getLatitude(row), plan.getLongitude(row), plan.getAltitude(row));
+            double east = plane.toEast(plan.getLongitude(row + 1));
+            double north = plane.toNorth(plan.getLatitude(row + 1));
+            double up = plan.getAltitude(row + 1) - plan.getAltitude(row);
+            legLength[k] = Math.sqrt(east * east + north * north + up * up);
+
+            double verticalRate = up >= 0 ? climbRate : descentRate;
+            legTopSpeed[k] = Math.abs(up) < EPSILON ? maxSpeed : Math.min(maxSpeed, verticalRate * legLength[k] / Math.abs(up));
+        }
+
+        if (!useCorners) {
+            return;
+        }
+        for (int k = 1; k < count - 1; k++) {
+            int row = start + k;
+            float radius = plan.getCornerRadius(row);
+            if (radius > 0 && !plan.isPhoto(row)) {
+                nodeSpeed[k] = Math.min(Math.sqrt(lateralAcceleration * radius),
+                        Math.min(legTopSpeed[k - 1], legTopSpeed[k]));
+            }
+        }
+        for (int k = count - 2; k >= 0; k--) {
+            nodeSpeed[k] = Math.min(nodeSpeed[k],
+                    Math.sqrt(nodeSpeed[k + 1] * nodeSpeed[k + 1] + 2 * acceleration * legLength[k]));
+        }
+    }
+
+    /** Gimbal slew and dwell, rounded up to whole time steps. */
+    private double photoTime(double pitchChange) {
+        double exact = Math.abs(pitchChange) / gimbalRate + photoDwellSeconds;
+        return Math.ceil(exact / timeStep - EPSILON) * timeStep;
+    }
+
+    /** Signed shortest turn from {@code from} to {@code to} in degrees. */
+    private static double headingError(double to, double from) {
+        double error = (to - from) % 360;
+        if (error > 180) {
+            error -= 360;
+        } else if (error < -180) {
+            error += 360;
+        }
+        return error;
+    }
+}
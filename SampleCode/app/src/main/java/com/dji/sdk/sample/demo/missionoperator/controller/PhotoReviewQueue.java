@@ -0,0 +1,266 @@
+// ==========================================
+// PhotoReviewQueue.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import android.graphics.Bitmap;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Photos captured while the mission flies on, waiting for review in capture
+ * order, and the photo positions rejected in review.
+ *
+ * A photo is added when its waypoint is reached and its preview is attached
+ * once fetched from the camera, which may happen out of order. Review always
+ * takes the oldest photo; a photo whose preview could not be fetched is
+ * passed over unreviewed rather than holding up the ones behind it. Rejected
+ * positions are kept as one bit per structure and template position, so a
+ * position rejected twice is re-shot once, and are flown again as a re-shoot
+ * patch at the end of the sortie.
+ *
+ * Entries are columnar like the plan tables and released once reviewed.
+ * Not thread-safe; MissionController uses it from the main thread only.
+ */
+public class PhotoReviewQueue {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private static final byte STATE_FETCHING = 0;
+    private static final byte STATE_READY = 1;
+    private static final byte STATE_UNAVAILABLE = 2;
+
+    private final StructureTable structures;
+    private final PhotoTemplateTable photoTemplate;
+    private final BitSet reshoots = new BitSet();
+
+    // Entries from head to count are waiting for review
+    private int[] structureIndex = new int[INITIAL_CAPACITY];
+    private int[] photoIndex = new int[INITIAL_CAPACITY];
+    private long[] capturedAt = new long[INITIAL_CAPACITY];
+    private byte[] state = new byte[INITIAL_CAPACITY];
+    private Bitmap[] photos = new Bitmap[INITIAL_CAPACITY];
+    private int base;       // Entry number of slot 0
+    private int head;
+    private int count;
+
+    private int capturedCount;
+    private int acceptedCount;
+    private int rejectedCount;
+    private int unreviewedCount;
+
+    public PhotoReviewQueue(StructureTable structures, PhotoTemplateTable photoTemplate) {
+        this.structures = structures;
+        this.photoTemplate = photoTemplate;
+    }
+
+    /**
+     * Whether this queue's positions refer to these tables; a re-import
+     * renumbers structures, so its re-shoots would point at the wrong ones.
+     */
+    public boolean isFor(StructureTable structures, PhotoTemplateTable photoTemplate) {
+        return this.structures == structures && this.photoTemplate == photoTemplate;
+    }
+
+    // ==========================================
+    // CAPTURE
+    // ==========================================
+
+    /**
+     * Adds a captured photo whose preview is still being fetched.
+     *
+     * @return entry number for {@link #setPhoto} and {@link #setUnavailable}
+     */
+    public int add(int structure, int photo, long capturedAtMillis) {
+        if (head == count && head > 0) {
+            // Everything before was reviewed, start over at slot 0
+            base += head;
+            count = 0;
+            head = 0;
+        }
+        if (count == structureIndex.length) {
+            int capacity = count + (count >> 1);
+            structureIndex = Arrays.copyOf(structureIndex, capacity);
+            photoIndex = Arrays.copyOf(photoIndex, capacity);
+            capturedAt = Arrays.copyOf(capturedAt, capacity);
+            state = Arrays.copyOf(state, capacity);
+            photos = Arrays.copyOf(photos, capacity);
+        }
+        structureIndex[count] = structure;
+        photoIndex[count] = photo;
+        capturedAt[count] = capturedAtMillis;
+        state[count] = STATE_FETCHING;
+        photos[count] = null;
+        capturedCount++;
+        return base + count++;
+    }
+
+    public void setPhoto(int entry, Bitmap photo) {
+        int slot = slotOf(entry);
+        if (slot >= 0) {
+            photos[slot] = photo;
+            state[slot] = photo != null ? STATE_READY : STATE_UNAVAILABLE;
+        }
+    }
+
+    /**
+     * The preview could not be fetched; the photo is passed over unreviewed.
+     */
+    public void setUnavailable(int entry) {
+        int slot = slotOf(entry);
+        if (slot >= 0) {
+            state[slot] = STATE_UNAVAILABLE;
+        }
+    }
+
+    private int slotOf(int entry) {
+        int slot = entry - base;
+        return slot >= head && slot < count ? slot : -1;
+    }
+
+    // ==========================================
+    // REVIEW
+    // ==========================================
+
+    /**
+     * Oldest photo waiting for review, after passing over unavailable ones.
+     *
+     * @return its preview, or null if the queue is empty or the oldest photo
+     *         is still being fetched
+     */
+    public Bitmap nextPhoto() {
+        while (head < count && state[head] == STATE_UNAVAILABLE) {
+            unreviewedCount++;
+            release(head++);
+        }
+        return head < count && state[head] == STATE_READY ? photos[head] : null;
+    }
+
+    public int getReviewStructureIndex() {
+        return head < count ? structureIndex[head] : -1;
+    }
+
+    public int getReviewPhotoIndex() {
+        return head < count ? photoIndex[head] : -1;
+    }
+
+    /**
+     * When the photo under review was taken, in the caller's clock.
+     */
+    public long getReviewCapturedAt() {
+        return head < count ? capturedAt[head] : 0;
+    }
+
+    /**
+     * Accepts the photo returned by {@link #nextPhoto}, which also settles an
+     * earlier rejection of its position.
+     */
+    public void accept() {
+        if (checkReviewable()) {
+            reshoots.clear(bitOf(structureIndex[head], photoIndex[head]));
+            acceptedCount++;
+            release(head++);
+        }
+    }
+
+    /**
+     * Rejects the photo returned by {@link #nextPhoto}, queueing its position
+     * for the re-shoot patch.
+     */
+    public void reject() {
+        if (checkReviewable()) {
+            reshoots.set(bitOf(structureIndex[head], photoIndex[head]));
+            rejectedCount++;
+            release(head++);
+        }
+    }
+
+    private boolean checkReviewable() {
+        return head < count && state[head] == STATE_READY;
+    }
+
+    private void release(int slot) {
+        photos[slot] = null;
+    }
+
+    /**
+     * Photos captured but not reviewed yet, including those being fetched.
+     */
+    public int getPendingCount() {
+        return count - head;
+    }
+
+    // ==========================================
+    // RE-SHOOTS
+    // ==========================================
+
+    public boolean hasReshoots() {
+        return !reshoots.isEmpty();
+    }
+
+    public int getReshootCount() {
+        return reshoots.cardinality();
+    }
+
+    /**
+     * Rejected positions, set at {@code structure * template size + position}
+     * as {@link com.dji.sdk.sample.demo.missionoperator.service.InspectionPlanBuilder#setPhotoSelection}
+     * takes them.
+     */
+    public BitSet getReshoots() {
+        return (BitSet) reshoots.clone();
+    }
+
+    /**
+     * Forgets re-shoots that a patch is now flying; a rejection of the new
+     * photo queues the position again.
+     */
+    public void clearReshoots(BitSet flown) {
+        reshoots.andNot(flown);
+    }
+
+    /**
+     * Structures with re-shoots, in the reverse of the route order so the
+     * patch starts near where the sortie ended.
+     *
+     * @param routeOrder structure indices as flown, or null for table order
+     */
+    public int[] getReshootOrder(int[] routeOrder) {
+        int photoCount = photoTemplate.size();
+        int structureCount = routeOrder != null ? routeOrder.length : structures.size();
+        int[] order = new int[structureCount];
+        int size = 0;
+        for (int visit = structureCount - 1; visit >= 0; visit--) {
+            int structure = routeOrder != null ? routeOrder[visit] : visit;
+            int first = structure * photoCount;
+            int next = reshoots.nextSetBit(first);
+            if (next >= 0 && next < first + photoCount) {
+                order[size++] = structure;
+            }
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    private int bitOf(int structure, int photo) {
+        return structure * photoTemplate.size() + photo;
+    }
+
+    // ==========================================
+    // STATISTICS
+    // ==========================================
+
+    public int getCapturedCount() { return capturedCount; }
+    public int getAcceptedCount() { return acceptedCount; }
+    public int getRejectedCount() { return rejectedCount; }
+    public int getUnreviewedCount() { return unreviewedCount; }
+
+    @Override
+    public String toString() {
+        return "PhotoReviewQueue{captured=" + capturedCount + ", pending=" + getPendingCount() +
+                ", accepted=" + acceptedCount + ", rejected=" + rejectedCount +
+                ", unreviewed=" + unreviewedCount + ", re-shoots=" + getReshootCount() + "}";
+    }
+}
@@ -0,0 +1,295 @@
+// ==========================================
+// PhotoSequencePlanner.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.CoordinateUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Chooses the order in which the photo positions of the template are flown
+ * around a structure.
+ *
+ * The cost of moving from one position to the next is the flight time over
+ * the offset (or the yaw time, if turning takes longer) plus the gimbal
+ * travel for the pitch change and a settling pause whenever the pitch moves.
+ * The path is open with free ends and the cost is symmetric, so the reversed
+ * order costs the same; InspectionPlanBuilder flies every other structure
+ * backwards so one tower is left near where the next is entered. Templates up
+ * to {@link #EXACT_LIMIT} positions are solved exactly by dynamic programming
+ * over subsets, larger ones with nearest neighbour from every start and 2-opt.
+ *
+ * Results are cached per template content, so reloading the same CSV or a
+ * mission pack does not solve again.
+ */
+public class PhotoSequencePlanner {
+    private static final int EXACT_LIMIT = 12;
+    private static final int CACHE_SIZE = 8;
+    private static final float PITCH_EPSILON = 0.5f;   // degrees below which the gimbal does not move
+    private static final double EPSILON = 1e-9;
+
+    private double speed = Constants.DEFAULT_SPEED;     // m/s between photo positions
+    private double yawRate = 30;                        // degrees per second
+    private double gimbalRate = 20;                     // degrees per second for GIMBAL_PITCH actions
+    private double gimbalSettleSeconds = 1.0;
+
+    private final Map<Long, Result> cache = new LinkedHashMap<Long, Result>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Result> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public static class Result {
+        private final int[] order;
+        private final double originalSeconds;
+        private final double optimizedSeconds;
+        private final boolean exact;
+
+        Result(int[] order, double originalSeconds, double optimizedSeconds, boolean exact) {
+            this.order = order;
+            this.originalSeconds = originalSeconds;
+            this.optimizedSeconds = optimizedSeconds;
+            this.exact = exact;
+        }
+
+        /** Template indices in flying order. */
+        public int[] getOrder() { return order; }
+        public double getOriginalSeconds() { return originalSeconds; }
+        public double getOptimizedSeconds() { return optimizedSeconds; }
+        public boolean isExact() { return exact; }
+
+        @Override
+        public String toString() {
+            return String.format("Photo order: %.1f s -> %.1f s per structure (%s)",
+                    originalSeconds, optimizedSeconds, exact ? "exact" : "heuristic");
+        }
+    }
+
+    public PhotoSequencePlanner setSpeed(double speed) {
+        this.speed = Math.max(0.1, speed);
+        cache.clear();
+        return this;
+    }
+
+    public PhotoSequencePlanner setYawRate(double yawRate) {
+        this.yawRate = Math.max(1, yawRate);
+        cache.clear();
+        return this;
+    }
+
+    public PhotoSequencePlanner setGimbalRate(double gimbalRate) {
+        this.gimbalRate = Math.max(1, gimbalRate);
+        cache.clear();
+        return this;
+    }
+
+    public PhotoSequencePlanner setGimbalSettleSeconds(double gimbalSettleSeconds) {
+        this.gimbalSettleSeconds = Math.max(0, gimbalSettleSeconds);
+        cache.clear();
+        return this;
+    }
+
+    public synchronized Result plan(PhotoTemplateTable template) {
+        long key = template.contentHash();
+        Result cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Result result = solve(template);
+        cache.put(key, result);
+        return result;
+    }
+
+    // ==========================================
+    // SOLVERS
+    // ==========================================
+
+    private Result solve(PhotoTemplateTable template) {
+        int count = template.size();
+        int[] identity = new int[count];
+        for (int i = 0; i < count; i++) {
+            identity[i] = i;
+        }
+        if (count < 3) {
+            return new Result(identity, 0, 0, true);
+        }
+
+        double[] cost = costMatrix(template);
+        double original = pathCost(identity, cost, count);
+
+        if (count <= EXACT_LIMIT) {
+            int[] order = solveExact(cost, count);
+            return new Result(order, original, pathCost(order, cost, count), true);
+        }
+
+        int[] best = identity;
+        double bestCost = original;
+        int[] path = new int[count];
+        boolean[] visited = new boolean[count];
+        for (int start = 0; start < count; start++) {
+            nearestNeighbour(cost, count, start, path, visited);
+            twoOpt(cost, count, path);
+            double pathCost = pathCost(path, cost, count);
+            if (pathCost < bestCost - EPSILON) {
+                best = path.clone();
+                bestCost = pathCost;
+            }
+        }
+        return new Result(best, original, bestCost, false);
+    }
+
+    /**
+     * Held-Karp over subsets for the cheapest open path through all positions.
+     */
+    private static int[] solveExact(double[] cost, int count) {
+        int full = (1 << count) - 1;
+        double[] best = new double[(full + 1) * count];
+        byte[] previous = new byte[(full + 1) * count];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < count; j++) {
+            best[(1 << j) * count + j] = 0;
+            previous[(1 << j) * count + j] = -1;
+        }
+
+        for (int mask = 1; mask <= full; mask++) {
+            for (int last = 0; last < count; last++) {
+                double current = best[mask * count + last];
+                if (current == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int next = 0; next < count; next++) {
+                    if ((mask & (1 << next)) != 0) {
+                        continue;
+                    }
+                    int slot = (mask | (1 << next)) * count + next;
+                    double candidate = current + cost[last * count + next];
+                    if (candidate < best[slot]) {
+                        best[slot] = candidate;
+                        previous[slot] = (byte) last;
+                    }
+                }
+            }
+        }
+
+        int last = 0;
+        for (int j = 1; j < count; j++) {
+            if (best[full * count + j] < best[full * count + last]) {
+                last = j;
+            }
+        }
+
+        int[] order = new int[count];
+        int mask = full;
+        for (int k = count - 1; k >= 0; k--) {
+            order[k] = last;
+            int before = previous[mask * count + last];
+            mask &= ~(1 << last);
+            last = before;
+        }
+        return order;
+    }
+
+    private static void nearestNeighbour(double[] cost, int count, int start, int[] path, boolean[] visited) {
+        Arrays.fill(visited, false);
+        path[0] = start;
+        visited[start] = true;
+        for (int k = 1; k < count; k++) {
+            int from = path[k - 1];
+            int closest = -1;
+            for (int j = 0; j < count; j++) {
+                if (!visited[j] && (closest < 0 || cost[from * count + j] < cost[from * count + closest])) {
+                    closest = j;
+                }
+            }
+            path[k] = closest;
+            visited[closest] = true;
+        }
+    }
+
+    /**
+     * Reverses path[i..j] while that shortens the open path. The cost is
+     * symmetric, so only the two edges at the ends of the reversed run change.
+     */
+    private static void twoOpt(double[] cost, int count, int[] path) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < count - 1; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    double before = 0;
+                    double after = 0;
+                    if (i > 0) {
+                        before += cost[path[i - 1] * count + path[i]];
+                        after += cost[path[i - 1] * count + path[j]];
+                    }
+                    if (j < count - 1) {
+                        before += cost[path[j] * count + path[j + 1]];
+                        after += cost[path[i] * count + path[j + 1]];
+                    }
+                    if (after < before - EPSILON) {
+                        for (int a = i, b = j; a < b; a++, b--) {
+                            int swap = path[a];
+                            path[a] = path[b];
+                            path[b] = swap;
+                        }
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // COST MODEL
+    // ==========================================
+
+    private double[] costMatrix(PhotoTemplateTable template) {
+        int count = template.size();
+        double[] cost = new double[count * count];
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                double c = transitionSeconds(template, i, j);
+                cost[i * count + j] = c;
+                cost[j * count + i] = c;
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Seconds from taking photo {@code i} to being ready for photo {@code j}.
+     */
+    public double transitionSeconds(PhotoTemplateTable template, int i, int j) {
+        double dx = template.getOffsetX(j) - template.getOffsetX(i);
+        double dy = template.getOffsetY(j) - template.getOffsetY(i);
+        double dz = template.getOffsetZ(j) - template.getOffsetZ(i);
+        double flight = Math.sqrt(dx * dx + dy * dy + dz * dz) / speed;
+
+        float headingFrom = CoordinateUtils.calculateHeadingToStructure(template.getOffsetX(i), template.getOffsetY(i));
+        float headingTo = CoordinateUtils.calculateHeadingToStructure(template.getOffsetX(j), template.getOffsetY(j));
+        double yaw = Math.abs(headingTo - headingFrom) % 360;
+        if (yaw > 180) {
+            yaw = 360 - yaw;
+        }
+
+        double pitch = Math.abs(template.getGimbalPitch(j) - template.getGimbalPitch(i));
+        double gimbal = pitch > PITCH_EPSILON ? pitch / gimbalRate + gimbalSettleSeconds : 0;
+
+        return Math.max(flight, yaw / yawRate) + gimbal;
+    }
+
+    private static double pathCost(int[] path, double[] cost, int count) {
+        double total = 0;
+        for (int k = 1; k < count; k++) {
+            total += cost[path[k - 1] * count + path[k]];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,390 @@
+// ==========================================
+// PlanEvaluationService.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import android.util.Log;
+
+import com.dji.sdk.sample.demo.missionoperator.model.MissionConfiguration;
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.service.TerrainService;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds and scores mission variants side by side so the planning knobs can
+ * be compared before a flight instead of tuned in the field.
+ *
+ * A variant fixes the cruise speed, the safe distance above the towers, the
+ * photo order and whether transit corners are rounded. Each one is split
+ * into sorties by {@link SortiePlanner}, flown through
+ * {@link MissionSimulator} and priced by the {@link EnergyModel}; variants
+ * are ranked by simulated time including battery swaps between sorties.
+ * The best variant keeps its built sorties so a start can use them as they
+ * are, the others keep only their scores.
+ *
+ * Variants run on a fixed pool of worker threads shared by all evaluations.
+ * The callback is called on a worker thread once every variant is scored,
+ * and not at all when the evaluation is cancelled.
+ */
+public class PlanEvaluationService {
+    private static final String TAG = "PlanEvaluationService";
+    private static final double BATTERY_SWAP_SECONDS = 300.0;   // Landing, swapping and taking off again
+    private static final float[] SPEED_FACTORS = {0.75f, 1.0f, 1.25f};
+    private static final float SAFE_DISTANCE_STEP = 1.5f;       // meters added in the cautious variants
+    private static final long IDLE_THREAD_SECONDS = 30;
+
+    private final ThreadPoolExecutor executor;
+    private double batteryCapacityWh;
+    private double reservePercent;
+    private double hoverPowerW;
+    private double photoDwellSeconds;
+    private File terrainDirectory;
+    private double referenceElevation = Double.NaN;
+
+    public interface Callback {
+        void onEvaluated(Evaluation evaluation);
+    }
+
+    public PlanEvaluationService(int workers) {
+        int threads = Math.max(1, workers);
+        executor = new ThreadPoolExecutor(threads, threads, IDLE_THREAD_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, TAG);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Battery and energy model settings, normally from {@link MissionConfiguration}.
+     */
+    public PlanEvaluationService setEnergy(double batteryCapacityWh, double reservePercent,
+                                           double hoverPowerW, double photoDwellSeconds) {
+        this.batteryCapacityWh = batteryCapacityWh;
+        this.reservePercent = reservePercent;
+        this.hoverPowerW = hoverPowerW;
+        this.photoDwellSeconds = photoDwellSeconds;
+        return this;
+    }
+
+    /**
+     * Terrain tiles for transit altitudes; every variant opens its own
+     * {@link TerrainService} since those are not thread-safe. A null
+     * directory or NaN reference plans without terrain.
+     */
+    public PlanEvaluationService setTerrain(File terrainDirectory, double referenceElevation) {
+        this.terrainDirectory = terrainDirectory;
+        this.referenceElevation = referenceElevation;
+        return this;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ==========================================
+    // VARIANTS
+    // ==========================================
+
+    /**
+     * One combination of planning knobs.
+     */
+    public static class Variant {
+        private final float speed;
+        private final float safeDistance;
+        private final int[] photoOrder;
+        private final boolean roundCorners;
+
+        public Variant(float speed, float safeDistance, int[] photoOrder, boolean roundCorners) {
+            this.speed = speed;
+            this.safeDistance = safeDistance;
+            this.photoOrder = photoOrder;
+            this.roundCorners = roundCorners;
+        }
+
+        public float getSpeed() { return speed; }
+        public float getSafeDistance() { return safeDistance; }
+        public int[] getPhotoOrder() { return photoOrder; }
+        public boolean isRoundCorners() { return roundCorners; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%.1f m/s, %.1f m safe distance, %s photo order%s",
+                    speed, safeDistance, photoOrder != null ? "optimized" : "template",
+                    roundCorners ? ", rounded corners" : "");
+        }
+    }
+
+    /**
+     * The configured settings first, then every combination of speed at
+     * 75/100/125%, the configured and a larger safe distance, template and
+     * optimized photo order, and square or rounded corners.
+     *
+     * @param photoOrder   optimized photo order, or null if there is none
+     * @param roundCorners whether rounded corners can be flown, i.e. with on-board capture
+     */
+    public static List<Variant> grid(MissionConfiguration configuration, int[] photoOrder, boolean roundCorners) {
+        float speed = configuration.getDefaultSpeed();
+        float safeDistance = configuration.getSafeDistance();
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant(speed, safeDistance, photoOrder, roundCorners));
+
+        for (float factor : SPEED_FACTORS) {
+            for (int distanceStep = 0; distanceStep < 2; distanceStep++) {
+                for (int orderStep = 0; orderStep < (photoOrder != null ? 2 : 1); orderStep++) {
+                    for (int cornerStep = 0; cornerStep < (roundCorners ? 2 : 1); cornerStep++) {
+                        boolean configured = factor == 1.0f && distanceStep == 0 &&
+                                orderStep == 0 && cornerStep == 0;
+                        if (!configured) {
+                            variants.add(new Variant(
+                                    Math.max(1.0f, Math.min(15.0f, speed * factor)),
+                                    safeDistance + distanceStep * SAFE_DISTANCE_STEP,
+                                    orderStep == 0 ? photoOrder : null,
+                                    roundCorners && cornerStep == 0));
+                        }
+                    }
+                }
+            }
+        }
+        return variants;
+    }
+
+    // ==========================================
+    // EVALUATION
+    // ==========================================
+
+    /**
+     * Starts scoring the variants for the given route and returns at once.
+     *
+     * @param structureOrder visiting order as structure indices, or null for table order
+     */
+    public Evaluation evaluate(StructureTable structures, PhotoTemplateTable photoTemplate, int[] structureOrder,
+                               double homeLatitude, double homeLongitude, List<Variant> variants,
+                               Callback callback) {
+        Evaluation evaluation = new Evaluation(structures, photoTemplate, structureOrder,
+                homeLatitude, homeLongitude, variants.size(), callback);
+        for (int i = 0; i < variants.size(); i++) {
+            final Variant variant = variants.get(i);
+            final int slot = i;
+            evaluation.futures.add(executor.submit(() -> {
+                if (evaluation.cancelled.get()) {
+                    return;
+                }
+                Score score;
+                try {
+                    score = score(evaluation, variant);
+                } catch (RuntimeException e) {
+                    score = new Score(variant, null, 0, 0, 0, 0, e.getMessage());
+                }
+                evaluation.finish(slot, score);
+            }));
+        }
+        return evaluation;
+    }
+
+    private Score score(Evaluation evaluation, Variant variant) {
+        EnergyModel model = new EnergyModel.Builder()
+                .setCruiseSpeed(variant.speed)
+                .setHoverPower(hoverPowerW)
+                .setPhotoDwellSeconds(photoDwellSeconds)
+                .build();
+        TerrainService terrain = terrainDirectory != null && !Double.isNaN(referenceElevation) ?
+                new TerrainService(terrainDirectory) : null;
+
+        SortiePlanner.Result sorties = new SortiePlanner(model, batteryCapacityWh, reservePercent)
+                .setPhotoOrder(variant.photoOrder, true)
+                .setTerrain(terrain, referenceElevation)
+                .setPlanOptions(variant.speed, variant.safeDistance, variant.roundCorners)
+                .plan(evaluation.structures, evaluation.photoTemplate, evaluation.structureOrder,
+                        evaluation.homeLatitude, evaluation.homeLongitude);
+
+        MissionSimulator simulator = new MissionSimulator.Builder()
+                .setMaxSpeed(variant.speed)
+                .setPhotoDwellSeconds(photoDwellSeconds)
+                .setUseCorners(variant.roundCorners)
+                .build();
+
+        double seconds = 0;
+        double distance = 0;
+        int waypoints = 0;
+        for (int i = 0; i < sorties.getSortieCount(); i++) {
+            if (evaluation.cancelled.get()) {
+                throw new IllegalStateException("Cancelled");
+            }
+            WaypointPlan plan = sorties.getSortie(i).getPlan();
+            MissionSimulator.Result simulated = simulator.simulate(plan);
+            seconds += simulated.getSeconds();
+            distance += simulated.getDistance();
+            waypoints += plan.size();
+        }
+        seconds += Math.max(0, sorties.getSortieCount() - 1) * BATTERY_SWAP_SECONDS;
+
+        return new Score(variant, sorties, seconds, distance, waypoints, sorties.getTotalEnergyWh(), null);
+    }
+
+    /**
+     * Scores of one variant; infeasible variants carry the reason instead.
+     */
+    public static class Score {
+        private final Variant variant;
+        private SortiePlanner.Result sorties;
+        private final double seconds;
+        private final double distance;
+        private final int waypointCount;
+        private final double energyWh;
+        private final String error;
+
+        Score(Variant variant, SortiePlanner.Result sorties, double seconds, double distance,
+              int waypointCount, double energyWh, String error) {
+            this.variant = variant;
+            this.sorties = sorties;
+            this.seconds = seconds;
+            this.distance = distance;
+            this.waypointCount = waypointCount;
+            this.energyWh = energyWh;
+            this.error = error;
+        }
+
+        public Variant getVariant() { return variant; }
+
+        /** Built sorties; only the best variant keeps them. */
+        public SortiePlanner.Result getSorties() { return sorties; }
+
+        /** Simulated flight time of all sorties plus battery swaps between them. */
+        public double getSeconds() { return seconds; }
+        public double getDistance() { return distance; }
+        public int getWaypointCount() { return waypointCount; }
+        public double getEnergyWh() { return energyWh; }
+        public int getSortieCount() { return sorties != null ? sorties.getSortieCount() : 0; }
+        public boolean isFeasible() { return error == null; }
+        public String getError() { return error; }
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return variant + ": not feasible, " + error;
+            }
+            return String.format(Locale.US, "%s: %.1f min, %.2f km, %d waypoints, %.0f Wh",
+                    variant, seconds / 60, distance / 1000, waypointCount, energyWh);
+        }
+    }
+
+    private static final Comparator<Score> RANKING = (a, b) -> {
+        if (a.isFeasible() != b.isFeasible()) {
+            return a.isFeasible() ? -1 : 1;
+        }
+        int bySeconds = Double.compare(a.seconds, b.seconds);
+        return bySeconds != 0 ? bySeconds : Double.compare(a.energyWh, b.energyWh);
+    };
+
+    /**
+     * A running or finished evaluation, and the inputs it was planned for.
+     */
+    public static class Evaluation {
+        private final StructureTable structures;
+        private final PhotoTemplateTable photoTemplate;
+        private final int[] structureOrder;
+        private final double homeLatitude;
+        private final double homeLongitude;
+        private final Callback callback;
+        private final long startTime = System.nanoTime();
+
+        private final Score[] scores;
+        private final AtomicInteger remaining;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final List<Future<?>> futures = new ArrayList<>();
+        private volatile List<Score> ranking;
+        private volatile long elapsedNanos;
+
+        Evaluation(StructureTable structures, PhotoTemplateTable photoTemplate, int[] structureOrder,
+                   double homeLatitude, double homeLongitude, int variantCount, Callback callback) {
+            this.structures = structures;
+            this.photoTemplate = photoTemplate;
+            this.structureOrder = structureOrder;
+            this.homeLatitude = homeLatitude;
+            this.homeLongitude = homeLongitude;
+            this.callback = callback;
+            this.scores = new Score[variantCount];
+            this.remaining = new AtomicInteger(variantCount);
+        }
+
+        private void finish(int slot, Score score) {
+            synchronized (scores) {
+                scores[slot] = score;
+            }
+            if (remaining.decrementAndGet() != 0 || cancelled.get()) {
+                return;
+            }
+
+            List<Score> ranked = new ArrayList<>(scores.length);
+            synchronized (scores) {
+                Collections.addAll(ranked, scores);
+            }
+            Collections.sort(ranked, RANKING);
+            for (int i = 1; i < ranked.size(); i++) {
+                ranked.get(i).sorties = null;
+            }
+            elapsedNanos = System.nanoTime() - startTime;
+            ranking = Collections.unmodifiableList(ranked);
+
+            Log.d(TAG, "Evaluated " + ranked.size() + " variants in " + elapsedNanos / 1000000 + " ms, best: " +
+                    (ranked.isEmpty() ? "none" : ranked.get(0)));
+            if (callback != null) {
+                callback.onEvaluated(this);
+            }
+        }
+
+        /**
+         * Stops the evaluation; variants already running give up at their next sortie.
+         */
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                for (Future<?> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        }
+
+        public boolean isCancelled() { return cancelled.get(); }
+        public boolean isDone() { return ranking != null; }
+
+        /** Variants best first, or null while running. */
+        public List<Score> getRanking() { return ranking; }
+
+        /** Best feasible variant, or null if none is or the evaluation is not done. */
+        public Score getBest() {
+            List<Score> ranked = ranking;
+            return ranked != null && !ranked.isEmpty() && ranked.get(0).isFeasible() ? ranked.get(0) : null;
+        }
+
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Whether the evaluation was planned for these inputs, compared by identity
+         * like the other plan caches.
+         */
+        public boolean isFor(StructureTable structures, PhotoTemplateTable photoTemplate,
+                             double homeLatitude, double homeLongitude) {
+            return this.structures == structures && this.photoTemplate == photoTemplate &&
+                    this.homeLatitude == homeLatitude && this.homeLongitude == homeLongitude;
+        }
+
+        public int[] getStructureOrder() { return structureOrder; }
+    }
+}
@@ -0,0 +1,641 @@
+// ==========================================
+// RouteOptimizer.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import android.util.Log;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.utils.CoordinateUtils;
+import com.dji.sdk.sample.demo.missionoperator.utils.StructureSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Chooses the order in which structures are visited.
+ *
+ * The route is a closed tour from the home point through every structure and
+ * back, with home pinned at the start. It starts from the best of the CSV
+ * order, the lines chained end to end and a nearest-neighbour tour, then
+ * improves with 2-opt and Or-opt moves over each node's nearest neighbours
+ * until no move helps or the time budget runs out. Up to {@link #MATRIX_LIMIT} structures distances come from
+ * a haversine matrix computed in parallel; larger jobs use local planar
+ * meters computed on the fly, which keeps memory linear.
+ *
+ * With "keep line order" the towers of each line stay in sequence and only
+ * the order and direction of the lines is chosen.
+ */
+public class RouteOptimizer {
+    private static final String TAG = "RouteOptimizer";
+
+    private static final int MATRIX_LIMIT = 1500;               // float matrix of ~9 MB
+    private static final int NEIGHBOUR_COUNT = 10;
+    private static final int MAX_SEGMENT_LENGTH = 3;            // Or-opt moves chains of up to 3 structures
+    private static final double LINE_BREAK_DISTANCE = 1000;     // meters between consecutive rows that starts a new line
+    private static final int TIME_CHECK_INTERVAL_MASK = 0xFF;
+    private static final double EPSILON = 1e-6;
+    private static final double METERS_PER_DEGREE = 6371000 * Math.PI / 180;
+
+    private long timeBudgetMillis = 2000;
+    private boolean keepLineOrder = false;
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    // Problem state: node 0 is home, node k is structure k - 1
+    private int nodeCount;
+    private boolean hasHome;
+    private float[] matrix;
+    private double[] x;
+    private double[] y;
+    private int[] tour;
+    private int[] position;
+    private int[][] neighbours;
+    private long deadline;
+    private int iterations;
+
+    public static class Result {
+        private final int[] order;
+        private final double originalDistance;
+        private final double optimizedDistance;
+        private final long elapsedNanos;
+        private final int improvements;
+
+        Result(int[] order, double originalDistance, double optimizedDistance, long elapsedNanos, int improvements) {
+            this.order = order;
+            this.originalDistance = originalDistance;
+            this.optimizedDistance = optimizedDistance;
+            this.elapsedNanos = elapsedNanos;
+            this.improvements = improvements;
+        }
+
+        /** Structure indices in visiting order. */
+        public int[] getOrder() { return order; }
+        public double getOriginalDistance() { return originalDistance; }
+        public double getOptimizedDistance() { return optimizedDistance; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getImprovements() { return improvements; }
+
+        public double getDistanceSaved() {
+            return originalDistance - optimizedDistance;
+        }
+
+        public double getSavedPercent() {
+            return originalDistance > 0 ? 100 * getDistanceSaved() / originalDistance : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Route: %.2f km -> %.2f km (%.1f%% saved), %d moves in %.0f ms",
+                    originalDistance / 1000, optimizedDistance / 1000, getSavedPercent(),
+                    improvements, elapsedNanos / 1e6);
+        }
+    }
+
+    public RouteOptimizer setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = Math.max(0, timeBudgetMillis);
+        return this;
+    }
+
+    public RouteOptimizer setKeepLineOrder(boolean keepLineOrder) {
+        this.keepLineOrder = keepLineOrder;
+        return this;
+    }
+
+    public RouteOptimizer setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+        return this;
+    }
+
+    /**
+     * @param homeLatitude  home point, or 0/0 when not known yet; the route is
+     *                      then an open path with free end points
+     */
+    public Result optimize(StructureTable structures, double homeLatitude, double homeLongitude) {
+        long startTime = System.nanoTime();
+        int structureCount = structures.size();
+
+        hasHome = CoordinateUtils.areCoordinatesValid(homeLatitude, homeLongitude) &&
+                !(homeLatitude == 0 && homeLongitude == 0);
+        nodeCount = structureCount + 1;
+        projectNodes(structures, homeLatitude, homeLongitude);
+        matrix = nodeCount <= MATRIX_LIMIT ? computeMatrix(structures, homeLatitude, homeLongitude) : null;
+
+        int[] csvTour = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            csvTour[i] = i;
+        }
+        double originalDistance = tourLength(csvTour);
+
+        deadline = startTime + timeBudgetMillis * 1_000_000L;
+        iterations = 0;
+        int improvements = 0;
+
+        if (structureCount < 3) {
+            tour = csvTour;
+        } else if (keepLineOrder) {
+            tour = chainLines();
+        } else {
+            // Merged line files are often best served line by line, so that is a candidate start too
+            tour = csvTour;
+            double tourDistance = originalDistance;
+            for (int[] candidate : new int[][]{chainLines(), nearestNeighbourTour()}) {
+                double candidateDistance = tourLength(candidate);
+                if (candidateDistance < tourDistance) {
+                    tour = candidate;
+                    tourDistance = candidateDistance;
+                }
+            }
+            position = new int[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                position[tour[i]] = i;
+            }
+            neighbours = buildNeighbourLists(structures, homeLatitude, homeLongitude);
+            improvements = improve();
+        }
+
+        int[] order = new int[structureCount];
+        for (int i = 1; i < nodeCount; i++) {
+            order[i - 1] = tour[i] - 1;
+        }
+
+        Result result = new Result(order, originalDistance, tourLength(tour),
+                System.nanoTime() - startTime, improvements);
+        Log.d(TAG, result + " for " + structureCount + " structures" +
+                (matrix != null ? " (haversine matrix)" : " (planar distances)") +
+                (keepLineOrder ? ", line order kept" : ""));
+
+        // Release working memory, the optimizer may be kept around
+        matrix = null;
+        tour = null;
+        position = null;
+        neighbours = null;
+        return result;
+    }
+
+    // ==========================================
+    // DISTANCES
+    // ==========================================
+
+    private void projectNodes(StructureTable structures, double homeLatitude, double homeLongitude) {
+        double originLatitude = hasHome ? homeLatitude : (nodeCount > 1 ? structures.getLatitude(0) : 0);
+        double metersPerDegreeLon = METERS_PER_DEGREE * Math.cos(Math.toRadians(originLatitude));
+
+        x = new double[nodeCount];
+        y = new double[nodeCount];
+        if (hasHome) {
+            x[0] = homeLongitude * metersPerDegreeLon;
+            y[0] = homeLatitude * METERS_PER_DEGREE;
+        }
+        for (int i = 1; i < nodeCount; i++) {
+            x[i] = structures.getLongitude(i - 1) * metersPerDegreeLon;
+            y[i] = structures.getLatitude(i - 1) * METERS_PER_DEGREE;
+        }
+    }
+
+    private float[] computeMatrix(StructureTable structures, double homeLatitude, double homeLongitude) {
+        final int n = nodeCount;
+        final double[] latitude = new double[n];
+        final double[] longitude = new double[n];
+        final double[] cosLatitude = new double[n];
+        latitude[0] = Math.toRadians(homeLatitude);
+        longitude[0] = Math.toRadians(homeLongitude);
+        for (int i = 1; i < n; i++) {
+            latitude[i] = Math.toRadians(structures.getLatitude(i - 1));
+            longitude[i] = Math.toRadians(structures.getLongitude(i - 1));
+        }
+        for (int i = 0; i < n; i++) {
+            cosLatitude[i] = Math.cos(latitude[i]);
+        }
+
+        final float[] distances = new float[n * n];
+        int taskCount = Math.max(1, Math.min(workers, n / 64));
+        List<Callable<Void>> tasks = new ArrayList<>(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            final int firstRow = t;
+            final int rowStep = taskCount;
+            // Interleaved rows balance the triangular workload
+            tasks.add(() -> {
+                for (int i = firstRow; i < n; i += rowStep) {
+                    for (int j = i + 1; j < n; j++) {
+                        double sinLat = Math.sin((latitude[j] - latitude[i]) / 2);
+                        double sinLon = Math.sin((longitude[j] - longitude[i]) / 2);
+                        double a = sinLat * sinLat + cosLatitude[i] * cosLatitude[j] * sinLon * sinLon;
+                        float distance = (float) (2 * 6371000 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a)));
+                        distances[i * n + j] = distance;
+                        distances[j * n + i] = distance;
+                    }
+                }
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(taskCount);
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Distance matrix interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Distance matrix failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (!hasHome) {
+            for (int i = 0; i < n; i++) {
+                distances[i] = 0;
+                distances[i * n] = 0;
+            }
+        }
+        return distances;
+    }
+
+    private double distance(int a, int b) {
+        if (matrix != null) {
+            return matrix[a * nodeCount + b];
+        }
+        if (!hasHome && (a == 0 || b == 0)) {
+            return 0;
+        }
+        double dx = x[a] - x[b];
+        double dy = y[a] - y[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private double tourLength(int[] nodes) {
+        double length = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            length += distance(nodes[i], nodes[(i + 1) % nodes.length]);
+        }
+        return length;
+    }
+
+    // ==========================================
+    // CONSTRUCTION
+    // ==========================================
+
+    private int[] nearestNeighbourTour() {
+        int[] result = new int[nodeCount];
+        boolean[] visited = new boolean[nodeCount];
+        int current = 0;
+        visited[0] = true;
+
+        for (int i = 1; i < nodeCount; i++) {
+            int best = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (int candidate = 1; candidate < nodeCount; candidate++) {
+                if (!visited[candidate]) {
+                    double d = current == 0 && !hasHome ? candidate : distance(current, candidate);
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = candidate;
+                    }
+                }
+            }
+            result[i] = best;
+            visited[best] = true;
+            current = best;
+        }
+        return result;
+    }
+
+    /**
+     * Splits the CSV order into lines at large gaps and chains whole lines,
+     * each time flying to the closest free end of a remaining line.
+     */
+    private int[] chainLines() {
+        List<int[]> lines = new ArrayList<>();
+        int lineStart = 1;
+        for (int i = 2; i <= nodeCount; i++) {
+            if (i == nodeCount || distance(i - 1, i) > LINE_BREAK_DISTANCE) {
+                lines.add(new int[]{lineStart, i - 1});
+                lineStart = i;
+            }
+        }
+
+        int[] result = new int[nodeCount];
+        boolean[] used = new boolean[lines.size()];
+        int count = 1;
+        int current = 0;
+
+        for (int chained = 0; chained < lines.size(); chained++) {
+            int bestLine = -1;
+            boolean bestReversed = false;
+            double bestDistance = Double.MAX_VALUE;
+            for (int l = 0; l < lines.size(); l++) {
+                if (used[l]) continue;
+                int[] line = lines.get(l);
+                double toFirst = current == 0 && !hasHome ? line[0] : distance(current, line[0]);
+                double toLast = current == 0 && !hasHome ? Double.MAX_VALUE : distance(current, line[1]);
+                if (toFirst < bestDistance) {
+                    bestDistance = toFirst;
+                    bestLine = l;
+                    bestReversed = false;
+                }
+                if (toLast < bestDistance) {
+                    bestDistance = toLast;
+                    bestLine = l;
+                    bestReversed = true;
+                }
+            }
+
+            used[bestLine] = true;
+            int[] line = lines.get(bestLine);
+            if (bestReversed) {
+                for (int node = line[1]; node >= line[0]; node--) result[count++] = node;
+                current = line[0];
+            } else {
+                for (int node = line[0]; node <= line[1]; node++) result[count++] = node;
+                current = line[1];
+            }
+        }
+
+        Log.d(TAG, "Chained " + lines.size() + " lines");
+        return result;
+    }
+
+    private int[][] buildNeighbourLists(StructureTable structures, double homeLatitude, double homeLongitude) {
+        int k = Math.min(NEIGHBOUR_COUNT, nodeCount - 2);
+        int[][] lists = new int[nodeCount][];
+
+        if (matrix != null) {
+            double[] bestDistances = new double[k];
+            for (int a = 0; a < nodeCount; a++) {
+                int[] best = new int[k];
+                int found = 0;
+                for (int b = 1; b < nodeCount; b++) {
+                    if (b == a) continue;
+                    double d = distance(a, b);
+                    if (found < k || d < bestDistances[found - 1]) {
+                        int slot = found < k ? found++ : found - 1;
+                        while (slot > 0 && bestDistances[slot - 1] > d) {
+                            bestDistances[slot] = bestDistances[slot - 1];
+                            best[slot] = best[slot - 1];
+                            slot--;
+                        }
+                        bestDistances[slot] = d;
+                        best[slot] = b;
+                    }
+                }
+                lists[a] = Arrays.copyOf(best, found);
+            }
+            return lists;
+        }
+
+        StructureSpatialIndex index = StructureSpatialIndex.build(structures);
+        int[] results = new int[k + 1];
+        for (int a = 1; a < nodeCount; a++) {
+            int found = index.nearest(structures.getLatitude(a - 1), structures.getLongitude(a - 1), results, null);
+            int[] list = new int[k];
+            int count = 0;
+            for (int r = 0; r < found && count < k; r++) {
+                if (results[r] != a - 1) {
+                    list[count++] = results[r] + 1;
+                }
+            }
+            lists[a] = Arrays.copyOf(list, count);
+        }
+
+        if (hasHome) {
+            int found = index.nearest(homeLatitude, homeLongitude, results, null);
+            int[] list = new int[found];
+            for (int r = 0; r < found; r++) {
+                list[r] = results[r] + 1;
+            }
+            lists[0] = list;
+        } else {
+            lists[0] = new int[0];
+        }
+        return lists;
+    }
+
+    // ==========================================
+    // LOCAL SEARCH
+    // ==========================================
+
+    private int improve() {
+        // Work queue of nodes whose surroundings may still improve ("don't look" bits)
+        int[] queue = new int[nodeCount];
+        boolean[] queued = new boolean[nodeCount];
+        int head = 0;
+        int queueSize = nodeCount;
+        for (int i = 0; i < nodeCount; i++) {
+            queue[i] = tour[i];
+            queued[tour[i]] = true;
+        }
+
+        int improvements = 0;
+        int[] touched = new int[8];
+
+        while (queueSize > 0) {
+            if ((++iterations & TIME_CHECK_INTERVAL_MASK) == 0 && System.nanoTime() > deadline) {
+                Log.d(TAG, "Time budget reached with " + queueSize + " nodes left to check");
+                break;
+            }
+
+            int a = queue[head];
+            head = (head + 1) % nodeCount;
+            queueSize--;
+            queued[a] = false;
+
+            int touchedCount = tryTwoOpt(a, touched);
+            if (touchedCount == 0) {
+                touchedCount = tryOrOpt(a, touched);
+            }
+
+            if (touchedCount > 0) {
+                improvements++;
+                for (int t = 0; t < touchedCount; t++) {
+                    int node = touched[t];
+                    if (!queued[node]) {
+                        queue[(head + queueSize) % nodeCount] = node;
+                        queueSize++;
+                        queued[node] = true;
+                    }
+                }
+                // Look at this node again
+                if (!queued[a]) {
+                    queue[(head + queueSize) % nodeCount] = a;
+                    queueSize++;
+                    queued[a] = true;
+                }
+            }
+        }
+
+        return improvements;
+    }
+
+    private int next(int node) {
+        return tour[(position[node] + 1) % nodeCount];
+    }
+
+    private int previous(int node) {
+        return tour[(position[node] + nodeCount - 1) % nodeCount];
+    }
+
+    /**
+     * Tries to replace edges (a, next a) and (c, next c) with (a, c) and
+     * (next a, next c), for c among a's neighbours, in both tour directions.
+     */
+    private int tryTwoOpt(int a, int[] touched) {
+        for (int direction = 0; direction < 2; direction++) {
+            int b = direction == 0 ? next(a) : previous(a);
+            double removedAB = distance(a, b);
+
+            for (int c : neighbours[a]) {
+                double addedAC = distance(a, c);
+                if (addedAC >= removedAB) {
+                    break;   // Sorted neighbours: no later c can gain
+                }
+
+                int d = direction == 0 ? next(c) : previous(c);
+                if (c == b || d == a) {
+                    continue;
+                }
+
+                double delta = addedAC + distance(b, d) - removedAB - distance(c, d);
+                if (delta < -EPSILON) {
+                    if (direction == 0) {
+                        reverse(a, c);
+                    } else {
+                        reverse(b, d);
+                    }
+                    touched[0] = a;
+                    touched[1] = b;
+                    touched[2] = c;
+                    touched[3] = d;
+                    return 4;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Applies the 2-opt move on edges (p, next p) and (q, next q) by reversing
+     * the tour between them. Home stays at position 0.
+     */
+    private void reverse(int p, int q) {
+        int i = Math.min(position[p], position[q]) + 1;
+        int j = Math.max(position[p], position[q]);
+        while (i < j) {
+            int node = tour[i];
+            tour[i] = tour[j];
+            tour[j] = node;
+            position[tour[i]] = i;
+            position[tour[j]] = j;
+            i++;
+            j--;
+        }
+    }
+
+    /**
+     * Tries to move a chain of up to three structures starting at a to a
+     * better place next to one of the chain ends' neighbours, optionally
+     * reversed.
+     */
+    private int tryOrOpt(int a, int[] touched) {
+        int start = position[a];
+        if (start == 0) {
+            return 0;
+        }
+
+        for (int length = 1; length <= MAX_SEGMENT_LENGTH; length++) {
+            int end = start + length - 1;
+            if (end >= nodeCount) {
+                break;
+            }
+
+            int first = tour[start];
+            int last = tour[end];
+            int before = tour[start - 1];
+            int after = tour[(end + 1) % nodeCount];
+            double removalGain = distance(before, first) + distance(last, after) - distance(before, after);
+            if (removalGain <= EPSILON) {
+                continue;
+            }
+
+            double bestDelta = -EPSILON;
+            int bestLeft = -1;
+            boolean bestReversed = false;
+
+            for (int endpoint = 0; endpoint < 2; endpoint++) {
+                int anchor = endpoint == 0 ? first : last;
+                for (int c : neighbours[anchor]) {
+                    int cPosition = position[c];
+                    if (cPosition >= start && cPosition <= end) {
+                        continue;
+                    }
+                    // Insert between (c, next c) or (previous c, c)
+                    for (int side = 0; side < 2; side++) {
+                        int left = side == 0 ? c : previous(c);
+                        int right = side == 0 ? next(c) : c;
+                        int leftPosition = position[left];
+                        if (leftPosition >= start - 1 && leftPosition <= end) {
+                            continue;   // Edge touches the chain itself
+                        }
+
+                        double removed = distance(left, right);
+                        double forward = distance(left, first) + distance(last, right) - removed;
+                        double reversed = distance(left, last) + distance(first, right) - removed;
+                        double delta = Math.min(forward, reversed) - removalGain;
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestLeft = left;
+                            bestReversed = reversed < forward;
+                        }
+                    }
+                }
+            }
+
+            if (bestLeft >= 0) {
+                int right = next(bestLeft);
+                moveSegment(start, length, position[bestLeft], bestReversed);
+                touched[0] = first;
+                touched[1] = last;
+                touched[2] = before;
+                touched[3] = after;
+                touched[4] = bestLeft;
+                touched[5] = right;
+                return 6;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Moves tour positions [start, start + length) to just after position
+     * {@code after}, shifting the nodes in between.
+     */
+    private void moveSegment(int start, int length, int after, boolean reversed) {
+        int[] segment = new int[length];
+        for (int k = 0; k < length; k++) {
+            segment[k] = tour[reversed ? start + length - 1 - k : start + k];
+        }
+
+        int from;
+        int to;
+        if (after > start) {
+            System.arraycopy(tour, start + length, tour, start, after - start - length + 1);
+            System.arraycopy(segment, 0, tour, after - length + 1, length);
+            from = start;
+            to = after;
+        } else {
+            System.arraycopy(tour, after + 1, tour, after + 1 + length, start - after - 1);
+            System.arraycopy(segment, 0, tour, after + 1, length);
+            from = after + 1;
+            to = start + length - 1;
+        }
+
+        for (int i = from; i <= to; i++) {
+            position[tour[i]] = i;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+// ==========================================
+// SortiePlanner.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.service.InspectionPlanBuilder;
+import com.dji.sdk.sample.demo.missionoperator.service.TerrainService;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits the visiting order into sorties that each fit one battery.
+ *
+ * Every sortie takes off from home, inspects a run of consecutive structures
+ * from the route and returns home, and must not use more than the battery
+ * capacity minus the reserve according to the {@link EnergyModel}. The plan
+ * for the whole route is built once and its per-step energy summed into a
+ * prefix table, so trying one more structure in a sortie costs only the
+ * flight from home to its first structure and the return from the candidate.
+ * Structures are taken greedily in route order.
+ *
+ * Like the energy model this class runs on a plain JVM.
+ */
+public class SortiePlanner {
+    private final EnergyModel model;
+    private final double batteryCapacityWh;
+    private final double reservePercent;
+    private int[] photoOrder;
+    private boolean alternatePhotoOrder;
+    private TerrainService terrain;
+    private double referenceElevation;
+    private float speed = Constants.DEFAULT_SPEED;
+    private float safeDistance = Constants.SAFE_DISTANCE;
+    private boolean roundCorners = true;
+
+    public SortiePlanner(EnergyModel model, double batteryCapacityWh, double reservePercent) {
+        if (!(batteryCapacityWh > 0)) {
+            throw new IllegalArgumentException("Battery capacity must be positive: " + batteryCapacityWh);
+        }
+        if (reservePercent < 0 || reservePercent >= 100) {
+            throw new IllegalArgumentException("Battery reserve must be in [0, 100): " + reservePercent);
+        }
+        this.model = model;
+        this.batteryCapacityWh = batteryCapacityWh;
+        this.reservePercent = reservePercent;
+    }
+
+    public static class Sortie {
+        private final int[] structureOrder;
+        private final WaypointPlan plan;
+        private final EnergyModel.Estimate estimate;
+
+        Sortie(int[] structureOrder, WaypointPlan plan, EnergyModel.Estimate estimate) {
+            this.structureOrder = structureOrder;
+            this.plan = plan;
+            this.estimate = estimate;
+        }
+
+        /** Structure indices flown in this sortie, in visiting order. */
+        public int[] getStructureOrder() { return structureOrder; }
+        public WaypointPlan getPlan() { return plan; }
+        public EnergyModel.Estimate getEstimate() { return estimate; }
+
+        public int getStructureCount() {
+            return structureOrder.length;
+        }
+
+        @Override
+        public String toString() {
+            return "Sortie{structures=" + structureOrder.length + ", waypoints=" + plan.size() +
+                    ", " + estimate + "}";
+        }
+    }
+
+    public static class Result {
+        private final List<Sortie> sorties;
+        private final double batteryCapacityWh;
+        private final double usableWh;
+        private final long elapsedNanos;
+
+        Result(List<Sortie> sorties, double batteryCapacityWh, double usableWh, long elapsedNanos) {
+            this.sorties = Collections.unmodifiableList(sorties);
+            this.batteryCapacityWh = batteryCapacityWh;
+            this.usableWh = usableWh;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<Sortie> getSorties() { return sorties; }
+        public int getSortieCount() { return sorties.size(); }
+        public Sortie getSortie(int index) { return sorties.get(index); }
+        public double getBatteryCapacityWh() { return batteryCapacityWh; }
+        public double getUsableWh() { return usableWh; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getTotalSeconds() {
+            double total = 0;
+            for (Sortie sortie : sorties) {
+                total += sortie.getEstimate().getSeconds();
+            }
+            return total;
+        }
+
+        public double getTotalEnergyWh() {
+            double total = 0;
+            for (Sortie sortie : sorties) {
+                total += sortie.getEstimate().getEnergyWh();
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d sorties, %.1f min, %.1f Wh (%.1f Wh usable per battery), planned in %.1f ms",
+                    sorties.size(), getTotalSeconds() / 60, getTotalEnergyWh(), usableWh, elapsedNanos / 1e6);
+        }
+    }
+
+    /**
+     * Photo order passed on to {@link InspectionPlanBuilder#setPhotoOrder(int[], boolean)}.
+     */
+    public SortiePlanner setPhotoOrder(int[] photoOrder, boolean alternate) {
+        this.photoOrder = photoOrder;
+        this.alternatePhotoOrder = alternate;
+        return this;
+    }
+
+    /**
+     * Terrain passed on to {@link InspectionPlanBuilder#setTerrain(TerrainService, double)}.
+     */
+    public SortiePlanner setTerrain(TerrainService terrain, double referenceElevation) {
+        this.terrain = terrain;
+        this.referenceElevation = referenceElevation;
+        return this;
+    }
+
+    /**
+     * Speed, safe distance and corner rounding passed on to {@link InspectionPlanBuilder}.
+     */
+    public SortiePlanner setPlanOptions(float speed, float safeDistance, boolean roundCorners) {
+        this.speed = speed;
+        this.safeDistance = safeDistance;
+        this.roundCorners = roundCorners;
+        return this;
+    }
+
+    public double getUsableWh() {
+        return batteryCapacityWh * (1 - reservePercent / 100);
+    }
+
+    /**
+     * @param structureOrder visiting order as structure indices, or null for table order
+     * @throws IllegalArgumentException if a single structure does not fit one battery
+     */
+    public Result plan(StructureTable structures, PhotoTemplateTable photoTemplate, int[] structureOrder,
+                       double homeLatitude, double homeLongitude) {
+        long startTime = System.nanoTime();
+        int[] order = structureOrder;
+        if (order == null) {
+            order = new int[structures.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+        }
+
+        List<Sortie> sorties = new ArrayList<>();
+        double usable = getUsableWh();
+        int visitCount = order.length;
+        if (visitCount == 0) {
+            return new Result(sorties, batteryCapacityWh, usable, System.nanoTime() - startTime);
+        }
+
+        WaypointPlan route = new InspectionPlanBuilder(structures, photoTemplate)
+                .setHome(homeLatitude, homeLongitude)
+                .setStructureOrder(order)
+                .setPhotoOrder(photoOrder, alternatePhotoOrder)
+                .setTerrain(terrain, referenceElevation)
+                .setSpeed(speed)
+                .setSafeDistance(safeDistance)
+                .setRoundCorners(roundCorners)
+                .build();
+
+        // First and last inspection row of each visit; a sortie's plan runs from home
+        // straight to the first and returns from the last, skipping the transit rows
+        int[] firstRow = new int[visitCount];
+        int[] lastRow = new int[visitCount];
+        int visit = -1;
+        for (int i = 1; i < route.size(); i++) {
+            byte kind = route.getKind(i);
+            if (kind == WaypointPlan.KIND_APPROACH) {
+                visit++;
+                firstRow[visit] = i;
+                lastRow[visit] = i;
+            } else if (kind == WaypointPlan.KIND_PHOTO) {
+                lastRow[visit] = i;
+            }
+        }
+
+        // Energy of the route up to each row
+        double[] prefixWh = new double[route.size()];
+        for (int i = 1; i < route.size(); i++) {
+            prefixWh[i] = prefixWh[i - 1] + model.stepEnergyWh(route, i - 1, i);
+        }
+
+        double takeoffWh = model.outboundEnergyWh(route, 0, homeLatitude, homeLongitude);
+        int first = 0;
+        while (first < visitCount) {
+            int last = first;
+            double energy = sortieEnergyWh(route, prefixWh, takeoffWh, firstRow[first], lastRow[first],
+                    homeLatitude, homeLongitude);
+            if (energy > usable) {
+                throw new IllegalArgumentException(String.format(
+                        "Structure %d alone needs %.1f Wh, more than the %.1f Wh usable per battery",
+                        order[first] + 1, energy, usable));
+            }
+
+            while (last + 1 < visitCount && sortieEnergyWh(route, prefixWh, takeoffWh,
+                    firstRow[first], lastRow[last + 1], homeLatitude, homeLongitude) <= usable) {
+                last++;
+            }
+
+            int[] sortieOrder = Arrays.copyOfRange(order, first, last + 1);
+            WaypointPlan plan = new InspectionPlanBuilder(structures, photoTemplate)
+                    .setHome(homeLatitude, homeLongitude)
+                    .setStructureOrder(sortieOrder)
+                    .setPhotoOrder(photoOrder, alternatePhotoOrder)
+                    .setFirstVisit(first)
+                    .setTerrain(terrain, referenceElevation)
+                    .setSpeed(speed)
+                    .setSafeDistance(safeDistance)
+                    .setRoundCorners(roundCorners)
+                    .build();
+            sorties.add(new Sortie(sortieOrder, plan, model.estimate(plan, homeLatitude, homeLongitude)));
+            first = last + 1;
+        }
+
+        return new Result(sorties, batteryCapacityWh, usable, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Energy of a sortie flying route rows [from, to]: takeoff to the home
+     * waypoint, across to row {@code from}, along the route, then home.
+     */
+    private double sortieEnergyWh(WaypointPlan route, double[] prefixWh, double takeoffWh, int from, int to,
+                                  double homeLatitude, double homeLongitude) {
+        return takeoffWh
+                + model.stepEnergyWh(route, 0, from)
+                + prefixWh[to] - prefixWh[from]
+                + model.returnEnergyWh(route, to, homeLatitude, homeLongitude);
+    }
+}
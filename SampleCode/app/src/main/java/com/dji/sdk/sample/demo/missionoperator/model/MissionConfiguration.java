@@ -17,6 +17,19 @@ public class MissionConfiguration {
     private static final String KEY_AUTO_RESUME = "auto_resume";
     private static final String KEY_PHOTO_TIMEOUT = "photo_timeout";
     private static final String KEY_LAST_STREAM_URL = "last_stream_url";
+    private static final String KEY_OPTIMIZE_ROUTE = "optimize_route";
+    private static final String KEY_KEEP_LINE_ORDER = "keep_line_order";
+    private static final String KEY_ROUTE_TIME_BUDGET = "route_time_budget";
+    private static final String KEY_BATTERY_CAPACITY = "battery_capacity_wh";
+    private static final String KEY_BATTERY_RESERVE = "battery_reserve_percent";
+    private static final String KEY_HOVER_POWER = "hover_power_w";
+    private static final String KEY_ON_BOARD_CAPTURE = "on_board_capture";
+    private static final String KEY_FLY_THROUGH_REVIEW = "fly_through_review";
+
+    private static final long DEFAULT_ROUTE_TIME_BUDGET_MS = 2000;
+    private static final float DEFAULT_BATTERY_CAPACITY_WH = 89.2f;   // Phantom 4 series flight battery
+    private static final float DEFAULT_BATTERY_RESERVE_PERCENT = 25.0f;
+    private static final float DEFAULT_HOVER_POWER_W = 180.0f;
 
     private final SharedPreferences prefs;
 
@@ -28,6 +41,14 @@ public class MissionConfiguration {
     private boolean autoResumeAfterPhoto;
     private long photoTimeoutMs;
     private String lastStreamUrl;
+    private boolean optimizeRoute;
+    private boolean keepLineOrder;
+    private long routeTimeBudgetMs;
+    private float batteryCapacityWh;
+    private float batteryReservePercent;
+    private float hoverPowerW;
+    private boolean onBoardCapture;
+    private boolean flyThroughReview;
 
     public MissionConfiguration(Context context) {
         prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
@@ -42,6 +63,14 @@ public class MissionConfiguration {
         autoResumeAfterPhoto = prefs.getBoolean(KEY_AUTO_RESUME, true);
         photoTimeoutMs = prefs.getLong(KEY_PHOTO_TIMEOUT, Constants.PHOTO_REVIEW_TIMEOUT);
         lastStreamUrl = prefs.getString(KEY_LAST_STREAM_URL, Constants.DEFAULT_STREAM_URL);
+        optimizeRoute = prefs.getBoolean(KEY_OPTIMIZE_ROUTE, true);
+        keepLineOrder = prefs.getBoolean(KEY_KEEP_LINE_ORDER, false);
+        routeTimeBudgetMs = prefs.getLong(KEY_ROUTE_TIME_BUDGET, DEFAULT_ROUTE_TIME_BUDGET_MS);
+        batteryCapacityWh = prefs.getFloat(KEY_BATTERY_CAPACITY, DEFAULT_BATTERY_CAPACITY_WH);
+        batteryReservePercent = prefs.getFloat(KEY_BATTERY_RESERVE, DEFAULT_BATTERY_RESERVE_PERCENT);
+        hoverPowerW = prefs.getFloat(KEY_HOVER_POWER, DEFAULT_HOVER_POWER_W);
+        onBoardCapture = prefs.getBoolean(KEY_ON_BOARD_CAPTURE, false);
+        flyThroughReview = prefs.getBoolean(KEY_FLY_THROUGH_REVIEW, false);
     }
 
     public void saveConfiguration() {
@@ -53,6 +82,14 @@ public class MissionConfiguration {
                 .putBoolean(KEY_AUTO_RESUME, autoResumeAfterPhoto)
                 .putLong(KEY_PHOTO_TIMEOUT, photoTimeoutMs)
                 .putString(KEY_LAST_STREAM_URL, lastStreamUrl)
+                .putBoolean(KEY_OPTIMIZE_ROUTE, optimizeRoute)
+                .putBoolean(KEY_KEEP_LINE_ORDER, keepLineOrder)
+                .putLong(KEY_ROUTE_TIME_BUDGET, routeTimeBudgetMs)
+                .putFloat(KEY_BATTERY_CAPACITY, batteryCapacityWh)
+                .putFloat(KEY_BATTERY_RESERVE, batteryReservePercent)
+                .putFloat(KEY_HOVER_POWER, hoverPowerW)
+                .putBoolean(KEY_ON_BOARD_CAPTURE, onBoardCapture)
+                .putBoolean(KEY_FLY_THROUGH_REVIEW, flyThroughReview)
                 .apply();
     }
 
@@ -64,6 +101,14 @@ public class MissionConfiguration {
         autoResumeAfterPhoto = true;
         photoTimeoutMs = Constants.PHOTO_REVIEW_TIMEOUT;
         lastStreamUrl = Constants.DEFAULT_STREAM_URL;
+        optimizeRoute = true;
+        keepLineOrder = false;
+        routeTimeBudgetMs = DEFAULT_ROUTE_TIME_BUDGET_MS;
+        batteryCapacityWh = DEFAULT_BATTERY_CAPACITY_WH;
+        batteryReservePercent = DEFAULT_BATTERY_RESERVE_PERCENT;
+        hoverPowerW = DEFAULT_HOVER_POWER_W;
+        onBoardCapture = false;
+        flyThroughReview = false;
         saveConfiguration();
     }
 
@@ -125,6 +170,79 @@ public class MissionConfiguration {
         this.lastStreamUrl = lastStreamUrl;
     }
 
+    public boolean isOptimizeRoute() {
+        return optimizeRoute;
+    }
+
+    public void setOptimizeRoute(boolean optimizeRoute) {
+        this.optimizeRoute = optimizeRoute;
+    }
+
+    public boolean isKeepLineOrder() {
+        return keepLineOrder;
+    }
+
+    public void setKeepLineOrder(boolean keepLineOrder) {
+        this.keepLineOrder = keepLineOrder;
+    }
+
+    public long getRouteTimeBudgetMs() {
+        return routeTimeBudgetMs;
+    }
+
+    public void setRouteTimeBudgetMs(long routeTimeBudgetMs) {
+        this.routeTimeBudgetMs = Math.max(100, Math.min(30000, routeTimeBudgetMs));
+    }
+
+    public float getBatteryCapacityWh() {
+        return batteryCapacityWh;
+    }
+
+    public void setBatteryCapacityWh(float batteryCapacityWh) {
+        this.batteryCapacityWh = Math.max(10.0f, Math.min(1000.0f, batteryCapacityWh));
+    }
+
+    public float getBatteryReservePercent() {
+        return batteryReservePercent;
+    }
+
+    public void setBatteryReservePercent(float batteryReservePercent) {
+        this.batteryReservePercent = Math.max(10.0f, Math.min(50.0f, batteryReservePercent));
+    }
+
+    public float getHoverPowerW() {
+        return hoverPowerW;
+    }
+
+    public void setHoverPowerW(float hoverPowerW) {
+        this.hoverPowerW = Math.max(50.0f, Math.min(2000.0f, hoverPowerW));
+    }
+
+    /**
+     * Take photos with on-board waypoint v2 actions when the aircraft supports it.
+     * Off by default.
+     */
+    public boolean isOnBoardCapture() {
+        return onBoardCapture;
+    }
+
+    public void setOnBoardCapture(boolean onBoardCapture) {
+        this.onBoardCapture = onBoardCapture;
+    }
+
+    /**
+     * Review photos while the mission flies on and re-shoot rejected ones at
+     * the end of the sortie, instead of stopping at every photo for review.
+     * Off by default.
+     */
+    public boolean isFlyThroughReview() {
+        return flyThroughReview;
+    }
+
+    public void setFlyThroughReview(boolean flyThroughReview) {
+        this.flyThroughReview = flyThroughReview;
+    }
+
     public String getConfigurationSummary() {
         return String.format(
                 "Mission Configuration:\n" +
@@ -134,11 +252,20 @@ public class MissionConfiguration {
                         "Simulator Mode: %s\n" +
                         "Auto Resume: %s\n" +
                         "Photo Timeout: %d ms\n" +
-                        "Stream URL: %s",
+                        "Stream URL: %s\n" +
+                        "Optimize Route: %s%s\n" +
+                        "Battery: %.1f Wh, %.0f%% reserve, %.0f W hover\n" +
+                        "On-board Capture: %s\n" +
+                        "Photo Review: %s",
                 defaultSpeed, safetyAltitude, safeDistance,
                 simulatorMode ? "Yes" : "No",
                 autoResumeAfterPhoto ? "Yes" : "No",
-                photoTimeoutMs, lastStreamUrl
+                photoTimeoutMs, lastStreamUrl,
+                optimizeRoute ? "Yes" : "No",
+                optimizeRoute && keepLineOrder ? " (keep line order)" : "",
+                batteryCapacityWh, batteryReservePercent, hoverPowerW,
+                onBoardCapture ? "Yes" : "No",
+                flyThroughReview ? "While flying" : "Stop at every photo"
         );
     }
 }
\ No newline at end of file
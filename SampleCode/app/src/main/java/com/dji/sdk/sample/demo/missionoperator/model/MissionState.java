@@ -8,8 +8,8 @@ import java.util.List;
 public class MissionState {
 
     // Mission data
-    private List<InspectionPoint> inspectionPoints;
-    private List<RelativePhotoPoint> photoPoints;
+    private StructureTable structures;
+    private PhotoTemplateTable photoTemplate;
 
     // Mission progress
     private int currentStructureIndex = 0;
@@ -32,8 +32,8 @@ public class MissionState {
     }
 
     public void reset() {
-        inspectionPoints = null;
-        photoPoints = null;
+        structures = null;
+        photoTemplate = null;
         currentStructureIndex = 0;
         currentPhotoIndex = 0;
         missionInProgress = false;
@@ -86,20 +86,36 @@ public class MissionState {
 
     // === GETTERS AND SETTERS ===
 
+    public StructureTable getStructures() {
+        return structures;
+    }
+
+    public void setStructures(StructureTable structures) {
+        this.structures = structures;
+    }
+
+    public PhotoTemplateTable getPhotoTemplate() {
+        return photoTemplate;
+    }
+
+    public void setPhotoTemplate(PhotoTemplateTable photoTemplate) {
+        this.photoTemplate = photoTemplate;
+    }
+
     public List<InspectionPoint> getInspectionPoints() {
-        return inspectionPoints;
+        return structures != null ? structures.toList() : null;
     }
 
     public void setInspectionPoints(List<InspectionPoint> inspectionPoints) {
-        this.inspectionPoints = inspectionPoints;
+        this.structures = inspectionPoints != null ? StructureTable.fromPoints(inspectionPoints) : null;
     }
 
     public List<RelativePhotoPoint> getPhotoPoints() {
-        return photoPoints;
+        return photoTemplate != null ? photoTemplate.toList() : null;
     }
 
     public void setPhotoPoints(List<RelativePhotoPoint> photoPoints) {
-        this.photoPoints = photoPoints;
+        this.photoTemplate = photoPoints != null ? PhotoTemplateTable.fromPoints(photoPoints) : null;
     }
 
     public int getCurrentStructureIndex() {
@@ -152,11 +168,11 @@ public class MissionState {
     }
 
     public int getTotalStructures() {
-        return inspectionPoints != null ? inspectionPoints.size() : 0;
+        return structures != null ? structures.size() : 0;
     }
 
     public int getTotalPhotoPositions() {
-        return photoPoints != null ? photoPoints.size() : 0;
+        return photoTemplate != null ? photoTemplate.size() : 0;
     }
 
     public int getTotalPhotos() {
@@ -172,8 +188,8 @@ public class MissionState {
     }
 
     public boolean isDataReady() {
-        return inspectionPoints != null && !inspectionPoints.isEmpty() &&
-                photoPoints != null && !photoPoints.isEmpty();
+        return structures != null && !structures.isEmpty() &&
+                photoTemplate != null && !photoTemplate.isEmpty();
     }
 
     public String getMissionSummary() {
@@ -0,0 +1,162 @@
+// ==========================================
+// PhotoTemplateTable.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.model;
+
+import com.dji.sdk.sample.demo.missionoperator.utils.HashUtils;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar storage for the photo positions flown around every structure.
+ * Offsets are in meters relative to the structure top, pitch in degrees.
+ */
+public class PhotoTemplateTable {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private float[] offsetX;      // meters east (+) / west (-)
+    private float[] offsetY;      // meters north (+) / south (-)
+    private float[] offsetZ;      // meters up (+) / down (-)
+    private float[] gimbalPitch;  // degrees (0 = level, -90 = straight down)
+    private int size;
+
+    public PhotoTemplateTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PhotoTemplateTable(int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        offsetX = new float[initialCapacity];
+        offsetY = new float[initialCapacity];
+        offsetZ = new float[initialCapacity];
+        gimbalPitch = new float[initialCapacity];
+    }
+
+    public static PhotoTemplateTable fromPoints(List<RelativePhotoPoint> points) {
+        PhotoTemplateTable table = new PhotoTemplateTable(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            RelativePhotoPoint point = points.get(i);
+            table.add(point.getOffsetX(), point.getOffsetY(), point.getOffsetZ(), point.getGimbalPitch());
+        }
+        return table;
+    }
+
+    /**
+     * Builds a table that takes ownership of the given column arrays.
+     */
+    public static PhotoTemplateTable fromColumns(float[] offsetX, float[] offsetY, float[] offsetZ,
+                                                 float[] gimbalPitch, int size) {
+        if (offsetX.length < size || offsetY.length < size ||
+                offsetZ.length < size || gimbalPitch.length < size) {
+            throw new IllegalArgumentException("Column arrays shorter than size " + size);
+        }
+
+        PhotoTemplateTable table = new PhotoTemplateTable(0);
+        table.offsetX = offsetX;
+        table.offsetY = offsetY;
+        table.offsetZ = offsetZ;
+        table.gimbalPitch = gimbalPitch;
+        table.size = size;
+        return table;
+    }
+
+    public int add(float x, float y, float z, float pitch) {
+        ensureCapacity(size + 1);
+        offsetX[size] = x;
+        offsetY[size] = y;
+        offsetZ[size] = z;
+        gimbalPitch[size] = pitch;
+        return size++;
+    }
+
+    /**
+     * Appends every row of {@code other}, e.g. to join per-chunk import tables.
+     */
+    public void addAll(PhotoTemplateTable other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.offsetX, 0, offsetX, size, other.size);
+        System.arraycopy(other.offsetY, 0, offsetY, size, other.size);
+        System.arraycopy(other.offsetZ, 0, offsetZ, size, other.size);
+        System.arraycopy(other.gimbalPitch, 0, gimbalPitch, size, other.size);
+        size += other.size;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= offsetX.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, offsetX.length + (offsetX.length >> 1));
+        offsetX = Arrays.copyOf(offsetX, newCapacity);
+        offsetY = Arrays.copyOf(offsetY, newCapacity);
+        offsetZ = Arrays.copyOf(offsetZ, newCapacity);
+        gimbalPitch = Arrays.copyOf(gimbalPitch, newCapacity);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Index-based getters
+    public float getOffsetX(int index) { return offsetX[checkIndex(index)]; }
+    public float getOffsetY(int index) { return offsetY[checkIndex(index)]; }
+    public float getOffsetZ(int index) { return offsetZ[checkIndex(index)]; }
+    public float getGimbalPitch(int index) { return gimbalPitch[checkIndex(index)]; }
+
+    /**
+     * Places every photo position around the plane's origin in one pass,
+     * writing rows [0, size) of the output arrays.
+     */
+    public void project(LocalTangentPlane plane, double[] latitude, double[] longitude, float[] altitude) {
+        plane.project(offsetX, offsetY, offsetZ, size, latitude, longitude, altitude);
+    }
+
+    /**
+     * Hash of the whole template. Every structure shares the template, so any
+     * change here invalidates all photo waypoints.
+     */
+    public long contentHash() {
+        long hash = size;
+        for (int i = 0; i < size; i++) {
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(offsetX[i]));
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(offsetY[i]));
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(offsetZ[i]));
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(gimbalPitch[i]));
+        }
+        return hash;
+    }
+
+    /**
+     * Object view of a single row for callers that still work with RelativePhotoPoint.
+     */
+    public RelativePhotoPoint get(int index) {
+        checkIndex(index);
+        return new RelativePhotoPoint(offsetX[index], offsetY[index], offsetZ[index], gimbalPitch[index]);
+    }
+
+    public List<RelativePhotoPoint> toList() {
+        List<RelativePhotoPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(get(i));
+        }
+        return points;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Photo index " + index + " out of range [0, " + size + ")");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "PhotoTemplateTable{size=" + size + "}";
+    }
+}
@@ -3,7 +3,7 @@
 // ==========================================
 package com.dji.sdk.sample.demo.missionoperator.model;
 
-import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
 
 public class RelativePhotoPoint {
     private final float offsetX;      // meters east (+) / west (-)
@@ -50,12 +50,15 @@ public class RelativePhotoPoint {
     public float getOffsetZ() { return offsetZ; }
     public float getGimbalPitch() { return gimbalPitch; }
 
-    public GPSCoordinate calculateAbsolutePosition(InspectionPoint reference, double meterOffset) {
-        double newLat = reference.getLatitude() + (offsetY * meterOffset);
-        double newLon = reference.getLongitude() + (offsetX * meterOffset);
-        float newAlt = reference.getGroundAltitude() + reference.getStructureHeight() + offsetZ;
+    /**
+     * Single-point convenience; plans place whole templates with
+     * {@link PhotoTemplateTable#project}.
+     */
+    public GPSCoordinate calculateAbsolutePosition(InspectionPoint reference) {
+        LocalTangentPlane plane = new LocalTangentPlane(reference.getLatitude(), reference.getLongitude(),
+                reference.getGroundAltitude() + reference.getStructureHeight());
 
-        return new GPSCoordinate(newLat, newLon, newAlt);
+        return new GPSCoordinate(plane.toLatitude(offsetY), plane.toLongitude(offsetX), plane.toAltitude(offsetZ));
     }
 
     @Override
@@ -0,0 +1,142 @@
+// ==========================================
+// StructureDiff.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Row-level difference between two imports of the same corridor. Rows are
+ * matched by location; a matched row whose hash changed is "modified", an
+ * unmatched new row is "added" and an unmatched old row is "removed". Matched
+ * rows that appear in a different order count as a change too, since the CSV
+ * order is the flight order when route optimization is off.
+ */
+public final class StructureDiff {
+    private final int[] added;      // indices into the new table
+    private final int[] removed;    // indices into the previous table
+    private final int[] modified;   // indices into the new table
+    private final int[] newToOld;   // previous index per new row, -1 when added
+    private final boolean reordered; // matched rows are not in their previous order
+
+    private StructureDiff(int[] added, int[] removed, int[] modified, int[] newToOld, boolean reordered) {
+        this.added = added;
+        this.removed = removed;
+        this.modified = modified;
+        this.newToOld = newToOld;
+        this.reordered = reordered;
+    }
+
+    /**
+     * Diffs {@code current} against {@code previous}. Both hash arrays come from
+     * {@link StructureTable#computeRowHashes()}; the previous one is normally
+     * kept from the last import so only the new file is hashed.
+     */
+    public static StructureDiff compute(StructureTable previous, long[] previousHashes,
+                                        StructureTable current, long[] currentHashes) {
+        int previousSize = previous.size();
+        int currentSize = current.size();
+
+        // Location key -> first previous row, with duplicates chained through nextSameKey
+        Map<Long, Integer> firstByKey = new HashMap<>(previousSize * 2);
+        int[] nextSameKey = new int[previousSize];
+        for (int i = previousSize - 1; i >= 0; i--) {
+            Integer head = firstByKey.put(previous.locationKey(i), i);
+            nextSameKey[i] = head != null ? head : -1;
+        }
+
+        boolean[] matched = new boolean[previousSize];
+        int[] newToOld = new int[currentSize];
+        int[] added = new int[currentSize];
+        int[] modified = new int[currentSize];
+        int addedCount = 0;
+        int modifiedCount = 0;
+        int lastMatched = -1;
+        boolean reordered = false;
+
+        for (int i = 0; i < currentSize; i++) {
+            Integer head = firstByKey.get(current.locationKey(i));
+            int oldIndex = head != null ? head : -1;
+            while (oldIndex >= 0 && (matched[oldIndex] || !current.sameLocation(i, previous, oldIndex))) {
+                oldIndex = nextSameKey[oldIndex];
+            }
+
+            newToOld[i] = oldIndex;
+            if (oldIndex < 0) {
+                added[addedCount++] = i;
+            } else {
+                matched[oldIndex] = true;
+                reordered |= oldIndex < lastMatched;
+                lastMatched = oldIndex;
+                if (previousHashes[oldIndex] != currentHashes[i]) {
+                    modified[modifiedCount++] = i;
+                }
+            }
+        }
+
+        int[] removed = new int[previousSize];
+        int removedCount = 0;
+        for (int i = 0; i < previousSize; i++) {
+            if (!matched[i]) {
+                removed[removedCount++] = i;
+            }
+        }
+
+        return new StructureDiff(Arrays.copyOf(added, addedCount),
+                Arrays.copyOf(removed, removedCount),
+                Arrays.copyOf(modified, modifiedCount),
+                newToOld, reordered);
+    }
+
+    /**
+     * Diff for a first import: every row is added.
+     */
+    public static StructureDiff allAdded(int size) {
+        int[] added = new int[size];
+        int[] newToOld = new int[size];
+        for (int i = 0; i < size; i++) {
+            added[i] = i;
+            newToOld[i] = -1;
+        }
+        return new StructureDiff(added, new int[0], new int[0], newToOld, false);
+    }
+
+    public int[] getAdded() { return added; }
+    public int[] getRemoved() { return removed; }
+    public int[] getModified() { return modified; }
+
+    public int getPreviousIndex(int currentIndex) {
+        return newToOld[currentIndex];
+    }
+
+    public boolean isReordered() {
+        return reordered;
+    }
+
+    /**
+     * True when the new table differs from the previous one in content or in
+     * row order, i.e. whenever new-to-old is not the identity mapping.
+     */
+    public boolean hasChanges() {
+        return added.length > 0 || removed.length > 0 || modified.length > 0 || reordered;
+    }
+
+    /**
+     * Rows of the new table that need revalidating and replanning.
+     */
+    public int[] getChangedRows() {
+        int[] changed = new int[added.length + modified.length];
+        System.arraycopy(added, 0, changed, 0, added.length);
+        System.arraycopy(modified, 0, changed, added.length, modified.length);
+        Arrays.sort(changed);
+        return changed;
+    }
+
+    @Override
+    public String toString() {
+        return "StructureDiff{added=" + added.length + ", removed=" + removed.length +
+                ", modified=" + modified.length + ", reordered=" + reordered + "}";
+    }
+}
@@ -0,0 +1,191 @@
+// ==========================================
+// StructureTable.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.model;
+
+import com.dji.sdk.sample.demo.missionoperator.utils.HashUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar storage for inspection structures. Each structure is a row index
+ * into parallel primitive arrays, so planning passes can walk large corridors
+ * without touching one object per tower.
+ */
+public class StructureTable {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private double[] latitude;
+    private double[] longitude;
+    private float[] groundAltitude;    // Elevation difference from base level (meters)
+    private float[] structureHeight;   // Height of the structure (meters)
+    private int size;
+
+    public StructureTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StructureTable(int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        latitude = new double[initialCapacity];
+        longitude = new double[initialCapacity];
+        groundAltitude = new float[initialCapacity];
+        structureHeight = new float[initialCapacity];
+    }
+
+    public static StructureTable fromPoints(List<InspectionPoint> points) {
+        StructureTable table = new StructureTable(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            InspectionPoint point = points.get(i);
+            table.add(point.getLatitude(), point.getLongitude(),
+                    point.getGroundAltitude(), point.getStructureHeight());
+        }
+        return table;
+    }
+
+    /**
+     * Builds a table that takes ownership of the given column arrays.
+     */
+    public static StructureTable fromColumns(double[] latitude, double[] longitude,
+                                             float[] groundAltitude, float[] structureHeight, int size) {
+        if (latitude.length < size || longitude.length < size ||
+                groundAltitude.length < size || structureHeight.length < size) {
+            throw new IllegalArgumentException("Column arrays shorter than size " + size);
+        }
+
+        StructureTable table = new StructureTable(0);
+        table.latitude = latitude;
+        table.longitude = longitude;
+        table.groundAltitude = groundAltitude;
+        table.structureHeight = structureHeight;
+        table.size = size;
+        return table;
+    }
+
+    public int add(double lat, double lon, float groundAlt, float height) {
+        ensureCapacity(size + 1);
+        latitude[size] = lat;
+        longitude[size] = lon;
+        groundAltitude[size] = groundAlt;
+        structureHeight[size] = height;
+        return size++;
+    }
+
+    /**
+     * Appends every row of {@code other}, e.g. to join per-chunk import tables.
+     */
+    public void addAll(StructureTable other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.latitude, 0, latitude, size, other.size);
+        System.arraycopy(other.longitude, 0, longitude, size, other.size);
+        System.arraycopy(other.groundAltitude, 0, groundAltitude, size, other.size);
+        System.arraycopy(other.structureHeight, 0, structureHeight, size, other.size);
+        size += other.size;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= latitude.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, latitude.length + (latitude.length >> 1));
+        latitude = Arrays.copyOf(latitude, newCapacity);
+        longitude = Arrays.copyOf(longitude, newCapacity);
+        groundAltitude = Arrays.copyOf(groundAltitude, newCapacity);
+        structureHeight = Arrays.copyOf(structureHeight, newCapacity);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public StructureTable copy() {
+        return fromColumns(Arrays.copyOf(latitude, size), Arrays.copyOf(longitude, size),
+                Arrays.copyOf(groundAltitude, size), Arrays.copyOf(structureHeight, size), size);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Index-based getters
+    public double getLatitude(int index) { return latitude[checkIndex(index)]; }
+    public double getLongitude(int index) { return longitude[checkIndex(index)]; }
+    public float getGroundAltitude(int index) { return groundAltitude[checkIndex(index)]; }
+    public float getStructureHeight(int index) { return structureHeight[checkIndex(index)]; }
+
+    public void setGroundAltitude(int index, float groundAlt) {
+        groundAltitude[checkIndex(index)] = groundAlt;
+    }
+
+    public float getTotalInspectionAltitude(int index, float safetyDistance) {
+        checkIndex(index);
+        return groundAltitude[index] + structureHeight[index] + safetyDistance;
+    }
+
+    // === Row hashing ===
+
+    /**
+     * Identity of a row: its position. Re-exported files keep the coordinates of
+     * untouched towers bit-for-bit, so rows are matched across imports by location.
+     */
+    public long locationKey(int index) {
+        checkIndex(index);
+        return HashUtils.mix(Double.doubleToLongBits(latitude[index]) * 31 + Double.doubleToLongBits(longitude[index]));
+    }
+
+    /**
+     * Hash of every column of a row. Two rows with the same location key and a
+     * different row hash describe the same tower with edited values.
+     */
+    public long rowHash(int index) {
+        long hash = locationKey(index);
+        hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(groundAltitude[index]));
+        hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(structureHeight[index]));
+        return hash;
+    }
+
+    public boolean sameLocation(int index, StructureTable other, int otherIndex) {
+        checkIndex(index);
+        other.checkIndex(otherIndex);
+        return latitude[index] == other.latitude[otherIndex] && longitude[index] == other.longitude[otherIndex];
+    }
+
+    public long[] computeRowHashes() {
+        long[] hashes = new long[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = rowHash(i);
+        }
+        return hashes;
+    }
+
+    /**
+     * Object view of a single row for callers that still work with InspectionPoint.
+     */
+    public InspectionPoint get(int index) {
+        checkIndex(index);
+        return new InspectionPoint(latitude[index], longitude[index],
+                groundAltitude[index], structureHeight[index]);
+    }
+
+    public List<InspectionPoint> toList() {
+        List<InspectionPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(get(i));
+        }
+        return points;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Structure index " + index + " out of range [0, " + size + ")");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "StructureTable{size=" + size + "}";
+    }
+}
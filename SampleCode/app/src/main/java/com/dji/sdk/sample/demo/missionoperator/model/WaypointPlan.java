@@ -0,0 +1,208 @@
+// ==========================================
+// WaypointPlan.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.model;
+
+import com.dji.sdk.sample.demo.missionoperator.utils.HashUtils;
+
+import java.util.Arrays;
+
+/**
+ * The full flight path of an inspection, one row per waypoint, independent of
+ * the DJI mission format. FlightService cuts it into uploadable segments; each
+ * row remembers which structure and photo position it belongs to so progress
+ * can be reported against the corridor rather than against a segment.
+ */
+public class WaypointPlan {
+    private static final int DEFAULT_CAPACITY = 128;
+
+    // Waypoint kinds
+    public static final byte KIND_SAFETY = 0;     // Transit at safety altitude (home, between structures)
+    public static final byte KIND_APPROACH = 1;   // Above a structure before the photo positions
+    public static final byte KIND_PHOTO = 2;      // Gimbal pitch + photo
+
+    private double[] latitude;
+    private double[] longitude;
+    private float[] altitude;       // meters above takeoff
+    private float[] heading;        // degrees, 0 = north
+    private float[] gimbalPitch;    // degrees, photo waypoints only
+    private float[] cornerRadius;   // meters, 0 = stop at the waypoint
+    private byte[] kind;
+    private int[] structureIndex;   // -1 for the home waypoint
+    private int[] photoIndex;       // -1 unless KIND_PHOTO
+    private int size;
+    private int removedCount;       // Rows dropped by removeRows since the plan was built
+
+    public WaypointPlan() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public WaypointPlan(int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        latitude = new double[initialCapacity];
+        longitude = new double[initialCapacity];
+        altitude = new float[initialCapacity];
+        heading = new float[initialCapacity];
+        gimbalPitch = new float[initialCapacity];
+        cornerRadius = new float[initialCapacity];
+        kind = new byte[initialCapacity];
+        structureIndex = new int[initialCapacity];
+        photoIndex = new int[initialCapacity];
+    }
+
+    public int addSafety(double lat, double lon, float alt, int structure) {
+        return add(lat, lon, alt, 0, 0, KIND_SAFETY, structure, -1);
+    }
+
+    public int addApproach(double lat, double lon, float alt, int structure) {
+        return add(lat, lon, alt, 0, 0, KIND_APPROACH, structure, -1);
+    }
+
+    public int addPhoto(double lat, double lon, float alt, float headingDegrees, float pitch,
+                        int structure, int photo) {
+        return add(lat, lon, alt, headingDegrees, pitch, KIND_PHOTO, structure, photo);
+    }
+
+    private int add(double lat, double lon, float alt, float headingDegrees, float pitch,
+                    byte waypointKind, int structure, int photo) {
+        ensureCapacity(size + 1);
+        latitude[size] = lat;
+        longitude[size] = lon;
+        altitude[size] = alt;
+        heading[size] = headingDegrees;
+        gimbalPitch[size] = pitch;
+        cornerRadius[size] = 0;
+        kind[size] = waypointKind;
+        structureIndex[size] = structure;
+        photoIndex[size] = photo;
+        return size++;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= latitude.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, latitude.length + (latitude.length >> 1));
+        latitude = Arrays.copyOf(latitude, newCapacity);
+        longitude = Arrays.copyOf(longitude, newCapacity);
+        altitude = Arrays.copyOf(altitude, newCapacity);
+        heading = Arrays.copyOf(heading, newCapacity);
+        gimbalPitch = Arrays.copyOf(gimbalPitch, newCapacity);
+        cornerRadius = Arrays.copyOf(cornerRadius, newCapacity);
+        kind = Arrays.copyOf(kind, newCapacity);
+        structureIndex = Arrays.copyOf(structureIndex, newCapacity);
+        photoIndex = Arrays.copyOf(photoIndex, newCapacity);
+    }
+
+    public void clear() {
+        size = 0;
+        removedCount = 0;
+    }
+
+    /**
+     * Drops every row whose {@code keep} entry is false, keeping the order of
+     * the rest.
+     *
+     * @return number of rows removed
+     */
+    public int removeRows(boolean[] keep) {
+        if (keep.length < size) {
+            throw new IllegalArgumentException("Keep mask has " + keep.length + " entries for " + size + " rows");
+        }
+
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            if (kept != i) {
+                latitude[kept] = latitude[i];
+                longitude[kept] = longitude[i];
+                altitude[kept] = altitude[i];
+                heading[kept] = heading[i];
+                gimbalPitch[kept] = gimbalPitch[i];
+                cornerRadius[kept] = cornerRadius[i];
+                kind[kept] = kind[i];
+                structureIndex[kept] = structureIndex[i];
+                photoIndex[kept] = photoIndex[i];
+            }
+            kept++;
+        }
+
+        int removed = size - kept;
+        size = kept;
+        removedCount += removed;
+        return removed;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int getRemovedCount() { return removedCount; }
+
+    // Index-based getters
+    public double getLatitude(int index) { return latitude[checkIndex(index)]; }
+    public double getLongitude(int index) { return longitude[checkIndex(index)]; }
+    public float getAltitude(int index) { return altitude[checkIndex(index)]; }
+    public float getHeading(int index) { return heading[checkIndex(index)]; }
+    public float getGimbalPitch(int index) { return gimbalPitch[checkIndex(index)]; }
+    public float getCornerRadius(int index) { return cornerRadius[checkIndex(index)]; }
+    public byte getKind(int index) { return kind[checkIndex(index)]; }
+    public int getStructureIndex(int index) { return structureIndex[checkIndex(index)]; }
+    public int getPhotoIndex(int index) { return photoIndex[checkIndex(index)]; }
+
+    /**
+     * Radius the aircraft may round this waypoint with instead of stopping,
+     * as assigned by CornerRadiusPlanner. 0 keeps a precise stop. Only the
+     * waypoint v2 missions fly the radius; v1 missions stop at every waypoint.
+     */
+    public void setCornerRadius(int index, float radius) {
+        cornerRadius[checkIndex(index)] = radius;
+    }
+
+    public boolean isPhoto(int index) {
+        return kind[checkIndex(index)] == KIND_PHOTO;
+    }
+
+    public int getPhotoCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (kind[i] == KIND_PHOTO) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Content hash of the rows in [start, end). Equal hashes mean the range
+     * would produce the same uploaded mission.
+     */
+    public long hash(int start, int end) {
+        if (start < 0 || end > size || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of [0, " + size + ")");
+        }
+
+        long hash = end - start;
+        for (int i = start; i < end; i++) {
+            hash = HashUtils.mix(hash * 31 + Double.doubleToLongBits(latitude[i]));
+            hash = HashUtils.mix(hash * 31 + Double.doubleToLongBits(longitude[i]));
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(altitude[i]));
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(heading[i]));
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(gimbalPitch[i]));
+            hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(cornerRadius[i]));
+            hash = HashUtils.mix(hash * 31 + kind[i]);
+        }
+        return hash;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Waypoint index " + index + " out of range [0, " + size + ")");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "WaypointPlan{size=" + size + "}";
+    }
+}
@@ -0,0 +1,97 @@
+// ==========================================
+// WaypointTable.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.model;
+
+/**
+ * Structure, photo position and kind of every waypoint of a
+ * {@link WaypointPlan}, packed into one int per waypoint.
+ *
+ * Built once when a plan starts executing, then read from the mission
+ * listeners at the event rate and from the UI; lookups are a bounds check
+ * and a shift. Immutable, so it can be handed between threads.
+ */
+public final class WaypointTable {
+    private static final int KIND_BITS = 2;
+    private static final int PHOTO_BITS = 10;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+    private static final int PHOTO_MASK = (1 << PHOTO_BITS) - 1;
+    private static final int PHOTO_SHIFT = KIND_BITS;
+    private static final int STRUCTURE_SHIFT = KIND_BITS + PHOTO_BITS;
+
+    // Indices are stored plus one so -1 packs as 0
+    public static final int MAX_PHOTO_INDEX = PHOTO_MASK - 1;
+    public static final int MAX_STRUCTURE_INDEX = (1 << (32 - STRUCTURE_SHIFT)) - 2;
+
+    private final int[] entries;
+    private final int photoCount;
+
+    private WaypointTable(int[] entries, int photoCount) {
+        this.entries = entries;
+        this.photoCount = photoCount;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an index does not fit the packing
+     */
+    public static WaypointTable of(WaypointPlan plan) {
+        int[] entries = new int[plan.size()];
+        int photoCount = 0;
+        for (int i = 0; i < entries.length; i++) {
+            int structure = plan.getStructureIndex(i);
+            int photo = plan.getPhotoIndex(i);
+            if (structure > MAX_STRUCTURE_INDEX || photo > MAX_PHOTO_INDEX) {
+                throw new IllegalArgumentException("Waypoint " + i + " of structure " + structure +
+                        ", photo " + photo + " does not fit the waypoint table");
+            }
+            entries[i] = pack(structure, photo, plan.getKind(i));
+            if (plan.isPhoto(i)) {
+                photoCount++;
+            }
+        }
+        return new WaypointTable(entries, photoCount);
+    }
+
+    static int pack(int structure, int photo, byte kind) {
+        return (structure + 1) << STRUCTURE_SHIFT | (photo + 1) << PHOTO_SHIFT | kind;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public int getPhotoCount() {
+        return photoCount;
+    }
+
+    /**
+     * @return the waypoint's kind, or -1 outside the plan
+     */
+    public int getKind(int waypoint) {
+        return waypoint >= 0 && waypoint < entries.length ? entries[waypoint] & KIND_MASK : -1;
+    }
+
+    public boolean isPhoto(int waypoint) {
+        return getKind(waypoint) == WaypointPlan.KIND_PHOTO;
+    }
+
+    /**
+     * @return structure index, or -1 for the home waypoint and outside the plan
+     */
+    public int getStructureIndex(int waypoint) {
+        return waypoint >= 0 && waypoint < entries.length ? (entries[waypoint] >>> STRUCTURE_SHIFT) - 1 : -1;
+    }
+
+    /**
+     * @return photo position index, or -1 unless a photo waypoint
+     */
+    public int getPhotoIndex(int waypoint) {
+        return waypoint >= 0 && waypoint < entries.length ?
+                ((entries[waypoint] >>> PHOTO_SHIFT) & PHOTO_MASK) - 1 : -1;
+    }
+
+    @Override
+    public String toString() {
+        return "WaypointTable{waypoints=" + entries.length + ", photos=" + photoCount + "}";
+    }
+}
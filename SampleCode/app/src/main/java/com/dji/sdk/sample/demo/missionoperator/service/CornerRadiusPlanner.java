@@ -0,0 +1,172 @@
+// ==========================================
+// CornerRadiusPlanner.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+/**
+ * Assigns corner radii to the transit waypoints of a {@link WaypointPlan} so
+ * the aircraft can round them instead of braking to a stop.
+ *
+ * A corner's radius is the smallest of:
+ * - the radius that holds cruise speed at the allowed lateral acceleration,
+ * - the radius whose tangent points stay within the first 45% of both legs,
+ *   so neighbouring corners never overlap,
+ * - the radius whose arc cuts the corner by no more than the clearance to the
+ *   structures around it, less the safe distance.
+ *
+ * Clearance is taken from the plan itself: each structure's tower is the
+ * approach waypoint's position with its top at the approach altitude minus
+ * the safe distance, and a corner is checked against its own tower and the
+ * towers visited just before and after. Photo waypoints, the first and the
+ * last waypoint always keep a radius of 0 and stay precise stops.
+ */
+public class CornerRadiusPlanner {
+    public static final float MIN_CORNER_RADIUS = 0.2f;   // Smallest radius the flight controller accepts
+    private static final double LEG_SHARE = 0.45;
+    private static final double EPSILON = 1e-6;
+
+    private double speed = Constants.DEFAULT_SPEED;
+    private double lateralAcceleration = 2.0;            // m/s^2 the aircraft pulls in a turn
+    private double safeDistance = Constants.SAFE_DISTANCE;
+
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+
+    public CornerRadiusPlanner setSpeed(double speed) {
+        this.speed = Math.max(0.1, speed);
+        return this;
+    }
+
+    public CornerRadiusPlanner setLateralAcceleration(double lateralAcceleration) {
+        this.lateralAcceleration = Math.max(0.1, lateralAcceleration);
+        return this;
+    }
+
+    public CornerRadiusPlanner setSafeDistance(double safeDistance) {
+        this.safeDistance = Math.max(0, safeDistance);
+        return this;
+    }
+
+    /**
+     * Writes a corner radius to every row of the plan.
+     *
+     * @return number of waypoints that got a non-zero radius
+     */
+    public int assign(WaypointPlan plan) {
+        int size = plan.size();
+        int[] towerRow = findTowerRows(plan);
+        double fullSpeedRadius = speed * speed / lateralAcceleration;
+        int rounded = 0;
+
+        for (int i = 0; i < size; i++) {
+            plan.setCornerRadius(i, 0);
+            if (i == 0 || i == size - 1 || plan.isPhoto(i)) {
+                continue;
+            }
+
+            plane.setOrigin(plan.getLatitude(i), plan.getLongitude(i), plan.getAltitude(i));
+            double inLength = distance(plan, i - 1);
+            double outLength = distance(plan, i + 1);
+            if (inLength < EPSILON || outLength < EPSILON) {
+                continue;
+            }
+
+            // Interior angle at the waypoint; pi for a straight pass
+            double halfAngle = interiorAngle(plan, i, plane) / 2;
+            double tanHalf = Math.tan(halfAngle);
+            double radius = Math.min(fullSpeedRadius, LEG_SHARE * Math.min(inLength, outLength) *
+                    Math.min(1, tanHalf));
+
+            double cutPerRadius = 1 / Math.sin(halfAngle) - 1;
+            if (cutPerRadius > EPSILON) {
+                double clearance = clearance(plan, i, towerRow);
+                radius = Math.min(radius, clearance / cutPerRadius);
+            }
+
+            if (radius >= MIN_CORNER_RADIUS) {
+                plan.setCornerRadius(i, (float) radius);
+                rounded++;
+            }
+        }
+        return rounded;
+    }
+
+    /**
+     * Angle in radians between the legs into and out of row {@code i}, with
+     * {@code plane} set to the row's position.
+     */
+    static double interiorAngle(WaypointPlan plan, int i, LocalTangentPlane plane) {
+        double ax = plane.toEast(plan.getLongitude(i - 1));
+        double ay = plane.toNorth(plan.getLatitude(i - 1));
+        double az = plan.getAltitude(i - 1) - plan.getAltitude(i);
+        double bx = plane.toEast(plan.getLongitude(i + 1));
+        double by = plane.toNorth(plan.getLatitude(i + 1));
+        double bz = plan.getAltitude(i + 1) - plan.getAltitude(i);
+
+        double lengths = Math.sqrt((ax * ax + ay * ay + az * az) * (bx * bx + by * by + bz * bz));
+        if (lengths < EPSILON) {
+            return Math.PI;
+        }
+        double cos = (ax * bx + ay * by + az * bz) / lengths;
+        return Math.acos(Math.max(-1, Math.min(1, cos)));
+    }
+
+    /** 3D distance from the plane's origin row to {@code row}. */
+    private double distance(WaypointPlan plan, int row) {
+        double east = plane.toEast(plan.getLongitude(row));
+        double north = plane.toNorth(plan.getLatitude(row));
+        double up = plan.getAltitude(row) - plane.getOriginAltitude();
+        return Math.sqrt(east * east + north * north + up * up);
+    }
+
+    /**
+     * Free space around row {@code i}: for each nearby tower the larger of the
+     * horizontal and the vertical gap, less the safe distance.
+     */
+    private double clearance(WaypointPlan plan, int i, int[] towerRow) {
+        double clearance = Double.POSITIVE_INFINITY;
+        for (int neighbour = i - 1; neighbour <= i + 1; neighbour++) {
+            int tower = towerRow[neighbour];
+            if (tower < 0) {
+                continue;
+            }
+            double east = plane.toEast(plan.getLongitude(tower));
+            double north = plane.toNorth(plan.getLatitude(tower));
+            double horizontal = Math.sqrt(east * east + north * north);
+            double top = plan.getAltitude(tower) - safeDistance;
+            double vertical = plan.getAltitude(i) - top;
+            clearance = Math.min(clearance, Math.max(horizontal, vertical) - safeDistance);
+        }
+        return Math.max(0, clearance);
+    }
+
+    /**
+     * Approach row of the structure each row belongs to, or -1 for the home
+     * waypoint. Rows of one structure are contiguous.
+     */
+    private static int[] findTowerRows(WaypointPlan plan) {
+        int size = plan.size();
+        int[] towerRow = new int[size];
+        int blockStart = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i < size && plan.getStructureIndex(i) == plan.getStructureIndex(blockStart)) {
+                continue;
+            }
+            int approach = -1;
+            for (int j = blockStart; j < i; j++) {
+                if (plan.getKind(j) == WaypointPlan.KIND_APPROACH) {
+                    approach = j;
+                    break;
+                }
+            }
+            for (int j = blockStart; j < i; j++) {
+                towerRow[j] = approach;
+            }
+            blockStart = i;
+        }
+        return towerRow;
+    }
+}
@@ -0,0 +1,86 @@
+// ==========================================
+// CsvFileImporter.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Opens a CSV behind a content Uri and feeds it to a CsvIngestEngine.
+ * Large files that can be memory mapped are split across workers with
+ * parseParallel, everything else is streamed on the calling thread.
+ */
+public final class CsvFileImporter {
+    private static final String TAG = "CsvFileImporter";
+
+    // Files below this size parse faster on one thread than the split costs
+    private static final long PARALLEL_IMPORT_MIN_BYTES = 1024 * 1024;
+    private static final int MAX_IMPORT_WORKERS = 8;
+
+    private CsvFileImporter() {
+    }
+
+    /**
+     * Parses the file into one handler per chunk. Either way {@code handlers}
+     * ends up holding the rows in file order; a sequential import adds a single
+     * handler. {@code cancelled} and {@code progressListener} may be null.
+     */
+    public static <T extends CsvIngestEngine.RowHandler> CsvIngestEngine.ImportReport importCsv(
+            ContentResolver resolver, Uri fileUri, CsvIngestEngine engine,
+            CsvIngestEngine.ChunkHandlerFactory<T> factory, List<T> handlers,
+            AtomicBoolean cancelled, CsvIngestEngine.ProgressListener progressListener) throws IOException {
+
+        ByteBuffer mapped = mapForParallelImport(resolver, fileUri);
+        if (mapped != null) {
+            int workers = Math.min(Runtime.getRuntime().availableProcessors(), MAX_IMPORT_WORKERS);
+            return engine.parseParallel(mapped, workers, factory, handlers, cancelled, progressListener);
+        }
+
+        T handler = factory.create();
+        handlers.add(handler);
+        try (InputStream inputStream = resolver.openInputStream(fileUri);
+             Reader reader = new InputStreamReader(inputStream)) {
+            return engine.parse(reader, handler, cancelled);
+        }
+    }
+
+    /**
+     * Maps the file for a parallel import. Returns null for small files and for
+     * descriptors that cannot be mapped (pipes, streamed content providers), in
+     * which case the caller falls back to the sequential reader.
+     */
+    private static ByteBuffer mapForParallelImport(ContentResolver resolver, Uri fileUri) {
+        try (ParcelFileDescriptor descriptor = resolver.openFileDescriptor(fileUri, "r")) {
+            if (descriptor == null) {
+                return null;
+            }
+
+            long size = descriptor.getStatSize();
+            if (size < PARALLEL_IMPORT_MIN_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            // The mapping stays valid after the channel and descriptor are closed
+            try (FileInputStream input = new FileInputStream(descriptor.getFileDescriptor());
+                 FileChannel channel = input.getChannel()) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        } catch (IOException | SecurityException e) {
+            Log.d(TAG, "File not mappable, importing sequentially: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,734 @@
+// ==========================================
+// CsvIngestEngine.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming CSV tokenizer shared by every mission file importer.
+ * Fields are kept as offsets into a reusable char buffer and numbers are parsed
+ * straight from it, so a row costs no String allocation on the happy path.
+ * The first line is treated as a header and used to map logical columns to
+ * physical ones; ',', ';' and tab delimiters and quoted fields are supported.
+ * Instances are not thread-safe, create one per import; parseParallel gives
+ * every worker its own copy of the header configuration.
+ */
+public class CsvIngestEngine {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int CANCEL_CHECK_INTERVAL_MASK = 0xFF;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    public static final String[][] STRUCTURE_COLUMNS = {
+            {"lat", "latitude"},
+            {"lon", "lng", "long", "longitude"},
+            {"elevation_diff", "elevation", "ground_altitude", "ground_alt"},
+            {"height", "structure_height"}
+    };
+
+    public static final String[][] PHOTO_COLUMNS = {
+            {"offset_x", "x"},
+            {"offset_y", "y"},
+            {"offset_z", "z"},
+            {"gimbal_pitch", "pitch"}
+    };
+
+    public static final String[][] GEOFENCE_COLUMNS = {
+            {"zone_id", "zone", "polygon"},
+            {"lat", "latitude"},
+            {"lon", "lng", "long", "longitude"}
+    };
+
+    public interface ChunkHandlerFactory<T extends RowHandler> {
+        T create();
+    }
+
+    public interface ProgressListener {
+        /** Called from worker threads as byte ranges finish. */
+        void onProgress(int percent);
+    }
+
+    public interface RowHandler {
+        /**
+         * Called once per data row. The row is only valid during the call.
+         * Throw {@link IllegalArgumentException} to reject the row.
+         */
+        void onRow(Row row);
+    }
+
+    private final String[][] columns;
+    private final int[] columnMap;
+    private final Row row = new Row();
+
+    private final char[] readBuffer = new char[READ_BUFFER_SIZE];
+    private int readPosition;
+    private int readLimit;
+
+    private char[] line = new char[256];
+    private int lineLength;
+    private int lineNumber;
+
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+
+    private char delimiter = ',';
+    private boolean decimalComma;
+
+    public CsvIngestEngine(String[][] columns) {
+        this.columns = columns;
+        this.columnMap = new int[columns.length];
+    }
+
+    public static CsvIngestEngine forStructures() {
+        return new CsvIngestEngine(STRUCTURE_COLUMNS);
+    }
+
+    public static CsvIngestEngine forPhotoPositions() {
+        return new CsvIngestEngine(PHOTO_COLUMNS);
+    }
+
+    public static CsvIngestEngine forGeofences() {
+        return new CsvIngestEngine(GEOFENCE_COLUMNS);
+    }
+
+    public ImportReport parse(Reader reader, RowHandler handler) throws IOException {
+        return parse(reader, handler, null);
+    }
+
+    /**
+     * Parses the whole stream on the calling thread. When {@code cancelled} is
+     * set the import stops with a {@link CancellationException}.
+     */
+    public ImportReport parse(Reader reader, RowHandler handler, AtomicBoolean cancelled) throws IOException {
+        ImportReport report = new ImportReport();
+        long startTime = System.nanoTime();
+
+        resetReader();
+        if (readLine(reader)) {
+            configureFromHeader(report);
+            parseRows(reader, handler, report, cancelled);
+        }
+
+        report.elapsedNanos = System.nanoTime() - startTime;
+        report.delimiter = delimiter;
+        return report;
+    }
+
+    /**
+     * Splits the buffer into line-aligned byte ranges after the header and
+     * parses them on a bounded fork-join pool. One handler is created per range
+     * and added to {@code handlers} in file order, so concatenating their
+     * results restores the original row order. Content is decoded as single-byte
+     * text, which is lossless for the ASCII numbers these files carry. Files with
+     * quoted fields are parsed as a single range, since a quote may hide a newline.
+     */
+    public <T extends RowHandler> ImportReport parseParallel(ByteBuffer data, int workers,
+                                                             ChunkHandlerFactory<T> factory,
+                                                             List<T> handlers,
+                                                             AtomicBoolean cancelled,
+                                                             ProgressListener progressListener) throws IOException {
+        ImportReport report = new ImportReport();
+        long startTime = System.nanoTime();
+
+        ByteBuffer source = data.duplicate();
+        int bodyStart = skipByteOrderMark(source);
+        int limit = source.limit();
+
+        int headerEnd = indexOf(source, (byte) '\n', bodyStart, limit);
+        resetReader();
+        if (readLine(new ByteBufferReader(slice(source, bodyStart, headerEnd < 0 ? limit : headerEnd + 1)))) {
+            configureFromHeader(report);
+        }
+        if (headerEnd < 0) {
+            report.elapsedNanos = System.nanoTime() - startTime;
+            report.delimiter = delimiter;
+            return report;
+        }
+        bodyStart = headerEnd + 1;
+
+        int chunkCount = workers * CHUNKS_PER_WORKER;
+        if (indexOf(source, (byte) '"', bodyStart, limit) >= 0) {
+            chunkCount = 1;
+        }
+        int[] bounds = splitLines(source, bodyStart, limit, chunkCount);
+        chunkCount = bounds.length - 1;
+
+        AtomicInteger completedChunks = new AtomicInteger();
+        List<Callable<ImportReport>> tasks = new ArrayList<>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            T handler = factory.create();
+            handlers.add(handler);
+
+            CsvIngestEngine worker = copyConfiguration();
+            ByteBuffer range = slice(source, bounds[chunk], bounds[chunk + 1]);
+            final int totalChunks = chunkCount;
+            tasks.add(() -> {
+                ImportReport chunkReport = new ImportReport();
+                worker.resetReader();
+                worker.parseRows(new ByteBufferReader(range), handler, chunkReport, cancelled);
+                chunkReport.linesRead = worker.lineNumber;
+
+                if (progressListener != null) {
+                    progressListener.onProgress(completedChunks.incrementAndGet() * 100 / totalChunks);
+                }
+                return chunkReport;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(workers, chunkCount)));
+        try {
+            List<Future<ImportReport>> results = pool.invokeAll(tasks);
+
+            int lineOffset = 1; // header line
+            for (Future<ImportReport> result : results) {
+                ImportReport chunkReport = getChunkReport(result);
+                report.merge(chunkReport, lineOffset);
+                lineOffset += chunkReport.linesRead;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("CSV import interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        report.elapsedNanos = System.nanoTime() - startTime;
+        report.delimiter = delimiter;
+        report.workers = Math.min(workers, chunkCount);
+        return report;
+    }
+
+    private static ImportReport getChunkReport(Future<ImportReport> result) throws IOException, InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException("CSV import failed", cause);
+        }
+    }
+
+    private void parseRows(Reader reader, RowHandler handler, ImportReport report,
+                           AtomicBoolean cancelled) throws IOException {
+        while (readLine(reader)) {
+            if (cancelled != null && (lineNumber & CANCEL_CHECK_INTERVAL_MASK) == 0 && cancelled.get()) {
+                throw new CancellationException("CSV import cancelled");
+            }
+
+            tokenize();
+            if (isBlankLine()) {
+                continue;
+            }
+
+            try {
+                if (fieldCount < requiredFieldCount()) {
+                    throw new IllegalArgumentException("expected " + requiredFieldCount() +
+                            " columns, found " + fieldCount);
+                }
+                handler.onRow(row);
+                report.rowsAccepted++;
+            } catch (IllegalArgumentException e) {
+                report.recordError(lineNumber, e.getMessage());
+            }
+        }
+    }
+
+    private void resetReader() {
+        readPosition = 0;
+        readLimit = 0;
+        lineNumber = 0;
+    }
+
+    private CsvIngestEngine copyConfiguration() {
+        CsvIngestEngine copy = new CsvIngestEngine(columns);
+        System.arraycopy(columnMap, 0, copy.columnMap, 0, columnMap.length);
+        copy.delimiter = delimiter;
+        copy.decimalComma = decimalComma;
+        return copy;
+    }
+
+    // ==========================================
+    // BYTE RANGES
+    // ==========================================
+
+    private static int skipByteOrderMark(ByteBuffer source) {
+        int start = source.position();
+        if (source.limit() - start >= 3 &&
+                source.get(start) == (byte) 0xEF &&
+                source.get(start + 1) == (byte) 0xBB &&
+                source.get(start + 2) == (byte) 0xBF) {
+            return start + 3;
+        }
+        return start;
+    }
+
+    private static int indexOf(ByteBuffer source, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (source.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] splitLines(ByteBuffer source, int start, int end, int chunkCount) {
+        int[] bounds = new int[chunkCount + 1];
+        int count = 0;
+        bounds[count++] = start;
+
+        long length = end - start;
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            int target = (int) (start + length * chunk / chunkCount);
+            if (target <= bounds[count - 1]) {
+                continue;
+            }
+            int newline = indexOf(source, (byte) '\n', target, end);
+            if (newline < 0 || newline + 1 >= end) {
+                break;
+            }
+            if (newline + 1 > bounds[count - 1]) {
+                bounds[count++] = newline + 1;
+            }
+        }
+
+        bounds[count++] = end;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static ByteBuffer slice(ByteBuffer source, int from, int to) {
+        ByteBuffer range = source.duplicate();
+        range.limit(to);
+        range.position(from);
+        return range.slice();
+    }
+
+    private static class ByteBufferReader extends Reader {
+        private final ByteBuffer buffer;
+        private final byte[] scratch = new byte[READ_BUFFER_SIZE];
+
+        ByteBufferReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(char[] target, int offset, int length) {
+            int count = Math.min(Math.min(length, scratch.length), buffer.remaining());
+            if (count <= 0) {
+                return -1;
+            }
+
+            buffer.get(scratch, 0, count);
+            for (int i = 0; i < count; i++) {
+                target[offset + i] = (char) (scratch[i] & 0xFF);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // ==========================================
+    // LINE READING
+    // ==========================================
+
+    private boolean readLine(Reader reader) throws IOException {
+        lineLength = 0;
+        boolean inQuotes = false;
+        boolean sawAny = false;
+
+        while (true) {
+            if (readPosition >= readLimit) {
+                readLimit = reader.read(readBuffer, 0, readBuffer.length);
+                readPosition = 0;
+                if (readLimit <= 0) {
+                    readLimit = 0;
+                    if (sawAny) {
+                        lineNumber++;
+                    }
+                    return sawAny;
+                }
+            }
+
+            char c = readBuffer[readPosition++];
+            sawAny = true;
+
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && c == '\n') {
+                lineNumber++;
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                return true;
+            }
+
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = c;
+        }
+    }
+
+    private void tokenize() {
+        fieldCount = 0;
+        int read = 0;
+        int write = 0;
+
+        while (true) {
+            while (read < lineLength && isWhitespace(line[read])) {
+                read++;
+            }
+
+            int start = write;
+            int lastNonSpace = write;
+            boolean quoted = false;
+
+            while (read < lineLength) {
+                char c = line[read];
+                if (c == '"') {
+                    if (quoted && read + 1 < lineLength && line[read + 1] == '"') {
+                        line[write++] = '"';
+                        lastNonSpace = write;
+                        read += 2;
+                        continue;
+                    }
+                    quoted = !quoted;
+                    read++;
+                    lastNonSpace = write;
+                    continue;
+                }
+                if (!quoted && c == delimiter) {
+                    break;
+                }
+                line[write++] = c;
+                if (quoted || !isWhitespace(c)) {
+                    lastNonSpace = write;
+                }
+                read++;
+            }
+
+            addField(start, lastNonSpace);
+
+            if (read >= lineLength) {
+                return;
+            }
+            read++; // skip delimiter
+        }
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private boolean isBlankLine() {
+        for (int i = 0; i < fieldCount; i++) {
+            if (fieldEnd[i] > fieldStart[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isWhitespace(char c) {
+        return c == ' ' || c == '\r' || c == '\uFEFF' || (c == '\t' && delimiter != '\t');
+    }
+
+    // ==========================================
+    // HEADER HANDLING
+    // ==========================================
+
+    private void configureFromHeader(ImportReport report) {
+        delimiter = detectDelimiter();
+        decimalComma = delimiter != ',';
+        tokenize();
+
+        int matched = 0;
+        for (int column = 0; column < columns.length; column++) {
+            columnMap[column] = findHeaderField(columns[column]);
+            if (columnMap[column] >= 0) {
+                matched++;
+            }
+        }
+
+        report.headerMapped = matched == columns.length;
+        if (!report.headerMapped) {
+            if (matched > 0) {
+                report.recordError(lineNumber, "header only names " + matched + " of " +
+                        columns.length + " columns, using column order instead");
+            }
+            for (int column = 0; column < columns.length; column++) {
+                columnMap[column] = column;
+            }
+        }
+    }
+
+    private char detectDelimiter() {
+        int commas = 0;
+        int semicolons = 0;
+        int tabs = 0;
+        boolean inQuotes = false;
+
+        for (int i = 0; i < lineLength; i++) {
+            char c = line[i];
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                if (c == ',') commas++;
+                else if (c == ';') semicolons++;
+                else if (c == '\t') tabs++;
+            }
+        }
+
+        if (semicolons > commas && semicolons >= tabs) return ';';
+        if (tabs > commas && tabs > semicolons) return '\t';
+        return ',';
+    }
+
+    private int findHeaderField(String[] aliases) {
+        for (int field = 0; field < fieldCount; field++) {
+            String name = normalizeHeader(fieldStart[field], fieldEnd[field]);
+            for (String alias : aliases) {
+                if (alias.equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private String normalizeHeader(int start, int end) {
+        while (start < end && isWhitespace(line[start])) {
+            start++;
+        }
+        return new String(line, start, end - start)
+                .trim()
+                .toLowerCase(Locale.US)
+                .replace(' ', '_');
+    }
+
+    private int requiredFieldCount() {
+        int required = 0;
+        for (int field : columnMap) {
+            required = Math.max(required, field + 1);
+        }
+        return required;
+    }
+
+    // ==========================================
+    // NUMBER PARSING
+    // ==========================================
+
+    private double parseNumber(int start, int end, int column) {
+        if (start >= end) {
+            throw new IllegalArgumentException("empty value for " + columns[column][0]);
+        }
+
+        int i = start;
+        boolean negative = false;
+        char c = line[i];
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean sawPoint = false;
+
+        for (; i < end; i++) {
+            c = line[i];
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    if (sawPoint) exponent--;
+                } else if (!sawPoint) {
+                    exponent++;
+                }
+            } else if (!sawPoint && (c == '.' || (decimalComma && c == ','))) {
+                sawPoint = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i == end && sawDigit && digits <= MAX_FAST_PATH_DIGITS &&
+                exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0
+                    ? mantissa / POWERS_OF_TEN[-exponent]
+                    : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+
+        return parseNumberSlow(start, end, column);
+    }
+
+    /**
+     * Exponents and long mantissas. Only plain decimal text is handed to
+     * Double.parseDouble, which would also take "NaN", "Infinity", hex floats
+     * and a trailing 'd' or 'f'; results that overflow are rejected too.
+     */
+    private double parseNumberSlow(int start, int end, int column) {
+        String text = new String(line, start, end - start);
+        for (int i = start; i < end; i++) {
+            char c = line[i];
+            if (!(c >= '0' && c <= '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E' &&
+                    !(decimalComma && c == ',')) {
+                throw invalidNumber(text, column);
+            }
+        }
+        double value;
+        try {
+            value = Double.parseDouble(decimalComma ? text.replace(',', '.') : text);
+        } catch (NumberFormatException e) {
+            throw invalidNumber(text, column);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw invalidNumber(text, column);
+        }
+        return value;
+    }
+
+    private IllegalArgumentException invalidNumber(String text, int column) {
+        return new IllegalArgumentException("invalid number '" + text + "' for " + columns[column][0]);
+    }
+
+    // ==========================================
+    // ROW VIEW
+    // ==========================================
+
+    public final class Row {
+        private Row() {}
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        public double getDouble(int column) {
+            int field = columnMap[column];
+            return parseNumber(fieldStart[field], fieldEnd[field], column);
+        }
+
+        public float getFloat(int column) {
+            return (float) getDouble(column);
+        }
+
+        public String getString(int column) {
+            int field = columnMap[column];
+            return new String(line, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+        }
+    }
+
+    // ==========================================
+    // IMPORT REPORT
+    // ==========================================
+
+    public static class ImportReport {
+        private static final int MAX_REPORTED_ERRORS = 20;
+
+        private int rowsAccepted;
+        private int rowsRejected;
+        private final int[] errorLines = new int[MAX_REPORTED_ERRORS];
+        private final String[] errorMessages = new String[MAX_REPORTED_ERRORS];
+        private int reportedErrors;
+        private long elapsedNanos;
+        private char delimiter = ',';
+        private boolean headerMapped;
+        private int linesRead;
+        private int workers = 1;
+
+        void merge(ImportReport chunk, int lineOffset) {
+            rowsAccepted += chunk.rowsAccepted;
+            for (int i = 0; i < chunk.reportedErrors; i++) {
+                recordError(chunk.errorLines[i] + lineOffset, chunk.errorMessages[i]);
+            }
+            rowsRejected += chunk.rowsRejected - chunk.reportedErrors;
+        }
+
+        void recordError(int lineNumber, String message) {
+            rowsRejected++;
+            if (reportedErrors < MAX_REPORTED_ERRORS) {
+                errorLines[reportedErrors] = lineNumber;
+                errorMessages[reportedErrors] = message;
+                reportedErrors++;
+            }
+        }
+
+        public int getRowsAccepted() { return rowsAccepted; }
+        public int getRowsRejected() { return rowsRejected; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public boolean isHeaderMapped() { return headerMapped; }
+        public int getWorkers() { return workers; }
+
+        public double getRowsPerSecond() {
+            if (elapsedNanos <= 0) return 0;
+            return (rowsAccepted + rowsRejected) * 1e9 / elapsedNanos;
+        }
+
+        public String getErrorSummary() {
+            if (rowsRejected == 0) {
+                return "";
+            }
+
+            StringBuilder summary = new StringBuilder();
+            summary.append(rowsRejected).append(" rows rejected");
+            for (int i = 0; i < reportedErrors; i++) {
+                summary.append("\n  line ").append(errorLines[i]).append(": ").append(errorMessages[i]);
+            }
+            if (rowsRejected > reportedErrors) {
+                summary.append("\n  ... ").append(rowsRejected - reportedErrors).append(" more");
+            }
+            return summary.toString();
+        }
+
+        public void log(String tag, String what) {
+            Log.d(tag, String.format(Locale.US, "Parsed %d %s in %.1f ms (%.0f rows/s, %d worker(s), delimiter '%s', %s)",
+                    rowsAccepted, what, elapsedNanos / 1e6, getRowsPerSecond(), workers,
+                    delimiter == '\t' ? "\\t" : String.valueOf(delimiter),
+                    headerMapped ? "header mapped" : "positional columns"));
+
+            if (rowsRejected > 0) {
+                Log.w(tag, getErrorSummary());
+            }
+        }
+    }
+}
@@ -11,23 +11,28 @@ import android.util.Log;
 
 import com.dji.sdk.sample.demo.missionoperator.model.InspectionPoint;
 import com.dji.sdk.sample.demo.missionoperator.model.RelativePhotoPoint;
+import com.dji.sdk.sample.demo.missionoperator.storage.MissionPackFile;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class FileService {
     private static final String TAG = "FileService";
 
     private final Context context;
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean importCancelled = new AtomicBoolean(false);
     private FileServiceCallback callback;
 
     public interface FileServiceCallback {
         void onInspectionPointsLoaded(List<InspectionPoint> points);
         void onPhotoPointsLoaded(List<RelativePhotoPoint> points);
+        void onImportProgress(int percent);
         void onFileLoadError(String error);
     }
 
@@ -42,11 +47,17 @@ public class FileService {
     public void loadInspectionPointsFromCsv(Uri fileUri) {
         Log.d(TAG, "Loading inspection points from CSV: " + fileUri);
 
-        if (!validateCsvFile(fileUri)) {
+        if (!validateInputFile(fileUri)) {
             return;
         }
 
-        new Thread(() -> {
+        if (MissionPackFile.isMissionPack(getFileNameFromUri(fileUri))) {
+            loadMissionPack(fileUri);
+            return;
+        }
+
+        importCancelled.set(false);
+        importExecutor.execute(() -> {
             try {
                 List<InspectionPoint> points = parseInspectionPointsCsv(fileUri);
 
@@ -57,21 +68,30 @@ public class FileService {
                     }
                 });
 
+            } catch (CancellationException e) {
+                Log.d(TAG, "Inspection point import cancelled");
+                notifyError("Import cancelled");
             } catch (Exception e) {
                 Log.e(TAG, "Error loading inspection points", e);
                 notifyError("Error loading inspection points: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void loadPhotoPositionsFromCsv(Uri fileUri) {
         Log.d(TAG, "Loading photo positions from CSV: " + fileUri);
 
-        if (!validateCsvFile(fileUri)) {
+        if (!validateInputFile(fileUri)) {
             return;
         }
 
-        new Thread(() -> {
+        if (MissionPackFile.isMissionPack(getFileNameFromUri(fileUri))) {
+            loadMissionPack(fileUri);
+            return;
+        }
+
+        importCancelled.set(false);
+        importExecutor.execute(() -> {
             try {
                 List<RelativePhotoPoint> points = parsePhotoPointsCsv(fileUri);
 
@@ -82,150 +102,122 @@ public class FileService {
                     }
                 });
 
+            } catch (CancellationException e) {
+                Log.d(TAG, "Photo position import cancelled");
+                notifyError("Import cancelled");
             } catch (Exception e) {
                 Log.e(TAG, "Error loading photo positions", e);
                 notifyError("Error loading photo positions: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
-    private boolean validateCsvFile(Uri fileUri) {
-        if (fileUri == null) {
-            notifyError("No file selected");
-            return false;
-        }
+    public void loadMissionPack(Uri fileUri) {
+        Log.d(TAG, "Loading mission pack: " + fileUri);
 
-        String fileName = getFileNameFromUri(fileUri);
-        if (!fileName.toLowerCase().endsWith(".csv")) {
-            notifyError("Please select only CSV files");
-            return false;
+        if (!validateInputFile(fileUri)) {
+            return;
         }
 
-        return true;
-    }
-
-    private List<InspectionPoint> parseInspectionPointsCsv(Uri fileUri) throws IOException {
-        List<InspectionPoint> points = new ArrayList<>();
-
-        try (InputStream inputStream = context.getContentResolver().openInputStream(fileUri);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-
-            String line;
-            boolean isHeader = true;
-            int lineNumber = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-
-                if (isHeader) {
-                    isHeader = false;
-                    Log.d(TAG, "Skipping header line: " + line);
-                    continue;
-                }
-
-                line = line.trim();
-                if (line.isEmpty()) {
-                    continue;
-                }
+        importExecutor.execute(() -> {
+            try {
+                MissionPackFile.Contents contents = MissionPackFile.read(context.getContentResolver(), fileUri);
+                List<InspectionPoint> structures = contents.getStructures().toList();
+                List<RelativePhotoPoint> photoPoints = contents.getPhotoTemplate().toList();
 
-                try {
-                    InspectionPoint point = parseInspectionPointLine(line, lineNumber);
-                    if (point != null) {
-                        points.add(point);
+                android.os.Handler mainHandler = new android.os.Handler(android.os.Looper.getMainLooper());
+                mainHandler.post(() -> {
+                    if (callback != null) {
+                        callback.onInspectionPointsLoaded(structures);
+                        callback.onPhotoPointsLoaded(photoPoints);
                     }
-                } catch (Exception e) {
-                    Log.w(TAG, "Error parsing line " + lineNumber + ": " + line + " - " + e.getMessage());
-                }
-            }
-        }
+                });
 
-        Log.d(TAG, "Parsed " + points.size() + " inspection points");
-        return points;
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading mission pack", e);
+                notifyError("Error loading mission pack: " + e.getMessage());
+            }
+        });
     }
 
-    private InspectionPoint parseInspectionPointLine(String line, int lineNumber) {
-        String[] values = line.split(",");
+    /**
+     * Stops the CSV import in progress, if any. The load callback is replaced
+     * by an "Import cancelled" error.
+     */
+    public void cancelImport() {
+        importCancelled.set(true);
+    }
 
-        if (values.length < 4) {
-            throw new IllegalArgumentException("Line " + lineNumber + " must have at least 4 values (lat,lon,elevation_diff,height)");
+    private boolean validateInputFile(Uri fileUri) {
+        if (fileUri == null) {
+            notifyError("No file selected");
+            return false;
         }
 
-        try {
-            double latitude = Double.parseDouble(values[0].trim());
-            double longitude = Double.parseDouble(values[1].trim());
-            float elevationDiff = Float.parseFloat(values[2].trim());
-            float height = Float.parseFloat(values[3].trim());
+        String fileName = getFileNameFromUri(fileUri).toLowerCase();
+        if (!fileName.endsWith(".csv") && !MissionPackFile.isMissionPack(fileName)) {
+            notifyError("Please select only CSV or mission pack files");
+            return false;
+        }
 
-            return new InspectionPoint.Builder()
-                    .setLocation(latitude, longitude)
-                    .setAltitude(elevationDiff)
-                    .setHeight(height)
-                    .build();
+        return true;
+    }
 
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Line " + lineNumber + " contains invalid numbers: " + e.getMessage());
+    private List<InspectionPoint> parseInspectionPointsCsv(Uri fileUri) throws IOException {
+        List<InspectionPointCollector> collectors = new ArrayList<>();
+        CsvIngestEngine.ImportReport report =
+                importCsv(fileUri, CsvIngestEngine.forStructures(), InspectionPointCollector::new, collectors);
+        report.log(TAG, "inspection points");
+
+        List<InspectionPoint> points = new ArrayList<>(report.getRowsAccepted());
+        for (InspectionPointCollector collector : collectors) {
+            points.addAll(collector.points);
         }
+        return points;
     }
 
     private List<RelativePhotoPoint> parsePhotoPointsCsv(Uri fileUri) throws IOException {
-        List<RelativePhotoPoint> points = new ArrayList<>();
-
-        try (InputStream inputStream = context.getContentResolver().openInputStream(fileUri);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-
-            String line;
-            boolean isHeader = true;
-            int lineNumber = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-
-                if (isHeader) {
-                    isHeader = false;
-                    Log.d(TAG, "Skipping header line: " + line);
-                    continue;
-                }
-
-                line = line.trim();
-                if (line.isEmpty()) {
-                    continue;
-                }
-
-                try {
-                    RelativePhotoPoint point = parsePhotoPointLine(line, lineNumber);
-                    if (point != null) {
-                        points.add(point);
-                    }
-                } catch (Exception e) {
-                    Log.w(TAG, "Error parsing line " + lineNumber + ": " + line + " - " + e.getMessage());
-                }
-            }
+        List<PhotoPointCollector> collectors = new ArrayList<>();
+        CsvIngestEngine.ImportReport report =
+                importCsv(fileUri, CsvIngestEngine.forPhotoPositions(), PhotoPointCollector::new, collectors);
+        report.log(TAG, "photo points");
+
+        List<RelativePhotoPoint> points = new ArrayList<>(report.getRowsAccepted());
+        for (PhotoPointCollector collector : collectors) {
+            points.addAll(collector.points);
         }
-
-        Log.d(TAG, "Parsed " + points.size() + " photo points");
         return points;
     }
 
-    private RelativePhotoPoint parsePhotoPointLine(String line, int lineNumber) {
-        String[] values = line.split(",");
+    private <T extends CsvIngestEngine.RowHandler> CsvIngestEngine.ImportReport importCsv(
+            Uri fileUri, CsvIngestEngine engine, CsvIngestEngine.ChunkHandlerFactory<T> factory,
+            List<T> collectors) throws IOException {
+        return CsvFileImporter.importCsv(context.getContentResolver(), fileUri, engine, factory, collectors,
+                importCancelled, this::notifyProgress);
+    }
+
+    private static class InspectionPointCollector implements CsvIngestEngine.RowHandler {
+        final List<InspectionPoint> points = new ArrayList<>();
 
-        if (values.length < 4) {
-            throw new IllegalArgumentException("Line " + lineNumber + " must have at least 4 values (offset_x,offset_y,offset_z,gimbal_pitch)");
+        @Override
+        public void onRow(CsvIngestEngine.Row row) {
+            points.add(new InspectionPoint.Builder()
+                    .setLocation(row.getDouble(0), row.getDouble(1))
+                    .setAltitude(row.getFloat(2))
+                    .setHeight(row.getFloat(3))
+                    .build());
         }
+    }
 
-        try {
-            float offsetX = Float.parseFloat(values[0].trim());
-            float offsetY = Float.parseFloat(values[1].trim());
-            float offsetZ = Float.parseFloat(values[2].trim());
-            float gimbalPitch = Float.parseFloat(values[3].trim());
-
-            return new RelativePhotoPoint.Builder()
-                    .setOffset(offsetX, offsetY, offsetZ)
-                    .setGimbalPitch(gimbalPitch)
-                    .build();
+    private static class PhotoPointCollector implements CsvIngestEngine.RowHandler {
+        final List<RelativePhotoPoint> points = new ArrayList<>();
 
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Line " + lineNumber + " contains invalid numbers: " + e.getMessage());
+        @Override
+        public void onRow(CsvIngestEngine.Row row) {
+            points.add(new RelativePhotoPoint.Builder()
+                    .setOffset(row.getFloat(0), row.getFloat(1), row.getFloat(2))
+                    .setGimbalPitch(row.getFloat(3))
+                    .build());
         }
     }
 
@@ -254,6 +246,15 @@ public class FileService {
         return result != null ? result : "unknown_file";
     }
 
+    private void notifyProgress(int percent) {
+        android.os.Handler mainHandler = new android.os.Handler(android.os.Looper.getMainLooper());
+        mainHandler.post(() -> {
+            if (callback != null) {
+                callback.onImportProgress(percent);
+            }
+        });
+    }
+
     private void notifyError(String error) {
         android.os.Handler mainHandler = new android.os.Handler(android.os.Looper.getMainLooper());
         mainHandler.post(() -> {
@@ -265,6 +266,8 @@ public class FileService {
 
     public void cleanup() {
         Log.d(TAG, "Cleaning up FileService");
+        importCancelled.set(true);
+        importExecutor.shutdownNow();
         callback = null;
     }
 }
\ No newline at end of file
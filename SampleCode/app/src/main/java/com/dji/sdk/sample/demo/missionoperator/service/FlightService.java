@@ -1,17 +1,30 @@
 package com.dji.sdk.sample.demo.missionoperator.service;
 
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.dji.sdk.sample.demo.missionoperator.model.InspectionPoint;
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
 import com.dji.sdk.sample.demo.missionoperator.model.RelativePhotoPoint;
-import com.dji.sdk.sample.demo.missionoperator.model.GPSCoordinate;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointTable;
+import com.dji.sdk.sample.demo.missionoperator.storage.MissionJournal;
+import com.dji.sdk.sample.demo.missionoperator.utils.ConnectionManager;
 import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
 import com.dji.sdk.sample.demo.missionoperator.utils.CoordinateUtils;
+import com.dji.sdk.sample.demo.missionoperator.utils.GeofenceIndex;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Locale;
 
 import dji.common.error.DJIError;
+import dji.common.error.DJIWaypointV2Error;
+import dji.common.flightcontroller.Attitude;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.GPSSignalLevel;
+import dji.common.flightcontroller.LocationCoordinate3D;
 import dji.common.flightcontroller.ObstacleDetectionSector;
 import dji.common.flightcontroller.VisionDetectionState;
 import dji.common.gimbal.GimbalMode;
@@ -26,6 +39,14 @@ import dji.common.mission.waypoint.WaypointMissionFlightPathMode;
 import dji.common.mission.waypoint.WaypointMissionHeadingMode;
 import dji.common.mission.waypoint.WaypointMissionState;
 import dji.common.mission.waypoint.WaypointMissionUploadEvent;
+import dji.common.mission.waypointv2.Action.ActionDownloadEvent;
+import dji.common.mission.waypointv2.Action.ActionExecutionEvent;
+import dji.common.mission.waypointv2.Action.ActionState;
+import dji.common.mission.waypointv2.Action.ActionUploadEvent;
+import dji.common.mission.waypointv2.WaypointV2MissionDownloadEvent;
+import dji.common.mission.waypointv2.WaypointV2MissionExecutionEvent;
+import dji.common.mission.waypointv2.WaypointV2MissionState;
+import dji.common.mission.waypointv2.WaypointV2MissionUploadEvent;
 import dji.common.util.CommonCallbacks;
 import dji.sdk.flightcontroller.FlightAssistant;
 import dji.sdk.flightcontroller.FlightController;
@@ -33,27 +54,74 @@ import dji.sdk.gimbal.Gimbal;
 import dji.sdk.mission.MissionControl;
 import dji.sdk.mission.waypoint.WaypointMissionOperator;
 import dji.sdk.mission.waypoint.WaypointMissionOperatorListener;
+import dji.sdk.mission.waypoint.WaypointV2ActionListener;
+import dji.sdk.mission.waypoint.WaypointV2MissionOperator;
+import dji.sdk.mission.waypoint.WaypointV2MissionOperatorListener;
 
 public class FlightService {
     private static final String TAG = "FlightService";
+    private static final double RESUME_HOME_TOLERANCE = 30.0; // meters, plan altitudes are relative to takeoff
 
     private final FlightController flightController;
     private final FlightAssistant flightAssistant;
     private final Gimbal gimbal;
     private final WaypointMissionOperator missionOperator;
+    private final WaypointV2MissionOperator missionOperatorV2;
 
     private double homeLatitude = 0;
     private double homeLongitude = 0;
     private boolean obstacleAvoidanceEnabled = false;
     private float closestObstacleDistance = Float.MAX_VALUE;
 
-    // Photo waypoint tracking
-    private List<Integer> photoWaypointIndices;
+    // Photo waypoint tracking (indices into the whole plan, not the current segment)
+    private volatile WaypointTable waypointTable;
     private int lastPhotoWaypointProcessed = -1;
+    private int lastProgressWaypoint = -1;
     private int photosPerStructure = 0; // Track photos per structure
 
+    // Segmented execution
+    private WaypointPlan activePlan;
+    private int[] segmentBounds;
+    private long[] segmentKeys;
+    private boolean segmentsReturnHome;
+    private int currentSegment = -1;
+    private long segmentFinishedAt;
+    private long totalTurnaroundMillis;
+    private long maxTurnaroundMillis;
+
+    // Built missions keyed by segment content, so unchanged segments survive a re-plan
+    private final MissionPlanCache missionCache = new MissionPlanCache();
+    private int skippedUploads;
+
+    // Terrain for transit altitudes, with the takeoff elevation plans are relative to
+    private TerrainService terrain;
+    private double referenceElevation;
+
+    // Restricted areas checked before upload and against the live position
+    private GeofenceIndex geofences;
+    private int currentGeofence = -1;
+
+    // Plan and progress kept on storage, so a flight cut off by the app going down can be resumed
+    private MissionJournal journal;
+
+    // Every flight controller state of the last minutes, for the UI, analysis and photo positions
+    private final TelemetryRecorder telemetry = new TelemetryRecorder();
+
+    // On-board photo capture with a waypoint v2 mission, on aircraft that support it
+    private boolean onBoardCaptureEnabled = false;
+    private boolean returnHomeAtEnd = true;
+    private float speed = Constants.DEFAULT_SPEED;
+    private boolean usingV2;
+    private boolean v2Running;
+    private WaypointV2MissionCompiler.Result activeV2Segment;
+    private WaypointV2MissionCompiler.Result preparedV2Segment;
+    private int preparedV2Index = -1;
+    private CommonCallbacks.CompletionCallback pendingV2Start;
+
     private FlightServiceCallback callback;
     private WaypointMissionOperatorListener missionListener;
+    private WaypointV2MissionOperatorListener missionListenerV2;
+    private WaypointV2ActionListener actionListenerV2;
 
     public interface FlightServiceCallback {
         void onMissionProgress(int currentWaypoint, int totalWaypoints);
@@ -61,6 +129,9 @@ public class FlightService {
         void onObstacleDetected(float distance, String details);
         void onFlightStateChanged(String state);
         void onPhotoWaypointReached(int waypointIndex, int structureIndex, int photoIndex);
+        void onAircraftPositionUpdated(double latitude, double longitude, float altitude);
+        void onSegmentStarted(int segmentIndex, int segmentCount, long turnaroundMillis);
+        void onGeofenceEntered(long zoneId);
     }
 
     public FlightService(FlightController flightController,
@@ -70,10 +141,11 @@ public class FlightService {
         this.flightAssistant = flightAssistant;
         this.gimbal = gimbal;
         this.missionOperator = MissionControl.getInstance().getWaypointMissionOperator();
-        this.photoWaypointIndices = new ArrayList<>();
+        this.missionOperatorV2 = MissionControl.getInstance().getWaypointMissionV2Operator();
 
         initializeFlightSystems();
         setupMissionListener();
+        setupMissionListenerV2();
     }
 
     public void setCallback(FlightServiceCallback callback) {
@@ -94,17 +166,56 @@ public class FlightService {
             return;
         }
 
+        // Registers the battery callback that the samples take their level from
+        ConnectionManager.getBatteryPercentage();
+
         flightController.setStateCallback(flightControllerState -> {
             homeLatitude = flightControllerState.getHomeLocation().getLatitude();
             homeLongitude = flightControllerState.getHomeLocation().getLongitude();
+            recordTelemetry(flightControllerState);
 
             if (callback != null) {
                 String state = flightControllerState.getFlightMode().toString();
                 callback.onFlightStateChanged(state);
+
+                LocationCoordinate3D aircraft = flightControllerState.getAircraftLocation();
+                if (aircraft != null && !Double.isNaN(aircraft.getLatitude()) && !Double.isNaN(aircraft.getLongitude())) {
+                    callback.onAircraftPositionUpdated(aircraft.getLatitude(), aircraft.getLongitude(),
+                            aircraft.getAltitude());
+                    checkGeofences(aircraft.getLatitude(), aircraft.getLongitude());
+                }
             }
         });
     }
 
+    /**
+     * Copies the state into the telemetry ring; runs at the full callback
+     * rate, so nothing is allocated here.
+     */
+    private void recordTelemetry(FlightControllerState state) {
+        LocationCoordinate3D aircraft = state.getAircraftLocation();
+        Attitude attitude = state.getAttitude();
+        if (aircraft == null || attitude == null) {
+            return;
+        }
+        GPSSignalLevel gpsLevel = state.getGPSSignalLevel();
+        telemetry.updateBattery(ConnectionManager.getLastKnownBatteryPercentage());
+        telemetry.record(SystemClock.elapsedRealtime(),
+                aircraft.getLatitude(), aircraft.getLongitude(), aircraft.getAltitude(),
+                state.getVelocityX(), state.getVelocityY(), state.getVelocityZ(),
+                (float) attitude.pitch, (float) attitude.roll, (float) attitude.yaw,
+                state.getSatelliteCount(),
+                gpsLevel == null || gpsLevel == GPSSignalLevel.NONE ? -1 : gpsLevel.value());
+    }
+
+    /**
+     * Flight controller states recorded since the service was created; read
+     * with a snapshot of the caller's own.
+     */
+    public TelemetryRecorder getTelemetry() {
+        return telemetry;
+    }
+
     private void setupObstacleAvoidance() {
         if (flightAssistant == null) {
             Log.e(TAG, "FlightAssistant is null");
@@ -174,6 +285,13 @@ public class FlightService {
 
         Log.d(TAG, "Setting up gimbal for independent control");
 
+        gimbal.setStateCallback(gimbalState -> {
+            dji.common.gimbal.Attitude attitude = gimbalState.getAttitudeInDegrees();
+            if (attitude != null) {
+                telemetry.updateGimbal(attitude.getPitch(), attitude.getRoll(), attitude.getYaw());
+            }
+        });
+
         gimbal.setMode(GimbalMode.YAW_FOLLOW, result -> {
             if (result == null) {
                 Log.d(TAG, "Gimbal set to YAW_FOLLOW mode successfully");
@@ -210,190 +328,779 @@ public class FlightService {
 
             @Override
             public void onExecutionUpdate(WaypointMissionExecutionEvent event) {
-                if (event.getProgress() != null) {
-                    final int currentWaypointIndex = event.getProgress().targetWaypointIndex;
-                    final int totalWaypoints = event.getProgress().totalWaypointCount;
-
-                    Log.d(TAG, "Mission progress: waypoint " + currentWaypointIndex + "/" + totalWaypoints);
+                // Runs at the event rate for the whole flight: table lookups only, and
+                // progress and logs only when the target waypoint changes
+                WaypointPlan plan = activePlan;
+                WaypointTable table = waypointTable;
+                if (event.getProgress() == null || plan == null || table == null) {
+                    return;
+                }
+                // Report against the whole plan so progress runs on across segments
+                int currentWaypointIndex = segmentBounds[currentSegment] + event.getProgress().targetWaypointIndex;
+                reportProgress(currentWaypointIndex, table);
+
+                if (event.getProgress().isWaypointReached &&
+                        event.getCurrentState() == WaypointMissionState.EXECUTING &&
+                        currentWaypointIndex != lastPhotoWaypointProcessed &&
+                        table.isPhoto(currentWaypointIndex)) {
+
+                    Log.d(TAG, "Photo waypoint reached: " + currentWaypointIndex);
+                    lastPhotoWaypointProcessed = currentWaypointIndex;
+                    if (journal != null) {
+                        journal.recordPhotoTaken(currentWaypointIndex);
+                    }
 
+                    // Structure and photo come from the plan, which may not fly the table order
                     if (callback != null) {
-                        callback.onMissionProgress(currentWaypointIndex, totalWaypoints);
+                        callback.onPhotoWaypointReached(currentWaypointIndex,
+                                table.getStructureIndex(currentWaypointIndex),
+                                table.getPhotoIndex(currentWaypointIndex));
                     }
+                }
+            }
 
-                    // Check if this is a photo waypoint
-                    boolean isPhotoWaypoint = photoWaypointIndices.contains(currentWaypointIndex);
-                    boolean waypointReached = event.getProgress().isWaypointReached;
-                    WaypointMissionState currentState = event.getCurrentState();
+            @Override
+            public void onExecutionStart() {
+                Log.d(TAG, "Mission execution started");
+            }
 
-                    Log.d(TAG, "Waypoint " + currentWaypointIndex + " - isPhoto: " + isPhotoWaypoint +
-                            ", reached: " + waypointReached + ", state: " + currentState);
+            @Override
+            public void onExecutionFinish(DJIError error) {
+                Log.d(TAG, "Mission execution finished");
+                onSegmentFinished(error);
+            }
+        };
 
-                    if (isPhotoWaypoint && waypointReached &&
-                            currentState == WaypointMissionState.EXECUTING &&
-                            currentWaypointIndex != lastPhotoWaypointProcessed) {
+        if (missionOperator != null) {
+            missionOperator.addListener(missionListener);
+        }
+    }
 
-                        Log.d(TAG, "🔥 PHOTO WAYPOINT REACHED: " + currentWaypointIndex);
-                        lastPhotoWaypointProcessed = currentWaypointIndex;
+    /**
+     * The v2 operator uploads the mission and its actions in two steps and
+     * reports both through listeners, so a start waits for the action upload
+     * before it calls startMission. Photos are reported when their shoot
+     * action finishes on board.
+     */
+    private void setupMissionListenerV2() {
+        missionListenerV2 = new WaypointV2MissionOperatorListener() {
+            @Override
+            public void onDownloadUpdate(WaypointV2MissionDownloadEvent event) {
+                // Not used
+            }
 
-                        // Calculate structure and photo indices
-                        int photoWaypointPosition = photoWaypointIndices.indexOf(currentWaypointIndex);
-                        int photosPerStructure = getPhotosPerStructure();
-                        int structureIndex = photoWaypointPosition / photosPerStructure;
-                        int photoIndex = photoWaypointPosition % photosPerStructure;
+            @Override
+            public void onUploadUpdate(WaypointV2MissionUploadEvent event) {
+                if (pendingV2Start == null) {
+                    return;
+                }
+                if (event.getError() != null) {
+                    failPendingV2Start(event.getError());
+                    return;
+                }
+                if (event.getPreviousState() == WaypointV2MissionState.UPLOADING
+                        && event.getCurrentState() == WaypointV2MissionState.READY_TO_EXECUTE
+                        && activeV2Segment.getActions().isEmpty()) {
+                    startPendingV2Mission();
+                }
+            }
 
-                        if (callback != null) {
-                            callback.onPhotoWaypointReached(currentWaypointIndex, structureIndex, photoIndex);
-                        }
-                    }
+            @Override
+            public void onExecutionUpdate(WaypointV2MissionExecutionEvent event) {
+                WaypointPlan plan = activePlan;
+                WaypointTable table = waypointTable;
+                if (event.getProgress() == null || plan == null || table == null) {
+                    return;
                 }
+                reportProgress(segmentBounds[currentSegment] + event.getProgress().getTargetWaypointIndex(), table);
             }
 
             @Override
             public void onExecutionStart() {
-                Log.d(TAG, "Mission execution started");
+                Log.d(TAG, "Waypoint v2 mission execution started");
             }
 
             @Override
-            public void onExecutionFinish(DJIError error) {
-                Log.d(TAG, "Mission execution finished");
-                if (callback != null) {
-                    callback.onMissionCompleted(error == null,
-                            error == null ? "Mission completed successfully" : error.getDescription());
+            public void onExecutionFinish(DJIWaypointV2Error error) {
+                Log.d(TAG, "Waypoint v2 mission execution finished");
+                onSegmentFinishedV2(error);
+            }
+
+            @Override
+            public void onExecutionStopped() {
+                Log.d(TAG, "Waypoint v2 mission execution stopped");
+                activePlan = null;
+                onSegmentFinishedV2(null);
+            }
+        };
+
+        actionListenerV2 = new WaypointV2ActionListener() {
+            @Override
+            public void onDownloadUpdate(ActionDownloadEvent event) {
+                // Not used
+            }
+
+            @Override
+            public void onUploadUpdate(ActionUploadEvent event) {
+                if (pendingV2Start == null) {
+                    return;
+                }
+                if (event.getError() != null) {
+                    failPendingV2Start(event.getError());
+                    return;
+                }
+                if (event.getCurrentState() == ActionState.READY_TO_UPLOAD) {
+                    missionOperatorV2.uploadWaypointActions(activeV2Segment.getActions(), error -> {
+                        if (error != null) {
+                            failPendingV2Start(error);
+                        }
+                    });
+                } else if (event.getPreviousState() == ActionState.UPLOADING
+                        && event.getCurrentState() == ActionState.READY_TO_EXECUTE) {
+                    startPendingV2Mission();
+                }
+            }
+
+            @Override
+            public void onExecutionUpdate(ActionExecutionEvent event) {
+                // Not used
+            }
+
+            @Override
+            public void onExecutionStart(int actionId) {
+                // Not used
+            }
+
+            @Override
+            public void onExecutionFinish(int actionId, DJIWaypointV2Error error) {
+                WaypointPlan plan = activePlan;
+                WaypointV2MissionCompiler.Result segment = activeV2Segment;
+                int row = segment != null ? segment.getPhotoRow(actionId) : -1;
+                if (plan == null || row < 0) {
+                    return;
+                }
+                if (error != null) {
+                    Log.w(TAG, "On-board photo at waypoint " + row + " failed: " + error.getDescription());
+                    return;
+                }
+
+                Log.d(TAG, "On-board photo taken at waypoint " + row);
+                lastPhotoWaypointProcessed = row;
+                if (journal != null) {
+                    journal.recordPhotoTaken(row);
+                }
+                WaypointTable table = waypointTable;
+                if (callback != null && table != null) {
+                    callback.onPhotoWaypointReached(row, table.getStructureIndex(row), table.getPhotoIndex(row));
                 }
             }
         };
 
-        if (missionOperator != null) {
-            missionOperator.addListener(missionListener);
+        if (missionOperatorV2 != null) {
+            missionOperatorV2.addWaypointEventListener(missionListenerV2);
+            missionOperatorV2.addActionListener(actionListenerV2);
         }
     }
 
-    public WaypointMission createInspectionMission(List<InspectionPoint> inspectionPoints,
-                                                   List<RelativePhotoPoint> photoPoints) {
-        Log.d(TAG, "Creating inspection mission with " + inspectionPoints.size() +
-                " structures and " + photoPoints.size() + " photo positions");
+    private void reportProgress(int currentWaypointIndex, WaypointTable table) {
+        if (currentWaypointIndex == lastProgressWaypoint) {
+            return;
+        }
+        lastProgressWaypoint = currentWaypointIndex;
+        Log.d(TAG, "Mission progress: waypoint " + currentWaypointIndex + "/" + table.size());
+        if (journal != null) {
+            journal.recordWaypoint(currentWaypointIndex);
+        }
+        if (callback != null) {
+            callback.onMissionProgress(currentWaypointIndex, table.size());
+        }
+    }
 
-        WaypointMission.Builder builder = new WaypointMission.Builder();
+    /**
+     * Structure and photo of every waypoint of the plan being flown, or of the
+     * last one, or null before the first.
+     */
+    public WaypointTable getWaypointTable() {
+        return waypointTable;
+    }
 
-        builder.autoFlightSpeed(Constants.DEFAULT_SPEED);
-        builder.maxFlightSpeed(Constants.DEFAULT_SPEED * 2);
-        builder.setExitMissionOnRCSignalLostEnabled(false);
-        builder.finishedAction(WaypointMissionFinishedAction.GO_HOME);
-        builder.flightPathMode(WaypointMissionFlightPathMode.NORMAL);
-        builder.headingMode(WaypointMissionHeadingMode.USING_WAYPOINT_HEADING);
-        builder.setGimbalPitchRotationEnabled(true);
+    public WaypointPlan createInspectionPlan(List<InspectionPoint> inspectionPoints,
+                                             List<RelativePhotoPoint> photoPoints) {
+        return createInspectionPlan(StructureTable.fromPoints(inspectionPoints),
+                PhotoTemplateTable.fromPoints(photoPoints));
+    }
+
+    public WaypointPlan createInspectionPlan(StructureTable structures,
+                                             PhotoTemplateTable photoTemplate) {
+        return createInspectionPlan(structures, photoTemplate, null);
+    }
 
-        photoWaypointIndices.clear();
-        photosPerStructure = photoPoints.size(); // Set photos per structure
-        int waypointCount = 0;
+    public WaypointPlan createInspectionPlan(StructureTable structures,
+                                             PhotoTemplateTable photoTemplate,
+                                             int[] structureOrder) {
+        return createInspectionPlan(structures, photoTemplate, structureOrder, null);
+    }
 
-        // Add initial safety waypoint
-        addSafetyWaypoint(builder, homeLatitude, homeLongitude, Constants.SAFETY_ALTITUDE);
-        waypointCount++;
+    /**
+     * @param structureOrder visiting order as structure indices, or null for table order
+     * @param photoOrder     photo position order, flown backwards at every other
+     *                       structure, or null for template order
+     */
+    public WaypointPlan createInspectionPlan(StructureTable structures,
+                                             PhotoTemplateTable photoTemplate,
+                                             int[] structureOrder,
+                                             int[] photoOrder) {
+        Log.d(TAG, "Creating inspection plan with " + structures.size() +
+                " structures and " + photoTemplate.size() + " photo positions");
+
+        photosPerStructure = photoTemplate.size(); // Set photos per structure
+
+        WaypointPlan plan = new InspectionPlanBuilder(structures, photoTemplate)
+                .setHome(homeLatitude, homeLongitude)
+                .setStructureOrder(structureOrder)
+                .setPhotoOrder(photoOrder, true)
+                .setTerrain(terrain, referenceElevation)
+                .setSpeed(speed)
+                .build();
+
+        Log.d(TAG, "Created plan with " + plan.size() + " waypoints, " +
+                plan.getPhotoCount() + " photo waypoints, " +
+                photosPerStructure + " photos per structure, " +
+                plan.getRemovedCount() + " redundant waypoints merged");
+
+        return plan;
+    }
 
-        // Add waypoints for each structure
-        for (int i = 0; i < inspectionPoints.size(); i++) {
-            InspectionPoint point = inspectionPoints.get(i);
+    /**
+     * Plan for a re-shoot patch: only the selected photo positions, flown
+     * from where the aircraft is rather than from home, in template order.
+     *
+     * @param structureOrder structures with selected positions, in visiting order
+     * @param photos         positions set at {@code structure * template size + position}
+     */
+    public WaypointPlan createReshootPlan(StructureTable structures,
+                                          PhotoTemplateTable photoTemplate,
+                                          int[] structureOrder,
+                                          int[] photoOrder,
+                                          BitSet photos,
+                                          double startLatitude,
+                                          double startLongitude) {
+        WaypointPlan plan = new InspectionPlanBuilder(structures, photoTemplate)
+                .setHome(startLatitude, startLongitude)
+                .setStructureOrder(structureOrder)
+                .setPhotoOrder(photoOrder, false)
+                .setPhotoSelection(photos)
+                .setTerrain(terrain, referenceElevation)
+                .setSpeed(speed)
+                .build();
+
+        Log.d(TAG, "Created re-shoot plan with " + plan.size() + " waypoints, " +
+                plan.getPhotoCount() + " photo waypoints at " + structureOrder.length + " structures");
+        return plan;
+    }
 
-            // Add approach waypoint
-            waypointCount += addStructureApproachWaypoint(builder, point);
+    /**
+     * Plan that picks up an interrupted one at a photo waypoint: up from home
+     * to the highest altitude the plan reached before that waypoint, across
+     * to its structure at that altitude, down through the structure's
+     * approach, then the rest of the plan as it was. Transit altitudes of the
+     * skipped part are not known to clear the direct leg, the highest of them
+     * is the safe choice. Photos after the waypoint are flown again even if
+     * some were taken, e.g. when the waypoint was rejected in review.
+     *
+     * @throws IllegalArgumentException if the waypoint is not a photo waypoint of the plan,
+     *                                  or home moved from where the plan was made
+     */
+    public WaypointPlan createResumePlan(WaypointPlan plan, int fromRow) {
+        if (fromRow < 0 || fromRow >= plan.size() || !plan.isPhoto(fromRow)) {
+            throw new IllegalArgumentException("Waypoint " + fromRow + " is not a photo waypoint of the plan");
+        }
 
-            // Add photo waypoints
-            for (int j = 0; j < photoPoints.size(); j++) {
-                RelativePhotoPoint photoPoint = photoPoints.get(j);
-                photoWaypointIndices.add(waypointCount);
-                waypointCount += addPhotoWaypoint(builder, point, photoPoint);
+        double startLatitude = plan.getLatitude(0);
+        double startLongitude = plan.getLongitude(0);
+        if (homeLatitude != 0 || homeLongitude != 0) {
+            double moved = CoordinateUtils.calculateDistance(startLatitude, startLongitude, homeLatitude, homeLongitude);
+            if (moved > RESUME_HOME_TOLERANCE) {
+                throw new IllegalArgumentException(String.format(Locale.US,
+                        "Home is %.0f m from where the mission took off, take off there to resume it", moved));
             }
+            startLatitude = homeLatitude;
+            startLongitude = homeLongitude;
+        }
+
+        int structure = plan.getStructureIndex(fromRow);
+        int approach = fromRow;
+        while (approach > 0 && !(plan.getKind(approach) == WaypointPlan.KIND_APPROACH &&
+                plan.getStructureIndex(approach) == structure)) {
+            approach--;
+        }
+        if (approach == 0) {
+            // Merged away, enter the structure at the photo waypoint itself
+            approach = fromRow;
+        }
+
+        float transitAltitude = Constants.SAFETY_ALTITUDE;
+        for (int i = 0; i <= approach; i++) {
+            transitAltitude = Math.max(transitAltitude, plan.getAltitude(i));
+        }
 
-            // Add safety waypoints between structures
-            if (i < inspectionPoints.size() - 1) {
-                InspectionPoint nextPoint = inspectionPoints.get(i + 1);
-                waypointCount += addInterStructureSafetyWaypoints(builder, point, nextPoint);
+        WaypointPlan resume = new WaypointPlan(plan.size() - fromRow + 3);
+        resume.addSafety(startLatitude, startLongitude, transitAltitude, -1);
+        resume.addSafety(plan.getLatitude(approach), plan.getLongitude(approach), transitAltitude, structure);
+        if (approach != fromRow) {
+            resume.addApproach(plan.getLatitude(approach), plan.getLongitude(approach),
+                    plan.getAltitude(approach), structure);
+        }
+        for (int i = fromRow; i < plan.size(); i++) {
+            int row;
+            if (plan.getKind(i) == WaypointPlan.KIND_PHOTO) {
+                row = resume.addPhoto(plan.getLatitude(i), plan.getLongitude(i), plan.getAltitude(i),
+                        plan.getHeading(i), plan.getGimbalPitch(i), plan.getStructureIndex(i), plan.getPhotoIndex(i));
+            } else if (plan.getKind(i) == WaypointPlan.KIND_APPROACH) {
+                row = resume.addApproach(plan.getLatitude(i), plan.getLongitude(i), plan.getAltitude(i),
+                        plan.getStructureIndex(i));
+            } else {
+                row = resume.addSafety(plan.getLatitude(i), plan.getLongitude(i), plan.getAltitude(i),
+                        plan.getStructureIndex(i));
             }
+            // The turn at the first row is not the planned one, stop there
+            resume.setCornerRadius(row, i == fromRow ? 0 : plan.getCornerRadius(i));
         }
 
-        Log.d(TAG, "Created mission with " + waypointCount + " waypoints, " +
-                photoWaypointIndices.size() + " photo waypoints, " +
-                photosPerStructure + " photos per structure");
+        Log.d(TAG, "Created resume plan from waypoint " + fromRow + " of " + plan.size() + ": " +
+                resume.size() + " waypoints, " + resume.getPhotoCount() + " photo waypoints, transit at " +
+                transitAltitude + "m");
+        return resume;
+    }
 
-        return builder.build();
+    /**
+     * Terrain that new plans raise their transit legs over, or null for the
+     * flat safety altitude.
+     */
+    public void setTerrain(TerrainService terrain, double referenceElevation) {
+        this.terrain = terrain;
+        this.referenceElevation = referenceElevation;
     }
 
-    private void addSafetyWaypoint(WaypointMission.Builder builder, double lat, double lon, float altitude) {
-        Waypoint waypoint = new Waypoint(lat, lon, altitude);
-        waypoint.heading = 0;
-        builder.addWaypoint(waypoint);
+    /**
+     * Restricted areas that plans must stay out of, or null for none.
+     */
+    public void setGeofences(GeofenceIndex geofences) {
+        this.geofences = geofences;
+        this.currentGeofence = -1;
     }
 
-    private int addStructureApproachWaypoint(WaypointMission.Builder builder, InspectionPoint point) {
-        float safeAltitude = point.getTotalInspectionAltitude(Constants.SAFE_DISTANCE);
+    /**
+     * Journal that plans and their progress are recorded to, or null for none.
+     */
+    public void setJournal(MissionJournal journal) {
+        this.journal = journal;
+    }
 
-        Waypoint approachWaypoint = new Waypoint(
-                point.getLatitude(),
-                point.getLongitude(),
-                safeAltitude
-        );
-        approachWaypoint.heading = 0;
-        builder.addWaypoint(approachWaypoint);
+    /**
+     * Reports the zone the aircraft is in when it enters one, not on every
+     * position update.
+     */
+    private void checkGeofences(double latitude, double longitude) {
+        GeofenceIndex index = geofences;
+        if (index == null || index.isEmpty()) {
+            return;
+        }
+        int polygon = index.findContaining(latitude, longitude);
+        if (polygon != currentGeofence) {
+            currentGeofence = polygon;
+            if (polygon >= 0) {
+                Log.w(TAG, "Aircraft entered geofence zone " + index.getZoneId(polygon));
+                callback.onGeofenceEntered(index.getZoneId(polygon));
+            }
+        }
+    }
 
-        return 1;
+    // ==========================================
+    // SEGMENTED EXECUTION
+    // ==========================================
+
+    /**
+     * Flies a plan as a chain of waypoint missions. Each segment fits the
+     * per-mission waypoint limit; when one finishes the next is uploaded and
+     * started straight away. The v1 operator cannot upload while a mission is
+     * executing, so the next segment is built and checked during the flight
+     * and only the upload happens in the gap.
+     *
+     * With on-board capture enabled and an aircraft that supports waypoint
+     * v2, the plan is compiled into v2 missions instead: photos are taken by
+     * on-board actions and the much larger waypoint limit usually fits the
+     * whole plan into one mission.
+     *
+     * @param callback receives the result of starting the first segment
+     * @throws IllegalArgumentException if a single structure does not fit one mission,
+     *                                  or a waypoint or leg enters a geofence
+     */
+    public void executePlan(WaypointPlan plan, CommonCallbacks.CompletionCallback callback) {
+        if (missionOperator == null) {
+            Log.e(TAG, "Mission operator not available");
+            return;
+        }
+
+        if (geofences != null && !geofences.isEmpty()) {
+            long checkStart = System.nanoTime();
+            GeofenceIndex.Violations violations = geofences.validatePlan(plan);
+            Log.d(TAG, "Checked " + plan.size() + " waypoints against " + geofences.size() + " geofences in " +
+                    (System.nanoTime() - checkStart) / 1000 + " us");
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(violations.toString());
+            }
+        }
+
+        usingV2 = onBoardCaptureEnabled && isOnBoardCaptureAvailable();
+        int[] bounds = MissionSegmenter.split(plan, usingV2 ?
+                Constants.MAX_WAYPOINTS_PER_V2_MISSION : Constants.MAX_WAYPOINTS_PER_MISSION);
+        int segmentCount = bounds.length - 1;
+
+        // Keep built missions whose content is unchanged, e.g. after re-importing a few edited towers
+        long[] keys = new long[segmentCount];
+        for (int k = 0; k < segmentCount; k++) {
+            keys[k] = MissionPlanCache.segmentKey(plan, bounds[k], bounds[k + 1],
+                    k == segmentCount - 1 && returnHomeAtEnd, speed);
+        }
+        int reusedSegments = missionCache.retain(keys);
+
+        waypointTable = WaypointTable.of(plan);
+        lastPhotoWaypointProcessed = -1;
+        lastProgressWaypoint = -1;
+
+        activePlan = plan;
+        segmentBounds = bounds;
+        segmentKeys = keys;
+        segmentsReturnHome = returnHomeAtEnd;
+        preparedV2Index = -1;
+        totalTurnaroundMillis = 0;
+        maxTurnaroundMillis = 0;
+
+        Log.d(TAG, "Executing plan of " + plan.size() + " waypoints in " + segmentCount +
+                (usingV2 ? " waypoint v2 segments with on-board capture, " :
+                        " segments, " + reusedSegments + " reused from cache, ") +
+                plan.getRemovedCount() + " redundant waypoints merged");
+        if (usingV2) {
+            logTimeEstimate(plan, bounds);
+        }
+
+        if (journal != null) {
+            journal.startPlan(plan);
+        }
+        startSegment(0, callback);
     }
 
-    private int addPhotoWaypoint(WaypointMission.Builder builder,
-                                 InspectionPoint structure,
-                                 RelativePhotoPoint photoPoint) {
+    private void startSegment(int segment, CommonCallbacks.CompletionCallback startCallback) {
+        WaypointPlan plan = activePlan;
+        int segmentCount = segmentBounds.length - 1;
+        currentSegment = segment;
+
+        executeSegment(segment, error -> {
+            if (error == null) {
+                long turnaround = segment > 0 ? SystemClock.elapsedRealtime() - segmentFinishedAt : 0;
+                totalTurnaroundMillis += turnaround;
+                maxTurnaroundMillis = Math.max(maxTurnaroundMillis, turnaround);
+
+                Log.d(TAG, "Segment " + (segment + 1) + "/" + segmentCount + " started" +
+                        (segment > 0 ? ", turnaround " + turnaround + " ms" : ""));
+
+                if (journal != null) {
+                    journal.recordSegmentStarted(segment, segmentCount);
+                }
+                if (callback != null) {
+                    callback.onSegmentStarted(segment, segmentCount, turnaround);
+                }
+
+                // Build the next segment while this one flies
+                if (segment + 1 < segmentCount && plan == activePlan) {
+                    prepareSegment(segment + 1);
+                }
+            } else {
+                Log.e(TAG, "Failed to start segment " + (segment + 1) + ": " + error.getDescription());
+                activePlan = null;
+                if (segment > 0 && callback != null) {
+                    callback.onMissionCompleted(false,
+                            "Failed to start segment " + (segment + 1) + ": " + error.getDescription());
+                }
+            }
 
-        GPSCoordinate photoCoord = photoPoint.calculateAbsolutePosition(structure, Constants.ONE_METER_OFFSET);
+            if (startCallback != null) {
+                startCallback.onResult(error);
+            }
+        });
+    }
 
-        Waypoint waypoint = new Waypoint(
-                photoCoord.getLatitude(),
-                photoCoord.getLongitude(),
-                photoCoord.getAltitude()
-        );
+    private void executeSegment(int segment, CommonCallbacks.CompletionCallback callback) {
+        if (usingV2) {
+            executeSegmentV2(segment, callback);
+        } else {
+            executeMission(getSegmentMission(segment), callback);
+        }
+    }
 
-        // Calculate heading to point toward structure
-        float heading = CoordinateUtils.calculateHeadingToStructure(
-                photoPoint.getOffsetX(), photoPoint.getOffsetY()
-        );
-        waypoint.heading = (int) heading;
+    private void prepareSegment(int segment) {
+        if (usingV2) {
+            preparedV2Segment = compileSegmentV2(segment);
+            preparedV2Index = segment;
+            return;
+        }
 
-        // Add gimbal and photo actions
-        int gimbalPitch = Math.round(photoPoint.getGimbalPitch());
-        waypoint.addAction(new WaypointAction(WaypointActionType.GIMBAL_PITCH, gimbalPitch));
-        waypoint.addAction(new WaypointAction(WaypointActionType.START_TAKE_PHOTO, 0));
+        WaypointMission mission = getSegmentMission(segment);
+        DJIError parameterError = mission.checkParameters();
+        if (parameterError != null) {
+            Log.w(TAG, "Segment " + (segment + 1) + " failed parameter check: " + parameterError.getDescription());
+        }
+    }
 
-        builder.addWaypoint(waypoint);
-        return 1;
+    private WaypointMission getSegmentMission(int segment) {
+        WaypointMission mission = missionCache.get(segmentKeys[segment]);
+        if (mission == null) {
+            boolean last = segment == segmentBounds.length - 2 && segmentsReturnHome;
+            mission = createSegmentMission(activePlan, segmentBounds[segment], segmentBounds[segment + 1], last);
+            missionCache.put(segmentKeys[segment], mission);
+        }
+        return mission;
     }
 
-    private int addInterStructureSafetyWaypoints(WaypointMission.Builder builder,
-                                                 InspectionPoint currentPoint,
-                                                 InspectionPoint nextPoint) {
-        // Safety waypoint at current position
-        addSafetyWaypoint(builder,
-                currentPoint.getLatitude(),
-                currentPoint.getLongitude(),
-                Constants.SAFETY_ALTITUDE + currentPoint.getGroundAltitude());
+    // ==========================================
+    // WAYPOINT V2 EXECUTION
+    // ==========================================
 
-        // Safety waypoint at next position
-        addSafetyWaypoint(builder,
-                nextPoint.getLatitude(),
-                nextPoint.getLongitude(),
-                Constants.SAFETY_ALTITUDE + nextPoint.getGroundAltitude());
+    /**
+     * Whether the connected aircraft can fly waypoint v2 missions.
+     */
+    public boolean isOnBoardCaptureAvailable() {
+        if (missionOperatorV2 == null) {
+            return false;
+        }
+        WaypointV2MissionState state = missionOperatorV2.getCurrentState();
+        return state != null && state != WaypointV2MissionState.NOT_SUPPORTED &&
+                state != WaypointV2MissionState.DISCONNECTED;
+    }
 
-        return 2;
+    public void setOnBoardCaptureEnabled(boolean enabled) {
+        this.onBoardCaptureEnabled = enabled;
     }
 
-    private int getPhotosPerStructure() {
-        return photosPerStructure;
+    /**
+     * Whether the last segment of the plans started from now on returns home.
+     * Without it the aircraft hovers at the last waypoint when the plan is
+     * done, e.g. to fly a re-shoot patch before {@link #returnHome}.
+     */
+    public void setReturnHomeAtEnd(boolean returnHomeAtEnd) {
+        this.returnHomeAtEnd = returnHomeAtEnd;
     }
 
+    /**
+     * Cruise speed of the missions built from now on, in m/s.
+     */
+    public void setSpeed(float speed) {
+        this.speed = Math.max(1.0f, Math.min(15.0f, speed));
+    }
+
+    /**
+     * Whether photos of the running plan are taken on board, so the app must
+     * not pause the mission for them.
+     */
+    public boolean isCapturingOnBoard() {
+        return usingV2;
+    }
+
+    private WaypointV2MissionCompiler.Result compileSegmentV2(int segment) {
+        if (segment == preparedV2Index && preparedV2Segment != null) {
+            return preparedV2Segment;
+        }
+        boolean last = segment == segmentBounds.length - 2 && segmentsReturnHome;
+        WaypointV2MissionCompiler.Result compiled = new WaypointV2MissionCompiler()
+                .setSpeed(speed)
+                .compile(activePlan, segmentBounds[segment], segmentBounds[segment + 1], last);
+        Log.d(TAG, "Compiled waypoint v2 segment for waypoints " + segmentBounds[segment] + "-" +
+                (segmentBounds[segment + 1] - 1) + ": " + compiled);
+        return compiled;
+    }
+
+    private void executeSegmentV2(int segment, CommonCallbacks.CompletionCallback callback) {
+        if (missionOperatorV2 == null) {
+            Log.e(TAG, "Waypoint v2 mission operator not available");
+            return;
+        }
+
+        activeV2Segment = compileSegmentV2(segment);
+        preparedV2Segment = null;
+        preparedV2Index = -1;
+        pendingV2Start = callback;
+
+        // The listeners upload the actions once the mission is on the aircraft, then start it
+        missionOperatorV2.loadMission(activeV2Segment.getMission(), loadError -> {
+            if (loadError != null) {
+                failPendingV2Start(loadError);
+                return;
+            }
+            missionOperatorV2.uploadMission(uploadError -> {
+                if (uploadError != null) {
+                    failPendingV2Start(uploadError);
+                }
+            });
+        });
+    }
+
+    private void startPendingV2Mission() {
+        CommonCallbacks.CompletionCallback startCallback = pendingV2Start;
+        pendingV2Start = null;
+        missionOperatorV2.startMission(error -> {
+            v2Running = error == null;
+            startCallback.onResult(error);
+        });
+    }
+
+    private void failPendingV2Start(DJIError error) {
+        CommonCallbacks.CompletionCallback startCallback = pendingV2Start;
+        pendingV2Start = null;
+        if (startCallback != null) {
+            startCallback.onResult(error);
+        }
+    }
+
+    /**
+     * The v2 operator reports both a finish and a stop; only the first one
+     * ends the segment.
+     */
+    private void onSegmentFinishedV2(DJIError error) {
+        if (!v2Running) {
+            return;
+        }
+        v2Running = false;
+        activeV2Segment = null;
+        onSegmentFinished(error);
+    }
+
+    private void onSegmentFinished(DJIError error) {
+        WaypointPlan plan = activePlan;
+        if (error == null && plan != null && currentSegment < segmentBounds.length - 2) {
+            segmentFinishedAt = SystemClock.elapsedRealtime();
+            startSegment(currentSegment + 1, null);
+            return;
+        }
+
+        if (plan != null && segmentBounds.length > 2) {
+            int chained = segmentBounds.length - 2;
+            Log.d(TAG, "Segment turnaround: average " + (totalTurnaroundMillis / chained) +
+                    " ms, max " + maxTurnaroundMillis + " ms over " + chained + " transitions");
+        }
+        activePlan = null;
+
+        if (journal != null) {
+            journal.recordFinished(error == null && plan != null);
+        }
+        if (callback != null) {
+            // A plan cleared by stopMissionAndReturnHome did not finish, even without an error
+            if (error != null) {
+                callback.onMissionCompleted(false, error.getDescription());
+            } else if (plan == null) {
+                callback.onMissionCompleted(false, "Mission stopped");
+            } else {
+                callback.onMissionCompleted(true, "Mission completed successfully");
+            }
+        }
+    }
+
+    /**
+     * Logs the kinematic flight time with a stop at every waypoint and with
+     * the planned corners rounded, as the v2 segments fly them.
+     */
+    private void logTimeEstimate(WaypointPlan plan, int[] bounds) {
+        MissionTimeEstimator estimator = new MissionTimeEstimator();
+        double stopAndGo = 0;
+        double withCorners = 0;
+        for (int k = 0; k < bounds.length - 1; k++) {
+            stopAndGo += estimator.estimateSeconds(plan, bounds[k], bounds[k + 1], false);
+            withCorners += estimator.estimateSeconds(plan, bounds[k], bounds[k + 1], true);
+        }
+        Log.d(TAG, String.format(Locale.US, "Estimated flight time: %.1f min with stops, %.1f min as flown",
+                stopAndGo / 60, withCorners / 60));
+    }
+
+    private WaypointMission createSegmentMission(WaypointPlan plan, int start, int end, boolean last) {
+        // The v1 mission executes no waypoint actions in CURVED mode, so corner
+        // radii are only flown by the v2 missions and every v1 waypoint is a stop
+        WaypointMission.Builder builder = new WaypointMission.Builder();
+
+        builder.autoFlightSpeed(speed);
+        builder.maxFlightSpeed(speed * 2);
+        builder.setExitMissionOnRCSignalLostEnabled(false);
+        // Intermediate segments hover at their last waypoint until the next one starts
+        builder.finishedAction(last ? WaypointMissionFinishedAction.GO_HOME : WaypointMissionFinishedAction.NO_ACTION);
+        builder.flightPathMode(WaypointMissionFlightPathMode.NORMAL);
+        builder.headingMode(WaypointMissionHeadingMode.USING_WAYPOINT_HEADING);
+        builder.setGimbalPitchRotationEnabled(true);
+
+        for (int i = start; i < end; i++) {
+            Waypoint waypoint = new Waypoint(plan.getLatitude(i), plan.getLongitude(i), plan.getAltitude(i));
+            waypoint.heading = (int) plan.getHeading(i);
+
+            if (plan.isPhoto(i)) {
+                // Add gimbal and photo actions
+                int gimbalPitch = Math.round(plan.getGimbalPitch(i));
+                waypoint.addAction(new WaypointAction(WaypointActionType.GIMBAL_PITCH, gimbalPitch));
+                waypoint.addAction(new WaypointAction(WaypointActionType.START_TAKE_PHOTO, 0));
+            }
+
+            builder.addWaypoint(waypoint);
+        }
+
+        Log.d(TAG, "Built segment mission for waypoints " +
+                start + "-" + (end - 1) + (last ? " (final)" : ""));
+        return builder.build();
+    }
+
+    /**
+     * Starts a mission, uploading it only if the aircraft does not already
+     * hold the same one, e.g. after an aborted start or a stopped mission.
+     */
     public void executeMission(WaypointMission mission, CommonCallbacks.CompletionCallback callback) {
         if (missionOperator == null) {
             Log.e(TAG, "Mission operator not available");
             return;
         }
 
+        if (missionOperator.getCurrentState() != WaypointMissionState.READY_TO_EXECUTE) {
+            uploadAndStartMission(mission, callback);
+            return;
+        }
+
+        long fingerprint = MissionPlanCache.fingerprint(mission);
+        WaypointMission loaded = missionOperator.getLoadedMission();
+        if (loaded != null) {
+            startUploadedMission(mission, loaded, fingerprint, callback);
+            return;
+        }
+
+        // The aircraft holds a mission this session did not upload, e.g. after an app restart
+        missionOperator.downloadMission(downloadResult -> {
+            if (downloadResult != null) {
+                Log.d(TAG, "Mission download failed, uploading: " + downloadResult.getDescription());
+                uploadAndStartMission(mission, callback);
+                return;
+            }
+            startUploadedMission(mission, missionOperator.getLoadedMission(), fingerprint, callback);
+        });
+    }
+
+    private void startUploadedMission(WaypointMission mission, WaypointMission onAircraft, long fingerprint,
+                                      CommonCallbacks.CompletionCallback callback) {
+        if (onAircraft == null || MissionPlanCache.fingerprint(onAircraft) != fingerprint) {
+            uploadAndStartMission(mission, callback);
+            return;
+        }
+
+        skippedUploads++;
+        Log.d(TAG, "Aircraft already holds this mission (" + mission.getWaypointCount() +
+                " waypoints), skipping upload; " + skippedUploads + " uploads skipped");
+        missionOperator.startMission(callback);
+    }
+
+    private void uploadAndStartMission(WaypointMission mission, CommonCallbacks.CompletionCallback callback) {
         DJIError loadError = missionOperator.loadMission(mission);
         if (loadError != null) {
             callback.onResult(loadError);
@@ -411,7 +1118,9 @@ public class FlightService {
     }
 
     public void pauseMission(CommonCallbacks.CompletionCallback callback) {
-        if (missionOperator != null) {
+        if (usingV2 && missionOperatorV2 != null) {
+            missionOperatorV2.interruptMission(callback::onResult);
+        } else if (missionOperator != null) {
             missionOperator.pauseMission(callback);
         } else {
             Log.e(TAG, "Mission operator not available");
@@ -419,7 +1128,9 @@ public class FlightService {
     }
 
     public void resumeMission(CommonCallbacks.CompletionCallback callback) {
-        if (missionOperator != null) {
+        if (usingV2 && missionOperatorV2 != null) {
+            missionOperatorV2.recoverMission(callback::onResult);
+        } else if (missionOperator != null) {
             missionOperator.resumeMission(callback);
         } else {
             Log.e(TAG, "Mission operator not available");
@@ -427,7 +1138,19 @@ public class FlightService {
     }
 
     public void stopMissionAndReturnHome(CommonCallbacks.CompletionCallback callback) {
-        if (missionOperator != null) {
+        // Do not chain into the next segment once the operator stops
+        activePlan = null;
+
+        if (usingV2 && missionOperatorV2 != null) {
+            missionOperatorV2.stopMission(stopResult -> {
+                if (stopResult != null) {
+                    callback.onResult(stopResult);
+                    return;
+                }
+
+                returnToHome(callback);
+            });
+        } else if (missionOperator != null) {
             missionOperator.stopMission(stopResult -> {
                 if (stopResult != null) {
                     callback.onResult(stopResult);
@@ -441,6 +1164,13 @@ public class FlightService {
         }
     }
 
+    /**
+     * Returns home from a plan that finished without going home.
+     */
+    public void returnHome(CommonCallbacks.CompletionCallback callback) {
+        returnToHome(callback);
+    }
+
     private void returnToHome(CommonCallbacks.CompletionCallback callback) {
         if (flightController == null) {
             Log.e(TAG, "Flight controller not available");
@@ -458,6 +1188,14 @@ public class FlightService {
         });
     }
 
+    public double getHomeLatitude() {
+        return homeLatitude;
+    }
+
+    public double getHomeLongitude() {
+        return homeLongitude;
+    }
+
     public boolean isObstacleAvoidanceEnabled() {
         return obstacleAvoidanceEnabled;
     }
@@ -473,6 +1211,11 @@ public class FlightService {
             missionOperator.removeListener(missionListener);
         }
 
+        if (missionOperatorV2 != null) {
+            missionOperatorV2.removeWaypointListener(missionListenerV2);
+            missionOperatorV2.removeActionListener(actionListenerV2);
+        }
+
         if (flightAssistant != null) {
             flightAssistant.setVisionDetectionStateUpdatedCallback(null);
         }
@@ -481,6 +1224,11 @@ public class FlightService {
             flightController.setStateCallback(null);
         }
 
+        if (gimbal != null) {
+            gimbal.setStateCallback(null);
+        }
+
+        missionCache.clear();
         callback = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+// ==========================================
+// InspectionPlanBuilder.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.CoordinateUtils;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+import java.util.BitSet;
+
+/**
+ * Expands structures and the photo template into a {@link WaypointPlan}.
+ *
+ * Per structure the plan holds an approach waypoint above the tower and one
+ * photo waypoint per template position. Consecutive structures are joined by
+ * a departure and an arrival waypoint, which is also where
+ * {@link MissionSegmenter} may cut the plan. Their altitudes come from
+ * {@link TransitAltitudePlanner}, which keeps the leg clear of the conductor
+ * hanging between the two towers and of the ground below it. Redundant
+ * safety waypoints are then dropped by {@link WaypointPlanCompactor} and
+ * transit waypoints get corner radii from {@link CornerRadiusPlanner}.
+ */
+public class InspectionPlanBuilder {
+    private final StructureTable structures;
+    private final PhotoTemplateTable photoTemplate;
+    private double homeLatitude;
+    private double homeLongitude;
+    private int[] structureOrder;
+    private int[] photoOrder;
+    private boolean alternatePhotoOrder;
+    private BitSet photoSelection;
+    private int firstVisit;
+    private TerrainService terrain;
+    private double referenceElevation;
+    private TransitAltitudePlanner transitPlanner;
+    private float speed = Constants.DEFAULT_SPEED;
+    private float safeDistance = Constants.SAFE_DISTANCE;
+    private boolean roundCorners = true;
+
+    public InspectionPlanBuilder(StructureTable structures, PhotoTemplateTable photoTemplate) {
+        this.structures = structures;
+        this.photoTemplate = photoTemplate;
+    }
+
+    public InspectionPlanBuilder setHome(double latitude, double longitude) {
+        this.homeLatitude = latitude;
+        this.homeLongitude = longitude;
+        return this;
+    }
+
+    /**
+     * Visiting order as structure indices, e.g. from RouteOptimizer. It may
+     * list a subset of the table, such as one sortie. Plan rows keep the
+     * original structure index. Null flies the table order.
+     */
+    public InspectionPlanBuilder setStructureOrder(int[] structureOrder) {
+        if (structureOrder != null && structureOrder.length > structures.size()) {
+            throw new IllegalArgumentException("Structure order has " + structureOrder.length +
+                    " entries for " + structures.size() + " structures");
+        }
+        this.structureOrder = structureOrder;
+        return this;
+    }
+
+    /**
+     * Order of the template's photo positions, e.g. from PhotoSequencePlanner.
+     * With {@code alternate} every second structure flies it backwards, so it
+     * is entered near where the previous one was left. Null flies the
+     * template order.
+     */
+    public InspectionPlanBuilder setPhotoOrder(int[] photoOrder, boolean alternate) {
+        if (photoOrder != null && photoOrder.length != photoTemplate.size()) {
+            throw new IllegalArgumentException("Photo order has " + photoOrder.length +
+                    " entries for " + photoTemplate.size() + " photo positions");
+        }
+        this.photoOrder = photoOrder;
+        this.alternatePhotoOrder = alternate;
+        return this;
+    }
+
+    /**
+     * Photo positions to plan, set at {@code structure * template size +
+     * position}, e.g. the rejected photos of a re-shoot patch. Structures in
+     * the order still get their approach waypoint, so the order should only
+     * list structures with selected positions. Null plans every position.
+     */
+    public InspectionPlanBuilder setPhotoSelection(BitSet photoSelection) {
+        this.photoSelection = photoSelection;
+        return this;
+    }
+
+    /**
+     * Position of the first structure within the whole route, so a plan for
+     * part of the route (one sortie) alternates the photo order in step with
+     * the full plan.
+     */
+    public InspectionPlanBuilder setFirstVisit(int firstVisit) {
+        this.firstVisit = firstVisit;
+        return this;
+    }
+
+    /**
+     * Terrain to raise transit legs over, with the takeoff elevation that plan
+     * altitudes are relative to. Null assumes straight ground between structures.
+     */
+    public InspectionPlanBuilder setTerrain(TerrainService terrain, double referenceElevation) {
+        this.terrain = terrain;
+        this.referenceElevation = referenceElevation;
+        return this;
+    }
+
+    /**
+     * Cruise speed the corner radii are sized for.
+     */
+    public InspectionPlanBuilder setSpeed(float speed) {
+        this.speed = Math.max(0.1f, speed);
+        return this;
+    }
+
+    /**
+     * Height of the approach waypoint above the structure top, also kept
+     * between rounded corners and the towers.
+     */
+    public InspectionPlanBuilder setSafeDistance(float safeDistance) {
+        this.safeDistance = Math.max(0, safeDistance);
+        return this;
+    }
+
+    /**
+     * Whether transit waypoints get corner radii; without them every
+     * waypoint is a stop.
+     */
+    public InspectionPlanBuilder setRoundCorners(boolean roundCorners) {
+        this.roundCorners = roundCorners;
+        return this;
+    }
+
+    /**
+     * Planner for the transit legs, e.g. with the sag and clearances of the
+     * line. Null plans with the default conductor and this builder's terrain.
+     */
+    public InspectionPlanBuilder setTransitPlanner(TransitAltitudePlanner transitPlanner) {
+        this.transitPlanner = transitPlanner;
+        return this;
+    }
+
+    public WaypointPlan build() {
+        int structureCount = structureOrder != null ? structureOrder.length : structures.size();
+        int photoCount = photoTemplate.size();
+        WaypointPlan plan = new WaypointPlan(1 + structureCount * (photoCount + 3));
+
+        // Photo positions of one structure, reused for every structure
+        LocalTangentPlane tangentPlane = new LocalTangentPlane();
+        double[] photoLatitude = new double[photoCount];
+        double[] photoLongitude = new double[photoCount];
+        float[] photoAltitude = new float[photoCount];
+        float[] photoHeading = new float[photoCount];
+        for (int j = 0; j < photoCount; j++) {
+            photoHeading[j] = CoordinateUtils.calculateHeadingToStructure(
+                    photoTemplate.getOffsetX(j), photoTemplate.getOffsetY(j));
+        }
+
+        TransitAltitudePlanner transit = transitPlanner != null ? transitPlanner :
+                new TransitAltitudePlanner(structures).setTerrain(terrain, referenceElevation);
+
+        // Initial safety waypoint
+        plan.addSafety(homeLatitude, homeLongitude, Constants.SAFETY_ALTITUDE, -1);
+        TransitAltitudePlanner.Leg leg = null;
+
+        for (int visit = 0; visit < structureCount; visit++) {
+            int i = structureOrder != null ? structureOrder[visit] : visit;
+            double latitude = structures.getLatitude(i);
+            double longitude = structures.getLongitude(i);
+            float topAltitude = structures.getGroundAltitude(i) + structures.getStructureHeight(i);
+
+            // Arrival from the previous structure
+            if (leg != null) {
+                plan.addSafety(latitude, longitude, leg.getArrivalAltitude(), i);
+            }
+
+            plan.addApproach(latitude, longitude,
+                    structures.getTotalInspectionAltitude(i, safeDistance), i);
+
+            tangentPlane.setOrigin(latitude, longitude, topAltitude);
+            photoTemplate.project(tangentPlane, photoLatitude, photoLongitude, photoAltitude);
+
+            boolean reversed = alternatePhotoOrder && ((firstVisit + visit) & 1) == 1;
+            for (int k = 0; k < photoCount; k++) {
+                int step = reversed ? photoCount - 1 - k : k;
+                int j = photoOrder != null ? photoOrder[step] : step;
+                if (photoSelection != null && !photoSelection.get(i * photoCount + j)) {
+                    continue;
+                }
+                plan.addPhoto(photoLatitude[j], photoLongitude[j], photoAltitude[j], photoHeading[j],
+                        photoTemplate.getGimbalPitch(j), i, j);
+            }
+
+            // Departure towards the next structure
+            if (visit < structureCount - 1) {
+                int next = structureOrder != null ? structureOrder[visit + 1] : visit + 1;
+                leg = transit.plan(i, next);
+                plan.addSafety(latitude, longitude, leg.getDepartureAltitude(), i);
+            }
+        }
+
+        new WaypointPlanCompactor().compact(plan);
+        if (roundCorners) {
+            new CornerRadiusPlanner()
+                    .setSpeed(speed)
+                    .setSafeDistance(safeDistance)
+                    .assign(plan);
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,165 @@
+// ==========================================
+// MediaArrivalDetector.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import java.util.ArrayDeque;
+
+import dji.sdk.media.MediaFile;
+
+/**
+ * Matches photos the camera reports as newly generated to the photo
+ * waypoints that triggered them.
+ *
+ * Photo waypoints are reached in order and each one takes one photo, so
+ * expectations are matched first in, first out. A file that arrives before
+ * its waypoint is reported, as on-board v2 actions can do, is kept for a
+ * short window and handed to the next expectation. The JPEG and DNG of one
+ * RAW+JPEG shot share their creation time, so only the first of them counts.
+ * Expectations that see no file within the timeout are reported missing.
+ *
+ * Times are passed in by the caller (elapsed realtime), so this class does
+ * no scheduling of its own; {@link #expire} has to be called for timeouts.
+ * Thread-safe: files arrive on an SDK thread, expectations on the caller's.
+ * Callbacks run outside the lock on the thread that made the match.
+ */
+public class MediaArrivalDetector {
+    private static final long DEFAULT_TIMEOUT_MS = 10000;
+    private static final long DEFAULT_UNCLAIMED_WINDOW_MS = 5000;
+
+    public interface ArrivalCallback {
+        void onMediaArrived(MediaFile file, long waitedMillis);
+        void onMediaMissing(long waitedMillis);
+    }
+
+    private static class Expectation {
+        final ArrivalCallback callback;
+        final long expectedAt;
+
+        Expectation(ArrivalCallback callback, long expectedAt) {
+            this.callback = callback;
+            this.expectedAt = expectedAt;
+        }
+    }
+
+    private final ArrayDeque<Expectation> pending = new ArrayDeque<>();
+    private long timeoutMillis = DEFAULT_TIMEOUT_MS;
+    private long unclaimedWindowMillis = DEFAULT_UNCLAIMED_WINDOW_MS;
+
+    private MediaFile unclaimed;
+    private long unclaimedAt;
+    private MediaFile latest;
+    private long lastShotTime = Long.MIN_VALUE;
+
+    private int matchedCount;
+    private int missingCount;
+    private int strayCount;
+
+    public MediaArrivalDetector setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+        return this;
+    }
+
+    public MediaArrivalDetector setUnclaimedWindowMillis(long unclaimedWindowMillis) {
+        this.unclaimedWindowMillis = Math.max(0, unclaimedWindowMillis);
+        return this;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Waits for the photo of a waypoint reached at {@code nowMillis}.
+     */
+    public void expect(ArrivalCallback callback, long nowMillis) {
+        MediaFile file;
+        synchronized (this) {
+            file = unclaimed;
+            unclaimed = null;
+            if (file == null || nowMillis - unclaimedAt > unclaimedWindowMillis) {
+                pending.addLast(new Expectation(callback, nowMillis));
+                return;
+            }
+            matchedCount++;
+        }
+        // The file was there before its waypoint was reported
+        callback.onMediaArrived(file, 0);
+    }
+
+    /**
+     * A file the camera reported as new.
+     */
+    public void onNewFile(MediaFile file, long nowMillis) {
+        Expectation expectation;
+        synchronized (this) {
+            if (!isPhoto(file) || file.getTimeCreated() == lastShotTime) {
+                return;
+            }
+            lastShotTime = file.getTimeCreated();
+            latest = file;
+
+            expectation = pending.pollFirst();
+            if (expectation == null) {
+                if (unclaimed != null) {
+                    strayCount++;
+                }
+                unclaimed = file;
+                unclaimedAt = nowMillis;
+                return;
+            }
+            matchedCount++;
+        }
+        expectation.callback.onMediaArrived(file, nowMillis - expectation.expectedAt);
+    }
+
+    /**
+     * Reports expectations older than the timeout as missing. The next file
+     * then belongs to a later waypoint, not to the one that timed out.
+     */
+    public void expire(long nowMillis) {
+        while (true) {
+            Expectation expectation;
+            synchronized (this) {
+                expectation = pending.peekFirst();
+                if (expectation == null || nowMillis - expectation.expectedAt < timeoutMillis) {
+                    return;
+                }
+                pending.pollFirst();
+                missingCount++;
+            }
+            expectation.callback.onMediaMissing(nowMillis - expectation.expectedAt);
+        }
+    }
+
+    /**
+     * Drops all expectations without calling them back, when the camera
+     * goes away.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        unclaimed = null;
+    }
+
+    /**
+     * Newest photo seen since the detector was attached, or null.
+     */
+    public synchronized MediaFile getLatest() {
+        return latest;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private static boolean isPhoto(MediaFile file) {
+        return file != null && (file.getMediaType() == MediaFile.MediaType.JPEG ||
+                file.getMediaType() == MediaFile.MediaType.RAW_DNG);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MediaArrivalDetector{matched=" + matchedCount + ", missing=" + missingCount +
+                ", stray=" + strayCount + ", pending=" + pending.size() + "}";
+    }
+}
@@ -0,0 +1,110 @@
+// ==========================================
+// MissionPlanCache.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.HashUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dji.common.mission.waypoint.Waypoint;
+import dji.common.mission.waypoint.WaypointAction;
+import dji.common.mission.waypoint.WaypointMission;
+
+/**
+ * Built waypoint missions keyed by content.
+ *
+ * A segment key hashes the plan rows it covers plus the mission settings.
+ * The rows already carry everything the structures, photo template, safety
+ * altitude, safe distance and home point contribute, so an unchanged input
+ * gives the same key and the same built mission on the next Start.
+ *
+ * {@link #fingerprint(WaypointMission)} hashes a built mission the same way
+ * whether it was built here or read back from the aircraft, which is how
+ * FlightService decides that an upload can be skipped.
+ */
+public class MissionPlanCache {
+    // Coordinates survive the round trip to the aircraft to about 1e-7 degrees (1 cm)
+    private static final double COORDINATE_QUANTUM = 1e7;
+    private static final double ALTITUDE_QUANTUM = 10;     // 0.1 m
+
+    private Map<Long, WaypointMission> missions = new HashMap<>();
+
+    public static long segmentKey(WaypointPlan plan, int start, int end, boolean last, float speed) {
+        long key = plan.hash(start, end);
+        key = HashUtils.mix(key * 31 + (last ? 1 : 0));
+        return HashUtils.mix(key * 31 + Float.floatToIntBits(speed));
+    }
+
+    public WaypointMission get(long key) {
+        return missions.get(key);
+    }
+
+    public void put(long key, WaypointMission mission) {
+        missions.put(key, mission);
+    }
+
+    /**
+     * Drops every mission not listed in {@code keys}.
+     *
+     * @return number of keys that were already cached
+     */
+    public int retain(long[] keys) {
+        Map<Long, WaypointMission> retained = new HashMap<>();
+        for (long key : keys) {
+            WaypointMission mission = missions.get(key);
+            if (mission != null) {
+                retained.put(key, mission);
+            }
+        }
+        missions = retained;
+        return retained.size();
+    }
+
+    public int size() {
+        return missions.size();
+    }
+
+    public void clear() {
+        missions.clear();
+    }
+
+    /**
+     * Content hash of everything the aircraft flies: mission settings, then
+     * per waypoint the position, heading, corner radius and actions.
+     * Coordinates and altitudes are quantized so a mission read back from the
+     * aircraft matches the one that was uploaded.
+     */
+    public static long fingerprint(WaypointMission mission) {
+        long hash = mission.getWaypointCount();
+        hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(mission.getAutoFlightSpeed()));
+        hash = HashUtils.mix(hash * 31 + Float.floatToIntBits(mission.getMaxFlightSpeed()));
+        hash = HashUtils.mix(hash * 31 + mission.getFinishedAction().ordinal());
+        hash = HashUtils.mix(hash * 31 + mission.getFlightPathMode().ordinal());
+        hash = HashUtils.mix(hash * 31 + mission.getHeadingMode().ordinal());
+        hash = HashUtils.mix(hash * 31 + (mission.isGimbalPitchRotationEnabled() ? 1 : 0));
+
+        List<Waypoint> waypoints = mission.getWaypointList();
+        for (int i = 0; i < waypoints.size(); i++) {
+            Waypoint waypoint = waypoints.get(i);
+            hash = HashUtils.mix(hash * 31 + Math.round(waypoint.coordinate.getLatitude() * COORDINATE_QUANTUM));
+            hash = HashUtils.mix(hash * 31 + Math.round(waypoint.coordinate.getLongitude() * COORDINATE_QUANTUM));
+            hash = HashUtils.mix(hash * 31 + Math.round(waypoint.altitude * ALTITUDE_QUANTUM));
+            hash = HashUtils.mix(hash * 31 + waypoint.heading);
+            hash = HashUtils.mix(hash * 31 + Math.round(waypoint.cornerRadiusInMeters * ALTITUDE_QUANTUM));
+
+            List<WaypointAction> actions = waypoint.waypointActions;
+            int actionCount = actions != null ? actions.size() : 0;
+            hash = HashUtils.mix(hash * 31 + actionCount);
+            for (int a = 0; a < actionCount; a++) {
+                WaypointAction action = actions.get(a);
+                hash = HashUtils.mix(hash * 31 + action.actionType.ordinal());
+                hash = HashUtils.mix(hash * 31 + action.actionParam);
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,68 @@
+// ==========================================
+// MissionSegmenter.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+
+import java.util.Arrays;
+
+/**
+ * Splits a {@link WaypointPlan} into consecutive ranges that each fit one
+ * waypoint mission. Cuts are only made where the plan moves from one structure
+ * to the next, so a segment normally ends on a departure waypoint and the next
+ * one starts on an arrival waypoint, both at safety altitude. Where
+ * WaypointPlanCompactor dropped those, the cut falls between the last photo
+ * of one structure and the approach of the next.
+ */
+public final class MissionSegmenter {
+    private MissionSegmenter() {}
+
+    /**
+     * @return segment bounds: segment k covers plan rows [bounds[k], bounds[k + 1])
+     * @throws IllegalArgumentException if one structure alone needs more than maxWaypoints
+     */
+    public static int[] split(WaypointPlan plan, int maxWaypoints) {
+        int size = plan.size();
+        int[] bounds = new int[8];
+        int count = 0;
+        bounds[count++] = 0;
+
+        int segmentStart = 0;
+        int lastCut = -1;   // Latest structure boundary inside the current segment
+
+        for (int i = 1; i <= size; i++) {
+            boolean boundary = i == size || plan.getStructureIndex(i) != plan.getStructureIndex(i - 1);
+            if (!boundary) {
+                continue;
+            }
+
+            if (i - segmentStart > maxWaypoints) {
+                if (lastCut <= segmentStart) {
+                    throw new IllegalArgumentException("Structure " + (plan.getStructureIndex(i - 1) + 1) +
+                            " needs " + (i - segmentStart) + " waypoints, more than the " +
+                            maxWaypoints + " allowed per mission");
+                }
+
+                if (count == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, count * 2);
+                }
+                bounds[count++] = lastCut;
+                segmentStart = lastCut;
+
+                if (i - segmentStart > maxWaypoints) {
+                    throw new IllegalArgumentException("Structure " + (plan.getStructureIndex(i - 1) + 1) +
+                            " needs " + (i - segmentStart) + " waypoints, more than the " +
+                            maxWaypoints + " allowed per mission");
+                }
+            }
+            lastCut = i;
+        }
+
+        if (count == bounds.length) {
+            bounds = Arrays.copyOf(bounds, count + 1);
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+}
@@ -0,0 +1,151 @@
+// ==========================================
+// MissionTimeEstimator.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+/**
+ * Kinematic flight time of a range of plan rows.
+ *
+ * Legs are flown with a trapezoidal speed profile: constant acceleration up to
+ * the leg's top speed (cruise speed, lowered on steep legs so the vertical
+ * component stays within the climb or descent rate) and back down to the
+ * speed at the next waypoint. With stops every waypoint is passed at zero
+ * speed. With corners a waypoint with a radius is rounded along its arc at
+ * the speed the lateral acceleration allows, and the legs are shortened by
+ * the tangent lengths. Forward and backward passes make sure every speed
+ * change fits within its leg. Photo waypoints add a fixed action time.
+ */
+public class MissionTimeEstimator {
+    private static final double EPSILON = 1e-6;
+
+    private double speed = Constants.DEFAULT_SPEED;
+    private double acceleration = 2.0;          // m/s^2 along the path
+    private double lateralAcceleration = 2.0;   // m/s^2 in a turn
+    private double climbRate = 3.0;             // m/s
+    private double descentRate = 2.0;           // m/s
+    private double photoActionSeconds = 3.0;    // Gimbal pitch and shutter
+
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+
+    public MissionTimeEstimator setSpeed(double speed) {
+        this.speed = Math.max(0.1, speed);
+        return this;
+    }
+
+    public MissionTimeEstimator setAcceleration(double acceleration) {
+        this.acceleration = Math.max(0.1, acceleration);
+        return this;
+    }
+
+    public MissionTimeEstimator setLateralAcceleration(double lateralAcceleration) {
+        this.lateralAcceleration = Math.max(0.1, lateralAcceleration);
+        return this;
+    }
+
+    public MissionTimeEstimator setClimbRate(double climbRate) {
+        this.climbRate = Math.max(0.1, climbRate);
+        return this;
+    }
+
+    public MissionTimeEstimator setDescentRate(double descentRate) {
+        this.descentRate = Math.max(0.1, descentRate);
+        return this;
+    }
+
+    public MissionTimeEstimator setPhotoActionSeconds(double photoActionSeconds) {
+        this.photoActionSeconds = Math.max(0, photoActionSeconds);
+        return this;
+    }
+
+    /**
+     * @param useCorners round waypoints that have a corner radius; false stops at every waypoint
+     * @return seconds to fly rows [start, end)
+     */
+    public double estimateSeconds(WaypointPlan plan, int start, int end, boolean useCorners) {
+        int count = end - start;
+        if (count < 2) {
+            return count == 1 && plan.isPhoto(start) ? photoActionSeconds : 0;
+        }
+
+        double[] length = new double[count - 1];     // 3D leg length
+        double[] legSpeed = new double[count - 1];   // top speed on the leg
+        for (int k = 0; k < count - 1; k++) {
+            int row = start + k;
+            plane.setOrigin(plan.getLatitude(row), plan.getLongitude(row), plan.getAltitude(row));
+            double east = plane.toEast(plan.getLongitude(row + 1));
+            double north = plane.toNorth(plan.getLatitude(row + 1));
+            double up = plan.getAltitude(row + 1) - plan.getAltitude(row);
+            length[k] = Math.sqrt(east * east + north * north + up * up);
+
+            double verticalRate = up >= 0 ? climbRate : descentRate;
+            legSpeed[k] = Math.abs(up) < EPSILON ? speed : Math.min(speed, verticalRate * length[k] / Math.abs(up));
+        }
+
+        double[] nodeSpeed = new double[count];
+        double[] tangent = new double[count];
+        double[] arc = new double[count];
+        for (int k = 1; k < count - 1; k++) {
+            int row = start + k;
+            double radius = plan.getCornerRadius(row);
+            if (!useCorners || radius <= 0 || plan.isPhoto(row)) {
+                continue;
+            }
+            plane.setOrigin(plan.getLatitude(row), plan.getLongitude(row), plan.getAltitude(row));
+            double interior = CornerRadiusPlanner.interiorAngle(plan, row, plane);
+            tangent[k] = radius / Math.tan(interior / 2);
+            arc[k] = radius * (Math.PI - interior);
+            nodeSpeed[k] = Math.min(Math.sqrt(lateralAcceleration * radius), Math.min(legSpeed[k - 1], legSpeed[k]));
+        }
+
+        double[] straight = new double[count - 1];
+        for (int k = 0; k < count - 1; k++) {
+            straight[k] = Math.max(0, length[k] - tangent[k] - tangent[k + 1]);
+        }
+
+        // Speeds reachable within each leg, forwards then backwards
+        for (int k = 0; k < count - 1; k++) {
+            nodeSpeed[k + 1] = Math.min(nodeSpeed[k + 1],
+                    Math.sqrt(nodeSpeed[k] * nodeSpeed[k] + 2 * acceleration * straight[k]));
+        }
+        for (int k = count - 2; k >= 0; k--) {
+            nodeSpeed[k] = Math.min(nodeSpeed[k],
+                    Math.sqrt(nodeSpeed[k + 1] * nodeSpeed[k + 1] + 2 * acceleration * straight[k]));
+        }
+
+        double seconds = 0;
+        for (int k = 0; k < count - 1; k++) {
+            seconds += legSeconds(straight[k], nodeSpeed[k], nodeSpeed[k + 1], legSpeed[k]);
+        }
+        for (int k = 0; k < count; k++) {
+            if (arc[k] > 0 && nodeSpeed[k] > EPSILON) {
+                seconds += arc[k] / nodeSpeed[k];
+            }
+            if (plan.isPhoto(start + k)) {
+                seconds += photoActionSeconds;
+            }
+        }
+        return seconds;
+    }
+
+    /**
+     * Trapezoidal profile from {@code v0} to {@code v1} over {@code distance},
+     * or triangular when the leg is too short to reach {@code vMax}.
+     */
+    private double legSeconds(double distance, double v0, double v1, double vMax) {
+        if (distance < EPSILON) {
+            return 0;
+        }
+        double top = Math.max(vMax, Math.max(v0, v1));
+        double accelerating = (top * top - v0 * v0) / (2 * acceleration);
+        double braking = (top * top - v1 * v1) / (2 * acceleration);
+        if (accelerating + braking <= distance) {
+            return (top - v0) / acceleration + (top - v1) / acceleration + (distance - accelerating - braking) / top;
+        }
+        double peak = Math.sqrt((2 * acceleration * distance + v0 * v0 + v1 * v1) / 2);
+        return (peak - v0) / acceleration + (peak - v1) / acceleration;
+    }
+}
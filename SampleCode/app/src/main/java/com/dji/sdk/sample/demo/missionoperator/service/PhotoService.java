@@ -3,6 +3,9 @@ package com.dji.sdk.sample.demo.missionoperator.service;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.dji.sdk.sample.demo.missionoperator.storage.PhotoStorageManager;
@@ -31,6 +34,11 @@ public class PhotoService {
     private FetchMediaTaskScheduler scheduler;
     private SettingsDefinitions.StorageLocation storageLocation = SettingsDefinitions.StorageLocation.INTERNAL_STORAGE;
 
+    // New photos reported by the camera, matched to the waypoints that took them
+    private final MediaArrivalDetector mediaArrivals = new MediaArrivalDetector();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable expireArrivals = () -> mediaArrivals.expire(SystemClock.elapsedRealtime());
+
     public interface PhotoCallback {
         void onPhotoReceived(Bitmap photo);
         void onPhotoError(String error);
@@ -55,6 +63,8 @@ public class PhotoService {
             return;
         }
 
+        camera.setMediaFileCallback(mediaFile -> mediaArrivals.onNewFile(mediaFile, SystemClock.elapsedRealtime()));
+
         mediaManager = camera.getMediaManager();
         if (mediaManager != null) {
             scheduler = mediaManager.getScheduler();
@@ -85,12 +95,50 @@ public class PhotoService {
         if (isSimulatorMode) {
             // In simulator mode, create a dummy photo
             createSimulatorPhoto(callback);
+            return;
+        }
+
+        // The camera reported its newest photo already, no need to list the storage
+        MediaFile latest = mediaArrivals.getLatest();
+        if (latest != null && scheduler != null) {
+            fetchPhotoContent(latest, callback);
         } else {
-            // In real mode, fetch from drone camera
             fetchLatestDronePhoto(callback);
         }
     }
 
+    /**
+     * Fetches the photo of a waypoint that was just reached as soon as the
+     * camera reports the new file, rather than after a fixed wait and a
+     * refresh of the whole file list. Call it when the waypoint is reached,
+     * once per photo; photos are matched to calls in order.
+     */
+    public void expectPhoto(PhotoCallback callback) {
+        if (isSimulatorMode) {
+            createSimulatorPhoto(callback);
+            return;
+        }
+        if (mediaManager == null || scheduler == null) {
+            callback.onPhotoError("MediaManager not available");
+            return;
+        }
+
+        mediaArrivals.expect(new MediaArrivalDetector.ArrivalCallback() {
+            @Override
+            public void onMediaArrived(MediaFile file, long waitedMillis) {
+                Log.d(TAG, "New photo " + file.getFileName() + " after " + waitedMillis + " ms");
+                fetchPhotoContent(file, callback);
+            }
+
+            @Override
+            public void onMediaMissing(long waitedMillis) {
+                Log.w(TAG, "No new photo after " + waitedMillis + " ms: " + mediaArrivals);
+                callback.onPhotoError("Camera reported no new photo within " + waitedMillis + " ms");
+            }
+        }, SystemClock.elapsedRealtime());
+        handler.postDelayed(expireArrivals, mediaArrivals.getTimeoutMillis());
+    }
+
     private void createSimulatorPhoto(PhotoCallback callback) {
         Log.d(TAG, "Creating simulator photo");
 
@@ -293,6 +341,12 @@ public class PhotoService {
             scheduler.suspend(null);
         }
 
+        if (camera != null && !isSimulatorMode) {
+            camera.setMediaFileCallback(null);
+        }
+        handler.removeCallbacks(expireArrivals);
+        mediaArrivals.clear();
+
         // Clear any references
         mediaManager = null;
         scheduler = null;
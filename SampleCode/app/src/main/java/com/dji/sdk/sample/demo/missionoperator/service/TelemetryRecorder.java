@@ -0,0 +1,357 @@
+// ==========================================
+// TelemetryRecorder.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The last few minutes of flight controller state, one sample per state
+ * callback, for the UI, flight analysis and tagging photos with where they
+ * were taken.
+ *
+ * Samples are kept column by column in a fixed ring that is allocated once;
+ * recording a sample writes primitives only. There is one writer, the flight
+ * controller callback, and any number of readers, which copy the samples
+ * they want into a {@link Snapshot} they own and reuse. Nothing is locked:
+ * the writer announces a slot before overwriting it and publishes it after,
+ * and a reader drops samples that were overwritten while it copied them.
+ * The columns are atomic arrays so that check is ordered after the copy;
+ * with plain arrays a reader could miss an overwrite.
+ *
+ * Gimbal attitude and battery level arrive through their own callbacks and
+ * are folded into the next sample.
+ */
+public class TelemetryRecorder {
+    public static final int DEFAULT_CAPACITY = 4096; // About 7 minutes of 10 Hz state callbacks
+
+    private final int capacity;
+    private final int mask;
+
+    // Columns, slot = sequence & mask; doubles and floats are stored as raw bits
+    private final AtomicLongArray time;
+    private final AtomicLongArray latitude;
+    private final AtomicLongArray longitude;
+    private final AtomicIntegerArray altitude;      // meters above takeoff
+    private final AtomicIntegerArray velocityX;     // m/s north
+    private final AtomicIntegerArray velocityY;     // m/s east
+    private final AtomicIntegerArray velocityZ;     // m/s down
+    private final AtomicIntegerArray pitch;         // degrees
+    private final AtomicIntegerArray roll;
+    private final AtomicIntegerArray yaw;
+    private final AtomicIntegerArray gimbalPitch;
+    private final AtomicIntegerArray gimbalRoll;
+    private final AtomicIntegerArray gimbalYaw;
+    private final AtomicIntegerArray status;        // battery, satellites, GPS level
+
+    // Samples announced and published; only the writer changes them
+    private volatile long claimed;
+    private volatile long published;
+
+    // Latest values of the slower sources
+    private volatile float lastGimbalPitch;
+    private volatile float lastGimbalRoll;
+    private volatile float lastGimbalYaw;
+    private volatile int lastBatteryPercent = -1;
+
+    public TelemetryRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity samples kept, rounded up to a power of two
+     */
+    public TelemetryRecorder(int capacity) {
+        if (capacity < 1 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("Telemetry capacity " + capacity + " out of range");
+        }
+        int rounded = 1;
+        while (rounded < capacity) rounded <<= 1;
+        this.capacity = rounded;
+        this.mask = rounded - 1;
+
+        time = new AtomicLongArray(this.capacity);
+        latitude = new AtomicLongArray(this.capacity);
+        longitude = new AtomicLongArray(this.capacity);
+        altitude = new AtomicIntegerArray(this.capacity);
+        velocityX = new AtomicIntegerArray(this.capacity);
+        velocityY = new AtomicIntegerArray(this.capacity);
+        velocityZ = new AtomicIntegerArray(this.capacity);
+        pitch = new AtomicIntegerArray(this.capacity);
+        roll = new AtomicIntegerArray(this.capacity);
+        yaw = new AtomicIntegerArray(this.capacity);
+        gimbalPitch = new AtomicIntegerArray(this.capacity);
+        gimbalRoll = new AtomicIntegerArray(this.capacity);
+        gimbalYaw = new AtomicIntegerArray(this.capacity);
+        status = new AtomicIntegerArray(this.capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Samples recorded so far, including those overwritten; the next
+     * sample gets this sequence number.
+     */
+    public long getSampleCount() {
+        return published;
+    }
+
+    // ==========================================
+    // RECORDING
+    // ==========================================
+
+    public void updateGimbal(float pitchDegrees, float rollDegrees, float yawDegrees) {
+        lastGimbalPitch = pitchDegrees;
+        lastGimbalRoll = rollDegrees;
+        lastGimbalYaw = yawDegrees;
+    }
+
+    /**
+     * @param percent charge remaining, or -1 if unknown
+     */
+    public void updateBattery(int percent) {
+        lastBatteryPercent = percent;
+    }
+
+    /**
+     * Records one flight controller state. Single writer: call from the
+     * state callback only.
+     *
+     * @param timeMillis elapsed realtime of the callback
+     * @param gpsLevel   signal level 0-5, or -1 if none
+     */
+    public void record(long timeMillis, double lat, double lon, float alt,
+                       float northSpeed, float eastSpeed, float downSpeed,
+                       float pitchDegrees, float rollDegrees, float yawDegrees,
+                       int satellites, int gpsLevel) {
+        long sequence = published;
+        int slot = (int) sequence & mask;
+
+        // Readers still copying the sample in this slot will see it was taken
+        claimed = sequence + 1;
+
+        time.set(slot, timeMillis);
+        latitude.set(slot, Double.doubleToRawLongBits(lat));
+        longitude.set(slot, Double.doubleToRawLongBits(lon));
+        altitude.set(slot, Float.floatToRawIntBits(alt));
+        velocityX.set(slot, Float.floatToRawIntBits(northSpeed));
+        velocityY.set(slot, Float.floatToRawIntBits(eastSpeed));
+        velocityZ.set(slot, Float.floatToRawIntBits(downSpeed));
+        pitch.set(slot, Float.floatToRawIntBits(pitchDegrees));
+        roll.set(slot, Float.floatToRawIntBits(rollDegrees));
+        yaw.set(slot, Float.floatToRawIntBits(yawDegrees));
+        gimbalPitch.set(slot, Float.floatToRawIntBits(lastGimbalPitch));
+        gimbalRoll.set(slot, Float.floatToRawIntBits(lastGimbalRoll));
+        gimbalYaw.set(slot, Float.floatToRawIntBits(lastGimbalYaw));
+        status.set(slot, packStatus(lastBatteryPercent, satellites, gpsLevel));
+
+        published = sequence + 1;
+    }
+
+    private static int packStatus(int batteryPercent, int satellites, int gpsLevel) {
+        return (batteryPercent & 0xFF) << 16 | (Math.min(Math.max(satellites, 0), 0xFF)) << 8 | (gpsLevel & 0xFF);
+    }
+
+    // ==========================================
+    // READING
+    // ==========================================
+
+    /**
+     * Reusable copy of recorded samples, oldest first. Owned by one reader.
+     */
+    public static class Snapshot {
+        private final long[] time;
+        private final double[] latitude;
+        private final double[] longitude;
+        private final float[] altitude;
+        private final float[] velocityX;
+        private final float[] velocityY;
+        private final float[] velocityZ;
+        private final float[] pitch;
+        private final float[] roll;
+        private final float[] yaw;
+        private final float[] gimbalPitch;
+        private final float[] gimbalRoll;
+        private final float[] gimbalYaw;
+        private final int[] status;
+        private long firstSequence;
+        private int offset;     // Samples before it were overwritten while copying
+        private int size;
+
+        public Snapshot(int capacity) {
+            int length = Math.max(1, capacity);
+            time = new long[length];
+            latitude = new double[length];
+            longitude = new double[length];
+            altitude = new float[length];
+            velocityX = new float[length];
+            velocityY = new float[length];
+            velocityZ = new float[length];
+            pitch = new float[length];
+            roll = new float[length];
+            yaw = new float[length];
+            gimbalPitch = new float[length];
+            gimbalRoll = new float[length];
+            gimbalYaw = new float[length];
+            status = new int[length];
+        }
+
+        public int getCapacity() { return time.length; }
+        public int size() { return size; }
+        public boolean isEmpty() { return size == 0; }
+
+        /**
+         * Sequence number of the first sample; a gap to the sequence asked
+         * for means samples were overwritten before they could be read.
+         */
+        public long getFirstSequence() { return firstSequence; }
+
+        /**
+         * Sequence number to pass to {@link TelemetryRecorder#readSince} for
+         * the samples after these.
+         */
+        public long getNextSequence() { return firstSequence + size; }
+
+        public long getTime(int index) { return time[offset + checkIndex(index)]; }
+        public double getLatitude(int index) { return latitude[offset + checkIndex(index)]; }
+        public double getLongitude(int index) { return longitude[offset + checkIndex(index)]; }
+        public float getAltitude(int index) { return altitude[offset + checkIndex(index)]; }
+        public float getVelocityX(int index) { return velocityX[offset + checkIndex(index)]; }
+        public float getVelocityY(int index) { return velocityY[offset + checkIndex(index)]; }
+        public float getVelocityZ(int index) { return velocityZ[offset + checkIndex(index)]; }
+        public float getPitch(int index) { return pitch[offset + checkIndex(index)]; }
+        public float getRoll(int index) { return roll[offset + checkIndex(index)]; }
+        public float getYaw(int index) { return yaw[offset + checkIndex(index)]; }
+        public float getGimbalPitch(int index) { return gimbalPitch[offset + checkIndex(index)]; }
+        public float getGimbalRoll(int index) { return gimbalRoll[offset + checkIndex(index)]; }
+        public float getGimbalYaw(int index) { return gimbalYaw[offset + checkIndex(index)]; }
+
+        /**
+         * @return charge remaining in percent, or -1 if unknown
+         */
+        public int getBatteryPercent(int index) {
+            return (byte) (status[offset + checkIndex(index)] >> 16);
+        }
+
+        public int getSatelliteCount(int index) {
+            return (status[offset + checkIndex(index)] >> 8) & 0xFF;
+        }
+
+        /**
+         * @return GPS signal level 0-5, or -1 if none
+         */
+        public int getGpsLevel(int index) {
+            return (byte) status[offset + checkIndex(index)];
+        }
+
+        public float getHorizontalSpeed(int index) {
+            int i = offset + checkIndex(index);
+            return (float) Math.sqrt(velocityX[i] * velocityX[i] + velocityY[i] * velocityY[i]);
+        }
+
+        /**
+         * Sample closest in time, e.g. to tag a photo with where it was taken.
+         *
+         * @return its index, or -1 if the snapshot is empty
+         */
+        public int findNearest(long timeMillis) {
+            if (size == 0) {
+                return -1;
+            }
+            int low = 0;
+            int high = size - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (time[offset + mid] < timeMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low > 0 && timeMillis - time[offset + low - 1] <= time[offset + low] - timeMillis) {
+                return low - 1;
+            }
+            return low;
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Sample " + index + " out of range [0, " + size + ")");
+            }
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            if (size == 0) {
+                return "Snapshot{empty}";
+            }
+            int last = size - 1;
+            return "Snapshot{samples=" + size + ", first=" + firstSequence + ", last=" +
+                    String.format(Locale.US, "%.6f,%.6f %.1fm gimbal %.0f battery %d%% sats %d",
+                            getLatitude(last), getLongitude(last), getAltitude(last), getGimbalPitch(last),
+                            getBatteryPercent(last), getSatelliteCount(last)) + "}";
+        }
+    }
+
+    /**
+     * Copies the newest samples, as many as the snapshot holds.
+     *
+     * @return samples copied
+     */
+    public int readLatest(Snapshot into) {
+        long end = published;
+        return copy(into, Math.max(0, end - Math.min(capacity, into.getCapacity())), end);
+    }
+
+    /**
+     * Copies samples from a sequence number on, oldest first and as many as
+     * the snapshot holds, so a reader can follow the recording without
+     * missing samples as long as it keeps up with the ring.
+     *
+     * @return samples copied
+     */
+    public int readSince(long sequence, Snapshot into) {
+        long end = published;
+        long start = Math.max(sequence, Math.max(0, end - capacity));
+        return copy(into, start, Math.min(end, start + into.getCapacity()));
+    }
+
+    private int copy(Snapshot into, long start, long end) {
+        int count = (int) Math.max(0, end - start);
+        for (int i = 0; i < count; i++) {
+            int slot = (int) (start + i) & mask;
+            into.time[i] = time.get(slot);
+            into.latitude[i] = Double.longBitsToDouble(latitude.get(slot));
+            into.longitude[i] = Double.longBitsToDouble(longitude.get(slot));
+            into.altitude[i] = Float.intBitsToFloat(altitude.get(slot));
+            into.velocityX[i] = Float.intBitsToFloat(velocityX.get(slot));
+            into.velocityY[i] = Float.intBitsToFloat(velocityY.get(slot));
+            into.velocityZ[i] = Float.intBitsToFloat(velocityZ.get(slot));
+            into.pitch[i] = Float.intBitsToFloat(pitch.get(slot));
+            into.roll[i] = Float.intBitsToFloat(roll.get(slot));
+            into.yaw[i] = Float.intBitsToFloat(yaw.get(slot));
+            into.gimbalPitch[i] = Float.intBitsToFloat(gimbalPitch.get(slot));
+            into.gimbalRoll[i] = Float.intBitsToFloat(gimbalRoll.get(slot));
+            into.gimbalYaw[i] = Float.intBitsToFloat(gimbalYaw.get(slot));
+            into.status[i] = status.get(slot);
+        }
+
+        // Samples whose slots the writer took while they were copied may be torn
+        long firstIntact = claimed - capacity;
+        int torn = (int) Math.min(count, Math.max(0, firstIntact - start));
+        into.offset = torn;
+        into.size = count - torn;
+        into.firstSequence = start + torn;
+        return into.size;
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryRecorder{samples=" + published + ", capacity=" + capacity + "}";
+    }
+}
@@ -0,0 +1,314 @@
+// ==========================================
+// TerrainService.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import android.util.Log;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Terrain elevation from SRTM {@code .hgt} tiles in a local directory.
+ *
+ * A tile covers one degree square, named after its south-west corner
+ * (e.g. {@code N38W010.hgt}), and holds big-endian 16-bit elevations in
+ * meters, rows from north to south, 1201 or 3601 samples a side. Tiles are
+ * memory-mapped on first use and kept in a small LRU; tiles that are not on
+ * disk are remembered too so they are not looked up again. Lookups are
+ * bilinear between the four surrounding samples, skipping voids.
+ *
+ * Elevations are above mean sea level. Plans work relative to the takeoff
+ * point, so callers pass the takeoff elevation as the reference.
+ *
+ * Not thread-safe; the last tile is memoized for runs of nearby lookups.
+ */
+public class TerrainService {
+    private static final String TAG = "TerrainService";
+    private static final int DEFAULT_MAX_OPEN_TILES = 16;
+    private static final short VOID = -32768;
+    private static final double DEFAULT_SAMPLE_SPACING = 15.0;  // meters, half an SRTM1 cell
+
+    // Placeholder for a tile that is not on disk
+    private static final Tile MISSING = new Tile(null, 0);
+
+    private final File directory;
+    private final int maxOpenTiles;
+    private final Map<Integer, Tile> tiles;
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+
+    private int lastKey = Integer.MIN_VALUE;
+    private Tile lastTile;
+
+    private static class Tile {
+        final ShortBuffer samples;
+        final int size;     // Samples per side
+
+        Tile(ShortBuffer samples, int size) {
+            this.samples = samples;
+            this.size = size;
+        }
+    }
+
+    public TerrainService(File directory) {
+        this(directory, DEFAULT_MAX_OPEN_TILES);
+    }
+
+    public TerrainService(File directory, int maxOpenTiles) {
+        this.directory = directory;
+        this.maxOpenTiles = Math.max(1, maxOpenTiles);
+        this.tiles = new LinkedHashMap<Integer, Tile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Tile> eldest) {
+                return size() > TerrainService.this.maxOpenTiles;
+            }
+        };
+    }
+
+    /**
+     * Whether the directory holds any tiles at all.
+     */
+    public boolean isAvailable() {
+        String[] names = directory != null ? directory.list() : null;
+        if (names == null) {
+            return false;
+        }
+        for (String name : names) {
+            if (name.toLowerCase(Locale.US).endsWith(".hgt")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==========================================
+    // POINT LOOKUPS
+    // ==========================================
+
+    /**
+     * @return elevation in meters above sea level, or NaN without data
+     */
+    public double getElevation(double latitude, double longitude) {
+        int latFloor = (int) Math.floor(latitude);
+        int lonFloor = (int) Math.floor(longitude);
+        Tile tile = getTile(latFloor, lonFloor);
+        if (tile.samples == null) {
+            return Double.NaN;
+        }
+
+        int last = tile.size - 1;
+        double row = (latFloor + 1 - latitude) * last;
+        double col = (longitude - lonFloor) * last;
+        int r0 = Math.min((int) row, last - 1);
+        int c0 = Math.min((int) col, last - 1);
+        double fr = row - r0;
+        double fc = col - c0;
+
+        int index = r0 * tile.size + c0;
+        short h00 = tile.samples.get(index);
+        short h01 = tile.samples.get(index + 1);
+        short h10 = tile.samples.get(index + tile.size);
+        short h11 = tile.samples.get(index + tile.size + 1);
+
+        if (h00 != VOID && h01 != VOID && h10 != VOID && h11 != VOID) {
+            double top = h00 + (h01 - h00) * fc;
+            double bottom = h10 + (h11 - h10) * fc;
+            return top + (bottom - top) * fr;
+        }
+        return interpolateAroundVoids(h00, h01, h10, h11, fr, fc);
+    }
+
+    /**
+     * Bilinear weights renormalized over the corners that have data.
+     */
+    private static double interpolateAroundVoids(short h00, short h01, short h10, short h11, double fr, double fc) {
+        double sum = 0;
+        double weight = 0;
+        double w;
+        if (h00 != VOID) { w = (1 - fr) * (1 - fc); sum += w * h00; weight += w; }
+        if (h01 != VOID) { w = (1 - fr) * fc; sum += w * h01; weight += w; }
+        if (h10 != VOID) { w = fr * (1 - fc); sum += w * h10; weight += w; }
+        if (h11 != VOID) { w = fr * fc; sum += w * h11; weight += w; }
+        return weight > 0 ? sum / weight : Double.NaN;
+    }
+
+    /**
+     * Looks up {@code count} points into {@code elevations}.
+     *
+     * @return number of points with data
+     */
+    public int getElevations(double[] latitudes, double[] longitudes, int count, double[] elevations) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            elevations[i] = getElevation(latitudes[i], longitudes[i]);
+            if (!Double.isNaN(elevations[i])) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // ==========================================
+    // LEGS
+    // ==========================================
+
+    /**
+     * Samples the straight leg between two points every {@code spacing}
+     * meters, both ends included.
+     *
+     * @return number of samples written, at most {@code elevations.length}
+     */
+    public int sampleLeg(double lat1, double lon1, double lat2, double lon2, double spacing, double[] elevations) {
+        plane.setOrigin(lat1, lon1, 0);
+        double east = plane.toEast(lon2);
+        double north = plane.toNorth(lat2);
+        double length = Math.sqrt(east * east + north * north);
+        int count = Math.min(elevations.length, 2 + (int) (length / Math.max(1, spacing)));
+        if (count < 2) {
+            if (count == 1) {
+                elevations[0] = getElevation(lat1, lon1);
+            }
+            return count;
+        }
+
+        for (int i = 0; i < count; i++) {
+            double t = (double) i / (count - 1);
+            elevations[i] = getElevation(plane.toLatitude(north * t), plane.toLongitude(east * t));
+        }
+        return count;
+    }
+
+    /**
+     * @return highest terrain along the leg, or NaN if any part of it has no data
+     */
+    public double getMaxElevationAlongLeg(double lat1, double lon1, double lat2, double lon2) {
+        plane.setOrigin(lat1, lon1, 0);
+        double east = plane.toEast(lon2);
+        double north = plane.toNorth(lat2);
+        int count = 2 + (int) (Math.sqrt(east * east + north * north) / DEFAULT_SAMPLE_SPACING);
+
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double t = (double) i / (count - 1);
+            double elevation = getElevation(plane.toLatitude(north * t), plane.toLongitude(east * t));
+            if (Double.isNaN(elevation)) {
+                return Double.NaN;
+            }
+            max = Math.max(max, elevation);
+        }
+        return max;
+    }
+
+    /**
+     * Lowest altitude relative to the reference that keeps {@code clearance}
+     * meters above the terrain along the whole leg.
+     *
+     * @return altitude in meters relative to {@code referenceElevation}, or NaN without data
+     */
+    public double getTransitAltitude(double lat1, double lon1, double lat2, double lon2,
+                                     double clearance, double referenceElevation) {
+        return getMaxElevationAlongLeg(lat1, lon1, lat2, lon2) + clearance - referenceElevation;
+    }
+
+    // ==========================================
+    // STRUCTURES
+    // ==========================================
+
+    /**
+     * Fills the ground altitude of every structure left at 0 in the file with
+     * its terrain elevation relative to {@code referenceElevation}. Pass the
+     * table as imported: rows of an earlier fill are no longer 0 and would
+     * keep altitudes relative to the earlier reference.
+     *
+     * @return a filled copy of the table, or the table itself if no row changed
+     */
+    public StructureTable fillGroundAltitudes(StructureTable structures, double referenceElevation) {
+        StructureTable filled = structures;
+        int count = 0;
+        for (int i = 0; i < structures.size(); i++) {
+            if (structures.getGroundAltitude(i) != 0) {
+                continue;
+            }
+            double elevation = getElevation(structures.getLatitude(i), structures.getLongitude(i));
+            if (Double.isNaN(elevation)) {
+                continue;
+            }
+            if (filled == structures) {
+                filled = structures.copy();
+            }
+            filled.setGroundAltitude(i, (float) (elevation - referenceElevation));
+            count++;
+        }
+        Log.d(TAG, "Filled ground altitude of " + count + " of " + structures.size() + " structures");
+        return filled;
+    }
+
+    // ==========================================
+    // TILES
+    // ==========================================
+
+    private Tile getTile(int latFloor, int lonFloor) {
+        int key = (latFloor + 90) * 360 + (lonFloor + 180);
+        if (key == lastKey) {
+            return lastTile;
+        }
+
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            tile = openTile(latFloor, lonFloor);
+            tiles.put(key, tile);
+        }
+        lastKey = key;
+        lastTile = tile;
+        return tile;
+    }
+
+    private Tile openTile(int latFloor, int lonFloor) {
+        File file = new File(directory, tileName(latFloor, lonFloor));
+        if (!file.isFile()) {
+            return MISSING;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long bytes = channel.size();
+            int size = (int) Math.round(Math.sqrt(bytes / 2.0));
+            if ((long) size * size * 2 != bytes || size < 2) {
+                Log.w(TAG, "Not an SRTM tile, " + bytes + " bytes: " + file.getName());
+                return MISSING;
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            Log.d(TAG, "Mapped " + file.getName() + " (" + size + "x" + size + ")");
+            return new Tile(buffer.asShortBuffer(), size);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to map " + file.getName(), e);
+            return MISSING;
+        }
+    }
+
+    static String tileName(int latFloor, int lonFloor) {
+        return String.format(Locale.US, "%s%02d%s%03d.hgt",
+                latFloor >= 0 ? "N" : "S", Math.abs(latFloor),
+                lonFloor >= 0 ? "E" : "W", Math.abs(lonFloor));
+    }
+
+    public void clear() {
+        tiles.clear();
+        lastKey = Integer.MIN_VALUE;
+        lastTile = null;
+    }
+}
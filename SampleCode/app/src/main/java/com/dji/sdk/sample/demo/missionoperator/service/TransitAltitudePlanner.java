@@ -0,0 +1,182 @@
+// ==========================================
+// TransitAltitudePlanner.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+import java.util.Locale;
+
+/**
+ * Lowest safe transit altitudes between two structures of a line.
+ *
+ * The conductor between two towers hangs from their tops as a catenary
+ * {@code y = c + a cosh((x - x0) / a)}, where the sag parameter {@code a}
+ * is the horizontal tension over the conductor weight per meter: the midspan
+ * sag of a level span is about {@code span^2 / (8a)}. Along the span the
+ * clearance envelope is the higher of the conductor plus the conductor
+ * clearance and the ground plus the ground clearance; the ground comes from
+ * terrain data when there is some, otherwise it runs straight between the
+ * two structures' ground altitudes.
+ *
+ * The leg leaves at the envelope over the first tower and arrives at the
+ * envelope over the second, so it climbs or descends with the line instead
+ * of holding one altitude, and is lifted as a whole where the envelope
+ * between the towers is higher than that straight profile. Short poles are
+ * crossed low and tall towers are no longer crossed below their tops.
+ *
+ * Not thread-safe; create one per plan.
+ */
+public class TransitAltitudePlanner {
+    private static final double DEFAULT_SAMPLE_SPACING = 15.0;   // meters
+    private static final double MIN_SAG_PARAMETER = 10.0;
+    private static final int MAX_SAMPLES = 512;
+
+    private final StructureTable structures;
+    private double sagParameter = 1000.0;       // meters, H/w of the conductor
+    private double conductorClearance = 10.0;   // meters above conductors and tower tops
+    private double groundClearance = 15.0;      // meters above the ground
+    private double sampleSpacing = DEFAULT_SAMPLE_SPACING;
+    private TerrainService terrain;
+    private double referenceElevation;
+
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+    private final double[] samples = new double[MAX_SAMPLES];
+
+    public TransitAltitudePlanner(StructureTable structures) {
+        this.structures = structures;
+    }
+
+    public TransitAltitudePlanner setSagParameter(double sagParameter) {
+        this.sagParameter = Math.max(MIN_SAG_PARAMETER, sagParameter);
+        return this;
+    }
+
+    public TransitAltitudePlanner setConductorClearance(double conductorClearance) {
+        this.conductorClearance = Math.max(0, conductorClearance);
+        return this;
+    }
+
+    public TransitAltitudePlanner setGroundClearance(double groundClearance) {
+        this.groundClearance = Math.max(0, groundClearance);
+        return this;
+    }
+
+    public TransitAltitudePlanner setSampleSpacing(double sampleSpacing) {
+        this.sampleSpacing = Math.max(1, sampleSpacing);
+        return this;
+    }
+
+    /**
+     * Terrain under the span, with the takeoff elevation that plan altitudes
+     * are relative to. Null assumes straight ground between the structures.
+     */
+    public TransitAltitudePlanner setTerrain(TerrainService terrain, double referenceElevation) {
+        this.terrain = terrain;
+        this.referenceElevation = referenceElevation;
+        return this;
+    }
+
+    /**
+     * Plans the leg from structure {@code from} to structure {@code to}.
+     */
+    public Leg plan(int from, int to) {
+        double groundFrom = structures.getGroundAltitude(from);
+        double groundTo = structures.getGroundAltitude(to);
+        double topFrom = groundFrom + structures.getStructureHeight(from);
+        double topTo = groundTo + structures.getStructureHeight(to);
+
+        plane.setOrigin(structures.getLatitude(from), structures.getLongitude(from), 0);
+        double east = plane.toEast(structures.getLongitude(to));
+        double north = plane.toNorth(structures.getLatitude(to));
+        double span = Math.sqrt(east * east + north * north);
+
+        int count = Math.min(MAX_SAMPLES, 2 + (int) (span / sampleSpacing));
+        int terrainCount = sampleTerrain(from, to, span, count);
+
+        // Catenary through both tops: vertex at x0, y(0) = topFrom
+        double a = sagParameter;
+        double x0 = span / 2;
+        if (span > 0) {
+            x0 -= a * asinh((topTo - topFrom) / (2 * a * Math.sinh(span / (2 * a))));
+        }
+        double base = topFrom - a * Math.cosh(x0 / a);
+
+        double departure = Math.max(topFrom + conductorClearance, groundFrom + groundClearance);
+        double arrival = Math.max(topTo + conductorClearance, groundTo + groundClearance);
+        double lift = 0;
+        double lowestConductor = Math.min(topFrom, topTo);
+
+        for (int k = 0; k < count; k++) {
+            double t = (double) k / (count - 1);
+            double x = span * t;
+            double conductor = base + a * Math.cosh((x - x0) / a);
+            double ground = k < terrainCount && !Double.isNaN(samples[k]) ?
+                    samples[k] - referenceElevation : groundFrom + (groundTo - groundFrom) * t;
+            // Terrain cannot push the conductor into the ground
+            conductor = Math.max(conductor, ground);
+            lowestConductor = Math.min(lowestConductor, conductor);
+
+            double envelope = Math.max(conductor + conductorClearance, ground + groundClearance);
+            lift = Math.max(lift, envelope - (departure + (arrival - departure) * t));
+        }
+
+        return new Leg((float) (departure + lift), (float) (arrival + lift), (float) span,
+                (float) lowestConductor, (float) lift);
+    }
+
+    /**
+     * Terrain elevations at the same {@code count} positions as the conductor
+     * samples, both ends included.
+     *
+     * @return {@code count}, or 0 without terrain
+     */
+    private int sampleTerrain(int from, int to, double span, int count) {
+        if (terrain == null) {
+            return 0;
+        }
+        // The terrain service takes 2 + floor(span / spacing) samples
+        int sampled = terrain.sampleLeg(structures.getLatitude(from), structures.getLongitude(from),
+                structures.getLatitude(to), structures.getLongitude(to), span / (count - 1.5), samples);
+        return sampled == count ? count : 0;
+    }
+
+    private static double asinh(double x) {
+        return Math.log(x + Math.sqrt(x * x + 1));
+    }
+
+    /**
+     * Departure and arrival altitudes of one leg, relative to takeoff.
+     */
+    public static class Leg {
+        private final float departureAltitude;
+        private final float arrivalAltitude;
+        private final float span;
+        private final float lowestConductor;
+        private final float lift;
+
+        Leg(float departureAltitude, float arrivalAltitude, float span, float lowestConductor, float lift) {
+            this.departureAltitude = departureAltitude;
+            this.arrivalAltitude = arrivalAltitude;
+            this.span = span;
+            this.lowestConductor = lowestConductor;
+            this.lift = lift;
+        }
+
+        public float getDepartureAltitude() { return departureAltitude; }
+        public float getArrivalAltitude() { return arrivalAltitude; }
+        public float getSpan() { return span; }
+        public float getLowestConductor() { return lowestConductor; }
+
+        /** Meters the straight profile between the towers was raised to clear the span. */
+        public float getLift() { return lift; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "Leg{%.1f m -> %.1f m, span=%.0f m, lowest conductor=%.1f m, lift=%.1f m}",
+                    departureAltitude, arrivalAltitude, span, lowestConductor, lift);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+// ==========================================
+// WaypointPlanCompactor.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+/**
+ * Drops redundant safety waypoints from a {@link WaypointPlan}.
+ *
+ * Only safety waypoints after the home waypoint are candidates; approach and
+ * photo waypoints are never touched, so per-structure bookkeeping and photo
+ * indices stay valid. A safety waypoint is dropped when the straight leg from
+ * the previous kept waypoint to the next one, for it and for every waypoint
+ * dropped since the previous kept one,
+ * - never passes lower than the waypoint itself (altitude band), so the path
+ *   only ever gets higher and vertical clearance is kept, and
+ * - passes horizontally within the collinearity tolerance of it, or the
+ *   waypoint lies within the minimum separation of one of its neighbours.
+ *
+ * The common case is a tower taller than the safety altitude: its arrival
+ * and departure waypoints sit below the approach and photo positions, and
+ * dropping them removes a dive into the tower and two stops.
+ */
+public class WaypointPlanCompactor {
+    private double collinearTolerance = 0.5;    // meters off the straight leg
+    private double minimumSeparation = 1.0;     // meters, horizontal
+    private double altitudeTolerance = 0.2;     // meters the leg may pass below a dropped waypoint
+
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+
+    public WaypointPlanCompactor setCollinearTolerance(double collinearTolerance) {
+        this.collinearTolerance = Math.max(0, collinearTolerance);
+        return this;
+    }
+
+    public WaypointPlanCompactor setMinimumSeparation(double minimumSeparation) {
+        this.minimumSeparation = Math.max(0, minimumSeparation);
+        return this;
+    }
+
+    public WaypointPlanCompactor setAltitudeTolerance(double altitudeTolerance) {
+        this.altitudeTolerance = Math.max(0, altitudeTolerance);
+        return this;
+    }
+
+    /**
+     * @return number of waypoints removed from the plan
+     */
+    public int compact(WaypointPlan plan) {
+        int size = plan.size();
+        if (size < 3) {
+            return 0;
+        }
+
+        boolean[] keep = new boolean[size];
+        keep[0] = true;
+        keep[size - 1] = true;
+        int previous = 0;
+        int dropped = 0;
+
+        for (int i = 1; i < size - 1; i++) {
+            if (plan.getKind(i) == WaypointPlan.KIND_SAFETY && isRunRedundant(plan, previous, i, i + 1)) {
+                dropped++;
+                continue;
+            }
+            keep[i] = true;
+            previous = i;
+        }
+
+        return dropped > 0 ? plan.removeRows(keep) : 0;
+    }
+
+    /**
+     * Dropping {@code row} makes the leg from {@code previous} to {@code next}
+     * replace every waypoint between them, so the rows already dropped since
+     * the last kept one must still be covered by it, not just {@code row}.
+     * Otherwise a gentle curve around an obstacle would drift off one step
+     * at a time.
+     */
+    private boolean isRunRedundant(WaypointPlan plan, int previous, int row, int next) {
+        for (int i = row; i > previous; i--) {
+            if (!isRedundant(plan, previous, i, next)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isRedundant(WaypointPlan plan, int previous, int row, int next) {
+        plane.setOrigin(plan.getLatitude(row), plan.getLongitude(row), plan.getAltitude(row));
+        double ax = plane.toEast(plan.getLongitude(previous));
+        double ay = plane.toNorth(plan.getLatitude(previous));
+        double bx = plane.toEast(plan.getLongitude(next));
+        double by = plane.toNorth(plan.getLatitude(next));
+
+        // Closest point of the leg to the waypoint, horizontally
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+
+        double legAltitude = plan.getAltitude(previous) + t * (plan.getAltitude(next) - plan.getAltitude(previous));
+        if (legAltitude < plan.getAltitude(row) - altitudeTolerance) {
+            return false;
+        }
+
+        double offX = ax + t * dx;
+        double offY = ay + t * dy;
+        if (Math.sqrt(offX * offX + offY * offY) <= collinearTolerance) {
+            return true;
+        }
+        return Math.sqrt(ax * ax + ay * ay) < minimumSeparation || Math.sqrt(bx * bx + by * by) < minimumSeparation;
+    }
+}
@@ -0,0 +1,155 @@
+// ==========================================
+// WaypointV2MissionCompiler.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+import com.dji.sdk.sample.demo.missionoperator.utils.WaypointV2Factory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dji.common.mission.waypointv2.Action.WaypointV2Action;
+import dji.common.mission.waypointv2.WaypointV2;
+import dji.common.mission.waypointv2.WaypointV2Mission;
+import dji.common.mission.waypointv2.WaypointV2MissionTypes;
+import dji.common.model.LocationCoordinate2D;
+
+/**
+ * Turns a range of {@link WaypointPlan} rows into a {@link WaypointV2Mission}
+ * and the action list that goes with it.
+ *
+ * Every photo waypoint gets a reach-point trigger followed by serial actions
+ * that stop the aircraft, turn the gimbal to the planned pitch, take the
+ * photo and fly on, so photos are taken on board without a pause from the
+ * app. Transit waypoints with a planned corner radius are flown as
+ * coordinated turns that start the tangent length before the waypoint; all
+ * other waypoints are straight-line stops. The v1 mission stops at every
+ * waypoint, so corner radii are only flown by these missions.
+ */
+public class WaypointV2MissionCompiler {
+    public static final int ACTIONS_PER_PHOTO = 4;
+    private static final int FIRST_ACTION_ID = 1;
+    private static final int MISSION_ID_MASK = 0xFFFF;
+
+    private float speed = Constants.DEFAULT_SPEED;
+    private float gimbalSeconds = 1.0f;     // Time for the gimbal to reach the photo pitch
+    private float resumeDelay = 0.5f;       // Hold after the shot before flying on
+
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+
+    public WaypointV2MissionCompiler setSpeed(float speed) {
+        this.speed = Math.max(0.1f, speed);
+        return this;
+    }
+
+    public WaypointV2MissionCompiler setGimbalSeconds(float gimbalSeconds) {
+        this.gimbalSeconds = Math.max(0.1f, gimbalSeconds);
+        return this;
+    }
+
+    public WaypointV2MissionCompiler setResumeDelay(float resumeDelay) {
+        this.resumeDelay = Math.max(0, resumeDelay);
+        return this;
+    }
+
+    /**
+     * @param last whether the aircraft goes home after this mission
+     * @return mission and actions for rows [start, end)
+     */
+    public Result compile(WaypointPlan plan, int start, int end, boolean last) {
+        int count = end - start;
+        List<WaypointV2> waypoints = new ArrayList<>(count);
+        List<WaypointV2Action> actions = new ArrayList<>();
+        int[] photoRowByAction = new int[FIRST_ACTION_ID + plan.getPhotoCount() * ACTIONS_PER_PHOTO];
+        Arrays.fill(photoRowByAction, -1);
+        int actionId = FIRST_ACTION_ID;
+        int turns = 0;
+
+        for (int i = start; i < end; i++) {
+            WaypointV2.Builder builder = new WaypointV2.Builder()
+                    .setCoordinate(new LocationCoordinate2D(plan.getLatitude(i), plan.getLongitude(i)))
+                    .setAltitude(plan.getAltitude(i))
+                    .setHeadingMode(WaypointV2MissionTypes.WaypointV2HeadingMode.WAYPOINT_CUSTOM)
+                    .setHeading(plan.getHeading(i));
+
+            double damping = i > start && i < end - 1 ? dampingDistance(plan, i) : 0;
+            if (damping > 0) {
+                builder.setFlightPathMode(WaypointV2MissionTypes.WaypointV2FlightPathMode.COORDINATE_TURN)
+                        .setDampingDistance((float) damping);
+                turns++;
+            } else {
+                builder.setFlightPathMode(WaypointV2MissionTypes.WaypointV2FlightPathMode.GOTO_POINT_STRAIGHT_LINE_AND_STOP);
+            }
+            waypoints.add(builder.build());
+
+            if (plan.isPhoto(i)) {
+                actions.addAll(WaypointV2Factory.addPhotoAction(i - start, actionId, plan.getGimbalPitch(i),
+                        gimbalSeconds, resumeDelay));
+                photoRowByAction[actionId + 2] = i;
+                actionId += ACTIONS_PER_PHOTO;
+            }
+        }
+
+        WaypointV2Mission mission = new WaypointV2Mission.Builder()
+                .setMissionID((int) (plan.hash(start, end) & MISSION_ID_MASK))
+                .setMaxFlightSpeed(speed * 2)
+                .setAutoFlightSpeed(speed)
+                .setFinishedAction(last ? WaypointV2MissionTypes.MissionFinishedAction.GO_HOME
+                        : WaypointV2MissionTypes.MissionFinishedAction.NO_ACTION)
+                .setGotoFirstWaypointMode(WaypointV2MissionTypes.MissionGotoWaypointMode.SAFELY)
+                .setExitMissionOnRCSignalLostEnabled(false)
+                .setRepeatTimes(1)
+                .addwaypoints(waypoints)
+                .build();
+
+        return new Result(mission, actions, photoRowByAction, turns);
+    }
+
+    /**
+     * Distance before the waypoint at which a coordinated turn starts: the
+     * tangent length of the planned corner, or 0 for a stop.
+     */
+    private double dampingDistance(WaypointPlan plan, int i) {
+        float radius = plan.getCornerRadius(i);
+        if (radius <= 0 || plan.isPhoto(i)) {
+            return 0;
+        }
+        plane.setOrigin(plan.getLatitude(i), plan.getLongitude(i), plan.getAltitude(i));
+        double interior = CornerRadiusPlanner.interiorAngle(plan, i, plane);
+        return interior < Math.PI ? radius / Math.tan(interior / 2) : 0;
+    }
+
+    public static class Result {
+        private final WaypointV2Mission mission;
+        private final List<WaypointV2Action> actions;
+        private final int[] photoRowByAction;
+        private final int turnCount;
+
+        Result(WaypointV2Mission mission, List<WaypointV2Action> actions, int[] photoRowByAction, int turnCount) {
+            this.mission = mission;
+            this.actions = actions;
+            this.photoRowByAction = photoRowByAction;
+            this.turnCount = turnCount;
+        }
+
+        public WaypointV2Mission getMission() { return mission; }
+        public List<WaypointV2Action> getActions() { return actions; }
+        public int getTurnCount() { return turnCount; }
+
+        /**
+         * @return plan row photographed by the action, or -1 if it is not a shoot action
+         */
+        public int getPhotoRow(int actionId) {
+            return actionId >= 0 && actionId < photoRowByAction.length ? photoRowByAction[actionId] : -1;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{actions=" + actions.size() + ", turns=" + turnCount + "}";
+        }
+    }
+}
@@ -0,0 +1,614 @@
+// ==========================================
+// MissionJournal.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.storage;
+
+import android.util.Log;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record of the plan being flown and what happened to it, so a
+ * mission interrupted by an app crash or a phone restart can be picked up at
+ * the first photo that was not taken.
+ *
+ * Layout (little-endian):
+ * <pre>
+ * header   magic "PLMJ", u16 version, u16 header size, i32 row count,
+ *          i64 plan hash, i64 created at (ms), i32 CRC32 of snapshot
+ * snapshot f64 lat[n], f64 lon[n], f32 alt[n], f32 heading[n], f32 gimbalPitch[n],
+ *          f32 cornerRadius[n], i32 structure[n], i32 photo[n], u8 kind[n]
+ * records  i64 time (ms), i32 type, i32 a, i32 b, i32 CRC32 of the first 20 bytes
+ * </pre>
+ * Every plan starts a new journal: header and snapshot are written to a
+ * temporary file, synced and moved into place, then events are appended.
+ * Events are recorded from any thread without blocking; a single writer
+ * thread appends them in batches and syncs once per batch, so a crash loses
+ * at most the last sync delay of events. A record torn by the crash fails
+ * its checksum and ends the replay.
+ */
+public final class MissionJournal {
+    private static final String TAG = "MissionJournal";
+
+    private static final int MAGIC = 0x4A4D4C50; // "PLMJ" in little-endian byte order
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ROW_SIZE = 8 + 8 + 4 * 4 + 4 + 4 + 1;
+    private static final int RECORD_SIZE = 24;
+    private static final int RECORD_CHECKED_SIZE = 20;
+
+    private static final long DEFAULT_SYNC_DELAY_MS = 250;
+    private static final int DEFAULT_SYNC_BATCH = 64;
+
+    // Record types
+    private static final int TYPE_SEGMENT = 1;      // a = segment, b = segment count
+    private static final int TYPE_WAYPOINT = 2;     // a = plan row the aircraft is heading for
+    private static final int TYPE_PHOTO = 3;        // a = plan row whose photo was taken
+    private static final int TYPE_ACCEPTED = 4;     // a = structure, b = photo position
+    private static final int TYPE_REJECTED = 5;     // a = structure, b = photo position
+    private static final int TYPE_PAUSED = 6;
+    private static final int TYPE_RESUMED = 7;
+    private static final int TYPE_FINISHED = 8;     // a = 1 if the plan was flown to its end
+
+    private final File file;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private long syncDelayMillis = DEFAULT_SYNC_DELAY_MS;
+    private int syncBatch = DEFAULT_SYNC_BATCH;
+
+    // Recorded events not written yet, guarded by lock
+    private final Object lock = new Object();
+    private final CRC32 recordCrc = new CRC32();
+    private byte[] pending = new byte[RECORD_SIZE * DEFAULT_SYNC_BATCH];
+    private ByteBuffer pendingBuffer = ByteBuffer.wrap(pending).order(ByteOrder.LITTLE_ENDIAN);
+    private int pendingLength;
+    private boolean flushScheduled;
+    private boolean closed;
+
+    // Writer thread only
+    private byte[] writing = new byte[RECORD_SIZE * DEFAULT_SYNC_BATCH];
+    private RandomAccessFile output;
+    private FileChannel channel;
+    private int writtenCount;
+    private int droppedCount;
+    private int syncCount;
+    private long totalSyncNanos;
+    private long maxSyncNanos;
+
+    public MissionJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Longest an event waits before it is written and synced.
+     */
+    public MissionJournal setSyncDelayMillis(long syncDelayMillis) {
+        this.syncDelayMillis = Math.max(0, syncDelayMillis);
+        return this;
+    }
+
+    /**
+     * Events that are written and synced at once, without waiting for the
+     * sync delay.
+     */
+    public MissionJournal setSyncBatch(int syncBatch) {
+        this.syncBatch = Math.max(1, syncBatch);
+        return this;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // ==========================================
+    // RECORDING
+    // ==========================================
+
+    /**
+     * Replaces the journal with one for this plan. Events recorded before
+     * still go to the previous journal.
+     */
+    public void startPlan(WaypointPlan plan) {
+        final ByteBuffer contents = encodePlan(plan, System.currentTimeMillis());
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            final byte[] previous = Arrays.copyOf(pending, pendingLength);
+            pendingLength = 0;
+            writer.execute(() -> {
+                write(previous, previous.length);
+                begin(contents);
+            });
+        }
+    }
+
+    public void recordSegmentStarted(int segment, int segmentCount) {
+        record(TYPE_SEGMENT, segment, segmentCount);
+    }
+
+    public void recordWaypoint(int row) {
+        record(TYPE_WAYPOINT, row, 0);
+    }
+
+    public void recordPhotoTaken(int row) {
+        record(TYPE_PHOTO, row, 0);
+    }
+
+    public void recordPhotoAccepted(int structure, int photo) {
+        record(TYPE_ACCEPTED, structure, photo);
+    }
+
+    public void recordPhotoRejected(int structure, int photo) {
+        record(TYPE_REJECTED, structure, photo);
+    }
+
+    public void recordPaused() {
+        record(TYPE_PAUSED, 0, 0);
+    }
+
+    public void recordResumed() {
+        record(TYPE_RESUMED, 0, 0);
+    }
+
+    public void recordFinished(boolean completed) {
+        record(TYPE_FINISHED, completed ? 1 : 0, 0);
+    }
+
+    private void record(int type, int a, int b) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            if (pendingLength + RECORD_SIZE > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length + (pending.length >> 1));
+                pendingBuffer = ByteBuffer.wrap(pending).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            int offset = pendingLength;
+            pendingBuffer.putLong(offset, now);
+            pendingBuffer.putInt(offset + 8, type);
+            pendingBuffer.putInt(offset + 12, a);
+            pendingBuffer.putInt(offset + 16, b);
+            recordCrc.reset();
+            recordCrc.update(pending, offset, RECORD_CHECKED_SIZE);
+            pendingBuffer.putInt(offset + RECORD_CHECKED_SIZE, (int) recordCrc.getValue());
+            pendingLength += RECORD_SIZE;
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                writer.schedule(this::flush, syncDelayMillis, TimeUnit.MILLISECONDS);
+            } else if (pendingLength == syncBatch * RECORD_SIZE) {
+                writer.execute(this::flush);
+            }
+        }
+    }
+
+    /**
+     * Writes and syncs what is pending, then stops the writer. Events
+     * recorded afterwards are ignored.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writer.execute(() -> {
+                flush();
+                closeFile();
+                Log.d(TAG, "Closed: " + this);
+            });
+        }
+        writer.shutdown();
+    }
+
+    /**
+     * Waits for {@link #close()} to write and sync the last events.
+     *
+     * @return false if the writer was still busy when the timeout elapsed
+     */
+    public boolean awaitClosed(long timeout, TimeUnit unit) throws InterruptedException {
+        return writer.awaitTermination(timeout, unit);
+    }
+
+    // ==========================================
+    // WRITER THREAD
+    // ==========================================
+
+    private void flush() {
+        int length;
+        synchronized (lock) {
+            flushScheduled = false;
+            length = pendingLength;
+            if (length == 0) {
+                return;
+            }
+            // Swap buffers so recording goes on while this batch is written
+            byte[] batch = pending;
+            pending = writing.length >= RECORD_SIZE * syncBatch ? writing : new byte[batch.length];
+            pendingBuffer = ByteBuffer.wrap(pending).order(ByteOrder.LITTLE_ENDIAN);
+            pendingLength = 0;
+            writing = batch;
+        }
+        write(writing, length);
+    }
+
+    private void write(byte[] records, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (channel == null) {
+            // No plan started, or its journal could not be created
+            droppedCount += length / RECORD_SIZE;
+            return;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(records, 0, length);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            long syncStart = System.nanoTime();
+            channel.force(false);
+            long syncNanos = System.nanoTime() - syncStart;
+            syncCount++;
+            totalSyncNanos += syncNanos;
+            maxSyncNanos = Math.max(maxSyncNanos, syncNanos);
+            writtenCount += length / RECORD_SIZE;
+        } catch (IOException e) {
+            // The flight goes on without a journal rather than stopping for it
+            Log.e(TAG, "Error writing mission journal, no more events are kept", e);
+            droppedCount += length / RECORD_SIZE;
+            closeFile();
+        }
+    }
+
+    private void begin(ByteBuffer contents) {
+        closeFile();
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (RandomAccessFile temp = new RandomAccessFile(tempFile, "rw");
+                 FileChannel tempChannel = temp.getChannel()) {
+                tempChannel.truncate(0);
+                while (contents.hasRemaining()) tempChannel.write(contents);
+                tempChannel.force(true);
+            }
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+                throw new IOException("Could not move mission journal into place: " + file.getAbsolutePath());
+            }
+
+            output = new RandomAccessFile(file, "rw");
+            channel = output.getChannel();
+            channel.position(channel.size());
+            Log.d(TAG, "Started journal " + file.getName() + ": " + channel.size() + " bytes of plan");
+        } catch (IOException e) {
+            Log.e(TAG, "Error starting mission journal, this plan is not kept", e);
+            closeFile();
+        }
+    }
+
+    private void closeFile() {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing mission journal", e);
+        }
+        output = null;
+        channel = null;
+    }
+
+    private static ByteBuffer encodePlan(WaypointPlan plan, long createdAt) {
+        int rowCount = plan.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + rowCount * ROW_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.position(HEADER_SIZE);
+        for (int i = 0; i < rowCount; i++) buffer.putDouble(plan.getLatitude(i));
+        for (int i = 0; i < rowCount; i++) buffer.putDouble(plan.getLongitude(i));
+        for (int i = 0; i < rowCount; i++) buffer.putFloat(plan.getAltitude(i));
+        for (int i = 0; i < rowCount; i++) buffer.putFloat(plan.getHeading(i));
+        for (int i = 0; i < rowCount; i++) buffer.putFloat(plan.getGimbalPitch(i));
+        for (int i = 0; i < rowCount; i++) buffer.putFloat(plan.getCornerRadius(i));
+        for (int i = 0; i < rowCount; i++) buffer.putInt(plan.getStructureIndex(i));
+        for (int i = 0; i < rowCount; i++) buffer.putInt(plan.getPhotoIndex(i));
+        for (int i = 0; i < rowCount; i++) buffer.put(plan.getKind(i));
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, rowCount * ROW_SIZE);
+
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) HEADER_SIZE);
+        buffer.putInt(8, rowCount);
+        buffer.putLong(12, plan.hash(0, rowCount));
+        buffer.putLong(20, createdAt);
+        buffer.putInt(28, (int) crc.getValue());
+        buffer.position(0);
+        return buffer;
+    }
+
+    // ==========================================
+    // REPLAY
+    // ==========================================
+
+    /**
+     * Plan of a journal and its state after the last intact event.
+     */
+    public static class Replay {
+        private final WaypointPlan plan;
+        private final long planHash;
+        private final long createdAt;
+        private final int positions;                     // Photo positions per structure in the plan
+        private final BitSet photosTaken = new BitSet();  // Plan rows
+        private final BitSet rejected = new BitSet();     // structure * positions + photo position
+        private int eventCount;
+        private int segment = -1;
+        private int segmentCount;
+        private int waypoint = -1;
+        private boolean paused;
+        private boolean finished;
+        private boolean completed;
+        private long lastEventAt;
+        private boolean torn;
+
+        Replay(WaypointPlan plan, long planHash, long createdAt) {
+            this.plan = plan;
+            this.planHash = planHash;
+            this.createdAt = createdAt;
+            int maxPhoto = -1;
+            for (int i = 0; i < plan.size(); i++) {
+                maxPhoto = Math.max(maxPhoto, plan.getPhotoIndex(i));
+            }
+            this.positions = maxPhoto + 1;
+        }
+
+        private void apply(int type, int a, int b) {
+            switch (type) {
+                case TYPE_SEGMENT:
+                    segment = a;
+                    segmentCount = b;
+                    break;
+                case TYPE_WAYPOINT:
+                    waypoint = a;
+                    break;
+                case TYPE_PHOTO:
+                    if (a >= 0 && a < plan.size()) {
+                        photosTaken.set(a);
+                    }
+                    break;
+                case TYPE_ACCEPTED:
+                    if (isPosition(a, b)) {
+                        rejected.clear(a * positions + b);
+                    }
+                    break;
+                case TYPE_REJECTED:
+                    if (isPosition(a, b)) {
+                        rejected.set(a * positions + b);
+                    }
+                    break;
+                case TYPE_PAUSED:
+                    paused = true;
+                    break;
+                case TYPE_RESUMED:
+                    paused = false;
+                    break;
+                case TYPE_FINISHED:
+                    finished = true;
+                    completed = a != 0;
+                    break;
+                default:
+                    // Written by a newer version, nothing this one can use
+                    break;
+            }
+        }
+
+        private boolean isPosition(int structure, int photo) {
+            return structure >= 0 && photo >= 0 && photo < positions;
+        }
+
+        public WaypointPlan getPlan() { return plan; }
+        public long getPlanHash() { return planHash; }
+        public long getCreatedAt() { return createdAt; }
+        public int getEventCount() { return eventCount; }
+        public int getSegment() { return segment; }
+        public int getSegmentCount() { return segmentCount; }
+        public int getWaypoint() { return waypoint; }
+        public boolean isPaused() { return paused; }
+        public long getLastEventAt() { return lastEventAt; }
+
+        /**
+         * Whether the flight ended, flown to its end or stopped, rather than
+         * being cut off.
+         */
+        public boolean isFinished() { return finished; }
+        public boolean isCompleted() { return completed; }
+
+        /**
+         * Whether replay stopped at a damaged record, normally the one being
+         * written when the app went down.
+         */
+        public boolean isTorn() { return torn; }
+
+        /**
+         * Whether the photo of this plan row was taken and not rejected in review.
+         */
+        public boolean isPhotoDone(int row) {
+            if (!photosTaken.get(row)) {
+                return false;
+            }
+            int structure = plan.getStructureIndex(row);
+            int photo = plan.getPhotoIndex(row);
+            return !isPosition(structure, photo) || !rejected.get(structure * positions + photo);
+        }
+
+        public int getDonePhotoCount() {
+            int count = 0;
+            for (int row = photosTaken.nextSetBit(0); row >= 0; row = photosTaken.nextSetBit(row + 1)) {
+                if (isPhotoDone(row)) count++;
+            }
+            return count;
+        }
+
+        /**
+         * @return first photo row of the plan that is not done, or -1
+         */
+        public int getFirstIncompletePhoto() {
+            for (int row = 0; row < plan.size(); row++) {
+                if (plan.isPhoto(row) && !isPhotoDone(row)) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Whether the flight was cut off with photos left to take.
+         */
+        public boolean isResumable() {
+            return !finished && getFirstIncompletePhoto() >= 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Replay{waypoints=" + plan.size() + ", photos=" + getDonePhotoCount() + "/" +
+                    plan.getPhotoCount() + ", events=" + eventCount + ", segment=" + (segment + 1) + "/" +
+                    segmentCount + ", waypoint=" + waypoint + (paused ? ", paused" : "") +
+                    (finished ? (completed ? ", completed" : ", stopped") : ", interrupted") +
+                    (torn ? ", torn" : "") + "}";
+        }
+    }
+
+    /**
+     * @return the journal's plan and state, or null if there is no journal
+     * @throws IOException if the journal cannot be read or its plan is damaged
+     */
+    public static Replay replay(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        long startTime = System.nanoTime();
+        byte[] data;
+        try (FileInputStream input = new FileInputStream(file);
+             FileChannel channel = input.getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Mission journal too large: " + size + " bytes");
+            }
+            data = new byte[(int) size];
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read to the end
+            }
+        }
+
+        Replay replay = decode(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN));
+        Log.d(TAG, String.format(Locale.US, "Replayed %s in %.2f ms: %s", file.getName(),
+                (System.nanoTime() - startTime) / 1e6, replay));
+        return replay;
+    }
+
+    private static Replay decode(ByteBuffer buffer) throws IOException {
+        byte[] data = buffer.array();
+        int length = buffer.limit();
+        if (length < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a mission journal");
+        }
+
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported mission journal version " + version);
+        }
+
+        int headerSize = buffer.getShort(6);
+        int rowCount = buffer.getInt(8);
+        long planHash = buffer.getLong(12);
+        long createdAt = buffer.getLong(20);
+        int expectedChecksum = buffer.getInt(28);
+        if (headerSize < HEADER_SIZE || rowCount < 0 || (long) headerSize + (long) rowCount * ROW_SIZE > length) {
+            throw new IOException("Mission journal header is inconsistent");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, headerSize, rowCount * ROW_SIZE);
+        if ((int) crc.getValue() != expectedChecksum) {
+            throw new IOException("Mission journal plan checksum mismatch");
+        }
+
+        WaypointPlan plan = decodePlan(buffer, headerSize, rowCount);
+        Replay replay = new Replay(plan, planHash, createdAt);
+
+        int offset = headerSize + rowCount * ROW_SIZE;
+        for (; offset + RECORD_SIZE <= length; offset += RECORD_SIZE) {
+            crc.reset();
+            crc.update(data, offset, RECORD_CHECKED_SIZE);
+            if ((int) crc.getValue() != buffer.getInt(offset + RECORD_CHECKED_SIZE)) {
+                break;
+            }
+            replay.apply(buffer.getInt(offset + 8), buffer.getInt(offset + 12), buffer.getInt(offset + 16));
+            replay.lastEventAt = buffer.getLong(offset);
+            replay.eventCount++;
+        }
+        replay.torn = offset != length;
+        return replay;
+    }
+
+    private static WaypointPlan decodePlan(ByteBuffer buffer, int offset, int rowCount) {
+        int lonOffset = offset + rowCount * 8;
+        int altOffset = lonOffset + rowCount * 8;
+        int headingOffset = altOffset + rowCount * 4;
+        int pitchOffset = headingOffset + rowCount * 4;
+        int radiusOffset = pitchOffset + rowCount * 4;
+        int structureOffset = radiusOffset + rowCount * 4;
+        int photoOffset = structureOffset + rowCount * 4;
+        int kindOffset = photoOffset + rowCount * 4;
+
+        WaypointPlan plan = new WaypointPlan(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            double latitude = buffer.getDouble(offset + i * 8);
+            double longitude = buffer.getDouble(lonOffset + i * 8);
+            float altitude = buffer.getFloat(altOffset + i * 4);
+            int structure = buffer.getInt(structureOffset + i * 4);
+            byte kind = buffer.get(kindOffset + i);
+            int row;
+            if (kind == WaypointPlan.KIND_PHOTO) {
+                row = plan.addPhoto(latitude, longitude, altitude, buffer.getFloat(headingOffset + i * 4),
+                        buffer.getFloat(pitchOffset + i * 4), structure, buffer.getInt(photoOffset + i * 4));
+            } else if (kind == WaypointPlan.KIND_APPROACH) {
+                row = plan.addApproach(latitude, longitude, altitude, structure);
+            } else {
+                row = plan.addSafety(latitude, longitude, altitude, structure);
+            }
+            plan.setCornerRadius(row, buffer.getFloat(radiusOffset + i * 4));
+        }
+        return plan;
+    }
+
+    @Override
+    public String toString() {
+        int pending;
+        synchronized (lock) {
+            pending = pendingLength / RECORD_SIZE;
+        }
+        return "MissionJournal{written=" + writtenCount + ", pending=" + pending + ", dropped=" + droppedCount +
+                ", syncs=" + syncCount + ", avgSync=" + (syncCount > 0 ? totalSyncNanos / syncCount / 1000 : 0) +
+                " us, maxSync=" + (maxSyncNanos / 1000) + " us}";
+    }
+}
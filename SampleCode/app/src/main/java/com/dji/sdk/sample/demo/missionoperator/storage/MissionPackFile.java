@@ -0,0 +1,264 @@
+package com.dji.sdk.sample.demo.missionoperator.storage;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary form of a mission's structures and photo template.
+ *
+ * Layout (little-endian):
+ * <pre>
+ * header   magic "PLMP", u16 version, u16 header size, i32 structure count,
+ *          i32 photo count, i64 created at (ms), i32 payload length, i32 CRC32 of payload
+ * payload  f64 lat[n], f64 lon[n], f32 groundAlt[n], f32 height[n],
+ *          f32 offsetX[m], f32 offsetY[m], f32 offsetZ[m], f32 gimbalPitch[m]
+ * </pre>
+ * Packs are produced once from the CSV files and loaded through a memory map,
+ * so opening a large job is a bulk copy instead of a text parse.
+ */
+public final class MissionPackFile {
+    private static final String TAG = "MissionPackFile";
+
+    public static final String EXTENSION = ".plmp";
+
+    private static final int MAGIC = 0x504D4C50; // "PLMP" in little-endian byte order
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int CHECKSUM_CHUNK_SIZE = 64 * 1024;
+
+    private MissionPackFile() {}
+
+    public static class Contents {
+        private final StructureTable structures;
+        private final PhotoTemplateTable photoTemplate;
+        private final long createdAt;
+
+        Contents(StructureTable structures, PhotoTemplateTable photoTemplate, long createdAt) {
+            this.structures = structures;
+            this.photoTemplate = photoTemplate;
+            this.createdAt = createdAt;
+        }
+
+        public StructureTable getStructures() { return structures; }
+        public PhotoTemplateTable getPhotoTemplate() { return photoTemplate; }
+        public long getCreatedAt() { return createdAt; }
+    }
+
+    public static boolean isMissionPack(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(EXTENSION);
+    }
+
+    // ==========================================
+    // WRITING
+    // ==========================================
+
+    public static void write(File file, StructureTable structures, PhotoTemplateTable photoTemplate) throws IOException {
+        int structureCount = structures.size();
+        int photoCount = photoTemplate.size();
+        int payloadLength = structureCount * (8 + 8 + 4 + 4) + photoCount * (4 * 4);
+
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < structureCount; i++) payload.putDouble(structures.getLatitude(i));
+        for (int i = 0; i < structureCount; i++) payload.putDouble(structures.getLongitude(i));
+        for (int i = 0; i < structureCount; i++) payload.putFloat(structures.getGroundAltitude(i));
+        for (int i = 0; i < structureCount; i++) payload.putFloat(structures.getStructureHeight(i));
+        for (int i = 0; i < photoCount; i++) payload.putFloat(photoTemplate.getOffsetX(i));
+        for (int i = 0; i < photoCount; i++) payload.putFloat(photoTemplate.getOffsetY(i));
+        for (int i = 0; i < photoCount; i++) payload.putFloat(photoTemplate.getOffsetZ(i));
+        for (int i = 0; i < photoCount; i++) payload.putFloat(photoTemplate.getGimbalPitch(i));
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.array(), 0, payloadLength);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort((short) HEADER_SIZE);
+        header.putInt(structureCount);
+        header.putInt(photoCount);
+        header.putLong(System.currentTimeMillis());
+        header.putInt(payloadLength);
+        header.putInt((int) crc.getValue());
+        header.flip();
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile output = new RandomAccessFile(tempFile, "rw");
+             FileChannel channel = output.getChannel()) {
+            channel.truncate(0);
+            while (header.hasRemaining()) channel.write(header);
+            while (payload.hasRemaining()) channel.write(payload);
+            channel.force(true);
+        }
+
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Could not move mission pack into place: " + file.getAbsolutePath());
+        }
+
+        Log.d(TAG, "Wrote mission pack " + file.getName() + ": " + structureCount + " structures, " +
+                photoCount + " photo positions, " + (HEADER_SIZE + payloadLength) + " bytes");
+    }
+
+    // ==========================================
+    // READING
+    // ==========================================
+
+    public static Contents read(File file) throws IOException {
+        try (FileInputStream input = new FileInputStream(file);
+             FileChannel channel = input.getChannel()) {
+            return read(channel);
+        }
+    }
+
+    public static Contents read(ContentResolver resolver, Uri uri) throws IOException {
+        try (ParcelFileDescriptor descriptor = resolver.openFileDescriptor(uri, "r")) {
+            if (descriptor == null) {
+                throw new IOException("Cannot open " + uri);
+            }
+            try (FileInputStream input = new FileInputStream(descriptor.getFileDescriptor());
+                 FileChannel channel = input.getChannel()) {
+                return read(channel);
+            }
+        }
+    }
+
+    public static Contents read(FileChannel channel) throws IOException {
+        long startTime = System.nanoTime();
+
+        ByteBuffer buffer;
+        try {
+            long size = channel.size();
+            buffer = size > 0 ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : readFully(channel);
+        } catch (IOException e) {
+            // Pipes and other non-seekable descriptors cannot be mapped
+            Log.d(TAG, "Mission pack not mappable, reading into memory: " + e.getMessage());
+            buffer = readFully(channel);
+        }
+
+        Contents contents = decode(buffer.order(ByteOrder.LITTLE_ENDIAN));
+
+        Log.d(TAG, String.format(Locale.US, "Loaded mission pack: %d structures, %d photo positions in %.2f ms",
+                contents.structures.size(), contents.photoTemplate.size(),
+                (System.nanoTime() - startTime) / 1e6));
+        return contents;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_CHUNK_SIZE);
+        while (channel.read(buffer) >= 0) {
+            if (!buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Contents decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Mission pack is truncated");
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a mission pack");
+        }
+
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported mission pack version " + version);
+        }
+
+        int headerSize = buffer.getShort(6);
+        int structureCount = buffer.getInt(8);
+        int photoCount = buffer.getInt(12);
+        long createdAt = buffer.getLong(16);
+        int payloadLength = buffer.getInt(24);
+        int expectedChecksum = buffer.getInt(28);
+
+        long expectedLength = (long) structureCount * (8 + 8 + 4 + 4) + (long) photoCount * (4 * 4);
+        if (structureCount < 0 || photoCount < 0 || headerSize < HEADER_SIZE ||
+                payloadLength != expectedLength || buffer.limit() < headerSize + expectedLength) {
+            throw new IOException("Mission pack header is inconsistent");
+        }
+
+        buffer.position(headerSize);
+        buffer.limit(headerSize + payloadLength);
+        ByteBuffer payload = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        if (checksum(payload) != expectedChecksum) {
+            throw new IOException("Mission pack checksum mismatch");
+        }
+
+        double[] latitude = new double[structureCount];
+        double[] longitude = new double[structureCount];
+        float[] groundAltitude = new float[structureCount];
+        float[] structureHeight = new float[structureCount];
+        float[] offsetX = new float[photoCount];
+        float[] offsetY = new float[photoCount];
+        float[] offsetZ = new float[photoCount];
+        float[] gimbalPitch = new float[photoCount];
+
+        int position = 0;
+        payload.position(position);
+        payload.asDoubleBuffer().get(latitude);
+        position += structureCount * 8;
+        payload.position(position);
+        payload.asDoubleBuffer().get(longitude);
+        position += structureCount * 8;
+        payload.position(position);
+        payload.asFloatBuffer().get(groundAltitude);
+        position += structureCount * 4;
+        payload.position(position);
+        payload.asFloatBuffer().get(structureHeight);
+        position += structureCount * 4;
+        payload.position(position);
+        payload.asFloatBuffer().get(offsetX);
+        position += photoCount * 4;
+        payload.position(position);
+        payload.asFloatBuffer().get(offsetY);
+        position += photoCount * 4;
+        payload.position(position);
+        payload.asFloatBuffer().get(offsetZ);
+        position += photoCount * 4;
+        payload.position(position);
+        payload.asFloatBuffer().get(gimbalPitch);
+
+        return new Contents(
+                StructureTable.fromColumns(latitude, longitude, groundAltitude, structureHeight, structureCount),
+                PhotoTemplateTable.fromColumns(offsetX, offsetY, offsetZ, gimbalPitch, photoCount),
+                createdAt);
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        ByteBuffer source = payload.duplicate();
+        source.position(0);
+
+        byte[] chunk = new byte[Math.min(CHECKSUM_CHUNK_SIZE, Math.max(1, source.remaining()))];
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return (int) crc.getValue();
+    }
+}
@@ -635,8 +635,9 @@ public class MissionControlView extends MissionBaseView implements
         Button acceptButton = dialogView.findViewById(R.id.btn_popup_accept);
 
         photoImageView.setImageBitmap(photo);
-        photoDetailsText.setText("Structure: S" + missionController.getCurrentStructureIndex() +
-                " | Position: P" + missionController.getCurrentPhotoIndex());
+        int structureId = missionController.getStructureId(missionController.getReviewStructureIndex());
+        photoDetailsText.setText("Structure: S" + structureId +
+                " | Position: P" + missionController.getReviewPhotoIndex());
 
         currentPhotoDialog = builder.create();
         currentPhotoDialog.setCancelable(false);
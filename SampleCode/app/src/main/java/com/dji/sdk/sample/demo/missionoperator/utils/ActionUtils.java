@@ -132,6 +132,33 @@ public class ActionUtils {
                 .build();
     }
 
+    public static WaypointActuator getGimbalAbsoluteActuator(float pitch, float rotationTime, int gimbalIndex) {
+        Rotation rotation = new Rotation.Builder()
+                .pitch(pitch)
+                .time(rotationTime)
+                .mode(RotationMode.ABSOLUTE_ANGLE)
+                .build();
+        return new WaypointActuator.Builder()
+                .setActuatorType(ActionTypes.ActionActuatorType.GIMBAL)
+                .setActuatorIndex(gimbalIndex)
+                .setGimbalActuatorParam(new WaypointGimbalActuatorParam.Builder()
+                        .rotation(rotation)
+                        .operationType(ActionTypes.GimbalOperationType.ROTATE_GIMBAL)
+                        .build()
+                )
+                .build();
+    }
+
+    public static WaypointActuator getShootPhotoActuator(int cameraIndex) {
+        return new WaypointActuator.Builder()
+                .setActuatorType(ActionTypes.ActionActuatorType.CAMERA)
+                .setActuatorIndex(cameraIndex)
+                .setCameraActuatorParam(new WaypointCameraActuatorParam.Builder()
+                        .setCameraOperationType(ActionTypes.CameraOperationType.SHOOT_SINGLE_PHOTO)
+                        .build())
+                .build();
+    }
+
     public static WaypointActuator getCameraFocusModeActuator(CameraFocusMode mode, int cameraIndex) {
         return new WaypointActuator.Builder()
                 .setActuatorType(ActionTypes.ActionActuatorType.CAMERA)
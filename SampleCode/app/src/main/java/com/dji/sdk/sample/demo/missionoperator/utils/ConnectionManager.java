@@ -12,7 +12,7 @@ import dji.sdk.products.Aircraft;
 public class ConnectionManager {
     private static final String TAG = "ConnectionManager";
 
-    private static int lastKnownBatteryPercentage = -1;
+    private static volatile int lastKnownBatteryPercentage = -1;
 
     public interface ConnectionCallback {
         void onConnectionStatusChanged(boolean connected, String status);
@@ -52,6 +52,14 @@ public class ConnectionManager {
         return -1;
     }
 
+    /**
+     * Last percentage reported by the battery callback, without touching the
+     * SDK; -1 until the first report.
+     */
+    public static int getLastKnownBatteryPercentage() {
+        return lastKnownBatteryPercentage;
+    }
+
     /**
      * Get battery percentage with callback for real-time updates
      */
@@ -40,6 +40,8 @@ public final class Constants {
     public static final float MAX_GIMBAL_PITCH = 30f;
 
     // MISSION LIMITS
-    public static final int MAX_INSPECTION_POINTS = 50;
-    public static final int MAX_PHOTO_POINTS = 20;
+    public static final int MAX_WAYPOINTS_PER_MISSION = 99; // WaypointMission (v1) cap, plans are split into segments
+    public static final int MAX_WAYPOINTS_PER_V2_MISSION = 65535; // WaypointV2Mission cap
+    public static final int MAX_INSPECTION_POINTS = 100000;
+    public static final int MAX_PHOTO_POINTS = MAX_WAYPOINTS_PER_MISSION - 3; // Arrival, approach and departure share the segment
 }
\ No newline at end of file
@@ -0,0 +1,342 @@
+// ==========================================
+// GeofenceIndex.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.utils;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+
+import java.util.Arrays;
+
+/**
+ * Restricted areas (substations, airfields, private land) as polygons, with
+ * point and leg checks against all of them.
+ *
+ * Polygon bounding boxes go into a {@link PackedRTree}, so a check only looks
+ * at the few polygons near it. Vertices are stored as longitude/latitude
+ * degrees, which is planar enough for areas a few kilometers across. Every
+ * edge has a precomputed table entry (start, y range and dx/dy), so the
+ * crossing-number test is one multiply-add per edge the ray can cross. Legs
+ * violate a polygon when either end is inside it or the leg crosses one of
+ * its edges.
+ *
+ * Built once, then queried; queries are synchronized because the live
+ * position is checked from the flight controller thread while plans are
+ * validated elsewhere.
+ */
+public class GeofenceIndex {
+    private static final int CANDIDATE_CAPACITY = 64;
+
+    private final int polygonCount;
+    private final long[] zoneIds;
+    private final int[] edgeStart;      // First edge of each polygon, polygonCount + 1 entries
+    private final double[] edgeX;       // Start vertex
+    private final double[] edgeY;
+    private final double[] edgeEndX;    // End vertex
+    private final double[] edgeEndY;
+    private final double[] edgeMinY;
+    private final double[] edgeMaxY;
+    private final double[] edgeSlope;   // dx/dy, 0 for horizontal edges
+    private final PackedRTree tree;
+
+    private int[] candidates = new int[CANDIDATE_CAPACITY];
+
+    private GeofenceIndex(Builder builder) {
+        polygonCount = builder.polygonCount;
+        zoneIds = Arrays.copyOf(builder.zoneIds, polygonCount);
+        edgeStart = new int[polygonCount + 1];
+
+        int edgeCount = builder.vertexCount;
+        edgeX = new double[edgeCount];
+        edgeY = new double[edgeCount];
+        edgeEndX = new double[edgeCount];
+        edgeEndY = new double[edgeCount];
+        edgeMinY = new double[edgeCount];
+        edgeMaxY = new double[edgeCount];
+        edgeSlope = new double[edgeCount];
+        tree = new PackedRTree(polygonCount);
+
+        for (int p = 0; p < polygonCount; p++) {
+            int first = builder.vertexStart[p];
+            int end = builder.vertexStart[p + 1];
+            edgeStart[p] = first;
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+
+            for (int v = first; v < end; v++) {
+                int next = v + 1 < end ? v + 1 : first;
+                double x1 = builder.longitude[v];
+                double y1 = builder.latitude[v];
+                double x2 = builder.longitude[next];
+                double y2 = builder.latitude[next];
+                edgeX[v] = x1;
+                edgeY[v] = y1;
+                edgeEndX[v] = x2;
+                edgeEndY[v] = y2;
+                edgeMinY[v] = Math.min(y1, y2);
+                edgeMaxY[v] = Math.max(y1, y2);
+                edgeSlope[v] = y1 != y2 ? (x2 - x1) / (y2 - y1) : 0;
+
+                minX = Math.min(minX, x1);
+                minY = Math.min(minY, y1);
+                maxX = Math.max(maxX, x1);
+                maxY = Math.max(maxY, y1);
+            }
+            tree.add(minX, minY, maxX, maxY);
+        }
+        edgeStart[polygonCount] = edgeCount;
+        tree.finish();
+    }
+
+    /**
+     * Collects polygons vertex by vertex, e.g. from a CSV with one vertex per
+     * row where consecutive rows with the same zone ID form one polygon.
+     */
+    public static class Builder {
+        private long[] zoneIds = new long[16];
+        private int[] vertexStart = new int[17];
+        private double[] latitude = new double[64];
+        private double[] longitude = new double[64];
+        private int polygonCount;
+        private int vertexCount;
+        private boolean open;
+
+        /**
+         * Adds a vertex to the polygon of {@code zoneId}, starting a new
+         * polygon when the zone differs from the previous vertex's.
+         */
+        public Builder addVertex(long zoneId, double lat, double lon) {
+            if (!open || zoneIds[polygonCount - 1] != zoneId) {
+                closePolygon();
+                startPolygon(zoneId);
+            }
+            if (vertexCount == latitude.length) {
+                int capacity = vertexCount + (vertexCount >> 1);
+                latitude = Arrays.copyOf(latitude, capacity);
+                longitude = Arrays.copyOf(longitude, capacity);
+            }
+            latitude[vertexCount] = lat;
+            longitude[vertexCount] = lon;
+            vertexCount++;
+            return this;
+        }
+
+        public Builder addPolygon(long zoneId, double[] lat, double[] lon, int count) {
+            closePolygon();
+            for (int i = 0; i < count; i++) {
+                addVertex(zoneId, lat[i], lon[i]);
+            }
+            closePolygon();
+            return this;
+        }
+
+        public int getPolygonCount() {
+            closePolygon();
+            return polygonCount;
+        }
+
+        public GeofenceIndex build() {
+            closePolygon();
+            return new GeofenceIndex(this);
+        }
+
+        private void startPolygon(long zoneId) {
+            if (polygonCount == zoneIds.length) {
+                int capacity = polygonCount + (polygonCount >> 1);
+                zoneIds = Arrays.copyOf(zoneIds, capacity);
+                vertexStart = Arrays.copyOf(vertexStart, capacity + 1);
+            }
+            zoneIds[polygonCount] = zoneId;
+            vertexStart[polygonCount] = vertexCount;
+            polygonCount++;
+            open = true;
+        }
+
+        /**
+         * Ends the open polygon: drops a repeated closing vertex, and drops the
+         * polygon if it has fewer than three vertices.
+         */
+        private void closePolygon() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            int first = vertexStart[polygonCount - 1];
+            if (vertexCount - first > 3 && latitude[vertexCount - 1] == latitude[first] &&
+                    longitude[vertexCount - 1] == longitude[first]) {
+                vertexCount--;
+            }
+            if (vertexCount - first < 3) {
+                vertexCount = first;
+                polygonCount--;
+                return;
+            }
+            vertexStart[polygonCount] = vertexCount;
+        }
+    }
+
+    public int size() {
+        return polygonCount;
+    }
+
+    public boolean isEmpty() {
+        return polygonCount == 0;
+    }
+
+    public long getZoneId(int polygon) {
+        return zoneIds[polygon];
+    }
+
+    // ==========================================
+    // QUERIES
+    // ==========================================
+
+    /**
+     * @return index of a polygon containing the point, or -1
+     */
+    public synchronized int findContaining(double latitude, double longitude) {
+        int count = searchCandidates(longitude, latitude, longitude, latitude);
+        for (int c = 0; c < count; c++) {
+            if (contains(candidates[c], longitude, latitude)) {
+                return candidates[c];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of a polygon the straight leg enters or touches, or -1
+     */
+    public synchronized int findLegViolation(double lat1, double lon1, double lat2, double lon2) {
+        int count = searchCandidates(Math.min(lon1, lon2), Math.min(lat1, lat2),
+                Math.max(lon1, lon2), Math.max(lat1, lat2));
+        for (int c = 0; c < count; c++) {
+            int polygon = candidates[c];
+            if (contains(polygon, lon1, lat1) || contains(polygon, lon2, lat2) ||
+                    crossesEdge(polygon, lon1, lat1, lon2, lat2)) {
+                return polygon;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks every waypoint of the plan and every leg between consecutive
+     * waypoints.
+     */
+    public Violations validatePlan(WaypointPlan plan) {
+        Violations violations = new Violations(zoneIds);
+        for (int i = 0; i < plan.size(); i++) {
+            int polygon = findContaining(plan.getLatitude(i), plan.getLongitude(i));
+            if (polygon >= 0) {
+                violations.add(i, polygon, false);
+                continue;
+            }
+            if (i + 1 < plan.size()) {
+                polygon = findLegViolation(plan.getLatitude(i), plan.getLongitude(i),
+                        plan.getLatitude(i + 1), plan.getLongitude(i + 1));
+                if (polygon >= 0) {
+                    violations.add(i, polygon, true);
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Waypoints inside a polygon and legs crossing one, by plan row. A leg is
+     * reported by the row it starts at.
+     */
+    public static class Violations {
+        private final long[] zoneIds;
+        private int[] rows = new int[8];
+        private int[] polygons = new int[8];
+        private boolean[] legs = new boolean[8];
+        private int count;
+
+        Violations(long[] zoneIds) {
+            this.zoneIds = zoneIds;
+        }
+
+        void add(int row, int polygon, boolean leg) {
+            if (count == rows.length) {
+                int capacity = count + (count >> 1);
+                rows = Arrays.copyOf(rows, capacity);
+                polygons = Arrays.copyOf(polygons, capacity);
+                legs = Arrays.copyOf(legs, capacity);
+            }
+            rows[count] = row;
+            polygons[count] = polygon;
+            legs[count] = leg;
+            count++;
+        }
+
+        public int size() { return count; }
+        public boolean isEmpty() { return count == 0; }
+        public int getRow(int index) { return rows[index]; }
+        public int getPolygon(int index) { return polygons[index]; }
+        public long getZoneId(int index) { return zoneIds[polygons[index]]; }
+        public boolean isLeg(int index) { return legs[index]; }
+
+        @Override
+        public String toString() {
+            if (count == 0) {
+                return "No geofence violations";
+            }
+            return count + " geofence violations, first: " + (legs[0] ? "leg from waypoint " : "waypoint ") +
+                    rows[0] + " in zone " + zoneIds[polygons[0]];
+        }
+    }
+
+    // ==========================================
+    // GEOMETRY
+    // ==========================================
+
+    private int searchCandidates(double minX, double minY, double maxX, double maxY) {
+        int count = tree.search(minX, minY, maxX, maxY, candidates);
+        while (count == candidates.length) {
+            candidates = new int[candidates.length * 2];
+            count = tree.search(minX, minY, maxX, maxY, candidates);
+        }
+        return count;
+    }
+
+    /** Crossing-number test with a ray towards +x. */
+    private boolean contains(int polygon, double x, double y) {
+        boolean inside = false;
+        for (int e = edgeStart[polygon]; e < edgeStart[polygon + 1]; e++) {
+            if (y >= edgeMinY[e] && y < edgeMaxY[e] && x < edgeX[e] + (y - edgeY[e]) * edgeSlope[e]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private boolean crossesEdge(int polygon, double x1, double y1, double x2, double y2) {
+        for (int e = edgeStart[polygon]; e < edgeStart[polygon + 1]; e++) {
+            if (segmentsIntersect(x1, y1, x2, y2, edgeX[e], edgeY[e], edgeEndX[e], edgeEndY[e])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean segmentsIntersect(double ax, double ay, double bx, double by,
+                                             double cx, double cy, double dx, double dy) {
+        // Box rejection first, then orientation of each segment's ends against the other
+        if (Math.max(ax, bx) < Math.min(cx, dx) || Math.max(cx, dx) < Math.min(ax, bx) ||
+                Math.max(ay, by) < Math.min(cy, dy) || Math.max(cy, dy) < Math.min(ay, by)) {
+            return false;
+        }
+        double d1 = cross(cx, cy, dx, dy, ax, ay);
+        double d2 = cross(cx, cy, dx, dy, bx, by);
+        double d3 = cross(ax, ay, bx, by, cx, cy);
+        double d4 = cross(ax, ay, bx, by, dx, dy);
+        return (d1 * d2 <= 0) && (d3 * d4 <= 0);
+    }
+
+    private static double cross(double ox, double oy, double ax, double ay, double bx, double by) {
+        return (ax - ox) * (by - oy) - (ay - oy) * (bx - ox);
+    }
+}
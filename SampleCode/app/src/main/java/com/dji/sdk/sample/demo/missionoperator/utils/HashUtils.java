@@ -0,0 +1,22 @@
+// ==========================================
+// HashUtils.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.utils;
+
+/**
+ * Hashing helpers for the content keys of tables, plans and built missions.
+ * Keys are chained as {@code hash = mix(hash * 31 + bits)} over every field.
+ */
+public final class HashUtils {
+    private HashUtils() {}
+
+    // 64-bit finalizer from MurmurHash3
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,131 @@
+// ==========================================
+// LocalTangentPlane.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.utils;
+
+/**
+ * Converts east/north/up offsets in meters around an origin to latitude,
+ * longitude and altitude.
+ *
+ * The origin's WGS84 radii of curvature are computed once in
+ * {@link #setOrigin(double, double, double)}: the meridional radius M for
+ * north offsets and the prime vertical radius N scaled by cos(latitude) for
+ * east offsets. Each point is then two multiply-adds. For photo offsets of a
+ * few tens of meters the error of this first-order projection is well under
+ * a millimeter, where a fixed degrees-per-meter factor is off by 1 - cos(lat)
+ * in longitude (about 23% at 40 degrees).
+ *
+ * The batch {@link #project} methods write into caller-provided arrays and do
+ * not allocate, so one instance can be re-targeted per structure while a
+ * whole plan is built. Instances are not thread-safe.
+ */
+public final class LocalTangentPlane {
+    private static final double WGS84_A = 6378137.0;                  // semi-major axis, meters
+    private static final double WGS84_F = 1 / 298.257223563;
+    private static final double WGS84_E2 = WGS84_F * (2 - WGS84_F);   // first eccentricity squared
+
+    private double originLatitude;
+    private double originLongitude;
+    private double originAltitude;
+    private double sinLatitude;
+    private double cosLatitude;
+    private double degreesPerMeterNorth;
+    private double degreesPerMeterEast;
+
+    public LocalTangentPlane() {
+        setOrigin(0, 0, 0);
+    }
+
+    public LocalTangentPlane(double latitude, double longitude, double altitude) {
+        setOrigin(latitude, longitude, altitude);
+    }
+
+    /**
+     * @param altitude origin height; it only feeds the radii as ellipsoidal
+     *                 height, so takeoff-relative altitudes are fine
+     */
+    public LocalTangentPlane setOrigin(double latitude, double longitude, double altitude) {
+        double latitudeRad = Math.toRadians(latitude);
+        sinLatitude = Math.sin(latitudeRad);
+        cosLatitude = Math.cos(latitudeRad);
+
+        double w2 = 1 - WGS84_E2 * sinLatitude * sinLatitude;
+        double w = Math.sqrt(w2);
+        double meridionalRadius = WGS84_A * (1 - WGS84_E2) / (w2 * w);
+        double primeVerticalRadius = WGS84_A / w;
+
+        originLatitude = latitude;
+        originLongitude = longitude;
+        originAltitude = altitude;
+        degreesPerMeterNorth = Math.toDegrees(1 / (meridionalRadius + altitude));
+        // Near the poles a meter east spans unbounded longitude; clamp rather than divide by zero
+        degreesPerMeterEast = Math.toDegrees(1 / ((primeVerticalRadius + altitude) * Math.max(cosLatitude, 1e-9)));
+        return this;
+    }
+
+    public double getOriginLatitude() { return originLatitude; }
+    public double getOriginLongitude() { return originLongitude; }
+    public double getOriginAltitude() { return originAltitude; }
+    public double getSinLatitude() { return sinLatitude; }
+    public double getCosLatitude() { return cosLatitude; }
+
+    public double toLatitude(double north) {
+        return originLatitude + north * degreesPerMeterNorth;
+    }
+
+    public double toLongitude(double east) {
+        return originLongitude + east * degreesPerMeterEast;
+    }
+
+    public float toAltitude(double up) {
+        return (float) (originAltitude + up);
+    }
+
+    /** Inverse of {@link #toLatitude(double)}, meters north of the origin. */
+    public double toNorth(double latitude) {
+        return (latitude - originLatitude) / degreesPerMeterNorth;
+    }
+
+    /** Inverse of {@link #toLongitude(double)}, meters east of the origin. */
+    public double toEast(double longitude) {
+        return (longitude - originLongitude) / degreesPerMeterEast;
+    }
+
+    /**
+     * Projects {@code count} offsets into the output arrays, starting at
+     * index 0 of every array.
+     */
+    public void project(float[] east, float[] north, float[] up, int count,
+                        double[] latitude, double[] longitude, float[] altitude) {
+        project(east, north, up, 0, count, latitude, longitude, altitude, 0);
+    }
+
+    /**
+     * Projects offsets {@code [from, from + count)} into the output arrays
+     * starting at {@code outOffset}. Any output array may be null to skip it.
+     */
+    public void project(float[] east, float[] north, float[] up, int from, int count,
+                        double[] latitude, double[] longitude, float[] altitude, int outOffset) {
+        if (latitude != null) {
+            for (int i = 0; i < count; i++) {
+                latitude[outOffset + i] = originLatitude + north[from + i] * degreesPerMeterNorth;
+            }
+        }
+        if (longitude != null) {
+            for (int i = 0; i < count; i++) {
+                longitude[outOffset + i] = originLongitude + east[from + i] * degreesPerMeterEast;
+            }
+        }
+        if (altitude != null) {
+            for (int i = 0; i < count; i++) {
+                altitude[outOffset + i] = (float) (originAltitude + up[from + i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LocalTangentPlane{lat=%.7f, lon=%.7f, alt=%.1f}",
+                originLatitude, originLongitude, originAltitude);
+    }
+}
@@ -0,0 +1,349 @@
+// ==========================================
+// PackedRTree.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.utils;
+
+import java.util.Arrays;
+
+/**
+ * Static R-tree over 2D boxes, bulk loaded with Sort-Tile-Recursive packing.
+ *
+ * All boxes and nodes live in one flat double array (minX, minY, maxX, maxY
+ * per slot): items first, then each level of nodes up to the root. Queries
+ * write into caller-supplied arrays and reuse internal scratch buffers, so
+ * they do not allocate once warm. A tree is built by one thread and then
+ * queried by one thread at a time.
+ */
+public class PackedRTree {
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    private final int numItems;
+    private final int nodeSize;
+    private final double[] boxes;
+    private final int[] indices;       // Leaf slots: item index; node slots: first child slot
+    private final int[] levelBounds;   // End slot of each level, leaves first
+    private int position;
+
+    // Query scratch
+    private int[] stack = new int[64];
+    private double[] heapDistances = new double[64];
+    private int[] heapSlots = new int[64];
+
+    public PackedRTree(int numItems) {
+        this(numItems, DEFAULT_NODE_SIZE);
+    }
+
+    public PackedRTree(int numItems, int nodeSize) {
+        if (numItems < 0) {
+            throw new IllegalArgumentException("Item count must not be negative: " + numItems);
+        }
+        this.numItems = numItems;
+        this.nodeSize = Math.max(2, nodeSize);
+
+        // Count slots per level
+        int[] bounds = new int[32];
+        int levels = 0;
+        int count = numItems;
+        int total = count;
+        bounds[levels++] = total;
+        while (count > 1) {
+            count = (count + this.nodeSize - 1) / this.nodeSize;
+            total += count;
+            bounds[levels++] = total;
+        }
+
+        this.levelBounds = Arrays.copyOf(bounds, levels);
+        this.boxes = new double[total * 4];
+        this.indices = new int[total];
+    }
+
+    /**
+     * Adds the next item box. Items are numbered in the order they are added.
+     */
+    public int add(double minX, double minY, double maxX, double maxY) {
+        if (position >= numItems) {
+            throw new IllegalStateException("Tree already holds " + numItems + " items");
+        }
+        int slot = position++;
+        indices[slot] = slot;
+        boxes[slot * 4] = minX;
+        boxes[slot * 4 + 1] = minY;
+        boxes[slot * 4 + 2] = maxX;
+        boxes[slot * 4 + 3] = maxY;
+        return slot;
+    }
+
+    public void finish() {
+        if (position != numItems) {
+            throw new IllegalStateException("Added " + position + " items, expected " + numItems);
+        }
+
+        int levelStart = 0;
+        for (int level = 0; level < levelBounds.length - 1; level++) {
+            int levelEnd = levelBounds[level];
+            sortTileRecursive(levelStart, levelEnd);
+
+            // Pack consecutive runs of nodeSize slots into parents
+            int parent = levelEnd;
+            for (int child = levelStart; child < levelEnd; child += nodeSize) {
+                int childEnd = Math.min(child + nodeSize, levelEnd);
+                double minX = Double.POSITIVE_INFINITY;
+                double minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY;
+                double maxY = Double.NEGATIVE_INFINITY;
+                for (int c = child; c < childEnd; c++) {
+                    minX = Math.min(minX, boxes[c * 4]);
+                    minY = Math.min(minY, boxes[c * 4 + 1]);
+                    maxX = Math.max(maxX, boxes[c * 4 + 2]);
+                    maxY = Math.max(maxY, boxes[c * 4 + 3]);
+                }
+                boxes[parent * 4] = minX;
+                boxes[parent * 4 + 1] = minY;
+                boxes[parent * 4 + 2] = maxX;
+                boxes[parent * 4 + 3] = maxY;
+                indices[parent] = child;
+                parent++;
+            }
+            levelStart = levelEnd;
+        }
+    }
+
+    public int size() {
+        return numItems;
+    }
+
+    // ==========================================
+    // QUERIES
+    // ==========================================
+
+    /**
+     * Writes the indices of items whose box intersects the query box into
+     * {@code results}, stopping when it is full.
+     *
+     * @return number of indices written
+     */
+    public int search(double minX, double minY, double maxX, double maxY, int[] results) {
+        if (numItems == 0 || results.length == 0) {
+            return 0;
+        }
+
+        int found = 0;
+        int top = 0;
+        stack[top++] = boxes.length / 4 - 1;   // root
+
+        while (top > 0) {
+            int slot = stack[--top];
+            if (boxes[slot * 4] > maxX || boxes[slot * 4 + 1] > maxY ||
+                    boxes[slot * 4 + 2] < minX || boxes[slot * 4 + 3] < minY) {
+                continue;
+            }
+
+            if (slot < numItems) {
+                results[found++] = indices[slot];
+                if (found == results.length) {
+                    break;
+                }
+                continue;
+            }
+
+            int childStart = indices[slot];
+            int childEnd = Math.min(childStart + nodeSize, levelEndOf(childStart));
+            if (top + (childEnd - childStart) > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + nodeSize));
+            }
+            for (int child = childStart; child < childEnd; child++) {
+                stack[top++] = child;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Best-first search for the items nearest to (x, y), closest first.
+     * Distances are to the item boxes and are written squared.
+     *
+     * @param maxDistance only items within this distance are returned
+     * @return number of items written, at most {@code results.length}
+     */
+    public int nearest(double x, double y, double maxDistance, int[] results, double[] squaredDistances) {
+        if (numItems == 0 || results.length == 0) {
+            return 0;
+        }
+
+        double maxSquared = maxDistance == Double.POSITIVE_INFINITY
+                ? Double.POSITIVE_INFINITY : maxDistance * maxDistance;
+        int found = 0;
+        int heapSize = 0;
+        heapSize = heapPush(heapSize, boxes.length / 4 - 1, 0);
+
+        while (heapSize > 0) {
+            int slot = heapSlots[0];
+            double distance = heapDistances[0];
+            heapSize = heapPop(heapSize);
+
+            if (distance > maxSquared) {
+                break;
+            }
+
+            if (slot < numItems) {
+                results[found] = indices[slot];
+                if (squaredDistances != null) {
+                    squaredDistances[found] = distance;
+                }
+                if (++found == results.length) {
+                    break;
+                }
+                continue;
+            }
+
+            int childStart = indices[slot];
+            int childEnd = Math.min(childStart + nodeSize, levelEndOf(childStart));
+            for (int child = childStart; child < childEnd; child++) {
+                double childDistance = squaredDistanceToBox(x, y, child);
+                if (childDistance <= maxSquared) {
+                    heapSize = heapPush(heapSize, child, childDistance);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private double squaredDistanceToBox(double x, double y, int slot) {
+        double dx = Math.max(Math.max(boxes[slot * 4] - x, 0), x - boxes[slot * 4 + 2]);
+        double dy = Math.max(Math.max(boxes[slot * 4 + 1] - y, 0), y - boxes[slot * 4 + 3]);
+        return dx * dx + dy * dy;
+    }
+
+    private int levelEndOf(int slot) {
+        for (int bound : levelBounds) {
+            if (slot < bound) {
+                return bound;
+            }
+        }
+        return levelBounds[levelBounds.length - 1];
+    }
+
+    // === Binary min-heap on squared distance ===
+
+    private int heapPush(int size, int slot, double distance) {
+        if (size == heapSlots.length) {
+            heapSlots = Arrays.copyOf(heapSlots, size * 2);
+            heapDistances = Arrays.copyOf(heapDistances, size * 2);
+        }
+
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heapDistances[parent] <= distance) {
+                break;
+            }
+            heapSlots[i] = heapSlots[parent];
+            heapDistances[i] = heapDistances[parent];
+            i = parent;
+        }
+        heapSlots[i] = slot;
+        heapDistances[i] = distance;
+        return size + 1;
+    }
+
+    private int heapPop(int size) {
+        int last = size - 1;
+        int slot = heapSlots[last];
+        double distance = heapDistances[last];
+
+        int i = 0;
+        int half = last >> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < last && heapDistances[child + 1] < heapDistances[child]) {
+                child++;
+            }
+            if (heapDistances[child] >= distance) {
+                break;
+            }
+            heapSlots[i] = heapSlots[child];
+            heapDistances[i] = heapDistances[child];
+            i = child;
+        }
+        if (last > 0) {
+            heapSlots[i] = slot;
+            heapDistances[i] = distance;
+        }
+        return last;
+    }
+
+    // ==========================================
+    // SORT-TILE-RECURSIVE PACKING
+    // ==========================================
+
+    /**
+     * Orders the slots of one level into vertical slices by center x, then
+     * by center y inside each slice, so every run of nodeSize slots is a
+     * compact tile.
+     */
+    private void sortTileRecursive(int start, int end) {
+        int count = end - start;
+        if (count <= nodeSize) {
+            return;
+        }
+
+        int nodeCount = (count + nodeSize - 1) / nodeSize;
+        int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+        int sliceSize = nodeSize * ((nodeCount + sliceCount - 1) / sliceCount);
+
+        sortByCenter(start, end - 1, 0);
+        for (int sliceStart = start; sliceStart < end; sliceStart += sliceSize) {
+            sortByCenter(sliceStart, Math.min(sliceStart + sliceSize, end) - 1, 1);
+        }
+    }
+
+    private double center(int slot, int axis) {
+        return boxes[slot * 4 + axis] + boxes[slot * 4 + 2 + axis];
+    }
+
+    private void sortByCenter(int low, int high, int axis) {
+        while (low < high) {
+            if (high - low < 16) {
+                for (int i = low + 1; i <= high; i++) {
+                    for (int j = i; j > low && center(j - 1, axis) > center(j, axis); j--) {
+                        swap(j - 1, j);
+                    }
+                }
+                return;
+            }
+
+            double pivot = center((low + high) >>> 1, axis);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (center(i, axis) < pivot) i++;
+                while (center(j, axis) > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+
+            // Recurse into the smaller half to bound stack depth
+            if (j - low < high - i) {
+                sortByCenter(low, j, axis);
+                low = i;
+            } else {
+                sortByCenter(i, high, axis);
+                high = j;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+        for (int k = 0; k < 4; k++) {
+            double value = boxes[a * 4 + k];
+            boxes[a * 4 + k] = boxes[b * 4 + k];
+            boxes[b * 4 + k] = value;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+// ==========================================
+// StructureSpatialIndex.java
+// ==========================================
+package com.dji.sdk.sample.demo.missionoperator.utils;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+
+/**
+ * Nearest-structure lookups over a loaded structure table.
+ *
+ * Structures are projected to local east/north meters around the table's
+ * center (equirectangular, scaled by cos(latitude)) and stored as points in a
+ * {@link PackedRTree}. Over the extent of a power line corridor the projection
+ * error is well below tower spacing. Queries do not allocate, so they can run
+ * on every flight controller state update; like the tree, an index is queried
+ * from one thread at a time.
+ */
+public class StructureSpatialIndex {
+    private static final double METERS_PER_DEGREE = 6371000 * Math.PI / 180;
+
+    private final PackedRTree tree;
+    private final double originLatitude;
+    private final double originLongitude;
+    private final double metersPerDegreeLon;
+
+    // Single-result scratch for nearest()
+    private final int[] nearestResult = new int[1];
+    private final double[] nearestDistance = new double[1];
+
+    private StructureSpatialIndex(PackedRTree tree, double originLatitude, double originLongitude) {
+        this.tree = tree;
+        this.originLatitude = originLatitude;
+        this.originLongitude = originLongitude;
+        this.metersPerDegreeLon = METERS_PER_DEGREE * Math.cos(Math.toRadians(originLatitude));
+    }
+
+    public static StructureSpatialIndex build(StructureTable structures) {
+        int size = structures.size();
+
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            minLat = Math.min(minLat, structures.getLatitude(i));
+            maxLat = Math.max(maxLat, structures.getLatitude(i));
+            minLon = Math.min(minLon, structures.getLongitude(i));
+            maxLon = Math.max(maxLon, structures.getLongitude(i));
+        }
+
+        StructureSpatialIndex index = new StructureSpatialIndex(new PackedRTree(size),
+                size > 0 ? (minLat + maxLat) / 2 : 0,
+                size > 0 ? (minLon + maxLon) / 2 : 0);
+
+        for (int i = 0; i < size; i++) {
+            double x = index.toX(structures.getLongitude(i));
+            double y = index.toY(structures.getLatitude(i));
+            index.tree.add(x, y, x, y);
+        }
+        index.tree.finish();
+        return index;
+    }
+
+    public int size() {
+        return tree.size();
+    }
+
+    /**
+     * @return index of the structure closest to the position, or -1 if the table is empty
+     */
+    public int nearest(double latitude, double longitude) {
+        return tree.nearest(toX(longitude), toY(latitude), Double.POSITIVE_INFINITY,
+                nearestResult, nearestDistance) > 0 ? nearestResult[0] : -1;
+    }
+
+    /**
+     * Distance in meters from the position to the structure found by the last
+     * {@link #nearest(double, double)} call.
+     */
+    public double getLastNearestDistance() {
+        return Math.sqrt(nearestDistance[0]);
+    }
+
+    /**
+     * Writes up to {@code results.length} structure indices, closest first.
+     * {@code distances} may be null; otherwise it receives distances in meters.
+     *
+     * @return number of structures written
+     */
+    public int nearest(double latitude, double longitude, int[] results, double[] distances) {
+        int found = tree.nearest(toX(longitude), toY(latitude), Double.POSITIVE_INFINITY, results, distances);
+        toMeters(distances, found);
+        return found;
+    }
+
+    /**
+     * Structures within {@code radiusMeters}, closest first, up to {@code results.length}.
+     */
+    public int withinRadius(double latitude, double longitude, double radiusMeters,
+                            int[] results, double[] distances) {
+        int found = tree.nearest(toX(longitude), toY(latitude), radiusMeters, results, distances);
+        toMeters(distances, found);
+        return found;
+    }
+
+    /**
+     * Structures inside a latitude/longitude box, in no particular order.
+     */
+    public int withinBounds(double minLatitude, double minLongitude,
+                            double maxLatitude, double maxLongitude, int[] results) {
+        return tree.search(toX(minLongitude), toY(minLatitude), toX(maxLongitude), toY(maxLatitude), results);
+    }
+
+    private double toX(double longitude) {
+        return (longitude - originLongitude) * metersPerDegreeLon;
+    }
+
+    private double toY(double latitude) {
+        return (latitude - originLatitude) * METERS_PER_DEGREE;
+    }
+
+    private static void toMeters(double[] squaredDistances, int count) {
+        if (squaredDistances == null) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            squaredDistances[i] = Math.sqrt(squaredDistances[i]);
+        }
+    }
+}
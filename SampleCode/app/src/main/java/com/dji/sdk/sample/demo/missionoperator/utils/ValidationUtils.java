@@ -4,7 +4,9 @@
 package com.dji.sdk.sample.demo.missionoperator.utils;
 
 import com.dji.sdk.sample.demo.missionoperator.model.InspectionPoint;
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
 import com.dji.sdk.sample.demo.missionoperator.model.RelativePhotoPoint;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
 
 import java.util.List;
 
@@ -64,6 +66,69 @@ public final class ValidationUtils {
         return ValidationResult.success();
     }
 
+    /**
+     * Table-level limits, checked on every import before rows are diffed.
+     */
+    public static ValidationResult validateStructureCount(StructureTable structures) {
+        if (structures == null || structures.isEmpty()) {
+            return ValidationResult.failure("No inspection points provided");
+        }
+
+        if (structures.size() > Constants.MAX_INSPECTION_POINTS) {
+            return ValidationResult.failure("Too many inspection points. Maximum: " + Constants.MAX_INSPECTION_POINTS);
+        }
+
+        return ValidationResult.success();
+    }
+
+    /**
+     * Validates only the given rows: every row on a first import, the added
+     * and modified ones on a re-import.
+     */
+    public static ValidationResult validateStructureRows(StructureTable structures, int[] rows) {
+        for (int row : rows) {
+            ValidationResult result = validateStructureRow(structures, row);
+            if (!result.isSuccess()) {
+                return result;
+            }
+        }
+
+        return ValidationResult.success();
+    }
+
+    private static ValidationResult validateStructureRow(StructureTable structures, int i) {
+        if (!CoordinateUtils.areCoordinatesValid(structures.getLatitude(i), structures.getLongitude(i))) {
+            return ValidationResult.failure("Invalid coordinates for inspection point " + (i + 1));
+        }
+
+        if (structures.getStructureHeight(i) < 0) {
+            return ValidationResult.failure("Invalid structure height for point " + (i + 1));
+        }
+
+        return ValidationResult.success();
+    }
+
+    public static ValidationResult validatePhotoTemplate(PhotoTemplateTable photoTemplate) {
+        if (photoTemplate == null || photoTemplate.isEmpty()) {
+            return ValidationResult.failure("No photo points provided");
+        }
+
+        if (photoTemplate.size() > Constants.MAX_PHOTO_POINTS) {
+            return ValidationResult.failure("Too many photo points. Maximum: " + Constants.MAX_PHOTO_POINTS);
+        }
+
+        for (int i = 0; i < photoTemplate.size(); i++) {
+            float pitch = photoTemplate.getGimbalPitch(i);
+            if (pitch < Constants.MIN_GIMBAL_PITCH || pitch > Constants.MAX_GIMBAL_PITCH) {
+                return ValidationResult.failure("Invalid gimbal pitch for photo point " + (i + 1) +
+                        ": " + pitch + " (must be between " + Constants.MIN_GIMBAL_PITCH +
+                        " and " + Constants.MAX_GIMBAL_PITCH + ")");
+            }
+        }
+
+        return ValidationResult.success();
+    }
+
     public static class ValidationResult {
         private final boolean success;
         private final String errorMessage;
@@ -30,6 +30,22 @@ public class WaypointV2Factory {
         return getAction(ActionUtils.getSerialWaitTrigger(preActionId, delayTime), actionId, actuator);
     }
 
+    /**
+     * Stop at the waypoint, turn the gimbal to {@code gimbalPitch}, take one
+     * photo and fly on. Uses ids {@code actionId} to {@code actionId + 3};
+     * the photo is {@code actionId + 2}.
+     */
+    public static List<WaypointV2Action> addPhotoAction(int pointIndex, int actionId, float gimbalPitch,
+                                                        float gimbalTime, float resumeDelay) {
+        final List<WaypointV2Action> actions = new ArrayList<>();
+        int id = actionId;
+        actions.add(getStopFlyAction(pointIndex, id));
+        actions.add(getSerialAction(id, ++id, ActionUtils.getGimbalAbsoluteActuator(gimbalPitch, gimbalTime, 0)));
+        actions.add(getSerialAction(id, ++id, ActionUtils.getShootPhotoActuator(0)));
+        actions.add(getSerialDelayAction(id, ++id, resumeDelay, ActionUtils.getStayStartActuator()));
+        return actions;
+    }
+
     public static List<WaypointV2Action> addActiveFocusAction(int pointIndex, int actionId, float gimbalPitch) {
         final List<WaypointV2Action> actions = new ArrayList<>();
         int id = actionId;
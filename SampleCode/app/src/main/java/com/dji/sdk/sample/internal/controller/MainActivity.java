@@ -424,15 +424,16 @@ public class MainActivity extends AppCompatActivity implements MissionControlVie
     @Override
     public void openFilePicker(int requestCode) {
         Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
-        intent.setType("text/*");
+        intent.setType("*/*");
         intent.addCategory(Intent.CATEGORY_OPENABLE);
 
         try {
-            // Add filter to show only CSV files
-            String[] mimeTypes = {"text/csv", "text/comma-separated-values", "application/csv"};
+            // Add filter to show only CSV files and binary mission packs
+            String[] mimeTypes = {"text/csv", "text/comma-separated-values", "application/csv",
+                    "application/octet-stream"};
             intent.putExtra(Intent.EXTRA_MIME_TYPES, mimeTypes);
 
-            startActivityForResult(Intent.createChooser(intent, "Select CSV file"), requestCode);
+            startActivityForResult(Intent.createChooser(intent, "Select CSV or mission pack file"), requestCode);
         } catch (Exception e) {
             Toast.makeText(this, "Please install a file manager", Toast.LENGTH_SHORT).show();
         }
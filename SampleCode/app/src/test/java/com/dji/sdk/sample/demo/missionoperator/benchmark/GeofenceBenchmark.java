@@ -0,0 +1,127 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.GeofenceIndex;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link GeofenceIndex} with 10k polygons of 6-14 vertices over a 1 x 1
+ * degree area, against a 10k-waypoint random walk with ~100 m legs: build
+ * time, validatePlan time, and point lookups against a brute-force ray cast.
+ * Run with {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*GeofenceBenchmark'}.
+ */
+public class GeofenceBenchmark {
+    private static final int POLYGONS = 10000;
+    private static final int WAYPOINTS = 10000;
+    private static final int CHECKED_POINTS = 20000;
+    private static final int RUNS = 50;
+
+    // Keeps lookup results live so the timed loops are not optimized away
+    static volatile int sink;
+
+    private final double[][] polygonLatitude = new double[POLYGONS][];
+    private final double[][] polygonLongitude = new double[POLYGONS][];
+
+    @Test
+    public void buildValidateAndLookup() {
+        Random random = new Random(1);
+
+        GeofenceIndex.Builder builder = new GeofenceIndex.Builder();
+        for (int i = 0; i < POLYGONS; i++) {
+            double centerLatitude = 38 + random.nextDouble();
+            double centerLongitude = -10 + random.nextDouble();
+            int vertices = 6 + random.nextInt(9);
+            double radius = (50 + 250 * random.nextDouble()) / 111000;
+            polygonLatitude[i] = new double[vertices];
+            polygonLongitude[i] = new double[vertices];
+            for (int k = 0; k < vertices; k++) {
+                double angle = 2 * Math.PI * k / vertices;
+                double r = radius * (0.6 + 0.4 * random.nextDouble());
+                polygonLatitude[i][k] = centerLatitude + r * Math.sin(angle);
+                polygonLongitude[i][k] = centerLongitude + r * Math.cos(angle) / 0.78;
+                builder.addVertex(i, polygonLatitude[i][k], polygonLongitude[i][k]);
+            }
+        }
+
+        long start = System.nanoTime();
+        GeofenceIndex index = builder.build();
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+        assertEquals(POLYGONS, index.size());
+
+        WaypointPlan plan = new WaypointPlan(WAYPOINTS);
+        double latitude = 38.5;
+        double longitude = -9.5;
+        for (int i = 0; i < WAYPOINTS; i++) {
+            plan.addSafety(latitude, longitude, 30, 0);
+            latitude = Math.max(38, Math.min(39, latitude + (random.nextDouble() - 0.5) * 0.002));
+            longitude = Math.max(-10, Math.min(-9, longitude + (random.nextDouble() - 0.5) * 0.0026));
+        }
+
+        GeofenceIndex.Violations violations = null;
+        for (int run = 0; run < RUNS / 2; run++) {
+            violations = index.validatePlan(plan);
+        }
+        start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++) {
+            violations = index.validatePlan(plan);
+        }
+        double validateMillis = (System.nanoTime() - start) / 1e6 / RUNS;
+
+        for (int i = 0; i < CHECKED_POINTS; i++) {
+            double queryLatitude = 38 + random.nextDouble();
+            double queryLongitude = -10 + random.nextDouble();
+            assertEquals(bruteForceContains(queryLatitude, queryLongitude),
+                    index.findContaining(queryLatitude, queryLongitude) >= 0);
+        }
+
+        int hits = 0;
+        start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++) {
+            for (int i = 0; i < plan.size(); i++) {
+                if (index.findContaining(plan.getLatitude(i), plan.getLongitude(i)) >= 0) {
+                    hits++;
+                }
+            }
+        }
+        double lookupNanos = (System.nanoTime() - start) / (double) (RUNS * plan.size());
+
+        int bruteHits = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < plan.size(); i++) {
+            if (bruteForceContains(plan.getLatitude(i), plan.getLongitude(i))) {
+                bruteHits++;
+            }
+        }
+        double bruteNanos = (System.nanoTime() - start) / (double) plan.size();
+        assertEquals(bruteHits * RUNS, hits);
+        sink = hits;
+
+        System.out.println(String.format(Locale.US,
+                "build %.1f ms, validatePlan %.2f ms (%s), lookup %.0f ns, brute force %.0f ns",
+                buildMillis, validateMillis, violations, lookupNanos, bruteNanos));
+    }
+
+    private boolean bruteForceContains(double latitude, double longitude) {
+        for (int p = 0; p < POLYGONS; p++) {
+            double[] y = polygonLatitude[p];
+            double[] x = polygonLongitude[p];
+            boolean inside = false;
+            for (int i = 0, j = x.length - 1; i < x.length; j = i++) {
+                if ((y[i] > latitude) != (y[j] > latitude) &&
+                        longitude < (x[j] - x[i]) * (latitude - y[i]) / (y[j] - y[i]) + x[i]) {
+                    inside = !inside;
+                }
+            }
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+/**
+ * Runs the JMH benchmarks of one class from a JUnit test. The benchmarks run
+ * in the test JVM (no fork), since the Gradle test worker's classpath is not
+ * something a forked JVM can reproduce.
+ */
+final class JmhRunner {
+    private JmhRunner() {}
+
+    static Collection<RunResult> run(Class<?> benchmarkClass) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(benchmarkClass.getName() + "\\.")
+                .forks(0)
+                .shouldFailOnError(true)
+                .build();
+        return new Runner(options).run();
+    }
+}
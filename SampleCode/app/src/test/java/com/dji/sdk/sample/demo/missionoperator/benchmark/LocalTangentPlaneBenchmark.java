@@ -0,0 +1,105 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.model.GPSCoordinate;
+import com.dji.sdk.sample.demo.missionoperator.model.InspectionPoint;
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.RelativePhotoPoint;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Photo position projection for 10k structures x 16 template positions:
+ * the batch {@link LocalTangentPlane} path InspectionPlanBuilder uses against
+ * the per-point path it replaced, which built an InspectionPoint and a
+ * GPSCoordinate per photo with a fixed degrees-per-meter factor. Scores are
+ * per photo position. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*LocalTangentPlaneBenchmark'}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LocalTangentPlaneBenchmark {
+    private static final int STRUCTURES = 10000;
+    private static final int PHOTOS = 16;
+    private static final double ONE_METER_OFFSET = 0.00000899322;
+
+    private double[] structureLatitude;
+    private double[] structureLongitude;
+    private float[] structureHeight;
+    private PhotoTemplateTable template;
+    private List<RelativePhotoPoint> templatePoints;
+
+    private final LocalTangentPlane plane = new LocalTangentPlane();
+    private final double[] latitude = new double[PHOTOS];
+    private final double[] longitude = new double[PHOTOS];
+    private final float[] altitude = new float[PHOTOS];
+
+    @Setup
+    public void setUp() {
+        structureLatitude = new double[STRUCTURES];
+        structureLongitude = new double[STRUCTURES];
+        structureHeight = new float[STRUCTURES];
+        for (int i = 0; i < STRUCTURES; i++) {
+            structureLatitude[i] = 38 + i * 1e-4;
+            structureLongitude[i] = -9 + i * 1e-4;
+            structureHeight[i] = 30;
+        }
+
+        template = new PhotoTemplateTable();
+        for (int j = 0; j < PHOTOS; j++) {
+            template.add((float) (10 * Math.cos(j)), (float) (10 * Math.sin(j)), -j * 0.5f, -30);
+        }
+        templatePoints = template.toList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STRUCTURES * PHOTOS)
+    public void perPoint(Blackhole blackhole) {
+        for (int i = 0; i < STRUCTURES; i++) {
+            InspectionPoint structure = new InspectionPoint(structureLatitude[i], structureLongitude[i],
+                    0, structureHeight[i]);
+            for (int j = 0; j < PHOTOS; j++) {
+                RelativePhotoPoint photo = templatePoints.get(j);
+                blackhole.consume(new GPSCoordinate(
+                        structure.getLatitude() + photo.getOffsetY() * ONE_METER_OFFSET,
+                        structure.getLongitude() + photo.getOffsetX() * ONE_METER_OFFSET,
+                        structure.getGroundAltitude() + structure.getStructureHeight() + photo.getOffsetZ()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STRUCTURES * PHOTOS)
+    public void batch(Blackhole blackhole) {
+        for (int i = 0; i < STRUCTURES; i++) {
+            plane.setOrigin(structureLatitude[i], structureLongitude[i], structureHeight[i]);
+            template.project(plane, latitude, longitude, altitude);
+            blackhole.consume(latitude);
+            blackhole.consume(longitude);
+            blackhole.consume(altitude);
+        }
+    }
+
+    @Test
+    public void run() throws RunnerException {
+        JmhRunner.run(LocalTangentPlaneBenchmark.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.storage.MissionJournal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time to replay a journal of 100k events over a 1000 structure plan, the
+ * startup cost of checking for an interrupted flight. The events are written
+ * through the journal's own writer thread. Target: under 100 ms. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*MissionJournalReplayBenchmark'}.
+ */
+public class MissionJournalReplayBenchmark {
+    private static final int STRUCTURES = 1000;
+    private static final int POSITIONS = 12;
+    private static final int EVENTS = 100000;
+    private static final int RUNS = 10;
+    private static final double TARGET_MILLIS = 100;
+
+    static volatile long sink;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayHundredThousandEvents() throws Exception {
+        WaypointPlan plan = plan();
+        File file = new File(folder.getRoot(), "mission.plmj");
+        MissionJournal journal = new MissionJournal(file).setSyncBatch(1024);
+        journal.startPlan(plan);
+
+        long writeStart = System.nanoTime();
+        int events = 0;
+        for (int row = 0; events < EVENTS; row = (row + 1) % plan.size()) {
+            journal.recordWaypoint(row);
+            events++;
+            if (plan.isPhoto(row) && events < EVENTS) {
+                journal.recordPhotoTaken(row);
+                events++;
+            }
+        }
+        journal.close();
+        assertTrue(journal.awaitClosed(1, TimeUnit.MINUTES));
+        long writeNanos = System.nanoTime() - writeStart;
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            MissionJournal.Replay replay = MissionJournal.replay(file);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+
+            assertEquals(EVENTS, replay.getEventCount());
+            assertFalse(replay.isTorn());
+            sink += replay.getDonePhotoCount();
+        }
+
+        System.out.println(String.format(Locale.US, "%d events, %.1f MB: written in %.0f ms, " +
+                        "replay best %.1f ms, mean %.1f ms (target %.0f ms)",
+                EVENTS, file.length() / 1e6, writeNanos / 1e6, best / 1e6, total / 1e6 / RUNS, TARGET_MILLIS));
+        assertTrue("Replay took " + best / 1e6 + " ms", best / 1e6 < TARGET_MILLIS);
+    }
+
+    private static WaypointPlan plan() {
+        WaypointPlan plan = new WaypointPlan();
+        plan.addSafety(38.5, -9.2, 40, -1);
+        for (int structure = 0; structure < STRUCTURES; structure++) {
+            double latitude = 38.5 + structure * 0.001;
+            plan.addSafety(latitude, -9.2, 40, structure);
+            plan.addApproach(latitude, -9.2, 45, structure);
+            for (int photo = 0; photo < POSITIONS; photo++) {
+                double angle = 2 * Math.PI * photo / POSITIONS;
+                plan.addPhoto(latitude + 1e-4 * Math.cos(angle), -9.2 + 1e-4 * Math.sin(angle), 35,
+                        (float) Math.toDegrees(angle), -30, structure, photo);
+            }
+        }
+        return plan;
+    }
+}
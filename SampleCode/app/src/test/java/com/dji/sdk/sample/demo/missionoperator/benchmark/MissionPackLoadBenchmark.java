@@ -0,0 +1,128 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.service.CsvIngestEngine;
+import com.dji.sdk.sample.demo.missionoperator.storage.MissionPackFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Load time of the same structures and photo template from a mission pack
+ * and from the two CSV files, at 10k, 100k and 1M structures. The CSV side
+ * reads through CsvIngestEngine as the controller's sequential import does.
+ * Run with {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*MissionPackLoadBenchmark'}.
+ */
+public class MissionPackLoadBenchmark {
+    private static final int[] SIZES = {10000, 100000, 1000000};
+    private static final int RUNS = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void packAgainstCsv() throws IOException {
+        System.out.println("structures  CSV (ms)  pack (ms)  speedup  CSV size  pack size");
+        for (int size : SIZES) {
+            StructureTable structures = randomStructures(size);
+            PhotoTemplateTable template = template();
+
+            File structureCsv = folder.newFile("structures-" + size + ".csv");
+            File templateCsv = folder.newFile("photos-" + size + ".csv");
+            File pack = folder.newFile("mission-" + size + MissionPackFile.EXTENSION);
+            writeCsv(structureCsv, templateCsv, structures, template);
+            MissionPackFile.write(pack, structures, template);
+
+            long csvBest = Long.MAX_VALUE;
+            long packBest = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                StructureTable fromCsv = readStructureCsv(structureCsv);
+                PhotoTemplateTable templateFromCsv = readTemplateCsv(templateCsv);
+                csvBest = Math.min(csvBest, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                MissionPackFile.Contents fromPack = MissionPackFile.read(pack);
+                packBest = Math.min(packBest, System.nanoTime() - start);
+
+                assertEquals(size, fromCsv.size());
+                assertEquals(size, fromPack.getStructures().size());
+                assertEquals(templateFromCsv.contentHash(), fromPack.getPhotoTemplate().contentHash());
+            }
+
+            System.out.println(String.format(Locale.US, "%10d  %8.1f  %9.2f  %6.0fx  %6.1f MB  %7.1f MB",
+                    size, csvBest / 1e6, packBest / 1e6, csvBest / (double) packBest,
+                    (structureCsv.length() + templateCsv.length()) / 1e6, pack.length() / 1e6));
+        }
+    }
+
+    private static StructureTable readStructureCsv(File file) throws IOException {
+        StructureTable table = new StructureTable();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file))) {
+            CsvIngestEngine.forStructures().parse(reader, row ->
+                    table.add(row.getDouble(0), row.getDouble(1), row.getFloat(2), row.getFloat(3)));
+        }
+        return table;
+    }
+
+    private static PhotoTemplateTable readTemplateCsv(File file) throws IOException {
+        PhotoTemplateTable table = new PhotoTemplateTable();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file))) {
+            CsvIngestEngine.forPhotoPositions().parse(reader, row ->
+                    table.add(row.getFloat(0), row.getFloat(1), row.getFloat(2), row.getFloat(3)));
+        }
+        return table;
+    }
+
+    private static void writeCsv(File structureFile, File templateFile,
+                                 StructureTable structures, PhotoTemplateTable template) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(structureFile))) {
+            writer.write("lat,lon,elevation_diff,height\n");
+            for (int i = 0; i < structures.size(); i++) {
+                writer.write(String.format(Locale.US, "%.7f,%.7f,%s,%s\n",
+                        structures.getLatitude(i), structures.getLongitude(i),
+                        structures.getGroundAltitude(i), structures.getStructureHeight(i)));
+            }
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(templateFile))) {
+            writer.write("offset_x,offset_y,offset_z,gimbal_pitch\n");
+            for (int i = 0; i < template.size(); i++) {
+                writer.write(template.getOffsetX(i) + "," + template.getOffsetY(i) + "," +
+                        template.getOffsetZ(i) + "," + template.getGimbalPitch(i) + "\n");
+            }
+        }
+    }
+
+    private static StructureTable randomStructures(int count) {
+        Random random = new Random(2);
+        StructureTable structures = new StructureTable(count);
+        for (int i = 0; i < count; i++) {
+            structures.add(38 + random.nextDouble(), -9 + random.nextDouble(),
+                    Math.round(random.nextFloat() * 100) / 10f, 20 + Math.round(random.nextFloat() * 100) / 10f);
+        }
+        return structures;
+    }
+
+    private static PhotoTemplateTable template() {
+        PhotoTemplateTable template = new PhotoTemplateTable();
+        for (int i = 0; i < 12; i++) {
+            template.add(i, -i, 2 * i, -45);
+        }
+        return template;
+    }
+}
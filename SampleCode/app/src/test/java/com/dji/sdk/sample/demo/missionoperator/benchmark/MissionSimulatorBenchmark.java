@@ -0,0 +1,79 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.controller.MissionSimulator;
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.service.InspectionPlanBuilder;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link MissionSimulator#simulateSeconds} call at the default
+ * 0.1 s step, for a 5-tower sortie (54 waypoints) and a 30-tower one
+ * (329 waypoints), with 8 photo positions per tower. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*MissionSimulatorBenchmark'}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MissionSimulatorBenchmark {
+
+    @Param({"5", "30"})
+    public int towers;
+
+    private WaypointPlan plan;
+    private MissionSimulator simulator;
+    private MissionSimulator cornerSimulator;
+
+    @Setup
+    public void setUp() {
+        plan = corridorPlan(towers);
+        simulator = new MissionSimulator.Builder().build();
+        cornerSimulator = new MissionSimulator.Builder().setUseCorners(true).build();
+    }
+
+    @Benchmark
+    public double stopAtWaypoints() {
+        return simulator.simulateSeconds(plan, 0, plan.size());
+    }
+
+    @Benchmark
+    public double roundCorners() {
+        return cornerSimulator.simulateSeconds(plan, 0, plan.size());
+    }
+
+    @Test
+    public void run() throws RunnerException {
+        JmhRunner.run(MissionSimulatorBenchmark.class);
+    }
+
+    /** Towers 200 m apart in a zigzag, home just south of the first. */
+    private static WaypointPlan corridorPlan(int towers) {
+        StructureTable structures = new StructureTable();
+        for (int i = 0; i < towers; i++) {
+            structures.add(38.70 + i * 0.0018, -9.10 + (i % 3) * 0.0005, 0, 15);
+        }
+        PhotoTemplateTable template = new PhotoTemplateTable();
+        for (int j = 0; j < 8; j++) {
+            template.add((float) (6 * Math.cos(j * Math.PI / 4)), (float) (6 * Math.sin(j * Math.PI / 4)),
+                    -3f, -20f - 5 * j);
+        }
+        return new InspectionPlanBuilder(structures, template).setHome(38.6995, -9.1).build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.service.CsvIngestEngine;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Structure CSV throughput of {@link CsvIngestEngine#parseParallel} on a
+ * memory mapped 1M row file, as CsvFileImporter runs it, with 1, 2, 4 and 8
+ * workers. Every worker count must produce exactly the single-worker table.
+ * Scaling is bounded by the cores of the machine running it. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*ParallelCsvImportBenchmark'}.
+ */
+public class ParallelCsvImportBenchmark {
+    private static final int ROWS = 1000000;
+    private static final int[] WORKERS = {1, 2, 4, 8};
+    private static final int RUNS = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void workerScaling() throws IOException {
+        File file = folder.newFile("structures.csv");
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(CsvIngestBenchmark.structureCsv(ROWS).getBytes(StandardCharsets.UTF_8));
+        }
+
+        ByteBuffer mapped;
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel()) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        System.out.println("available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("workers  rows/s      speedup");
+        StructureTable reference = null;
+        long singleBest = 0;
+        for (int workers : WORKERS) {
+            long best = Long.MAX_VALUE;
+            StructureTable result = null;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                result = parse(mapped, workers);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            assertEquals(ROWS, result.size());
+            if (reference == null) {
+                reference = result;
+                singleBest = best;
+            } else {
+                assertSameRows(reference, result);
+            }
+
+            System.out.println(String.format(Locale.US, "%7d  %10.0f  %6.2fx",
+                    workers, ROWS * 1e9 / best, singleBest / (double) best));
+        }
+    }
+
+    private static StructureTable parse(ByteBuffer data, int workers) throws IOException {
+        List<StructureChunk> chunks = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = CsvIngestEngine.forStructures()
+                .parseParallel(data, workers, StructureChunk::new, chunks, null, null);
+
+        StructureTable table = new StructureTable(report.getRowsAccepted());
+        for (StructureChunk chunk : chunks) {
+            table.addAll(chunk.table);
+        }
+        return table;
+    }
+
+    private static void assertSameRows(StructureTable expected, StructureTable actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getLatitude(i), actual.getLatitude(i), 0);
+            assertEquals(expected.getLongitude(i), actual.getLongitude(i), 0);
+            assertEquals(expected.getGroundAltitude(i), actual.getGroundAltitude(i), 0);
+            assertEquals(expected.getStructureHeight(i), actual.getStructureHeight(i), 0);
+        }
+    }
+
+    private static class StructureChunk implements CsvIngestEngine.RowHandler {
+        final StructureTable table = new StructureTable();
+
+        @Override
+        public void onRow(CsvIngestEngine.Row row) {
+            table.add(row.getDouble(0), row.getDouble(1), row.getFloat(2), row.getFloat(3));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.controller.PlanEvaluationService;
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.utils.Constants;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Wall time of scoring the 24-variant grid with {@link PlanEvaluationService}
+ * at 1, 2, 4 and 8 workers, for 100 and 200 structures with 8 photo
+ * positions each. The speedup is bounded by the cores the JVM sees, which
+ * is printed first. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*PlanEvaluationBenchmark'}.
+ */
+public class PlanEvaluationBenchmark {
+    private static final int[] SIZES = {100, 200};
+    private static final int[] WORKERS = {1, 2, 4, 8};
+    private static final int RUNS = 6;
+    private static final int[] PHOTO_ORDER = {0, 1, 2, 3, 7, 6, 5, 4};
+    private static final double HOME_LATITUDE = 38.5;
+    private static final double HOME_LONGITUDE = -9.499;
+
+    @Test
+    public void scaleWithWorkers() throws InterruptedException {
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+        List<PlanEvaluationService.Variant> variants = variantGrid();
+        assertEquals(24, variants.size());
+
+        // Warm up the planners before the first timed configuration
+        PlanEvaluationService warmUp = new PlanEvaluationService(1).setEnergy(89.2, 25, 180, 2);
+        for (int run = 0; run < RUNS; run++) {
+            evaluate(warmUp, corridor(SIZES[0]), template(), variants);
+        }
+        warmUp.shutdown();
+
+        for (int size : SIZES) {
+            StructureTable structures = corridor(size);
+            PhotoTemplateTable template = template();
+
+            for (int workers : WORKERS) {
+                PlanEvaluationService service = new PlanEvaluationService(workers).setEnergy(89.2, 25, 180, 2);
+                long best = Long.MAX_VALUE;
+                PlanEvaluationService.Evaluation evaluation = null;
+                try {
+                    for (int run = 0; run < RUNS; run++) {
+                        long start = System.nanoTime();
+                        evaluation = evaluate(service, structures, template, variants);
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                } finally {
+                    service.shutdown();
+                }
+
+                assertEquals(variants.size(), evaluation.getRanking().size());
+                assertTrue(evaluation.getBest().isFeasible());
+                System.out.println(String.format(Locale.US, "%d structures, %d workers: %.0f ms (best: %s)",
+                        size, workers, best / 1e6, evaluation.getBest()));
+            }
+        }
+    }
+
+    private static PlanEvaluationService.Evaluation evaluate(PlanEvaluationService service,
+                                                             StructureTable structures,
+                                                             PhotoTemplateTable template,
+                                                             List<PlanEvaluationService.Variant> variants)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<PlanEvaluationService.Evaluation> result = new AtomicReference<>();
+        service.evaluate(structures, template, null, HOME_LATITUDE, HOME_LONGITUDE, variants, evaluation -> {
+            result.set(evaluation);
+            done.countDown();
+        });
+        assertTrue("Evaluation timed out", done.await(5, TimeUnit.MINUTES));
+        return result.get();
+    }
+
+    /** The grid PlanEvaluationService.grid builds for the default configuration. */
+    private static List<PlanEvaluationService.Variant> variantGrid() {
+        List<PlanEvaluationService.Variant> variants = new ArrayList<>();
+        for (float factor : new float[]{1.0f, 0.75f, 1.25f}) {
+            for (float safeDistance : new float[]{Constants.SAFE_DISTANCE, Constants.SAFE_DISTANCE + 1.5f}) {
+                for (int[] photoOrder : new int[][]{PHOTO_ORDER, null}) {
+                    for (boolean roundCorners : new boolean[]{true, false}) {
+                        variants.add(new PlanEvaluationService.Variant(Constants.DEFAULT_SPEED * factor,
+                                safeDistance, photoOrder, roundCorners));
+                    }
+                }
+            }
+        }
+        return variants;
+    }
+
+    /** A slightly wavy line, 30 m spacing up to 150 structures and 15 m beyond. */
+    private static StructureTable corridor(int size) {
+        double spacing = size > 150 ? 15 : 30;
+        StructureTable structures = new StructureTable(size);
+        for (int i = 0; i < size; i++) {
+            structures.add(38.5 + (i - size / 2) * spacing / 111000.0, -9.5 + (i % 7) * 0.0002,
+                    (float) (5 * Math.sin(i * 0.3)), 25 + (i % 3) * 5);
+        }
+        return structures;
+    }
+
+    private static PhotoTemplateTable template() {
+        PhotoTemplateTable template = new PhotoTemplateTable();
+        for (int j = 0; j < 8; j++) {
+            template.add((float) (6 * Math.cos(j * Math.PI / 4)), (float) (6 * Math.sin(j * Math.PI / 4)),
+                    -3f, -20f - 5 * j);
+        }
+        return template;
+    }
+}
@@ -0,0 +1,83 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.controller.RouteOptimizer;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time and distance saved by {@link RouteOptimizer} at 100, 1k and 10k
+ * structures, for ten merged line files in shuffled order and direction and
+ * for random scatter. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*RouteOptimizerBenchmark'}.
+ */
+public class RouteOptimizerBenchmark {
+    private static final int[] SIZES = {100, 1000, 10000};
+    private static final int LINES = 10;
+    private static final long TIME_BUDGET_MILLIS = 3000;
+    private static final double HOME_LATITUDE = 38.15;
+    private static final double HOME_LONGITUDE = -8.85;
+
+    @Test
+    public void optimizeMergedLines() {
+        Random random = new Random(3);
+        System.out.println("merged lines: structures  time (ms)  saved");
+        for (int size : SIZES) {
+            report(mergedLines(random, size));
+        }
+    }
+
+    @Test
+    public void optimizeRandomScatter() {
+        Random random = new Random(3);
+        System.out.println("random scatter: structures  time (ms)  saved");
+        for (int size : SIZES) {
+            StructureTable structures = new StructureTable(size);
+            for (int i = 0; i < size; i++) {
+                structures.add(38 + random.nextDouble() * 0.3, -9 + random.nextDouble() * 0.3, 0, 0);
+            }
+            report(structures);
+        }
+    }
+
+    private static void report(StructureTable structures) {
+        RouteOptimizer.Result result = new RouteOptimizer()
+                .setTimeBudgetMillis(TIME_BUDGET_MILLIS)
+                .optimize(structures, HOME_LATITUDE, HOME_LONGITUDE);
+
+        int[] order = result.getOrder();
+        assertEquals(structures.size(), order.length);
+        boolean[] seen = new boolean[order.length];
+        for (int index : order) {
+            assertFalse("Structure visited twice: " + index, seen[index]);
+            seen[index] = true;
+        }
+        assertTrue(result.getOptimizedDistance() <= result.getOriginalDistance());
+
+        System.out.println(String.format(Locale.US, "%10d  %9.0f  %4.0f%%",
+                structures.size(), result.getElapsedNanos() / 1e6, result.getSavedPercent()));
+    }
+
+    /** Ten straight lines of towers 330 m apart, each at a random place and heading. */
+    private static StructureTable mergedLines(Random random, int size) {
+        StructureTable structures = new StructureTable(size);
+        int perLine = size / LINES;
+        for (int line = 0; line < LINES; line++) {
+            double latitude = 38 + random.nextDouble() * 0.5;
+            double longitude = -9 + random.nextDouble() * 0.5;
+            double heading = random.nextDouble() * 2 * Math.PI;
+            for (int i = 0; i < perLine; i++) {
+                structures.add(latitude + Math.sin(heading) * i * 0.003,
+                        longitude + Math.cos(heading) * i * 0.003, 0, 20);
+            }
+        }
+        return structures;
+    }
+}
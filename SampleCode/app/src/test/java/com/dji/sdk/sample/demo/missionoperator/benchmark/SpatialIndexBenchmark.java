@@ -0,0 +1,98 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.utils.StructureSpatialIndex;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Build time and query latency of {@link StructureSpatialIndex} at 1k, 100k
+ * and 1M random structures over a 2 x 2 degree area. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*SpatialIndexBenchmark'}.
+ */
+public class SpatialIndexBenchmark {
+    private static final int[] SIZES = {1000, 100000, 1000000};
+    private static final int BUILD_RUNS = 5;
+    private static final int CHECKED_QUERIES = 200;
+    private static final int TIMED_QUERIES = 200000;
+
+    // Keeps query results live so the timed loops are not optimized away
+    static volatile long sink;
+
+    @Test
+    public void buildAndQuery() {
+        Random random = new Random(1);
+        System.out.println("structures  build (ms)  nearest (us)  nearest-5 (us)  radius 500 m (us)");
+
+        for (int size : SIZES) {
+            StructureTable structures = new StructureTable(size);
+            for (int i = 0; i < size; i++) {
+                structures.add(38 + random.nextDouble() * 2, -9 + random.nextDouble() * 2, 0, 0);
+            }
+
+            StructureSpatialIndex index = null;
+            long bestBuild = Long.MAX_VALUE;
+            for (int run = 0; run < BUILD_RUNS; run++) {
+                long start = System.nanoTime();
+                index = StructureSpatialIndex.build(structures);
+                bestBuild = Math.min(bestBuild, System.nanoTime() - start);
+            }
+
+            for (int q = 0; q < CHECKED_QUERIES; q++) {
+                double latitude = 38 + random.nextDouble() * 2;
+                double longitude = -9 + random.nextDouble() * 2;
+                assertEquals(bruteForceNearest(structures, latitude, longitude), index.nearest(latitude, longitude));
+            }
+
+            long checksum = 0;
+            long start = System.nanoTime();
+            for (int q = 0; q < TIMED_QUERIES; q++) {
+                checksum += index.nearest(38 + random.nextDouble() * 2, -9 + random.nextDouble() * 2);
+            }
+            double nearestMicros = (System.nanoTime() - start) / 1e3 / TIMED_QUERIES;
+
+            int[] results = new int[5];
+            double[] distances = new double[5];
+            start = System.nanoTime();
+            for (int q = 0; q < TIMED_QUERIES; q++) {
+                checksum += index.nearest(38 + random.nextDouble() * 2, -9 + random.nextDouble() * 2,
+                        results, distances);
+            }
+            double nearestFiveMicros = (System.nanoTime() - start) / 1e3 / TIMED_QUERIES;
+
+            int[] inRadius = new int[256];
+            start = System.nanoTime();
+            for (int q = 0; q < TIMED_QUERIES; q++) {
+                checksum += index.withinRadius(38 + random.nextDouble() * 2, -9 + random.nextDouble() * 2,
+                        500, inRadius, null);
+            }
+            double radiusMicros = (System.nanoTime() - start) / 1e3 / TIMED_QUERIES;
+
+            System.out.println(String.format(Locale.US, "%10d  %10.1f  %12.2f  %14.2f  %17.2f",
+                    size, bestBuild / 1e6, nearestMicros, nearestFiveMicros, radiusMicros));
+            sink = checksum;
+        }
+    }
+
+    /** Nearest by equirectangular distance about the area's centre, as the index projects. */
+    private static int bruteForceNearest(StructureTable structures, double latitude, double longitude) {
+        double cosLatitude = Math.cos(Math.toRadians(39));
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < structures.size(); i++) {
+            double dx = (structures.getLongitude(i) - longitude) * cosLatitude;
+            double dy = structures.getLatitude(i) - latitude;
+            double distance = dx * dx + dy * dy;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
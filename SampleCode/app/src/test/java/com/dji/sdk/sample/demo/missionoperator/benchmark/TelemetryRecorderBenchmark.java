@@ -0,0 +1,75 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.service.TelemetryRecorder;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Time and heap allocation of {@link TelemetryRecorder#record} per sample,
+ * and of reading the newest 600 samples (a minute at 10 Hz). Allocation is
+ * read from the HotSpot per-thread counter, so the test is skipped on VMs
+ * without it. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*TelemetryRecorderBenchmark'}.
+ */
+public class TelemetryRecorderBenchmark {
+    private static final int WARM_UP_SAMPLES = 2000000;
+    private static final int SAMPLES = 5000000;
+    private static final int READS = 20000;
+
+    @Test
+    public void recordAndReadWithoutAllocating() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+
+        TelemetryRecorder recorder = new TelemetryRecorder();
+        TelemetryRecorder.Snapshot snapshot = new TelemetryRecorder.Snapshot(600);
+        for (int warmUp = 0; warmUp < 3; warmUp++) {
+            for (long sample = 0; sample < WARM_UP_SAMPLES; sample++) {
+                record(recorder, sample);
+            }
+            recorder.readLatest(snapshot);
+        }
+
+        recorder = new TelemetryRecorder();
+        long bytesBefore = allocation.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (long sample = 0; sample < SAMPLES; sample++) {
+            record(recorder, sample);
+        }
+        long recordNanos = System.nanoTime() - start;
+        long recordBytes = allocation.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        bytesBefore = allocation.getThreadAllocatedBytes(thread);
+        start = System.nanoTime();
+        long copied = 0;
+        for (int read = 0; read < READS; read++) {
+            copied += recorder.readLatest(snapshot);
+        }
+        long readNanos = System.nanoTime() - start;
+        long readBytes = allocation.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        System.out.println(String.format(Locale.US,
+                "record: %.1f ns/sample, %d bytes; readLatest(600): %.2f us, %d bytes over %d reads",
+                recordNanos / (double) SAMPLES, recordBytes, readNanos / 1e3 / READS, readBytes, READS));
+
+        assertEquals(600L * READS, copied);
+        // Allow for the counter's own bookkeeping, far below one byte per sample
+        assertEquals(0, recordBytes / (double) SAMPLES, 0.01);
+        assertEquals(0, readBytes / (double) READS, 0.5);
+    }
+
+    private static void record(TelemetryRecorder recorder, long sample) {
+        float value = sample;
+        recorder.record(sample, sample * 1e-6, -sample * 1e-6, value, value, value, value,
+                value, value, value, (int) (sample & 31), (int) (sample % 6));
+    }
+}
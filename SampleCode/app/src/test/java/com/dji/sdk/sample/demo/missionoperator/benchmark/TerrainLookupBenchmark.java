@@ -0,0 +1,130 @@
+package com.dji.sdk.sample.demo.missionoperator.benchmark;
+
+import com.dji.sdk.sample.demo.missionoperator.service.TerrainService;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Elevation lookups per second of {@link TerrainService#getElevation} and
+ * {@link TerrainService#getElevations} on four synthetic SRTM3 tiles, for
+ * points along a leg (same tile, as sampleLeg queries) and points scattered
+ * over all four tiles. Target: over 1M lookups/s. Run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*TerrainLookupBenchmark'}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TerrainLookupBenchmark {
+    private static final int TILE_SIZE = 1201;
+    private static final int POINTS = 4096;
+    private static final double TARGET_LOOKUPS_PER_SECOND = 1e6;
+
+    @Param({"leg", "scattered"})
+    public String pattern;
+
+    private File directory;
+    private TerrainService terrain;
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private final double[] elevations = new double[POINTS];
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("terrain").toFile();
+        Random random = new Random(7);
+        for (int lat = 38; lat <= 39; lat++) {
+            for (int lon = -10; lon <= -9; lon++) {
+                writeTile(new File(directory, String.format(Locale.US, "N%02dW%03d.hgt", lat, -lon)), random);
+            }
+        }
+        terrain = new TerrainService(directory);
+
+        for (int i = 0; i < POINTS; i++) {
+            if (pattern.equals("leg")) {
+                double t = (double) i / (POINTS - 1);
+                latitudes[i] = 38.40 + 0.05 * t;
+                longitudes[i] = -9.60 + 0.08 * t;
+            } else {
+                latitudes[i] = 38 + 2 * random.nextDouble();
+                longitudes[i] = -10 + 2 * random.nextDouble();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double getElevation() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; i++) {
+            sum += terrain.getElevation(latitudes[i], longitudes[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int getElevations() {
+        return terrain.getElevations(latitudes, longitudes, POINTS, elevations);
+    }
+
+    @Test
+    public void run() throws RunnerException {
+        for (RunResult result : JmhRunner.run(TerrainLookupBenchmark.class)) {
+            double score = result.getPrimaryResult().getScore();
+            assertTrue(result.getParams().getBenchmark() + " " + result.getParams().getParam("pattern") +
+                    ": " + Math.round(score) + " lookups/s", score > TARGET_LOOKUPS_PER_SECOND);
+        }
+    }
+
+    /** Rolling terrain with a few voids, as in real tiles. */
+    private static void writeTile(File file, Random random) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int row = 0; row < TILE_SIZE; row++) {
+                for (int col = 0; col < TILE_SIZE; col++) {
+                    boolean isVoid = random.nextInt(1000) == 0;
+                    out.writeShort(isVoid ? -32768 : (int) (300 + 200 * Math.sin(row * 0.01) * Math.cos(col * 0.013)));
+                }
+            }
+        }
+    }
+}
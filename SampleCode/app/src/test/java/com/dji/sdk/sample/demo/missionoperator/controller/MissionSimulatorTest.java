@@ -0,0 +1,65 @@
+package com.dji.sdk.sample.demo.missionoperator.controller;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.service.InspectionPlanBuilder;
+import com.dji.sdk.sample.demo.missionoperator.service.MissionTimeEstimator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MissionSimulatorTest {
+
+    @Test
+    public void kinematicsMatchAnalyticEstimate() {
+        WaypointPlan plan = corridorPlan(5);
+        MissionSimulator simulator = new MissionSimulator.Builder()
+                .setTimeStep(0.01)
+                .setPhotoDwellSeconds(0)
+                .setYawRate(1e6)
+                .setGimbalRate(1e6)
+                .build();
+        MissionTimeEstimator estimator = new MissionTimeEstimator().setPhotoActionSeconds(0);
+
+        double simulated = simulator.simulateSeconds(plan, 0, plan.size());
+        double analytic = estimator.estimateSeconds(plan, 0, plan.size(), false);
+
+        assertEquals(analytic, simulated, analytic * 0.005);
+    }
+
+    @Test
+    public void defaultStepIsCloseToFineStep() {
+        WaypointPlan plan = corridorPlan(30);
+        double coarse = new MissionSimulator.Builder().build().simulateSeconds(plan, 0, plan.size());
+        double fine = new MissionSimulator.Builder().setTimeStep(0.01).build()
+                .simulateSeconds(plan, 0, plan.size());
+
+        assertEquals(fine, coarse, fine * 0.003);
+    }
+
+    @Test
+    public void roundedCornersAreNotSlower() {
+        WaypointPlan plan = corridorPlan(5);
+        MissionSimulator.Result stops = new MissionSimulator.Builder().build().simulate(plan);
+        MissionSimulator.Result corners = new MissionSimulator.Builder().setUseCorners(true).build().simulate(plan);
+
+        assertTrue(corners.getSeconds() <= stops.getSeconds());
+        assertEquals(plan.size() - 1, stops.getLegCount());
+    }
+
+    private static WaypointPlan corridorPlan(int towers) {
+        StructureTable structures = new StructureTable();
+        for (int i = 0; i < towers; i++) {
+            structures.add(38.70 + i * 0.0018, -9.10 + (i % 3) * 0.0005, 0, 15);
+        }
+        PhotoTemplateTable template = new PhotoTemplateTable();
+        for (int j = 0; j < 8; j++) {
+            template.add((float) (6 * Math.cos(j * Math.PI / 4)), (float) (6 * Math.sin(j * Math.PI / 4)),
+                    -3f, -20f - 5 * j);
+        }
+        return new InspectionPlanBuilder(structures, template).setHome(38.6995, -9.1).build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.dji.sdk.sample.demo.missionoperator.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StructureDiffTest {
+
+    @Test
+    public void identicalImportHasNoChanges() {
+        StructureTable previous = corridor(0, 1, 2, 3);
+        StructureTable current = corridor(0, 1, 2, 3);
+
+        StructureDiff diff = diff(previous, current);
+
+        assertFalse(diff.hasChanges());
+        assertFalse(diff.isReordered());
+        assertEquals(0, diff.getChangedRows().length);
+    }
+
+    @Test
+    public void reorderedImportIsAChange() {
+        StructureTable previous = corridor(0, 1, 2, 3);
+        StructureTable current = corridor(2, 0, 1, 3);
+
+        StructureDiff diff = diff(previous, current);
+
+        assertTrue(diff.hasChanges());
+        assertTrue(diff.isReordered());
+        assertEquals(0, diff.getChangedRows().length);
+        assertEquals(2, diff.getPreviousIndex(0));
+        assertEquals(0, diff.getPreviousIndex(1));
+        assertEquals(1, diff.getPreviousIndex(2));
+        assertEquals(3, diff.getPreviousIndex(3));
+    }
+
+    @Test
+    public void removalKeepingOrderIsNotReordered() {
+        StructureTable previous = corridor(0, 1, 2, 3);
+        StructureTable current = corridor(0, 2, 3, 4);
+
+        StructureDiff diff = diff(previous, current);
+
+        assertFalse(diff.isReordered());
+        assertArrayEquals(new int[]{3}, diff.getAdded());
+        assertArrayEquals(new int[]{1}, diff.getRemoved());
+        assertEquals(0, diff.getModified().length);
+    }
+
+    @Test
+    public void changedHeightIsModified() {
+        StructureTable previous = corridor(0, 1, 2);
+        StructureTable current = new StructureTable();
+        for (int i = 0; i < previous.size(); i++) {
+            current.add(previous.getLatitude(i), previous.getLongitude(i), previous.getGroundAltitude(i),
+                    i == 1 ? previous.getStructureHeight(i) + 5 : previous.getStructureHeight(i));
+        }
+
+        StructureDiff diff = diff(previous, current);
+
+        assertTrue(diff.hasChanges());
+        assertArrayEquals(new int[]{1}, diff.getModified());
+        assertArrayEquals(new int[]{1}, diff.getChangedRows());
+    }
+
+    private static StructureDiff diff(StructureTable previous, StructureTable current) {
+        return StructureDiff.compute(previous, previous.computeRowHashes(),
+                current, current.computeRowHashes());
+    }
+
+    /** Structures 100 m apart along a line, in the given order of their positions. */
+    private static StructureTable corridor(int... positions) {
+        StructureTable table = new StructureTable();
+        for (int position : positions) {
+            table.add(38.7 + position * 0.0009, -9.1, 12, 25);
+        }
+        return table;
+    }
+}
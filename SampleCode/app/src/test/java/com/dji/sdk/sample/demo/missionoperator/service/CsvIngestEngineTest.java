@@ -0,0 +1,178 @@
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CsvIngestEngineTest {
+
+    @Test
+    public void headerAliasesMapColumnsInAnyOrder() throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = parseStructures(
+                "Structure Height,Longitude,LAT,ground_alt\n" +
+                        "25,-9.1,38.7,3.5\n", rows);
+
+        assertTrue(report.isHeaderMapped());
+        assertEquals(1, report.getRowsAccepted());
+        assertArrayEquals(new double[]{38.7, -9.1, 3.5, 25}, rows.get(0), 0);
+    }
+
+    @Test
+    public void unknownHeaderFallsBackToColumnOrder() throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = parseStructures("a,b,c,d\n38.7,-9.1,3.5,25\n", rows);
+
+        assertFalse(report.isHeaderMapped());
+        assertEquals(0, report.getRowsRejected());
+        assertArrayEquals(new double[]{38.7, -9.1, 3.5, 25}, rows.get(0), 0);
+    }
+
+    @Test
+    public void semicolonDelimiterAcceptsDecimalCommas() throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = parseStructures(
+                "lat;lon;elevation;height\n38,7;-9,125;0;25,5\n", rows);
+
+        assertEquals(1, report.getRowsAccepted());
+        assertArrayEquals(new double[]{38.7, -9.125, 0, 25.5}, rows.get(0), 1e-12);
+    }
+
+    @Test
+    public void tabDelimiterWithCrLfAndByteOrderMark() throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = parseStructures(
+                "\uFEFFlat\tlon\televation\theight\r\n38.7\t-9.1\t1\t20\r\n38.8\t-9.2\t2\t21\r\n", rows);
+
+        assertTrue(report.isHeaderMapped());
+        assertEquals(2, rows.size());
+        assertArrayEquals(new double[]{38.8, -9.2, 2, 21}, rows.get(1), 0);
+    }
+
+    @Test
+    public void quotedFieldsKeepDelimitersQuotesAndNewlines() throws IOException {
+        List<String> zones = new ArrayList<>();
+        List<double[]> points = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = CsvIngestEngine.forGeofences().parse(new StringReader(
+                "zone,lat,lon\n" +
+                        "\"north, \"\"A\"\"\",\"38.5\",-9.5\n" +
+                        "\"two\nlines\",38.6,-9.6\n"), row -> {
+            zones.add(row.getString(0));
+            points.add(new double[]{row.getDouble(1), row.getDouble(2)});
+        });
+
+        assertEquals(2, report.getRowsAccepted());
+        assertEquals("north, \"A\"", zones.get(0));
+        assertEquals("two\nlines", zones.get(1));
+        assertArrayEquals(new double[]{38.5, -9.5}, points.get(0), 0);
+    }
+
+    @Test
+    public void rejectedRowsAreReportedWithLineNumbers() throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = parseStructures(
+                "lat,lon,elevation,height\n" +
+                        "38.7,-9.1,0,25\n" +
+                        "38.7,-9.1\n" +
+                        "\n" +
+                        "38.7,abc,0,25\n" +
+                        "38.7,-9.1,,25\n" +
+                        "38.8,-9.2,0,26\n", rows);
+
+        assertEquals(2, report.getRowsAccepted());
+        assertEquals(3, report.getRowsRejected());
+        String summary = report.getErrorSummary();
+        assertTrue(summary, summary.contains("line 3: expected 4 columns, found 2"));
+        assertTrue(summary, summary.contains("line 5: invalid number 'abc' for lon"));
+        assertTrue(summary, summary.contains("line 6: empty value for elevation_diff"));
+    }
+
+    @Test
+    public void handlerRejectionsAreReported() throws IOException {
+        CsvIngestEngine.ImportReport report = CsvIngestEngine.forStructures().parse(new StringReader(
+                "lat,lon,elevation,height\n38.7,-9.1,0,25\n95,-9.1,0,25\n"), row -> {
+            if (Math.abs(row.getDouble(0)) > 90) {
+                throw new IllegalArgumentException("latitude out of range");
+            }
+        });
+
+        assertEquals(1, report.getRowsAccepted());
+        assertTrue(report.getErrorSummary().contains("line 3: latitude out of range"));
+    }
+
+    @Test
+    public void exponentsAndLongMantissasUseTheSlowPath() throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        parseStructures("lat,lon,elevation,height\n3.87e1,-9.123456789012345678,-1E-1,+25\n", rows);
+
+        assertArrayEquals(new double[]{38.7, -9.123456789012345678, -0.1, 25}, rows.get(0), 1e-12);
+    }
+
+    @Test
+    public void nonFiniteAndNonDecimalNumbersAreRejected() throws IOException {
+        String[] values = {"NaN", "-Infinity", "Infinity", "0x1p3", "1.5d", "2f", "1e400"};
+        for (String value : values) {
+            List<double[]> rows = new ArrayList<>();
+            CsvIngestEngine.ImportReport report = parseStructures(
+                    "lat,lon,elevation,height\n" + value + ",-9.1,0,25\n", rows);
+
+            assertEquals(value, 0, report.getRowsAccepted());
+            assertEquals(value, 1, report.getRowsRejected());
+        }
+    }
+
+    @Test
+    public void parallelParseMatchesSequentialOrder() throws IOException {
+        StringBuilder csv = new StringBuilder("lat,lon,elevation,height\n");
+        for (int i = 0; i < 5000; i++) {
+            csv.append(i % 997 == 0 ? "bad" : String.valueOf(38 + i * 1e-5)).append(",-9.1,")
+                    .append(i % 50).append(",25\n");
+        }
+
+        List<double[]> sequential = new ArrayList<>();
+        CsvIngestEngine.ImportReport expected = parseStructures(csv.toString(), sequential);
+
+        List<RowCollector> chunks = new ArrayList<>();
+        CsvIngestEngine.ImportReport report = CsvIngestEngine.forStructures().parseParallel(
+                ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.UTF_8)), 4,
+                RowCollector::new, chunks, null, null);
+
+        List<double[]> parallel = new ArrayList<>();
+        for (RowCollector chunk : chunks) {
+            parallel.addAll(chunk.rows);
+        }
+
+        assertTrue(chunks.size() > 1);
+        assertEquals(expected.getRowsAccepted(), report.getRowsAccepted());
+        assertEquals(expected.getRowsRejected(), report.getRowsRejected());
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertArrayEquals(sequential.get(i), parallel.get(i), 0);
+        }
+    }
+
+    private static CsvIngestEngine.ImportReport parseStructures(String csv, List<double[]> rows)
+            throws IOException {
+        return CsvIngestEngine.forStructures().parse(new StringReader(csv), row -> rows.add(new double[]{
+                row.getDouble(0), row.getDouble(1), row.getDouble(2), row.getDouble(3)}));
+    }
+
+    private static class RowCollector implements CsvIngestEngine.RowHandler {
+        final List<double[]> rows = new ArrayList<>();
+
+        @Override
+        public void onRow(CsvIngestEngine.Row row) {
+            rows.add(new double[]{row.getDouble(0), row.getDouble(1), row.getDouble(2), row.getDouble(3)});
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetryRecorderTest {
+
+    @Test
+    public void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(64, new TelemetryRecorder(50).getCapacity());
+        assertEquals(4096, new TelemetryRecorder().getCapacity());
+    }
+
+    @Test
+    public void readLatestReturnsNewestSamplesAfterWrapping() {
+        TelemetryRecorder recorder = new TelemetryRecorder(16);
+        for (long sample = 0; sample < 40; sample++) {
+            record(recorder, sample);
+        }
+        TelemetryRecorder.Snapshot snapshot = new TelemetryRecorder.Snapshot(10);
+
+        assertEquals(10, recorder.readLatest(snapshot));
+        assertEquals(30, snapshot.getFirstSequence());
+        for (int i = 0; i < snapshot.size(); i++) {
+            assertSample(snapshot, i);
+        }
+    }
+
+    @Test
+    public void readSinceSkipsOverwrittenSamples() {
+        TelemetryRecorder recorder = new TelemetryRecorder(16);
+        for (long sample = 0; sample < 40; sample++) {
+            record(recorder, sample);
+        }
+        TelemetryRecorder.Snapshot snapshot = new TelemetryRecorder.Snapshot(32);
+
+        assertEquals(16, recorder.readSince(5, snapshot));
+        assertEquals(24, snapshot.getFirstSequence());
+        assertEquals(40, snapshot.getNextSequence());
+        assertEquals(0, recorder.readSince(40, snapshot));
+    }
+
+    @Test
+    public void gimbalAndBatteryAreStampedOnNextSample() {
+        TelemetryRecorder recorder = new TelemetryRecorder(8);
+        recorder.updateGimbal(-45, 0, 90);
+        recorder.updateBattery(73);
+        record(recorder, 1);
+        TelemetryRecorder.Snapshot snapshot = new TelemetryRecorder.Snapshot(1);
+
+        recorder.readLatest(snapshot);
+
+        assertEquals(-45, snapshot.getGimbalPitch(0), 0);
+        assertEquals(90, snapshot.getGimbalYaw(0), 0);
+        assertEquals(73, snapshot.getBatteryPercent(0));
+    }
+
+    @Test
+    public void findNearestPicksClosestTime() {
+        TelemetryRecorder recorder = new TelemetryRecorder(16);
+        for (long sample = 0; sample < 10; sample++) {
+            record(recorder, sample * 100);
+        }
+        TelemetryRecorder.Snapshot snapshot = new TelemetryRecorder.Snapshot(16);
+        recorder.readLatest(snapshot);
+
+        assertEquals(3, snapshot.findNearest(340));
+        assertEquals(4, snapshot.findNearest(360));
+        assertEquals(0, snapshot.findNearest(-50));
+        assertEquals(9, snapshot.findNearest(5000));
+    }
+
+    @Test
+    public void concurrentReadersNeverSeeTornSamples() throws InterruptedException {
+        TelemetryRecorder recorder = new TelemetryRecorder(64);
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong checked = new AtomicLong();
+        AtomicLong inconsistent = new AtomicLong();
+
+        Thread reader = new Thread(() -> {
+            TelemetryRecorder.Snapshot snapshot = new TelemetryRecorder.Snapshot(64);
+            while (!stop.get()) {
+                int count = recorder.readLatest(snapshot);
+                for (int i = 0; i < count; i++) {
+                    if (!isConsistent(snapshot, i)) {
+                        inconsistent.incrementAndGet();
+                    }
+                }
+                checked.addAndGet(count);
+            }
+        });
+        Thread writer = new Thread(() -> {
+            for (long sample = 0; !stop.get(); sample++) {
+                record(recorder, sample);
+            }
+        });
+        reader.start();
+        writer.start();
+        Thread.sleep(500);
+        stop.set(true);
+        writer.join();
+        reader.join();
+
+        assertTrue(checked.get() > 0);
+        assertEquals(0, inconsistent.get());
+    }
+
+    /** Every field of sample {@code s} is derived from {@code s}, so a torn copy shows. */
+    private static void record(TelemetryRecorder recorder, long sample) {
+        float value = sample;
+        recorder.record(sample, sample * 1e-6, -sample * 1e-6, value, value, value, value,
+                value, value, value, (int) (sample & 31), (int) (sample % 6));
+    }
+
+    private static void assertSample(TelemetryRecorder.Snapshot snapshot, int index) {
+        assertTrue("Sample " + index + " does not match its sequence", isConsistent(snapshot, index));
+    }
+
+    private static boolean isConsistent(TelemetryRecorder.Snapshot snapshot, int index) {
+        long sequence = snapshot.getFirstSequence() + index;
+        return snapshot.getTime(index) == sequence &&
+                snapshot.getLatitude(index) == sequence * 1e-6 &&
+                snapshot.getLongitude(index) == -sequence * 1e-6 &&
+                snapshot.getAltitude(index) == (float) sequence &&
+                snapshot.getYaw(index) == (float) sequence &&
+                snapshot.getSatelliteCount(index) == (sequence & 31) &&
+                snapshot.getGpsLevel(index) == sequence % 6;
+    }
+}
@@ -0,0 +1,151 @@
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TerrainServiceTest {
+    private static final int TILE_SIZE = 1201;
+    private static final int LAST = TILE_SIZE - 1;
+    private static final short VOID = -32768;
+
+    // Void sample and 2x2 void block in N38W010
+    private static final int VOID_ROW = 100;
+    private static final int VOID_COL = 200;
+    private static final int VOID_BLOCK = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TerrainService terrain;
+
+    /**
+     * Two tiles side by side, N38W010 and N38W009, on one plane rising
+     * 1 m per sample row (southward) and 2 m per sample column (eastward),
+     * so bilinear lookups are exact and the shared edge column matches.
+     */
+    @Before
+    public void setUp() throws IOException {
+        writeTile(new File(folder.getRoot(), "N38W010.hgt"), 0, true);
+        writeTile(new File(folder.getRoot(), "N38W009.hgt"), LAST, false);
+        terrain = new TerrainService(folder.getRoot());
+    }
+
+    @Test
+    public void samplesAndBilinearInterpolation() {
+        assertTrue(terrain.isAvailable());
+        assertEquals(plane(300, 400, 0), terrain.getElevation(latitude(300), longitude(-10, 400)), 1e-6);
+        assertEquals(plane(300.5, 400.25, 0),
+                terrain.getElevation(latitude(300.5), longitude(-10, 400.25)), 1e-6);
+    }
+
+    @Test
+    public void tileBoundaries() {
+        // South-west corner and the last row and column of a tile
+        assertEquals(plane(LAST, 0, 0), terrain.getElevation(38, -10), 1e-6);
+        assertEquals(plane(LAST, LAST - 1e-6, 0), terrain.getElevation(38, -9 - 1e-9), 1e-3);
+
+        // The edge shared by both tiles reads the same from either side
+        double west = terrain.getElevation(latitude(600), -9 - 1e-12);
+        double east = terrain.getElevation(latitude(600), -9);
+        assertEquals(plane(600, LAST, 0), east, 1e-6);
+        assertEquals(east, west, 1e-3);
+
+        // North edge belongs to N39W010, which is not on disk
+        assertTrue(Double.isNaN(terrain.getElevation(39, -9.5)));
+        assertTrue(Double.isNaN(terrain.getElevation(37.5, -9.5)));
+    }
+
+    @Test
+    public void voidsAreSkipped() {
+        // A void corner is left out and the other three are renormalized
+        double expected = (plane(VOID_ROW, VOID_COL + 1, 0) + plane(VOID_ROW + 1, VOID_COL, 0) +
+                plane(VOID_ROW + 1, VOID_COL + 1, 0)) / 3;
+        assertEquals(expected, terrain.getElevation(latitude(VOID_ROW + 0.5), longitude(-10, VOID_COL + 0.5)), 1e-6);
+
+        // Inside a cell of voids there is no data
+        assertTrue(Double.isNaN(terrain.getElevation(latitude(VOID_BLOCK + 0.5), longitude(-10, VOID_BLOCK + 0.5))));
+    }
+
+    @Test
+    public void batchLookupCountsPointsWithData() {
+        double[] latitudes = {latitude(10), latitude(VOID_BLOCK + 0.5), 39.5, latitude(20)};
+        double[] longitudes = {longitude(-10, 10), longitude(-10, VOID_BLOCK + 0.5), -9.5, longitude(-9, 20)};
+        double[] elevations = new double[4];
+
+        assertEquals(2, terrain.getElevations(latitudes, longitudes, 4, elevations));
+        assertEquals(plane(10, 10, 0), elevations[0], 1e-6);
+        assertTrue(Double.isNaN(elevations[1]));
+        assertTrue(Double.isNaN(elevations[2]));
+        assertEquals(plane(20, 20, LAST), elevations[3], 1e-6);
+    }
+
+    /**
+     * A new takeoff reference must be applied to the table as imported; a
+     * filled table has no zero rows left and keeps the old reference.
+     */
+    @Test
+    public void refillFromImportedTableFollowsNewReference() {
+        StructureTable imported = new StructureTable();
+        imported.add(latitude(10), longitude(-10, 10), 0, 30);
+        imported.add(latitude(20), longitude(-9, 20), 0, 30);
+        imported.add(latitude(30), longitude(-10, 30), 12.5f, 30);   // Set in the file
+        imported.add(39.5, -9.5, 0, 30);                              // No terrain data
+
+        StructureTable first = terrain.fillGroundAltitudes(imported, 100);
+        StructureTable second = terrain.fillGroundAltitudes(imported, 150);
+
+        assertEquals(plane(10, 10, 0) - 100, first.getGroundAltitude(0), 1e-3);
+        assertEquals(plane(10, 10, 0) - 150, second.getGroundAltitude(0), 1e-3);
+        assertEquals(plane(20, 20, LAST) - 150, second.getGroundAltitude(1), 1e-3);
+        assertEquals(12.5f, second.getGroundAltitude(2), 0);
+        assertEquals(0, second.getGroundAltitude(3), 0);
+
+        // The imported table itself is never touched
+        assertEquals(0, imported.getGroundAltitude(0), 0);
+
+        // Re-filling the filled table would keep the first reference
+        StructureTable stale = terrain.fillGroundAltitudes(first, 150);
+        assertSame(first, stale);
+        assertFalse(stale.getGroundAltitude(0) == second.getGroundAltitude(0));
+    }
+
+    private static double plane(double row, double col, int colOffset) {
+        return 1000 + row + 2 * (col + colOffset);
+    }
+
+    private static double latitude(double row) {
+        return 39 - row / LAST;
+    }
+
+    private static double longitude(int lonFloor, double col) {
+        return lonFloor + col / LAST;
+    }
+
+    private static void writeTile(File file, int colOffset, boolean withVoids) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int row = 0; row < TILE_SIZE; row++) {
+                for (int col = 0; col < TILE_SIZE; col++) {
+                    boolean isVoid = withVoids && ((row == VOID_ROW && col == VOID_COL) ||
+                            (row >= VOID_BLOCK && row <= VOID_BLOCK + 1 && col >= VOID_BLOCK && col <= VOID_BLOCK + 1));
+                    out.writeShort(isVoid ? VOID : (short) plane(row, col, colOffset));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransitAltitudePlannerTest {
+    private static final double METERS_PER_DEGREE_LATITUDE = 110950;   // WGS84 meridian at 38.5 N
+    private static final int TILE_SIZE = 1201;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void levelSpanSagsByLengthSquaredOverEightA() {
+        StructureTable structures = line(300, 0, 30, 0, 30);
+
+        TransitAltitudePlanner.Leg leg = new TransitAltitudePlanner(structures)
+                .setSagParameter(1000)
+                .plan(0, 1);
+
+        double sag = 300.0 * 300.0 / (8 * 1000);
+        assertEquals(300, leg.getSpan(), 1);
+        assertEquals(30 - sag, leg.getLowestConductor(), 0.1);
+        assertEquals(40, leg.getDepartureAltitude(), 1e-3);
+        assertEquals(40, leg.getArrivalAltitude(), 1e-3);
+        assertEquals(0, leg.getLift(), 1e-3);
+    }
+
+    @Test
+    public void unevenTopsClimbWithTheLine() {
+        StructureTable structures = line(400, 0, 45, 30, 45);
+
+        TransitAltitudePlanner planner = new TransitAltitudePlanner(structures);
+        TransitAltitudePlanner.Leg leg = planner.plan(0, 1);
+
+        assertEquals(55, leg.getDepartureAltitude(), 1e-3);
+        assertEquals(85, leg.getArrivalAltitude(), 1e-3);
+        assertEquals(0, leg.getLift(), 1e-3);
+        assertTrue(leg.getLowestConductor() <= 45);
+
+        // A slacker conductor hangs lower but never above the straight profile
+        TransitAltitudePlanner.Leg slack = planner.setSagParameter(50).plan(0, 1);
+        assertTrue(slack.getLowestConductor() < leg.getLowestConductor());
+        assertEquals(0, slack.getLift(), 1e-3);
+    }
+
+    @Test
+    public void coincidentStructuresGiveAZeroSpanLeg() {
+        StructureTable structures = line(0, 0, 10, 0, 10);
+
+        TransitAltitudePlanner.Leg leg = new TransitAltitudePlanner(structures).plan(0, 1);
+
+        assertEquals(0, leg.getSpan(), 1e-3);
+        assertFalse(Float.isNaN(leg.getDepartureAltitude()));
+        assertEquals(20, leg.getDepartureAltitude(), 1e-3);
+        assertEquals(20, leg.getArrivalAltitude(), 1e-3);
+        assertEquals(10, leg.getLowestConductor(), 1e-3);
+    }
+
+    @Test
+    public void ridgeBetweenTowersLiftsTheLeg() throws IOException {
+        // Flat tile at 100 m with a 160 m ridge across latitudes 38.5008-38.5025
+        File directory = folder.newFolder("terrain");
+        writeTile(new File(directory, "N38W010.hgt"), 597, 599, (short) 160, (short) 100);
+        StructureTable structures = line(400, 0, 20, 0, 20);
+
+        TransitAltitudePlanner planner = new TransitAltitudePlanner(structures);
+        TransitAltitudePlanner.Leg flat = planner.plan(0, 1);
+        TransitAltitudePlanner.Leg lifted = planner.setTerrain(new TerrainService(directory), 100).plan(0, 1);
+
+        assertEquals(0, flat.getLift(), 1e-3);
+        assertEquals(30, lifted.getDepartureAltitude() - lifted.getLift(), 1e-3);
+        // Ridge 60 m above takeoff plus 15 m ground clearance
+        assertEquals(75, lifted.getDepartureAltitude(), 0.5);
+        assertEquals(lifted.getDepartureAltitude(), lifted.getArrivalAltitude(), 1e-3);
+    }
+
+    /** Two structures due north of each other, {@code span} meters apart. */
+    private static StructureTable line(double span, float groundFrom, float heightFrom,
+                                       float groundTo, float heightTo) {
+        StructureTable structures = new StructureTable();
+        structures.add(38.5, -9.5, groundFrom, heightFrom);
+        structures.add(38.5 + span / METERS_PER_DEGREE_LATITUDE, -9.5, groundTo, heightTo);
+        return structures;
+    }
+
+    /** SRTM3 tile with rows {@code [ridgeFrom, ridgeTo]} at {@code ridge}, elsewhere {@code ground}. */
+    private static void writeTile(File file, int ridgeFrom, int ridgeTo, short ridge, short ground)
+            throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int row = 0; row < TILE_SIZE; row++) {
+                short elevation = row >= ridgeFrom && row <= ridgeTo ? ridge : ground;
+                for (int col = 0; col < TILE_SIZE; col++) {
+                    out.writeShort(elevation);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.dji.sdk.sample.demo.missionoperator.service;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+import com.dji.sdk.sample.demo.missionoperator.utils.LocalTangentPlane;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WaypointPlanCompactorTest {
+    private static final float SAFETY_ALTITUDE = 40;
+
+    private final LocalTangentPlane plane = new LocalTangentPlane(38.5, -9.2, 0);
+
+    @Test
+    public void straightTransitRunIsDropped() {
+        WaypointPlan plan = new WaypointPlan();
+        plan.addSafety(latitude(0), longitude(0), SAFETY_ALTITUDE, -1);
+        plan.addSafety(latitude(10), longitude(0.1), SAFETY_ALTITUDE, 0);
+        plan.addSafety(latitude(20), longitude(-0.1), SAFETY_ALTITUDE, 0);
+        plan.addSafety(latitude(30), longitude(0), SAFETY_ALTITUDE, 0);
+        plan.addApproach(latitude(40), longitude(0), SAFETY_ALTITUDE, 0);
+        plan.addPhoto(latitude(40), longitude(5), SAFETY_ALTITUDE, 270, -30, 0, 0);
+
+        assertEquals(3, new WaypointPlanCompactor().compact(plan));
+        assertEquals(3, plan.size());
+        assertEquals(WaypointPlan.KIND_APPROACH, plan.getKind(1));
+    }
+
+    /**
+     * Two consecutive transit waypoints bend the path around an obstacle. Each
+     * is within the tolerance of the leg that skips just it, but the leg that
+     * skips both passes 0.6 m from the first one, so the second must stay.
+     */
+    @Test
+    public void nearCollinearPairBesideObstacleKeepsOneWaypoint() {
+        WaypointPlan plan = new WaypointPlan();
+        plan.addSafety(latitude(0), longitude(0), SAFETY_ALTITUDE, -1);
+        plan.addSafety(latitude(10), longitude(0), SAFETY_ALTITUDE, 0);     // clears the obstacle
+        plan.addSafety(latitude(20), longitude(0.9), SAFETY_ALTITUDE, 0);
+        plan.addApproach(latitude(30), longitude(1.8), SAFETY_ALTITUDE, 0);
+        plan.addPhoto(latitude(30), longitude(6.8), SAFETY_ALTITUDE, 270, -30, 0, 0);
+
+        assertEquals(1, new WaypointPlanCompactor().compact(plan));
+        assertEquals(4, plan.size());
+        assertEquals(20, plane.toNorth(plan.getLatitude(1)), 1e-6);
+        assertEquals(0.9, plane.toEast(plan.getLongitude(1)), 1e-6);
+        assertEquals(WaypointPlan.KIND_APPROACH, plan.getKind(2));
+    }
+
+    @Test
+    public void transitBelowTheLegIsKept() {
+        WaypointPlan plan = new WaypointPlan();
+        plan.addSafety(latitude(0), longitude(0), SAFETY_ALTITUDE, -1);
+        plan.addSafety(latitude(10), longitude(0), SAFETY_ALTITUDE + 5, 0);
+        plan.addSafety(latitude(20), longitude(0), SAFETY_ALTITUDE, 0);
+        plan.addApproach(latitude(30), longitude(0), SAFETY_ALTITUDE, 0);
+
+        // Dropping the raised waypoint would let the path sag 5 m below it
+        assertEquals(1, new WaypointPlanCompactor().compact(plan));
+        assertEquals(3, plan.size());
+        assertEquals(SAFETY_ALTITUDE + 5, plan.getAltitude(1), 1e-6);
+    }
+
+    private double latitude(double north) {
+        return plane.toLatitude(north);
+    }
+
+    private double longitude(double east) {
+        return plane.toLongitude(east);
+    }
+}
@@ -0,0 +1,127 @@
+package com.dji.sdk.sample.demo.missionoperator.storage;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MissionJournalTest {
+    private static final int RECORD_SIZE = 24;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysEveryIntactEvent() throws Exception {
+        WaypointPlan plan = plan();
+        File file = writeJournal(plan);
+
+        MissionJournal.Replay replay = MissionJournal.replay(file);
+
+        assertEquals(plan.hash(0, plan.size()), replay.getPlanHash());
+        assertEquals(plan.size(), replay.getPlan().size());
+        assertEquals(6, replay.getEventCount());
+        assertFalse(replay.isTorn());
+        assertEquals(0, replay.getSegment());
+        assertEquals(4, replay.getWaypoint());
+        assertEquals(2, replay.getDonePhotoCount());
+        assertEquals(5, replay.getFirstIncompletePhoto());
+        assertTrue(replay.isResumable());
+    }
+
+    @Test
+    public void tornTailRecordEndsTheReplay() throws Exception {
+        File file = writeJournal(plan());
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            // Flip a bit of the last record's photo row, as a write cut off by a crash would
+            long position = output.length() - RECORD_SIZE + 12;
+            output.seek(position);
+            int value = output.read();
+            output.seek(position);
+            output.write(value ^ 1);
+        }
+
+        MissionJournal.Replay replay = MissionJournal.replay(file);
+
+        assertTrue(replay.isTorn());
+        assertEquals(5, replay.getEventCount());
+        assertEquals(1, replay.getDonePhotoCount());
+        assertEquals(3, replay.getFirstIncompletePhoto());
+        assertTrue(replay.isResumable());
+    }
+
+    @Test
+    public void truncatedTailRecordEndsTheReplay() throws Exception {
+        File file = writeJournal(plan());
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(output.length() - RECORD_SIZE / 2);
+        }
+
+        MissionJournal.Replay replay = MissionJournal.replay(file);
+
+        assertTrue(replay.isTorn());
+        assertEquals(5, replay.getEventCount());
+        assertEquals(1, replay.getDonePhotoCount());
+        assertEquals(3, replay.getFirstIncompletePhoto());
+    }
+
+    @Test(expected = IOException.class)
+    public void damagedPlanIsRejected() throws Exception {
+        File file = writeJournal(plan());
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.seek(40);
+            output.write(output.read() ^ 1);
+        }
+
+        MissionJournal.replay(file);
+    }
+
+    @Test
+    public void missingJournalReplaysToNull() throws IOException {
+        assertNull(MissionJournal.replay(new File(folder.getRoot(), "none.plmj")));
+    }
+
+    /**
+     * Photos taken at rows 2 and 3; the last event is the photo of row 3.
+     */
+    private File writeJournal(WaypointPlan plan) throws Exception {
+        File file = new File(folder.getRoot(), "mission.plmj");
+        MissionJournal journal = new MissionJournal(file).setSyncDelayMillis(0);
+        journal.startPlan(plan);
+        journal.recordSegmentStarted(0, 1);
+        journal.recordWaypoint(2);
+        journal.recordPhotoTaken(2);
+        journal.recordWaypoint(3);
+        journal.recordWaypoint(4);
+        journal.recordPhotoTaken(3);
+        journal.close();
+        assertTrue(journal.awaitClosed(5, TimeUnit.SECONDS));
+        return file;
+    }
+
+    /**
+     * Two structures with two photo positions each: rows 2, 3, 5 and 6 are photos.
+     */
+    private static WaypointPlan plan() {
+        WaypointPlan plan = new WaypointPlan();
+        plan.addSafety(38.5, -9.2, 40, -1);
+        for (int structure = 0; structure < 2; structure++) {
+            double latitude = 38.5 + structure * 0.001;
+            plan.addApproach(latitude, -9.2, 40, structure);
+            plan.addPhoto(latitude, -9.2001, 35, 90, -30, structure, 0);
+            plan.addPhoto(latitude, -9.1999, 35, 270, -30, structure, 1);
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,92 @@
+package com.dji.sdk.sample.demo.missionoperator.storage;
+
+import com.dji.sdk.sample.demo.missionoperator.model.PhotoTemplateTable;
+import com.dji.sdk.sample.demo.missionoperator.model.StructureTable;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MissionPackFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readReturnsWhatWasWritten() throws IOException {
+        StructureTable structures = randomStructures(10000);
+        PhotoTemplateTable template = sampleTemplate();
+        File file = folder.newFile("mission" + MissionPackFile.EXTENSION);
+
+        MissionPackFile.write(file, structures, template);
+        MissionPackFile.Contents contents = MissionPackFile.read(file);
+
+        StructureTable readStructures = contents.getStructures();
+        assertEquals(structures.size(), readStructures.size());
+        for (int i = 0; i < structures.size(); i++) {
+            assertEquals(structures.getLatitude(i), readStructures.getLatitude(i), 0.0);
+            assertEquals(structures.getLongitude(i), readStructures.getLongitude(i), 0.0);
+            assertEquals(structures.getGroundAltitude(i), readStructures.getGroundAltitude(i), 0.0f);
+            assertEquals(structures.getStructureHeight(i), readStructures.getStructureHeight(i), 0.0f);
+        }
+
+        PhotoTemplateTable readTemplate = contents.getPhotoTemplate();
+        assertEquals(template.size(), readTemplate.size());
+        assertEquals(template.contentHash(), readTemplate.contentHash());
+        assertTrue(contents.getCreatedAt() > 0);
+    }
+
+    @Test
+    public void readRejectsCorruptedPayloadByte() throws IOException {
+        File file = folder.newFile("corrupt" + MissionPackFile.EXTENSION);
+        MissionPackFile.write(file, randomStructures(500), sampleTemplate());
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(100);
+            int original = raf.read();
+            raf.seek(100);
+            raf.write(original ^ 0x01);
+        }
+
+        try {
+            MissionPackFile.read(file);
+            fail("Corrupted pack was accepted");
+        } catch (IOException expected) {
+            // checksum mismatch
+        }
+    }
+
+    @Test
+    public void isMissionPackMatchesExtension() {
+        assertTrue(MissionPackFile.isMissionPack("job" + MissionPackFile.EXTENSION));
+        assertFalse(MissionPackFile.isMissionPack("job.csv"));
+    }
+
+    private static StructureTable randomStructures(int count) {
+        Random random = new Random(2);
+        StructureTable structures = new StructureTable(count);
+        for (int i = 0; i < count; i++) {
+            structures.add(38 + random.nextDouble(), -9 + random.nextDouble(),
+                    random.nextFloat() * 10, 20 + random.nextFloat());
+        }
+        return structures;
+    }
+
+    private static PhotoTemplateTable sampleTemplate() {
+        PhotoTemplateTable template = new PhotoTemplateTable();
+        for (int i = 0; i < 12; i++) {
+            template.add(i, -i, 2 * i, -45);
+        }
+        return template;
+    }
+}
@@ -0,0 +1,62 @@
+package com.dji.sdk.sample.demo.missionoperator.utils;
+
+import com.dji.sdk.sample.demo.missionoperator.model.WaypointPlan;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeofenceIndexTest {
+    private GeofenceIndex index;
+
+    @Before
+    public void setUp() {
+        // Zone 7: a ~1 km square around (38.5, -9.5); zone 8 has two vertices and is dropped
+        index = new GeofenceIndex.Builder()
+                .addVertex(7, 38.495, -9.505)
+                .addVertex(7, 38.495, -9.495)
+                .addVertex(7, 38.505, -9.495)
+                .addVertex(7, 38.505, -9.505)
+                .addVertex(8, 38.6, -9.6)
+                .addVertex(8, 38.61, -9.6)
+                .build();
+    }
+
+    @Test
+    public void degeneratePolygonIsDropped() {
+        assertEquals(1, index.size());
+        assertEquals(7, index.getZoneId(0));
+    }
+
+    @Test
+    public void findsContainingPolygon() {
+        assertEquals(0, index.findContaining(38.5, -9.5));
+        assertEquals(-1, index.findContaining(38.51, -9.5));
+    }
+
+    @Test
+    public void legThroughZoneIsAViolation() {
+        assertEquals(0, index.findLegViolation(38.49, -9.5, 38.51, -9.5));
+        assertEquals(-1, index.findLegViolation(38.49, -9.51, 38.49, -9.49));
+    }
+
+    @Test
+    public void validatePlanReportsLegsAndWaypoints() {
+        WaypointPlan plan = new WaypointPlan();
+        plan.addSafety(38.49, -9.5, 30, 0);
+        plan.addSafety(38.51, -9.5, 30, 0);
+        plan.addSafety(38.5, -9.5, 30, 0);
+
+        GeofenceIndex.Violations violations = index.validatePlan(plan);
+
+        assertEquals(3, violations.size());
+        assertEquals(0, violations.getRow(0));
+        assertTrue(violations.isLeg(0));
+        assertEquals(2, violations.getRow(2));
+        assertFalse(violations.isLeg(2));
+        assertEquals(7, violations.getZoneId(2));
+    }
+}
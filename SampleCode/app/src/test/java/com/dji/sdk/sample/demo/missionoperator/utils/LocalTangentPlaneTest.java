@@ -0,0 +1,71 @@
+package com.dji.sdk.sample.demo.missionoperator.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocalTangentPlaneTest {
+    private static final double WGS84_A = 6378137.0;
+    private static final double WGS84_F = 1 / 298.257223563;
+    private static final double WGS84_E2 = WGS84_F * (2 - WGS84_F);
+    private static final double METERS_PER_DEGREE_LATITUDE = 111000;
+
+    @Test
+    public void photoOffsetsMatchExactConversionWithinAMillimeter() {
+        for (double originLatitude = -60; originLatitude <= 60; originLatitude += 20) {
+            LocalTangentPlane plane = new LocalTangentPlane(originLatitude, -8, 30);
+            double metersPerDegreeLongitude = METERS_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(originLatitude));
+
+            double[] exact = enuToGeodetic(originLatitude, -8, 30, 25, 25, -5);
+
+            assertEquals(0, (plane.toLatitude(25) - exact[0]) * METERS_PER_DEGREE_LATITUDE, 1e-3);
+            assertEquals(0, (plane.toLongitude(25) - exact[1]) * metersPerDegreeLongitude, 1e-3);
+        }
+    }
+
+    @Test
+    public void batchProjectionMatchesSinglePointConversion() {
+        LocalTangentPlane plane = new LocalTangentPlane(40, -8, 30);
+        float[] east = {10, -3.5f, 0};
+        float[] north = {10, 7, -12};
+        float[] up = {-5, 2, 0};
+        double[] latitude = new double[3];
+        double[] longitude = new double[3];
+        float[] altitude = new float[3];
+
+        plane.project(east, north, up, 3, latitude, longitude, altitude);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(plane.toLatitude(north[i]), latitude[i], 1e-12);
+            assertEquals(plane.toLongitude(east[i]), longitude[i], 1e-12);
+            assertEquals(plane.toAltitude(up[i]), altitude[i], 1e-4f);
+        }
+    }
+
+    /** East/north/up offsets to latitude/longitude through ECEF, iterated to convergence. */
+    private static double[] enuToGeodetic(double latitude0, double longitude0, double height0,
+                                          double east, double north, double up) {
+        double phi = Math.toRadians(latitude0);
+        double lambda = Math.toRadians(longitude0);
+        double n0 = WGS84_A / Math.sqrt(1 - WGS84_E2 * Math.sin(phi) * Math.sin(phi));
+        double x0 = (n0 + height0) * Math.cos(phi) * Math.cos(lambda);
+        double y0 = (n0 + height0) * Math.cos(phi) * Math.sin(lambda);
+        double z0 = (n0 * (1 - WGS84_E2) + height0) * Math.sin(phi);
+
+        double x = x0 - Math.sin(lambda) * east - Math.sin(phi) * Math.cos(lambda) * north
+                + Math.cos(phi) * Math.cos(lambda) * up;
+        double y = y0 + Math.cos(lambda) * east - Math.sin(phi) * Math.sin(lambda) * north
+                + Math.cos(phi) * Math.sin(lambda) * up;
+        double z = z0 + Math.cos(phi) * north + Math.sin(phi) * up;
+
+        double longitude = Math.atan2(y, x);
+        double r = Math.hypot(x, y);
+        double latitude = Math.atan2(z, r * (1 - WGS84_E2));
+        for (int i = 0; i < 10; i++) {
+            double n = WGS84_A / Math.sqrt(1 - WGS84_E2 * Math.sin(latitude) * Math.sin(latitude));
+            double height = r / Math.cos(latitude) - n;
+            latitude = Math.atan2(z, r * (1 - WGS84_E2 * n / (n + height)));
+        }
+        return new double[]{Math.toDegrees(latitude), Math.toDegrees(longitude)};
+    }
+}